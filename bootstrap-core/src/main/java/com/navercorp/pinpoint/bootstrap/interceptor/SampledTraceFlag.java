@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.interceptor;
+
+/**
+ * whether the current thread has a sampled trace.
+ * the injected code of a {@link SampledTraceOnlyInterceptor} checks this flag before building the arguments of the interceptor,
+ * so an unsampled call does not allocate anything.
+ * the flag is maintained by the trace factory whenever a trace is bound to or removed from the thread.
+ *
+ * @author agent
+ */
+public final class SampledTraceFlag {
+
+    private static final ThreadLocal<Boolean> SAMPLED = new ThreadLocal<Boolean>();
+
+    private SampledTraceFlag() {
+    }
+
+    public static boolean isSampled() {
+        return SAMPLED.get() != null;
+    }
+
+    public static void set(boolean sampled) {
+        if (sampled) {
+            SAMPLED.set(Boolean.TRUE);
+        } else {
+            SAMPLED.remove();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.interceptor;
+
+/**
+ * marker of an interceptor which does nothing unless the current thread has a sampled trace.
+ * before and after of the interceptor are skipped by the injected code when {@link SampledTraceFlag#isSampled()} is false.
+ * the flag is checked independently at each call site, so the intercepted method must not start or end the trace.
+ *
+ * @author agent
+ */
+public interface SampledTraceOnlyInterceptor extends Interceptor {
+}
@@ -53,9 +53,9 @@ public class ProfilableClassFilter implements Filter<String> {
         if (profileInclude.contains(className)) {
             return true;
         } else {
-            final String packageName = className.substring(0, className.lastIndexOf("/") + 1);
+            // pkg ends with '/', so the class name starts with pkg only if its package does. no need to cut the package name
             for (String pkg : profileIncludeSub) {
-                if (packageName.startsWith(pkg)) {
+                if (className.startsWith(pkg)) {
                     return true;
                 }
             }
@@ -103,6 +103,21 @@ public class ProfilerConfig {
 
     private boolean tcpDataSenderCommandAcceptEnable = false;
 
+    private String dataSenderQueueType = "LINKED";
+    private int dataSenderDrainMaxSize = 10;
+    private int dataSenderDrainMinSize = 1;
+    private long dataSenderLingerTime = 0;
+    private boolean dataSenderUdpNio = false;
+    private boolean dataSenderUdpNioGatheringWrite = false;
+    private boolean dataSenderSpoolEnable = false;
+    private String dataSenderSpoolDirectory = "";
+    private int dataSenderSpoolSize = 1024 * 1024 * 64;
+    private int dataSenderSpoolReplayRate = 1000;
+
+    private int pluginSetupThreadCount = 0;
+
+    private int classPoolMaxCachedClassSize = 1024;
+
     private int jdbcSqlCacheSize = 1024;
     private int jdbcMaxSqlBindValueSize = 1024;
     private boolean jdbcProfile = true;
@@ -199,6 +214,11 @@ public class ProfilerConfig {
     // Sampling
     private boolean samplingEnable = true;
     private int samplingRate = 1;
+    private String samplingType = "RATE";
+    private int samplingAdaptiveTargetTps = 100;
+    private boolean samplingAdaptiveKeepErrorOrSlow = false;
+    private int samplingAdaptiveProvisionalTps = 10;
+    private long samplingAdaptiveSlowThreshold = 3000;
 
     // span buffering
     private boolean ioBufferingEnable;
@@ -276,6 +296,54 @@ public class ProfilerConfig {
         return tcpDataSenderCommandAcceptEnable;
     }
 
+    public String getDataSenderQueueType() {
+        return dataSenderQueueType;
+    }
+
+    public int getDataSenderDrainMaxSize() {
+        return dataSenderDrainMaxSize;
+    }
+
+    public int getDataSenderDrainMinSize() {
+        return dataSenderDrainMinSize;
+    }
+
+    public long getDataSenderLingerTime() {
+        return dataSenderLingerTime;
+    }
+
+    public boolean isDataSenderUdpNio() {
+        return dataSenderUdpNio;
+    }
+
+    public boolean isDataSenderUdpNioGatheringWrite() {
+        return dataSenderUdpNioGatheringWrite;
+    }
+
+    public boolean isDataSenderSpoolEnable() {
+        return dataSenderSpoolEnable;
+    }
+
+    public String getDataSenderSpoolDirectory() {
+        return dataSenderSpoolDirectory;
+    }
+
+    public int getDataSenderSpoolSize() {
+        return dataSenderSpoolSize;
+    }
+
+    public int getDataSenderSpoolReplayRate() {
+        return dataSenderSpoolReplayRate;
+    }
+
+    public int getPluginSetupThreadCount() {
+        return pluginSetupThreadCount;
+    }
+
+    public int getClassPoolMaxCachedClassSize() {
+        return classPoolMaxCachedClassSize;
+    }
+
     public int getSpanDataSenderSocketTimeout() {
         return spanDataSenderSocketTimeout;
     }
@@ -383,6 +451,26 @@ public class ProfilerConfig {
         return samplingRate;
     }
 
+    public String getSamplingType() {
+        return samplingType;
+    }
+
+    public int getSamplingAdaptiveTargetTps() {
+        return samplingAdaptiveTargetTps;
+    }
+
+    public boolean isSamplingAdaptiveKeepErrorOrSlow() {
+        return samplingAdaptiveKeepErrorOrSlow;
+    }
+
+    public int getSamplingAdaptiveProvisionalTps() {
+        return samplingAdaptiveProvisionalTps;
+    }
+
+    public long getSamplingAdaptiveSlowThreshold() {
+        return samplingAdaptiveSlowThreshold;
+    }
+
     public boolean isIoBufferingEnable() {
         return ioBufferingEnable;
     }
@@ -643,6 +731,28 @@ public class ProfilerConfig {
 
         this.tcpDataSenderCommandAcceptEnable = readBoolean("profiler.tcpdatasender.command.accept.enable", false);
 
+        // LINKED or RINGBUFFER
+        this.dataSenderQueueType = readString("profiler.datasender.queue.type", "LINKED");
+        // the sender thread drains between min.size and max.size items per pass, following the smoothed queue depth.
+        // if fewer than min.size items are queued, it waits up to linger.time(ms) to fill the batch.
+        this.dataSenderDrainMaxSize = readInt("profiler.datasender.drain.max.size", 10);
+        this.dataSenderDrainMinSize = readInt("profiler.datasender.drain.min.size", 1);
+        this.dataSenderLingerTime = readLong("profiler.datasender.linger.time", 0);
+        // DatagramChannel + pooled direct buffer. gathering write needs collector-ChunkedUDPReceiver
+        this.dataSenderUdpNio = readBoolean("profiler.datasender.udp.nio", false);
+        this.dataSenderUdpNioGatheringWrite = readBoolean("profiler.datasender.udp.nio.gatheringwrite", false);
+        // keep overflowed data in a memory-mapped file. replayed at replay.rate(per second)
+        this.dataSenderSpoolEnable = readBoolean("profiler.datasender.spool.enable", false);
+        this.dataSenderSpoolDirectory = readString("profiler.datasender.spool.dir", "");
+        this.dataSenderSpoolSize = readInt("profiler.datasender.spool.size", 1024 * 1024 * 64);
+        this.dataSenderSpoolReplayRate = readInt("profiler.datasender.spool.replay.rate", 1000);
+
+        // plugins are set up in parallel. 0 is the number of processors, 1 sets up on the premain thread
+        this.pluginSetupThreadCount = readInt("profiler.plugin.setup.thread.count", 0);
+
+        // CtClass size cached by the javassist class pool of each class loader. -1 is unbounded
+        this.classPoolMaxCachedClassSize = readInt("profiler.instrument.classpool.max.cached.class.size", 1024);
+
         // JDBC
         this.jdbcProfile = readBoolean("profiler.jdbc", true);
 
@@ -762,6 +872,12 @@ public class ProfilerConfig {
 
         this.samplingEnable = readBoolean("profiler.sampling.enable", true);
         this.samplingRate = readInt("profiler.sampling.rate", 1);
+        // RATE : 1 out of profiler.sampling.rate, ADAPTIVE : up to target.tps transactions per second
+        this.samplingType = readString("profiler.sampling.type", "RATE");
+        this.samplingAdaptiveTargetTps = readInt("profiler.sampling.adaptive.target.tps", 100);
+        this.samplingAdaptiveKeepErrorOrSlow = readBoolean("profiler.sampling.adaptive.keep.error.slow", false);
+        this.samplingAdaptiveProvisionalTps = readInt("profiler.sampling.adaptive.provisional.tps", 10);
+        this.samplingAdaptiveSlowThreshold = readLong("profiler.sampling.adaptive.slow.threshold", 3000);
 
         // configuration for sampling and IO buffer 
         this.ioBufferingEnable = readBoolean("profiler.io.buffering.enable", true);
@@ -882,6 +998,18 @@ public class ProfilerConfig {
         sb.append(", statDataSenderSocketTimeout=").append(statDataSenderSocketTimeout);
         sb.append(", statDataSenderChunkSize=").append(statDataSenderChunkSize);
         sb.append(", tcpDataSenderCommandAcceptEnable=").append(tcpDataSenderCommandAcceptEnable);
+        sb.append(", dataSenderQueueType='").append(dataSenderQueueType).append('\'');
+        sb.append(", dataSenderDrainMaxSize=").append(dataSenderDrainMaxSize);
+        sb.append(", dataSenderDrainMinSize=").append(dataSenderDrainMinSize);
+        sb.append(", dataSenderLingerTime=").append(dataSenderLingerTime);
+        sb.append(", dataSenderUdpNio=").append(dataSenderUdpNio);
+        sb.append(", dataSenderUdpNioGatheringWrite=").append(dataSenderUdpNioGatheringWrite);
+        sb.append(", dataSenderSpoolEnable=").append(dataSenderSpoolEnable);
+        sb.append(", dataSenderSpoolDirectory='").append(dataSenderSpoolDirectory).append('\'');
+        sb.append(", dataSenderSpoolSize=").append(dataSenderSpoolSize);
+        sb.append(", dataSenderSpoolReplayRate=").append(dataSenderSpoolReplayRate);
+        sb.append(", pluginSetupThreadCount=").append(pluginSetupThreadCount);
+        sb.append(", classPoolMaxCachedClassSize=").append(classPoolMaxCachedClassSize);
         sb.append(", jdbcSqlCacheSize=").append(jdbcSqlCacheSize);
         sb.append(", jdbcMaxSqlBindValueSize=").append(jdbcMaxSqlBindValueSize);
         sb.append(", jdbcProfile=").append(jdbcProfile);
@@ -942,6 +1070,11 @@ public class ProfilerConfig {
         sb.append(", springBeansAnnotations='").append(springBeansAnnotations).append('\'');
         sb.append(", samplingEnable=").append(samplingEnable);
         sb.append(", samplingRate=").append(samplingRate);
+        sb.append(", samplingType='").append(samplingType).append('\'');
+        sb.append(", samplingAdaptiveTargetTps=").append(samplingAdaptiveTargetTps);
+        sb.append(", samplingAdaptiveKeepErrorOrSlow=").append(samplingAdaptiveKeepErrorOrSlow);
+        sb.append(", samplingAdaptiveProvisionalTps=").append(samplingAdaptiveProvisionalTps);
+        sb.append(", samplingAdaptiveSlowThreshold=").append(samplingAdaptiveSlowThreshold);
         sb.append(", ioBufferingEnable=").append(ioBufferingEnable);
         sb.append(", ioBufferingBufferSize=").append(ioBufferingBufferSize);
         sb.append(", profileJvmCollectInterval=").append(profileJvmCollectInterval);
@@ -28,6 +28,9 @@ public final class SamplingFlagUtils {
     public static final String SAMPLING_RATE_FALSE = SAMPLING_RATE_PREFIX +  "0";
     public static final String SAMPLING_RATE_TRUE = SAMPLING_RATE_PREFIX +  "1";
 
+    // TraceId flags. the trace is recorded provisionally and may be discarded at the end, so next nodes must not sample it.
+    public static final short PROVISIONAL_TRACE_FLAG = 0x01;
+
     private SamplingFlagUtils() {
     }
 
@@ -42,5 +45,9 @@ public final class SamplingFlagUtils {
         }
         return true;
     }
+
+    public static boolean isProvisionalTrace(short traceIdFlags) {
+        return (traceIdFlags & PROVISIONAL_TRACE_FLAG) != 0;
+    }
 }
 
@@ -59,6 +59,7 @@ public class CollectorConfiguration implements InitializingBean {
     private int udpStatWorkerThread;
     private int udpStatWorkerQueueSize;
     private int udpStatSocketReceiveBufferSize;
+    private int udpStatReaderSize;
 
 
     private String udpSpanListenIp = DEFAULT_LISTEN_IP;
@@ -67,6 +68,11 @@ public class CollectorConfiguration implements InitializingBean {
     private int udpSpanWorkerThread;
     private int udpSpanWorkerQueueSize;
     private int udpSpanSocketReceiveBufferSize;
+    private int udpSpanReaderSize;
+
+    private boolean udpChunkedReceiver;
+
+    private boolean agentStatRollupEnable;
 
     private boolean clusterEnable;
     private String clusterAddress;
@@ -102,6 +108,10 @@ public class CollectorConfiguration implements InitializingBean {
         return udpStatSocketReceiveBufferSize;
     }
 
+    public int getUdpStatReaderSize() {
+        return udpStatReaderSize;
+    }
+
     public String getUdpSpanListenIp() {
         return udpSpanListenIp;
     }
@@ -135,6 +145,30 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpSpanSocketReceiveBufferSize = udpSpanSocketReceiveBufferSize;
     }
 
+    public int getUdpSpanReaderSize() {
+        return udpSpanReaderSize;
+    }
+
+    public void setUdpSpanReaderSize(int udpSpanReaderSize) {
+        this.udpSpanReaderSize = udpSpanReaderSize;
+    }
+
+    public boolean isUdpChunkedReceiver() {
+        return udpChunkedReceiver;
+    }
+
+    public void setUdpChunkedReceiver(boolean udpChunkedReceiver) {
+        this.udpChunkedReceiver = udpChunkedReceiver;
+    }
+
+    public boolean isAgentStatRollupEnable() {
+        return agentStatRollupEnable;
+    }
+
+    public void setAgentStatRollupEnable(boolean agentStatRollupEnable) {
+        this.agentStatRollupEnable = agentStatRollupEnable;
+    }
+
     public boolean isClusterEnable() {
         return clusterEnable;
     }
@@ -197,6 +231,7 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpStatWorkerThread = readInt(properties, "collector.udpStatWorkerThread", 128);
         this.udpStatWorkerQueueSize = readInt(properties, "collector.udpStatWorkerQueueSize", 1024);
         this.udpStatSocketReceiveBufferSize = readInt(properties, "collector.udpStatSocketReceiveBufferSize", 1024 * 4096);
+        this.udpStatReaderSize = readInt(properties, "collector.udpStatReaderSize", 0);
 
 
         this.udpSpanListenIp = readString(properties, "collector.udpSpanListenIp", DEFAULT_LISTEN_IP);
@@ -205,6 +240,13 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpSpanWorkerThread = readInt(properties, "collector.udpSpanWorkerThread", 256);
         this.udpSpanWorkerQueueSize = readInt(properties, "collector.udpSpanWorkerQueueSize", 1024 * 5);
         this.udpSpanSocketReceiveBufferSize = readInt(properties, "collector.udpSpanSocketReceiveBufferSize", 1024 * 4096);
+        this.udpSpanReaderSize = readInt(properties, "collector.udpSpanReaderSize", 0);
+
+        // accepts the chunked datagrams of profiler.datasender.udp.nio.gatheringwrite as well as plain ones
+        this.udpChunkedReceiver = readBoolean(properties, "collector.udpChunkedReceiver");
+
+        // requires the AgentStatRollup table
+        this.agentStatRollupEnable = readBoolean(properties, "collector.agentStat.rollup.enable");
         
         this.clusterEnable = readBoolean(properties, "cluster.enable");
         this.clusterAddress = readString(properties, "cluster.zookeeper.address", "");
@@ -252,11 +294,15 @@ public class CollectorConfiguration implements InitializingBean {
         sb.append(", udpStatWorkerThread=").append(udpStatWorkerThread);
         sb.append(", udpStatWorkerQueueSize=").append(udpStatWorkerQueueSize);
         sb.append(", udpStatSocketReceiveBufferSize=").append(udpStatSocketReceiveBufferSize);
+        sb.append(", udpStatReaderSize=").append(udpStatReaderSize);
         sb.append(", udpSpanListenIp='").append(udpSpanListenIp).append('\'');
         sb.append(", udpSpanListenPort=").append(udpSpanListenPort);
         sb.append(", udpSpanWorkerThread=").append(udpSpanWorkerThread);
         sb.append(", udpSpanWorkerQueueSize=").append(udpSpanWorkerQueueSize);
         sb.append(", udpSpanSocketReceiveBufferSize=").append(udpSpanSocketReceiveBufferSize);
+        sb.append(", udpSpanReaderSize=").append(udpSpanReaderSize);
+        sb.append(", udpChunkedReceiver=").append(udpChunkedReceiver);
+        sb.append(", agentStatRollupEnable=").append(agentStatRollupEnable);
         sb.append(", clusterEnable=").append(clusterEnable);
         sb.append(", clusterAddress=").append(clusterAddress);
         sb.append(", clusterSessionTimeout=").append(clusterSessionTimeout);
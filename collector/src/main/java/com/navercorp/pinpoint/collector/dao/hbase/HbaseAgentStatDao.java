@@ -24,6 +24,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import com.navercorp.pinpoint.collector.dao.AgentStatDao;
+import com.navercorp.pinpoint.collector.dao.AgentStatRollupDao;
 import com.navercorp.pinpoint.collector.mapper.thrift.ThriftBoMapper;
 import com.navercorp.pinpoint.common.bo.AgentStatCpuLoadBo;
 import com.navercorp.pinpoint.common.bo.AgentStatMemoryGcBo;
@@ -58,6 +59,9 @@ public class HbaseAgentStatDao implements AgentStatDao {
     @Qualifier("agentStatRowKeyDistributor")
     private AbstractRowKeyDistributor rowKeyDistributor;
 
+    @Autowired
+    private AgentStatRollupDao agentStatRollupDao;
+
     public void insert(final TAgentStat agentStat) {
         if (agentStat == null) {
             throw new NullPointerException("agentStat must not be null");
@@ -74,6 +78,8 @@ public class HbaseAgentStatDao implements AgentStatDao {
         put.add(AGENT_STAT_CF_STATISTICS, AGENT_STAT_CF_STATISTICS_CPU_LOAD, timestamp, agentStatCpuLoadBo.writeValue());
 
         hbaseTemplate.put(AGENT_STAT, put);
+
+        agentStatRollupDao.update(agentStat.getAgentId(), timestamp, agentStatMemoryGcBo, agentStatCpuLoadBo);
     }
 
     /**
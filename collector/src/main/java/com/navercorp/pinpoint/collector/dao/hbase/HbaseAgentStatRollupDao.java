@@ -0,0 +1,276 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
+
+import com.navercorp.pinpoint.collector.dao.AgentStatRollupDao;
+import com.navercorp.pinpoint.common.bo.AgentStatCpuLoadBo;
+import com.navercorp.pinpoint.common.bo.AgentStatMemoryGcBo;
+import com.navercorp.pinpoint.common.bo.AgentStatRollupBo;
+import com.navercorp.pinpoint.common.bo.AgentStatRollupResolution;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.RowKeyUtils;
+import com.navercorp.pinpoint.common.util.TimeUtils;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.hadoop.hbase.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * keeps 1 minute and 1 hour rollups of the agent stats in memory and writes a rollup row once its slot is closed.
+ * a slot is closed when flushDelay has passed since the end of the slot.
+ * <p>
+ * the row is merged with the stored value and written with a checkAndPut, so the partial rollups of several collectors,
+ * of a collector before and after a restart and of late stats all add up in the same row.
+ * the open slots are written when the collector stops.
+ * a row may still grow after its slot is closed, if stats arrive late.
+ * <p>
+ * disabled unless collector.agentStat.rollup.enable is set, as it requires the AgentStatRollup table.
+ *
+ * @author agent
+ */
+@Repository
+public class HbaseAgentStatRollupDao implements AgentStatRollupDao {
+
+    private static final long DEFAULT_FLUSH_DELAY = 60 * 1000;
+
+    private static final int MAX_WRITE_RETRY = 3;
+
+    private static final AgentStatRollupResolution[] RESOLUTIONS = AgentStatRollupResolution.values();
+
+    private static final RowMapper<byte[]> VALUE_MAPPER = new RowMapper<byte[]>() {
+        @Override
+        public byte[] mapRow(Result result, int rowNum) throws Exception {
+            if (result.isEmpty()) {
+                return null;
+            }
+            return result.value();
+        }
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private HbaseOperations2 hbaseTemplate;
+
+    @Autowired
+    @Qualifier("agentStatRowKeyDistributor")
+    private AbstractRowKeyDistributor rowKeyDistributor;
+
+    @Value("#{collectorConfiguration.agentStatRollupEnable}")
+    private boolean enable;
+
+    private final ConcurrentMap<RollupKey, Rollup> rollupMap = new ConcurrentHashMap<RollupKey, Rollup>();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private long flushDelay = DEFAULT_FLUSH_DELAY;
+
+    public void setEnable(boolean enable) {
+        this.enable = enable;
+    }
+
+    public void setFlushDelay(long flushDelay) {
+        if (flushDelay < 0) {
+            throw new IllegalArgumentException("negative flushDelay:" + flushDelay);
+        }
+        this.flushDelay = flushDelay;
+    }
+
+    @Override
+    public void update(String agentId, long timestamp, AgentStatMemoryGcBo memoryGc, AgentStatCpuLoadBo cpuLoad) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (!enable) {
+            return;
+        }
+        for (AgentStatRollupResolution resolution : RESOLUTIONS) {
+            final long slotTime = resolution.getSlotTime(timestamp);
+            final RollupKey key = new RollupKey(agentId, resolution, slotTime);
+            while (true) {
+                Rollup rollup = rollupMap.get(key);
+                if (rollup == null) {
+                    final Rollup newRollup = new Rollup(key, new AgentStatRollupBo(agentId, slotTime));
+                    final Rollup old = rollupMap.putIfAbsent(key, newRollup);
+                    rollup = old != null ? old : newRollup;
+                }
+                if (rollup.add(memoryGc, cpuLoad)) {
+                    break;
+                }
+                // closed by the flusher. start a new rollup, which is merged into the written row later
+                rollupMap.remove(key, rollup);
+            }
+        }
+    }
+
+    private boolean isClosed(AgentStatRollupResolution resolution, long slotTime, long currentTime) {
+        return slotTime + resolution.getResolution() + flushDelay <= currentTime;
+    }
+
+    @Override
+    public void flushAll() {
+        flush(System.currentTimeMillis(), false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // the open slots are merged with the rows written after the restart
+        flush(System.currentTimeMillis(), true);
+    }
+
+    void flush(long currentTime, boolean flushOpenSlot) {
+        final List<Rollup> flushList = new ArrayList<Rollup>();
+        final Iterator<Map.Entry<RollupKey, Rollup>> iterator = rollupMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<RollupKey, Rollup> entry = iterator.next();
+            final RollupKey key = entry.getKey();
+            if (!flushOpenSlot && !isClosed(key.resolution, key.slotTime, currentTime)) {
+                continue;
+            }
+            iterator.remove();
+            final Rollup rollup = entry.getValue();
+            rollup.close();
+            flushList.add(rollup);
+        }
+        if (flushList.isEmpty()) {
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("flush {} rollup:{} dropped:{}", this.getClass().getSimpleName(), flushList.size(), droppedCount.get());
+        }
+        for (Rollup rollup : flushList) {
+            try {
+                if (!write(rollup.key, rollup.rollupBo)) {
+                    droppedCount.incrementAndGet();
+                    logger.warn("rollup write conflict. dropped {}", rollup.rollupBo);
+                }
+            } catch (Exception e) {
+                droppedCount.incrementAndGet();
+                logger.warn("rollup write error. dropped {} Caused:{}", rollup.rollupBo, e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean write(RollupKey key, AgentStatRollupBo rollupBo) {
+        final byte[] bAgentId = BytesUtils.toBytes(key.agentId);
+        final byte[] rowKey = rowKeyDistributor.getDistributedKey(RowKeyUtils.concatFixedByteAndLong(bAgentId, AGENT_NAME_MAX_LEN, TimeUtils.reverseTimeMillis(key.slotTime)));
+        final byte[] family = key.resolution.getColumnFamily();
+        for (int i = 0; i < MAX_WRITE_RETRY; i++) {
+            final byte[] storedValue = hbaseTemplate.get(AGENT_STAT_ROLLUP, rowKey, family, AGENT_STAT_ROLLUP_CF_QUALIFIER, VALUE_MAPPER);
+            final byte[] value;
+            if (storedValue == null) {
+                value = rollupBo.writeValue();
+            } else {
+                final AgentStatRollupBo mergedBo = new AgentStatRollupBo(storedValue);
+                mergedBo.merge(rollupBo);
+                value = mergedBo.writeValue();
+            }
+            final Put put = new Put(rowKey);
+            put.add(family, AGENT_STAT_ROLLUP_CF_QUALIFIER, value);
+            // fails if another collector wrote the row after the get
+            if (hbaseTemplate.checkAndPut(AGENT_STAT_ROLLUP, rowKey, family, AGENT_STAT_ROLLUP_CF_QUALIFIER, storedValue, put)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int getRollupSize() {
+        return rollupMap.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private static final class Rollup {
+        private final RollupKey key;
+        private final AgentStatRollupBo rollupBo;
+        private boolean closed;
+
+        private Rollup(RollupKey key, AgentStatRollupBo rollupBo) {
+            this.key = key;
+            this.rollupBo = rollupBo;
+        }
+
+        private synchronized boolean add(AgentStatMemoryGcBo memoryGc, AgentStatCpuLoadBo cpuLoad) {
+            if (closed) {
+                return false;
+            }
+            rollupBo.addMemoryGc(memoryGc);
+            rollupBo.addCpuLoad(cpuLoad);
+            return true;
+        }
+
+        private synchronized void close() {
+            this.closed = true;
+        }
+    }
+
+    private static final class RollupKey {
+        private final String agentId;
+        private final AgentStatRollupResolution resolution;
+        private final long slotTime;
+
+        private RollupKey(String agentId, AgentStatRollupResolution resolution, long slotTime) {
+            this.agentId = agentId;
+            this.resolution = resolution;
+            this.slotTime = slotTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            RollupKey that = (RollupKey) o;
+
+            if (slotTime != that.slotTime) return false;
+            if (resolution != that.resolution) return false;
+            if (!agentId.equals(that.agentId)) return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId.hashCode();
+            result = 31 * result + resolution.hashCode();
+            result = 31 * result + (int) (slotTime ^ (slotTime >>> 32));
+            return result;
+        }
+    }
+}
@@ -69,7 +69,10 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
 
         put.add(APPLICATION_TRACE_INDEX_CF_TRACE, makeQualifier(span) , acceptedTime, value);
 
-        hbaseTemplate.put(APPLICATION_TRACE_INDEX, put);
+        if (!hbaseTemplate.asyncPut(APPLICATION_TRACE_INDEX, put)) {
+            // write-behind buffer is full or closed
+            hbaseTemplate.put(APPLICATION_TRACE_INDEX, put);
+        }
     }
 
     private byte[] makeQualifier(final TSpan span) {
@@ -19,7 +19,7 @@ package com.navercorp.pinpoint.collector.dao.hbase;
 import com.navercorp.pinpoint.collector.dao.MapResponseTimeDao;
 import com.navercorp.pinpoint.collector.dao.hbase.statistics.*;
 import com.navercorp.pinpoint.collector.util.AcceptedTimeService;
-import com.navercorp.pinpoint.collector.util.ConcurrentCounterMap;
+import com.navercorp.pinpoint.collector.util.StripedCounterMap;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
@@ -63,7 +63,14 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
 
     private final boolean useBulk;
 
-    private final ConcurrentCounterMap<RowInfo> counter = new ConcurrentCounterMap<RowInfo>();
+    private final StripedCounterMap<StatisticsKey> counter = new StripedCounterMap<StatisticsKey>(StatisticsKey.COPIER);
+
+    private static final ColumnNameFactory RESPONSE_COLUMN_NAME_FACTORY = new ColumnNameFactory() {
+        @Override
+        public ColumnName createColumnName(StatisticsKey key) {
+            return new ResponseColumnName(key.getAgentId(), key.getSlotNumber());
+        }
+    };
 
     public HbaseMapResponseTimeDao() {
         this(true);
@@ -90,14 +97,15 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
         // make row key. rowkey is me
         final long acceptedTime = acceptedTimeService.getAcceptedTime();
         final long rowTimeSlot = timeSlot.getTimeSlot(acceptedTime);
-        final RowKey selfRowKey = new CallRowKey(applicationName, applicationServiceType.getCode(), rowTimeSlot);
-
         final short slotNumber = ApplicationMapStatisticsUtils.getSlotNumber(applicationServiceType, elapsed, isError);
-        final ColumnName selfColumnName = new ResponseColumnName(agentId, slotNumber);
         if (useBulk) {
-            RowInfo rowInfo = new DefaultRowInfo(selfRowKey, selfColumnName);
-            this.counter.increment(rowInfo, 1L);
+            // no allocation for keys already counted in this period
+            final StatisticsKey key = StatisticsKey.probe().set(applicationName, applicationServiceType.getCode(), rowTimeSlot,
+                    agentId, (short) 0, null, null, slotNumber);
+            this.counter.increment(key, 1L);
         } else {
+            final RowKey selfRowKey = new CallRowKey(applicationName, applicationServiceType.getCode(), rowTimeSlot);
+            final ColumnName selfColumnName = new ResponseColumnName(agentId, slotNumber);
             final byte[] rowKey = selfRowKey.getRowKey();
             // column name is the name of caller app.
             byte[] columnName = selfColumnName.getColumnName();
@@ -123,8 +131,8 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
         }
 
         // update statistics by rowkey and column for now. need to update it by rowkey later.
-        Map<RowInfo,ConcurrentCounterMap.LongAdder> remove = this.counter.remove();
-        List<Increment> merge = rowKeyMerge.createBulkIncrement(remove);
+        Map<StatisticsKey, Long> remove = this.counter.remove();
+        List<Increment> merge = rowKeyMerge.createBulkIncrement(remove, RESPONSE_COLUMN_NAME_FACTORY);
         if (!merge.isEmpty()) {
             if (logger.isDebugEnabled()) {
                 logger.debug("flush {} Increment:{}", this.getClass().getSimpleName(), merge.size());
@@ -21,7 +21,7 @@ import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
 import com.navercorp.pinpoint.collector.dao.MapStatisticsCalleeDao;
 import com.navercorp.pinpoint.collector.dao.hbase.statistics.*;
 import com.navercorp.pinpoint.collector.util.AcceptedTimeService;
-import com.navercorp.pinpoint.collector.util.ConcurrentCounterMap;
+import com.navercorp.pinpoint.collector.util.StripedCounterMap;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
@@ -64,7 +64,14 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
 
     private final boolean useBulk;
 
-    private final ConcurrentCounterMap<RowInfo> counter = new ConcurrentCounterMap<RowInfo>();
+    private final StripedCounterMap<StatisticsKey> counter = new StripedCounterMap<StatisticsKey>(StatisticsKey.COPIER);
+
+    private static final ColumnNameFactory CALLER_COLUMN_NAME_FACTORY = new ColumnNameFactory() {
+        @Override
+        public ColumnName createColumnName(StatisticsKey key) {
+            return new CallerColumnName(key.getColumnServiceType(), key.getColumnApplicationName(), key.getColumnHost(), key.getSlotNumber());
+        }
+    };
 
     public HbaseMapStatisticsCalleeDao() {
         this(true);
@@ -96,15 +103,16 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
         // make row key. rowkey is me
         final long acceptedTime = acceptedTimeService.getAcceptedTime();
         final long rowTimeSlot = timeSlot.getTimeSlot(acceptedTime);
-        final RowKey calleeRowKey = new CallRowKey(calleeApplicationName, calleeServiceType.getCode(), rowTimeSlot);
-
         final short callerSlotNumber = ApplicationMapStatisticsUtils.getSlotNumber(calleeServiceType, elapsed, isError);
-        final ColumnName callerColumnName = new CallerColumnName(callerServiceType.getCode(), callerApplicationName, callerHost, callerSlotNumber);
 
         if (useBulk) {
-            RowInfo rowInfo = new DefaultRowInfo(calleeRowKey, callerColumnName);
-            counter.increment(rowInfo, 1L);
+            // no allocation for keys already counted in this period
+            final StatisticsKey key = StatisticsKey.probe().set(calleeApplicationName, calleeServiceType.getCode(), rowTimeSlot,
+                    null, callerServiceType.getCode(), callerApplicationName, callerHost, callerSlotNumber);
+            counter.increment(key, 1L);
         } else {
+            final RowKey calleeRowKey = new CallRowKey(calleeApplicationName, calleeServiceType.getCode(), rowTimeSlot);
+            final ColumnName callerColumnName = new CallerColumnName(callerServiceType.getCode(), callerApplicationName, callerHost, callerSlotNumber);
             final byte[] rowKey = calleeRowKey.getRowKey();
 
             // column name is the name of caller app.
@@ -131,8 +139,8 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
             throw new IllegalStateException();
         }
 
-        Map<RowInfo, ConcurrentCounterMap.LongAdder> remove = this.counter.remove();
-        List<Increment> merge = rowKeyMerge.createBulkIncrement(remove);
+        Map<StatisticsKey, Long> remove = this.counter.remove();
+        List<Increment> merge = rowKeyMerge.createBulkIncrement(remove, CALLER_COLUMN_NAME_FACTORY);
         if (!merge.isEmpty()) {
             if (logger.isDebugEnabled()) {
                 logger.debug("flush {} Increment:{}", this.getClass().getSimpleName(), merge.size());
@@ -21,7 +21,7 @@ import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
 import com.navercorp.pinpoint.collector.dao.MapStatisticsCallerDao;
 import com.navercorp.pinpoint.collector.dao.hbase.statistics.*;
 import com.navercorp.pinpoint.collector.util.AcceptedTimeService;
-import com.navercorp.pinpoint.collector.util.ConcurrentCounterMap;
+import com.navercorp.pinpoint.collector.util.StripedCounterMap;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
@@ -64,7 +64,14 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
 
     private final boolean useBulk;
 
-    private final ConcurrentCounterMap<RowInfo> counter = new ConcurrentCounterMap<RowInfo>();
+    private final StripedCounterMap<StatisticsKey> counter = new StripedCounterMap<StatisticsKey>(StatisticsKey.COPIER);
+
+    private static final ColumnNameFactory CALLEE_COLUMN_NAME_FACTORY = new ColumnNameFactory() {
+        @Override
+        public ColumnName createColumnName(StatisticsKey key) {
+            return new CalleeColumnName(key.getAgentId(), key.getColumnServiceType(), key.getColumnApplicationName(), key.getColumnHost(), key.getSlotNumber());
+        }
+    };
 
     public HbaseMapStatisticsCallerDao() {
         this(true);
@@ -94,14 +101,15 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
         // make row key. rowkey is me
         final long acceptedTime = acceptedTimeService.getAcceptedTime();
         final long rowTimeSlot = timeSlot.getTimeSlot(acceptedTime);
-        final RowKey callerRowKey = new CallRowKey(callerApplicationName, callerServiceType.getCode(), rowTimeSlot);
-
         final short calleeSlotNumber = ApplicationMapStatisticsUtils.getSlotNumber(calleeServiceType, elapsed, isError);
-        final ColumnName calleeColumnName = new CalleeColumnName(callerAgentid, calleeServiceType.getCode(), calleeApplicationName, calleeHost, calleeSlotNumber);
         if (useBulk) {
-            RowInfo rowInfo = new DefaultRowInfo(callerRowKey, calleeColumnName);
-            this.counter.increment(rowInfo, 1L);
+            // no allocation for keys already counted in this period
+            final StatisticsKey key = StatisticsKey.probe().set(callerApplicationName, callerServiceType.getCode(), rowTimeSlot,
+                    callerAgentid, calleeServiceType.getCode(), calleeApplicationName, calleeHost, calleeSlotNumber);
+            this.counter.increment(key, 1L);
         } else {
+            final RowKey callerRowKey = new CallRowKey(callerApplicationName, callerServiceType.getCode(), rowTimeSlot);
+            final ColumnName calleeColumnName = new CalleeColumnName(callerAgentid, calleeServiceType.getCode(), calleeApplicationName, calleeHost, calleeSlotNumber);
             final byte[] rowKey = callerRowKey.getRowKey();
             // column name is the name of caller app.
             byte[] columnName = calleeColumnName.getColumnName();
@@ -126,8 +134,8 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
             throw new IllegalStateException();
         }
         // update statistics by rowkey and column for now. need to update it by rowkey later.
-        Map<RowInfo,ConcurrentCounterMap.LongAdder> remove = this.counter.remove();
-        List<Increment> merge = rowKeyMerge.createBulkIncrement(remove);
+        Map<StatisticsKey, Long> remove = this.counter.remove();
+        List<Increment> merge = rowKeyMerge.createBulkIncrement(remove, CALLEE_COLUMN_NAME_FACTORY);
         if (!merge.isEmpty()) {
             if (logger.isDebugEnabled()) {
                 logger.debug("flush {} Increment:{}", this.getClass().getSimpleName(), merge.size());
@@ -92,7 +92,10 @@ public class HbaseTraceDao implements TracesDao {
 
         addNestedSpanEvent(put, span);
 
-        hbaseTemplate.put(TRACES, put);
+        if (!hbaseTemplate.asyncPut(TRACES, put)) {
+            // write-behind buffer is full or closed
+            hbaseTemplate.put(TRACES, put);
+        }
 
     }
 
@@ -132,7 +135,10 @@ public class HbaseTraceDao implements TracesDao {
 
             put.add(TRACES_CF_TERMINALSPAN, rowId, acceptedTime, value);
         }
-        hbaseTemplate.put(TRACES, put);
+        if (!hbaseTemplate.asyncPut(TRACES, put)) {
+            // write-behind buffer is full or closed
+            hbaseTemplate.put(TRACES, put);
+        }
 
     }
 
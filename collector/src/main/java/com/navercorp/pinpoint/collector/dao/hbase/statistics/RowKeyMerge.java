@@ -16,8 +16,6 @@
 
 package com.navercorp.pinpoint.collector.dao.hbase.statistics;
 
-import com.navercorp.pinpoint.collector.util.ConcurrentCounterMap;
-
 import org.apache.hadoop.hbase.client.Increment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +36,26 @@ public class RowKeyMerge {
         this.family = Arrays.copyOf(family, family.length);
     }
 
-    public  List<Increment> createBulkIncrement(Map<RowInfo, ConcurrentCounterMap.LongAdder> data) {
+    /**
+     * merges the aggregated keys into one Increment per row.
+     */
+    public List<Increment> createBulkIncrement(Map<StatisticsKey, Long> data, ColumnNameFactory columnNameFactory) {
+        if (columnNameFactory == null) {
+            throw new NullPointerException("columnNameFactory must not be null");
+        }
+        if (data.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<RowInfo, Long> rowInfoMap = new HashMap<RowInfo, Long>(data.size() * 2);
+        for (Map.Entry<StatisticsKey, Long> entry : data.entrySet()) {
+            final StatisticsKey key = entry.getKey();
+            final RowInfo rowInfo = new DefaultRowInfo(key.toRowKey(), columnNameFactory.createColumnName(key));
+            rowInfoMap.put(rowInfo, entry.getValue());
+        }
+        return createBulkIncrement(rowInfoMap);
+    }
+
+    public  List<Increment> createBulkIncrement(Map<RowInfo, Long> data) {
         if (data.isEmpty()) {
             return Collections.emptyList();
         }
@@ -63,13 +80,13 @@ public class RowKeyMerge {
         return increment;
     }
 
-    private Map<RowKey, List<ColumnName>> rowKeyBaseMerge(Map<RowInfo, ConcurrentCounterMap.LongAdder> data) {
+    private Map<RowKey, List<ColumnName>> rowKeyBaseMerge(Map<RowInfo, Long> data) {
         final Map<RowKey, List<ColumnName>> merge =  new HashMap<RowKey, List<ColumnName>>();
 
-        for (Map.Entry<RowInfo, ConcurrentCounterMap.LongAdder> entry : data.entrySet()) {
+        for (Map.Entry<RowInfo, Long> entry : data.entrySet()) {
             final RowInfo rowInfo = entry.getKey();
             // write callCount to columnName and throw away
-            long callCount = entry.getValue().get();
+            long callCount = entry.getValue();
             rowInfo.getColumnName().setCallCount(callCount);
 
             RowKey rowKey = rowInfo.getRowKey();
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase.statistics;
+
+import com.navercorp.pinpoint.collector.util.StripedCounterMap;
+
+/**
+ * flat aggregation key of the map statistics tables.
+ * (application, serviceType, time slot) is the row, the remaining fields and the histogram slot are the column.
+ * <p>
+ * a thread reuses its {@link #probe()} to look up the counter, so counting a span does not allocate a key.
+ * the aggregation map interns a {@link #copy()} of the probe only when the key is seen for the first time.
+ *
+ * @author agent
+ */
+public final class StatisticsKey {
+
+    public static final StripedCounterMap.KeyCopier<StatisticsKey> COPIER = new StripedCounterMap.KeyCopier<StatisticsKey>() {
+        @Override
+        public StatisticsKey copy(StatisticsKey key) {
+            return key.copy();
+        }
+    };
+
+    private static final ThreadLocal<StatisticsKey> PROBE = new ThreadLocal<StatisticsKey>() {
+        @Override
+        protected StatisticsKey initialValue() {
+            return new StatisticsKey();
+        }
+    };
+
+    private String applicationName = "";
+    private short serviceType;
+    private long timeSlot;
+
+    private String agentId = "";
+    private short columnServiceType;
+    private String columnApplicationName = "";
+    private String columnHost = "";
+    private short slotNumber;
+
+    // WARNING - cached hash value should not be included for equals/hashCode
+    private int hash;
+
+    public StatisticsKey() {
+    }
+
+    /**
+     * @return reusable key of the current thread. must not be stored.
+     */
+    public static StatisticsKey probe() {
+        return PROBE.get();
+    }
+
+    public StatisticsKey set(String applicationName, short serviceType, long timeSlot, String agentId, short columnServiceType, String columnApplicationName, String columnHost, short slotNumber) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        this.applicationName = applicationName;
+        this.serviceType = serviceType;
+        this.timeSlot = timeSlot;
+        this.agentId = defaultString(agentId);
+        this.columnServiceType = columnServiceType;
+        this.columnApplicationName = defaultString(columnApplicationName);
+        this.columnHost = defaultString(columnHost);
+        this.slotNumber = slotNumber;
+        this.hash = 0;
+        return this;
+    }
+
+    private static String defaultString(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value;
+    }
+
+    public StatisticsKey copy() {
+        final StatisticsKey copy = new StatisticsKey();
+        copy.applicationName = this.applicationName;
+        copy.serviceType = this.serviceType;
+        copy.timeSlot = this.timeSlot;
+        copy.agentId = this.agentId;
+        copy.columnServiceType = this.columnServiceType;
+        copy.columnApplicationName = this.columnApplicationName;
+        copy.columnHost = this.columnHost;
+        copy.slotNumber = this.slotNumber;
+        copy.hash = this.hash;
+        return copy;
+    }
+
+    public RowKey toRowKey() {
+        return new CallRowKey(applicationName, serviceType, timeSlot);
+    }
+
+    public String getApplicationName() {
+        return applicationName;
+    }
+
+    public short getServiceType() {
+        return serviceType;
+    }
+
+    public long getTimeSlot() {
+        return timeSlot;
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public short getColumnServiceType() {
+        return columnServiceType;
+    }
+
+    public String getColumnApplicationName() {
+        return columnApplicationName;
+    }
+
+    public String getColumnHost() {
+        return columnHost;
+    }
+
+    public short getSlotNumber() {
+        return slotNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StatisticsKey that = (StatisticsKey) o;
+
+        if (serviceType != that.serviceType) return false;
+        if (timeSlot != that.timeSlot) return false;
+        if (columnServiceType != that.columnServiceType) return false;
+        if (slotNumber != that.slotNumber) return false;
+        if (!applicationName.equals(that.applicationName)) return false;
+        if (!agentId.equals(that.agentId)) return false;
+        if (!columnApplicationName.equals(that.columnApplicationName)) return false;
+        if (!columnHost.equals(that.columnHost)) return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (hash != 0) {
+            return hash;
+        }
+        int result = applicationName.hashCode();
+        result = 31 * result + (int) serviceType;
+        result = 31 * result + (int) (timeSlot ^ (timeSlot >>> 32));
+        result = 31 * result + agentId.hashCode();
+        result = 31 * result + (int) columnServiceType;
+        result = 31 * result + columnApplicationName.hashCode();
+        result = 31 * result + columnHost.hashCode();
+        result = 31 * result + (int) slotNumber;
+        this.hash = result;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("StatisticsKey{");
+        sb.append("applicationName='").append(applicationName).append('\'');
+        sb.append(", serviceType=").append(serviceType);
+        sb.append(", timeSlot=").append(timeSlot);
+        sb.append(", agentId='").append(agentId).append('\'');
+        sb.append(", columnServiceType=").append(columnServiceType);
+        sb.append(", columnApplicationName='").append(columnApplicationName).append('\'');
+        sb.append(", columnHost='").append(columnHost).append('\'');
+        sb.append(", slotNumber=").append(slotNumber);
+        sb.append('}');
+        return sb.toString();
+    }
+}
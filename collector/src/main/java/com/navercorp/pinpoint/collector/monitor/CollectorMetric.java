@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.collector.monitor;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.JvmAttributeGaugeSet;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.ScheduledReporter;
@@ -23,6 +24,11 @@ import com.codahale.metrics.Slf4jReporter;
 import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
 import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
+import com.navercorp.pinpoint.common.hbase.BatchPutWriter;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.HbaseTemplate2;
+import com.navercorp.pinpoint.common.hbase.TableBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +51,9 @@ public class CollectorMetric {
     @Autowired
     private MetricRegistry metricRegistry;
 
+    @Autowired(required = false)
+    private HbaseOperations2 hbaseTemplate;
+
     private ScheduledReporter reporter;
 
 
@@ -60,6 +69,64 @@ public class CollectorMetric {
         metricRegistry.register("jvm.vm", new JvmAttributeGaugeSet());
         metricRegistry.register("jvm.garbage-collectors", new GarbageCollectorMetricSet());
         metricRegistry.register("jvm.thread-states", new ThreadStatesGaugeSet());
+
+        initBatchPutRegistry();
+    }
+
+    private void initBatchPutRegistry() {
+        if (!(hbaseTemplate instanceof HbaseTemplate2)) {
+            return;
+        }
+        final BatchPutWriter batchPutWriter = ((HbaseTemplate2) hbaseTemplate).getBatchPutWriter();
+        if (batchPutWriter == null) {
+            return;
+        }
+        metricRegistry.register("hbase.asyncPut.bufferedBytes", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return batchPutWriter.getBufferedBytes();
+            }
+        });
+        registerTableBatch(batchPutWriter.getTableBatch(HBaseTables.TRACES));
+        registerTableBatch(batchPutWriter.getTableBatch(HBaseTables.APPLICATION_TRACE_INDEX));
+    }
+
+    private void registerTableBatch(final TableBatch tableBatch) {
+        final String prefix = "hbase.asyncPut." + tableBatch.getTableName();
+        metricRegistry.register(prefix + ".queueSize", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return tableBatch.getQueueSize();
+            }
+        });
+        metricRegistry.register(prefix + ".lastFlushLatency", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return tableBatch.getLastFlushLatency();
+            }
+        });
+        metricRegistry.register(prefix + ".avgFlushLatency", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                final long flushCount = tableBatch.getFlushCount();
+                if (flushCount == 0) {
+                    return 0L;
+                }
+                return tableBatch.getFlushTime() / flushCount;
+            }
+        });
+        metricRegistry.register(prefix + ".rejected", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return tableBatch.getRejectedCount();
+            }
+        });
+        metricRegistry.register(prefix + ".failed", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return tableBatch.getFailCount();
+            }
+        });
     }
 
 
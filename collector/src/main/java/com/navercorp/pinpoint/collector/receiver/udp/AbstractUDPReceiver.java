@@ -37,7 +37,11 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.net.*;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -64,6 +68,11 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
     private Timer timer;
     private Counter rejectedCounter;
 
+    // 0 : io threads share one socket and hand packets over to the worker pool.
+    // n : n readers own their socket and dispatch packets on the reading thread.
+    private int readerSize = 0;
+    private final List<PacketReader> readerList = new ArrayList<PacketReader>();
+
     // increasing ioThread size wasn't very effective
     private int ioThreadSize = CpuUtils.cpuCount();
     private ThreadPoolExecutor io;
@@ -109,34 +118,118 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
         this.workerThreadQueueSize = workerThreadQueueSize;
     }
 
-    abstract Runnable getPacketDispatcher(AbstractUDPReceiver receiver, DatagramPacket packet);
+    public AbstractUDPReceiver(String receiverName, DispatchHandler dispatchHandler, String bindAddress, int port, int receiverBufferSize, int workerThreadSize, int workerThreadQueueSize, int readerSize) {
+        this(receiverName, dispatchHandler, bindAddress, port, receiverBufferSize, workerThreadSize, workerThreadQueueSize);
+        if (readerSize < 0) {
+            throw new IllegalArgumentException("negative readerSize:" + readerSize);
+        }
+        this.readerSize = readerSize;
+    }
+
+    abstract Runnable getPacketDispatcher(AbstractUDPReceiver receiver, PacketReader reader, DatagramPacket packet);
     
     public void afterPropertiesSet() {
         Assert.notNull(dispatchHandler, "dispatchHandler must not be null");
         Assert.notNull(metricRegistry, "metricRegistry must not be null");
 
-        this.socket = createSocket(bindAddress, port, receiverBufferSize);
+        if (isMultiReader()) {
+            createMultiReader();
+        } else {
+            this.socket = createSocket(bindAddress, port, receiverBufferSize);
+            this.timer = metricRegistry.timer(receiverName + "-timer");
+            this.rejectedCounter = metricRegistry.counter(receiverName + "-rejected");
+            // all io threads share the same reader
+            this.readerList.add(new PacketReader(receiverName, socket, timer, rejectedCounter));
+
+            this.worker = ExecutorFactory.newFixedThreadPool(workerThreadSize, workerThreadQueueSize, receiverName + "-Worker", true);
+        }
 
         final int packetPoolSize = getPacketPoolSize(workerThreadSize, workerThreadQueueSize);
         this.datagramPacketPool = new ObjectPool<DatagramPacket>(new DatagramPacketFactory(), packetPoolSize);
-        this.worker = ExecutorFactory.newFixedThreadPool(workerThreadSize, workerThreadQueueSize, receiverName + "-Worker", true);
 
-        this.timer = metricRegistry.timer(receiverName + "-timer");
-        this.rejectedCounter = metricRegistry.counter(receiverName + "-rejected");
         this.io = (ThreadPoolExecutor) Executors.newCachedThreadPool(new PinpointThreadFactory(receiverName + "-Io", true));
     }
 
+    boolean isMultiReader() {
+        return readerSize > 0;
+    }
+
+    private void createMultiReader() {
+        final SocketOption<Boolean> reusePort = getReusePortOption();
+        if (reusePort == null) {
+            logger.warn("SO_REUSEPORT not supported. {} readers share a single socket.", readerSize);
+        }
+        DatagramSocket sharedSocket = null;
+        for (int i = 0; i < readerSize; i++) {
+            final DatagramSocket readerSocket;
+            if (reusePort != null) {
+                readerSocket = createChannelSocket(bindAddress, port, receiverBufferSize, reusePort);
+            } else {
+                if (sharedSocket == null) {
+                    sharedSocket = createSocket(bindAddress, port, receiverBufferSize);
+                }
+                readerSocket = sharedSocket;
+            }
+            final String readerName = receiverName + "-reader-" + i;
+            final Timer readerTimer = metricRegistry.timer(readerName + "-timer");
+            final Counter readerRejectedCounter = metricRegistry.counter(readerName + "-rejected");
+            this.readerList.add(new PacketReader(readerName, readerSocket, readerTimer, readerRejectedCounter));
+        }
+        final PacketReader first = readerList.get(0);
+        this.socket = first.getSocket();
+        this.timer = first.getTimer();
+        this.rejectedCounter = first.getRejectedCounter();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SocketOption<Boolean> getReusePortOption() {
+        // StandardSocketOptions.SO_REUSEPORT is available since jdk 9
+        final SocketOption<Boolean> reusePort;
+        try {
+            final Field field = StandardSocketOptions.class.getField("SO_REUSEPORT");
+            reusePort = (SocketOption<Boolean>) field.get(null);
+        } catch (NoSuchFieldException e) {
+            return null;
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        DatagramChannel channel = null;
+        try {
+            channel = DatagramChannel.open();
+            if (channel.supportedOptions().contains(reusePort)) {
+                return reusePort;
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeChannel(channel);
+        }
+    }
 
-    private void receive() {
+    private void closeChannel(DatagramChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+            // skip
+        }
+    }
+
+    private void receive(final PacketReader reader) {
+        final DatagramSocket socket = reader.getSocket();
         if (logger.isInfoEnabled()) {
             logger.info("start ioThread localAddress:{}, IoThread:{}", socket.getLocalAddress(), Thread.currentThread().getName());
         }
         final SocketAddress localSocketAddress = socket.getLocalSocketAddress();
         final boolean debugEnabled = logger.isDebugEnabled();
+        final boolean multiReader = isMultiReader();
 
         // need shutdown logic
         while (state.get()) {
-            DatagramPacket packet = read0();
+            DatagramPacket packet = read0(socket);
             if (packet == null) {
                 continue;
             }
@@ -146,13 +239,18 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
                 }
                 return;
             }
+            if (multiReader) {
+                // no handoff. deserialize and dispatch on the reader thread.
+                getPacketDispatcher(this, reader, packet).run();
+                continue;
+            }
             if (debugEnabled) {
                 logger.debug("pool getActiveCount:{}", worker.getActiveCount());
             }
             try {
-                worker.execute(getPacketDispatcher(this, packet));
+                worker.execute(getPacketDispatcher(this, reader, packet));
             } catch (RejectedExecutionException ree) {
-                rejectedCounter.inc();
+                reader.getRejectedCounter().inc();
                 final int error = rejectedExecutionCount.incrementAndGet();
                 final int mod = 100;
                 if ((error % mod) == 0) {
@@ -165,7 +263,7 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
         }
     }
 
-    private DatagramPacket read0() {
+    private DatagramPacket read0(DatagramSocket socket) {
         boolean success = false;
         DatagramPacket packet = datagramPacketPool.getObject();
         if (packet == null) {
@@ -220,7 +318,34 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
         }
     }
 
+    private DatagramSocket createChannelSocket(String bindAddress, int port, int receiveBufferSize, SocketOption<Boolean> reusePort) {
+        DatagramChannel channel = null;
+        try {
+            channel = DatagramChannel.open();
+            channel.setOption(reusePort, Boolean.TRUE);
+            // blocking channel socket supports soTimeout
+            DatagramSocket so = channel.socket();
+            so.setReceiveBufferSize(receiveBufferSize);
+            if (logger.isWarnEnabled()) {
+                final int checkReceiveBufferSize = so.getReceiveBufferSize();
+                if (receiveBufferSize != checkReceiveBufferSize) {
+                    logger.warn("DatagramSocket.setReceiveBufferSize() error. {}!={}", receiveBufferSize, checkReceiveBufferSize);
+                }
+            }
+            so.setSoTimeout(1000 * 5);
+            so.bind(new InetSocketAddress(bindAddress, port));
+            return so;
+        } catch (IOException ex) {
+            closeChannel(channel);
+            throw new RuntimeException("DatagramChannel create Fail. port:" + port + " Caused:" + ex.getMessage(), ex);
+        }
+    }
+
     private int getPacketPoolSize(int workerThreadSize, int workerThreadQueueSize) {
+        if (isMultiReader()) {
+            // a reader holds only one packet at a time
+            return readerSize;
+        }
         return workerThreadSize + workerThreadQueueSize + ioThreadSize;
     }
 
@@ -233,15 +358,27 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
             throw new RuntimeException("socket create fail");
         }
 
-        logger.info("UDP Packet reader:{} started.", ioThreadSize);
-        for (int i = 0; i < ioThreadSize; i++) {
-            io.execute(new Runnable() {
-                @Override
-                public void run() {
-                    receive();
-                }
-            });
+        if (isMultiReader()) {
+            logger.info("UDP Packet multi reader:{} started.", readerSize);
+            for (final PacketReader reader : readerList) {
+                startReader(reader);
+            }
+        } else {
+            logger.info("UDP Packet reader:{} started.", ioThreadSize);
+            final PacketReader reader = readerList.get(0);
+            for (int i = 0; i < ioThreadSize; i++) {
+                startReader(reader);
+            }
         }
+    }
+
+    private void startReader(final PacketReader reader) {
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                receive(reader);
+            }
+        });
 
     }
 
@@ -251,9 +388,13 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
         logger.info("{} shutdown.", this.receiverName);
         state.set(false);
         // is it okay to just close here?
-        socket.close();
+        for (PacketReader reader : readerList) {
+            reader.getSocket().close();
+        }
         shutdownExecutor(io, "IoExecutor");
-        shutdownExecutor(worker, "WorkerExecutor");
+        if (worker != null) {
+            shutdownExecutor(worker, "WorkerExecutor");
+        }
     }
 
     private void shutdownExecutor(ExecutorService executor, String executorName) {
@@ -281,4 +422,8 @@ public abstract class AbstractUDPReceiver implements DataReceiver {
     public DatagramSocket getSocket() {
         return socket;
     }
+
+    public int getReaderSize() {
+        return readerSize;
+    }
 }
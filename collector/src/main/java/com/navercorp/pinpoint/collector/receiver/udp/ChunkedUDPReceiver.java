@@ -41,27 +41,33 @@ public class ChunkedUDPReceiver extends AbstractUDPReceiver {
     public ChunkedUDPReceiver(String receiverName, DispatchHandler dispatchHandler, String bindAddress, int port, int receiverBufferSize, int workerThreadSize, int workerThreadQueueSize) {
         super(receiverName, dispatchHandler, bindAddress, port, receiverBufferSize, workerThreadSize, workerThreadQueueSize);
     }
+
+    public ChunkedUDPReceiver(String receiverName, DispatchHandler dispatchHandler, String bindAddress, int port, int receiverBufferSize, int workerThreadSize, int workerThreadQueueSize, int readerSize) {
+        super(receiverName, dispatchHandler, bindAddress, port, receiverBufferSize, workerThreadSize, workerThreadQueueSize, readerSize);
+    }
     
     @Override
-    Runnable getPacketDispatcher(AbstractUDPReceiver receiver, DatagramPacket packet) {
-        return new DispatchPacket(receiver, packet);
+    Runnable getPacketDispatcher(AbstractUDPReceiver receiver, PacketReader reader, DatagramPacket packet) {
+        return new DispatchPacket(receiver, reader, packet);
     }
 
     private class DispatchPacket implements Runnable {
         private final AbstractUDPReceiver receiver;
+        private final PacketReader reader;
         private final DatagramPacket packet;
 
-        private DispatchPacket(AbstractUDPReceiver receiver, DatagramPacket packet) {
+        private DispatchPacket(AbstractUDPReceiver receiver, PacketReader reader, DatagramPacket packet) {
             if (packet == null) {
                 throw new NullPointerException("packet must not be null");
             }
             this.receiver = receiver;
+            this.reader = reader;
             this.packet = packet;
         }
 
         @Override
         public void run() {
-            Timer.Context time = receiver.getTimer().time();
+            Timer.Context time = reader.getTimer().time();
 
             final ChunkHeaderTBaseDeserializer deserializer = deserializerFactory.createDeserializer();
             try {
@@ -113,7 +119,7 @@ public class ChunkedUDPReceiver extends AbstractUDPReceiver {
             try {
                 byte[] okBytes = NetworkAvailabilityCheckPacket.DATA_OK;
                 DatagramPacket pongPacket = new DatagramPacket(okBytes, okBytes.length, packet.getSocketAddress());
-                receiver.getSocket().send(pongPacket);
+                reader.getSocket().send(pongPacket);
             } catch (IOException e) {
                 if (logger.isWarnEnabled()) {
                     logger.warn("pong error. SendSocketAddress:{} Cause:{}", packet.getSocketAddress(), e.getMessage(), e);
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+
+import java.net.DatagramSocket;
+
+/**
+ * socket and metrics owned by a single io thread group.
+ * the default mode shares one reader between all io threads,
+ * the multi reader mode gives every reader thread its own socket and metrics.
+ *
+ * @author agent
+ */
+class PacketReader {
+
+    private final String name;
+    private final DatagramSocket socket;
+    private final Timer timer;
+    private final Counter rejectedCounter;
+
+    PacketReader(String name, DatagramSocket socket, Timer timer, Counter rejectedCounter) {
+        if (name == null) {
+            throw new NullPointerException("name must not be null");
+        }
+        if (socket == null) {
+            throw new NullPointerException("socket must not be null");
+        }
+        if (timer == null) {
+            throw new NullPointerException("timer must not be null");
+        }
+        if (rejectedCounter == null) {
+            throw new NullPointerException("rejectedCounter must not be null");
+        }
+        this.name = name;
+        this.socket = socket;
+        this.timer = timer;
+        this.rejectedCounter = rejectedCounter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DatagramSocket getSocket() {
+        return socket;
+    }
+
+    public Timer getTimer() {
+        return timer;
+    }
+
+    public Counter getRejectedCounter() {
+        return rejectedCounter;
+    }
+
+    @Override
+    public String toString() {
+        return "PacketReader{" +
+                "name='" + name + '\'' +
+                ", localAddress=" + socket.getLocalSocketAddress() +
+                '}';
+    }
+}
@@ -47,25 +47,27 @@ public class SpanStreamUDPReceiver extends AbstractUDPReceiver {
     }
 
     @Override
-    Runnable getPacketDispatcher(AbstractUDPReceiver receiver, DatagramPacket packet) {
-        return new DispatchPacket(receiver, packet);
+    Runnable getPacketDispatcher(AbstractUDPReceiver receiver, PacketReader reader, DatagramPacket packet) {
+        return new DispatchPacket(receiver, reader, packet);
     }
 
     private class DispatchPacket implements Runnable {
         private final AbstractUDPReceiver receiver;
+        private final PacketReader reader;
         private final DatagramPacket packet;
 
-        private DispatchPacket(AbstractUDPReceiver receiver, DatagramPacket packet) {
+        private DispatchPacket(AbstractUDPReceiver receiver, PacketReader reader, DatagramPacket packet) {
             if (packet == null) {
                 throw new NullPointerException("packet must not be null");
             }
             this.receiver = receiver;
+            this.reader = reader;
             this.packet = packet;
         }
 
         @Override
         public void run() {
-            Timer.Context time = receiver.getTimer().time();
+            Timer.Context time = reader.getTimer().time();
 
             final HeaderTBaseDeserializer deserializer = (HeaderTBaseDeserializer) deserializerFactory.createDeserializer();
 
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import com.navercorp.pinpoint.collector.receiver.DispatchHandler;
+
+/**
+ * selects the udp receiver by collector.udpChunkedReceiver.
+ *
+ * @author agent
+ */
+public final class UDPReceiverFactory {
+
+    private UDPReceiverFactory() {
+    }
+
+    public static AbstractUDPReceiver createReceiver(boolean chunked, String receiverName, DispatchHandler dispatchHandler, String bindAddress, int port, int receiverBufferSize, int workerThreadSize, int workerThreadQueueSize, int readerSize) {
+        if (chunked) {
+            return new ChunkedUDPReceiver(receiverName, dispatchHandler, bindAddress, port, receiverBufferSize, workerThreadSize, workerThreadQueueSize, readerSize);
+        }
+        return new BaseUDPReceiver(receiverName, dispatchHandler, bindAddress, port, receiverBufferSize, workerThreadSize, workerThreadQueueSize, readerSize);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.util;
+
+import com.navercorp.pinpoint.rpc.util.CpuUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * counter map striped by thread.
+ * each stripe is an open addressing table of primitive long counters, so an increment of an existing key does not allocate.
+ * {@link #remove()} swaps the table of each stripe and merges the old tables outside of the lock,
+ * so writers are never stopped for the merge.
+ * <p>
+ * with a {@link KeyCopier} the caller may pass a reusable probe key.
+ * the key is copied only when it is inserted, so counting an existing key does not allocate a key either.
+ *
+ * @author agent
+ */
+public class StripedCounterMap<T> {
+
+    private static final int DEFAULT_TABLE_SIZE = 64;
+
+    private final Stripe<T>[] stripes;
+    private final int mask;
+
+    public StripedCounterMap() {
+        this(CpuUtils.cpuCount() * 2);
+    }
+
+    public StripedCounterMap(KeyCopier<T> keyCopier) {
+        this(CpuUtils.cpuCount() * 2, keyCopier);
+    }
+
+    public StripedCounterMap(int stripeSize) {
+        this(stripeSize, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedCounterMap(int stripeSize, KeyCopier<T> keyCopier) {
+        if (stripeSize <= 0) {
+            throw new IllegalArgumentException("stripeSize must be positive. stripeSize:" + stripeSize);
+        }
+        final int size = powerOfTwo(stripeSize);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe<T>(keyCopier);
+        }
+        this.mask = size - 1;
+    }
+
+    public interface KeyCopier<T> {
+        T copy(T key);
+    }
+
+    static int powerOfTwo(int value) {
+        int size = 1;
+        while (size < value) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    static int spread(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+
+    private Stripe<T> getStripe() {
+        final long threadId = Thread.currentThread().getId();
+        final int index = spread((int) (threadId ^ (threadId >>> 32))) & mask;
+        return stripes[index];
+    }
+
+    public void increment(T key, long increment) {
+        if (key == null) {
+            throw new NullPointerException("key must not be null");
+        }
+        getStripe().increment(key, increment);
+    }
+
+    int getStripeSize() {
+        return stripes.length;
+    }
+
+    /**
+     * snapshot and reset the counters.
+     */
+    public Map<T, Long> remove() {
+        final CounterTable<T>[] snapshot = removeAll();
+
+        int size = 0;
+        for (CounterTable<T> table : snapshot) {
+            if (table != null) {
+                size += table.size;
+            }
+        }
+        final Map<T, Long> mergeMap = new HashMap<T, Long>(Math.max((int) (size / 0.75f) + 1, 16));
+        if (size == 0) {
+            return mergeMap;
+        }
+        for (CounterTable<T> table : snapshot) {
+            if (table == null) {
+                continue;
+            }
+            table.mergeTo(mergeMap);
+        }
+        return mergeMap;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CounterTable<T>[] removeAll() {
+        final CounterTable<T>[] snapshot = new CounterTable[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            snapshot[i] = stripes[i].remove();
+        }
+        return snapshot;
+    }
+
+    private static class Stripe<T> {
+
+        private final KeyCopier<T> keyCopier;
+        private CounterTable<T> table;
+
+        private Stripe(KeyCopier<T> keyCopier) {
+            this.keyCopier = keyCopier;
+            this.table = new CounterTable<T>(DEFAULT_TABLE_SIZE, keyCopier);
+        }
+
+        public synchronized void increment(T key, long increment) {
+            table.increment(key, increment);
+        }
+
+        public CounterTable<T> remove() {
+            synchronized (this) {
+                final CounterTable<T> old = this.table;
+                if (old.size == 0) {
+                    return null;
+                }
+                // keep the capacity of the last period to avoid rehashing
+                this.table = new CounterTable<T>(old.keys.length, keyCopier);
+                return old;
+            }
+        }
+    }
+
+    /**
+     * open addressing table with linear probing. not thread safe.
+     */
+    static class CounterTable<T> {
+        private static final float LOAD_FACTOR = 0.75f;
+
+        private final KeyCopier<T> keyCopier;
+        private Object[] keys;
+        private long[] values;
+        private int size;
+        private int threshold;
+
+        CounterTable(int capacity) {
+            this(capacity, null);
+        }
+
+        CounterTable(int capacity, KeyCopier<T> keyCopier) {
+            this.keyCopier = keyCopier;
+            final int tableSize = powerOfTwo(Math.max(capacity, 2));
+            this.keys = new Object[tableSize];
+            this.values = new long[tableSize];
+            this.threshold = (int) (tableSize * LOAD_FACTOR);
+        }
+
+        void increment(T key, long increment) {
+            final Object[] keys = this.keys;
+            final int mask = keys.length - 1;
+            int index = spread(key.hashCode()) & mask;
+            while (true) {
+                final Object current = keys[index];
+                if (current == null) {
+                    keys[index] = keyCopier == null ? key : keyCopier.copy(key);
+                    values[index] = increment;
+                    if (++size > threshold) {
+                        resize();
+                    }
+                    return;
+                }
+                if (current == key || current.equals(key)) {
+                    values[index] += increment;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        long get(Object key) {
+            final Object[] keys = this.keys;
+            final int mask = keys.length - 1;
+            int index = spread(key.hashCode()) & mask;
+            while (true) {
+                final Object current = keys[index];
+                if (current == null) {
+                    return 0;
+                }
+                if (current == key || current.equals(key)) {
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void resize() {
+            final Object[] oldKeys = this.keys;
+            final long[] oldValues = this.values;
+            final int newLength = oldKeys.length << 1;
+
+            this.keys = new Object[newLength];
+            this.values = new long[newLength];
+            this.threshold = (int) (newLength * LOAD_FACTOR);
+            final int mask = newLength - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                final Object key = oldKeys[i];
+                if (key == null) {
+                    continue;
+                }
+                // keys are unique and already copied
+                int index = spread(key.hashCode()) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void mergeTo(Map<T, Long> mergeMap) {
+            final Object[] keys = this.keys;
+            final long[] values = this.values;
+            for (int i = 0; i < keys.length; i++) {
+                final T key = (T) keys[i];
+                if (key == null) {
+                    continue;
+                }
+                final Long old = mergeMap.get(key);
+                if (old == null) {
+                    mergeMap.put(key, values[i]);
+                } else {
+                    mergeMap.put(key, old + values[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.*;
+
+import com.navercorp.pinpoint.common.bo.AgentStatMemoryGcBo;
+import com.navercorp.pinpoint.common.bo.AgentStatRollupBo;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Put;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.hadoop.hbase.RowMapper;
+
+/**
+ * @author agent
+ */
+public class HbaseAgentStatRollupDaoTest {
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long HOUR = 60 * MINUTE;
+
+    @Mock
+    private HbaseOperations2 hbaseTemplate;
+
+    @Mock
+    private AbstractRowKeyDistributor rowKeyDistributor;
+
+    @InjectMocks
+    private HbaseAgentStatRollupDao rollupDao = new HbaseAgentStatRollupDao();
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(rowKeyDistributor.getDistributedKey(any(byte[].class))).thenAnswer(new Answer<byte[]>() {
+            @Override
+            public byte[] answer(InvocationOnMock invocation) throws Throwable {
+                return (byte[]) invocation.getArguments()[0];
+            }
+        });
+        when(hbaseTemplate.checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), any(byte[].class), any(byte[].class), any(byte[].class), any(Put.class))).thenReturn(true);
+        rollupDao.setEnable(true);
+        rollupDao.setFlushDelay(MINUTE);
+    }
+
+    @Test
+    public void flushClosedSlot() {
+        final long currentTime = 10 * HOUR;
+        rollupDao.update("agent", currentTime - 3 * MINUTE, createMemoryGcBo(100), null);
+        rollupDao.update("agent", currentTime - 3 * MINUTE + 5000, createMemoryGcBo(300), null);
+        rollupDao.update("agent", currentTime, createMemoryGcBo(200), null);
+        // 2 minute slots and 2 hour slots
+        Assert.assertEquals(4, rollupDao.getRollupSize());
+
+        rollupDao.flush(currentTime, false);
+
+        // only the minute slot of 3 minutes ago is closed
+        ArgumentCaptor<Put> captor = ArgumentCaptor.forClass(Put.class);
+        verify(hbaseTemplate).checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), eq(HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE),
+                eq(HBaseTables.AGENT_STAT_ROLLUP_CF_QUALIFIER), (byte[]) isNull(), captor.capture());
+        Assert.assertEquals(3, rollupDao.getRollupSize());
+
+        AgentStatRollupBo rollupBo = getRollupBo(captor.getValue(), HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE);
+        Assert.assertEquals(currentTime - 3 * MINUTE, rollupBo.getTimestamp());
+        Assert.assertEquals(2, rollupBo.getJvmMemoryHeapUsed().getCount());
+        Assert.assertEquals(100, rollupBo.getJvmMemoryHeapUsed().getMin());
+        Assert.assertEquals(300, rollupBo.getJvmMemoryHeapUsed().getMax());
+        Assert.assertEquals(400, rollupBo.getJvmMemoryHeapUsed().getSum());
+    }
+
+    @Test
+    public void mergeStoredRow() {
+        final long currentTime = 10 * HOUR;
+        final long slotTime = currentTime - 3 * MINUTE;
+        // written by another collector, or before a restart
+        final AgentStatRollupBo storedBo = new AgentStatRollupBo("agent", slotTime);
+        storedBo.addMemoryGc(createMemoryGcBo(500));
+        final byte[] storedValue = storedBo.writeValue();
+        mockStoredValue(storedValue);
+
+        rollupDao.update("agent", slotTime, createMemoryGcBo(100), null);
+        rollupDao.flush(currentTime, false);
+
+        ArgumentCaptor<Put> captor = ArgumentCaptor.forClass(Put.class);
+        verify(hbaseTemplate).checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), eq(HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE),
+                eq(HBaseTables.AGENT_STAT_ROLLUP_CF_QUALIFIER), eq(storedValue), captor.capture());
+        AgentStatRollupBo rollupBo = getRollupBo(captor.getValue(), HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE);
+        Assert.assertEquals(2, rollupBo.getJvmMemoryHeapUsed().getCount());
+        Assert.assertEquals(100, rollupBo.getJvmMemoryHeapUsed().getMin());
+        Assert.assertEquals(500, rollupBo.getJvmMemoryHeapUsed().getMax());
+    }
+
+    @Test
+    public void retryConflict() {
+        final long currentTime = 10 * HOUR;
+        when(hbaseTemplate.checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), eq(HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE), any(byte[].class), any(byte[].class), any(Put.class)))
+                .thenReturn(false, true);
+
+        rollupDao.update("agent", currentTime - 3 * MINUTE, createMemoryGcBo(100), null);
+        rollupDao.flush(currentTime, false);
+
+        verify(hbaseTemplate, times(2)).checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), eq(HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE),
+                any(byte[].class), any(byte[].class), any(Put.class));
+        Assert.assertEquals(0, rollupDao.getDroppedCount());
+    }
+
+    @Test
+    public void flushLateStat() {
+        final long currentTime = System.currentTimeMillis();
+        // the slots of 2 hours ago are already closed, but still merged into the rows
+        rollupDao.update("agent", currentTime - 2 * HOUR, createMemoryGcBo(100), null);
+        Assert.assertEquals(2, rollupDao.getRollupSize());
+
+        rollupDao.flushAll();
+        Assert.assertEquals(0, rollupDao.getRollupSize());
+        verify(hbaseTemplate, times(2)).checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), any(byte[].class),
+                any(byte[].class), any(byte[].class), any(Put.class));
+    }
+
+    @Test
+    public void flushOpenSlotOnShutdown() {
+        rollupDao.update("agent", System.currentTimeMillis(), createMemoryGcBo(100), null);
+
+        rollupDao.flushAll();
+        Assert.assertEquals(2, rollupDao.getRollupSize());
+
+        rollupDao.shutdown();
+        Assert.assertEquals(0, rollupDao.getRollupSize());
+        verify(hbaseTemplate, times(2)).checkAndPut(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), any(byte[].class),
+                any(byte[].class), any(byte[].class), any(Put.class));
+    }
+
+    @Test
+    public void disabled() {
+        rollupDao.setEnable(false);
+        rollupDao.update("agent", System.currentTimeMillis(), createMemoryGcBo(100), null);
+        Assert.assertEquals(0, rollupDao.getRollupSize());
+
+        rollupDao.shutdown();
+        verifyZeroInteractions(hbaseTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockStoredValue(byte[] storedValue) {
+        when(hbaseTemplate.get(eq(HBaseTables.AGENT_STAT_ROLLUP), any(byte[].class), eq(HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE),
+                eq(HBaseTables.AGENT_STAT_ROLLUP_CF_QUALIFIER), any(RowMapper.class))).thenReturn(storedValue);
+    }
+
+    private AgentStatRollupBo getRollupBo(Put put, byte[] family) {
+        Cell cell = put.get(family, HBaseTables.AGENT_STAT_ROLLUP_CF_QUALIFIER).get(0);
+        return new AgentStatRollupBo(CellUtil.cloneValue(cell));
+    }
+
+    private AgentStatMemoryGcBo createMemoryGcBo(long heapUsed) {
+        AgentStatMemoryGcBo.Builder builder = new AgentStatMemoryGcBo.Builder("agent", 0, 0);
+        builder.jvmMemoryHeapUsed(heapUsed);
+        return builder.build();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase.statistics;
+
+import com.navercorp.pinpoint.collector.util.StripedCounterMap;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * @author agent
+ */
+public class RowKeyMergeTest {
+
+    private static final byte[] FAMILY = Bytes.toBytes("C");
+
+    private static final ColumnNameFactory RESPONSE_COLUMN_NAME_FACTORY = new ColumnNameFactory() {
+        @Override
+        public ColumnName createColumnName(StatisticsKey key) {
+            return new ResponseColumnName(key.getAgentId(), key.getSlotNumber());
+        }
+    };
+
+    @Test
+    public void createBulkIncrement() {
+        StripedCounterMap<StatisticsKey> counter = new StripedCounterMap<StatisticsKey>(4, StatisticsKey.COPIER);
+        for (int i = 0; i < 10; i++) {
+            counter.increment(StatisticsKey.probe().set("app", (short) 1000, 60000, "agent", (short) 0, null, null, (short) 100), 1L);
+        }
+        counter.increment(StatisticsKey.probe().set("app", (short) 1000, 60000, "agent", (short) 0, null, null, (short) 300), 1L);
+        counter.increment(StatisticsKey.probe().set("app", (short) 1000, 120000, "agent", (short) 0, null, null, (short) 100), 1L);
+
+        RowKeyMerge rowKeyMerge = new RowKeyMerge(FAMILY);
+        List<Increment> incrementList = rowKeyMerge.createBulkIncrement(counter.remove(), RESPONSE_COLUMN_NAME_FACTORY);
+        // one increment per row
+        Assert.assertEquals(2, incrementList.size());
+
+        final byte[] firstRow = new CallRowKey("app", (short) 1000, 60000).getRowKey();
+        Increment first = findIncrement(incrementList, firstRow);
+        NavigableMap<byte[], Long> columns = first.getFamilyMapOfLongs().get(FAMILY);
+        Assert.assertEquals(2, columns.size());
+        Assert.assertEquals(10L, columns.get(new ResponseColumnName("agent", (short) 100).getColumnName()).longValue());
+        Assert.assertEquals(1L, columns.get(new ResponseColumnName("agent", (short) 300).getColumnName()).longValue());
+    }
+
+    @Test
+    public void emptyData() {
+        RowKeyMerge rowKeyMerge = new RowKeyMerge(FAMILY);
+        StripedCounterMap<StatisticsKey> counter = new StripedCounterMap<StatisticsKey>(StatisticsKey.COPIER);
+        Map<StatisticsKey, Long> remove = counter.remove();
+        Assert.assertTrue(rowKeyMerge.createBulkIncrement(remove, RESPONSE_COLUMN_NAME_FACTORY).isEmpty());
+    }
+
+    private Increment findIncrement(List<Increment> incrementList, byte[] row) {
+        for (Increment increment : incrementList) {
+            if (Arrays.equals(increment.getRow(), row)) {
+                return increment;
+            }
+        }
+        Assert.fail("row not found");
+        return null;
+    }
+}
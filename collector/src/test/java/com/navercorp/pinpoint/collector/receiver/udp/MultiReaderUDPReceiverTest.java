@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import com.codahale.metrics.MetricRegistry;
+import com.navercorp.pinpoint.collector.receiver.DispatchHandler;
+import com.navercorp.pinpoint.thrift.dto.TApiMetaData;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
+import org.apache.thrift.TBase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author agent
+ */
+public class MultiReaderUDPReceiverTest {
+
+    private static final String RECEIVER_NAME = "MultiReaderTest";
+
+    @Test
+    public void dispatchOnReaderThread() throws Exception {
+        final int messageCount = 10;
+        final CountDownLatch latch = new CountDownLatch(messageCount);
+        final Set<String> dispatchThreadNames = Collections.synchronizedSet(new HashSet<String>());
+        DispatchHandler dispatchHandler = new DispatchHandler() {
+            @Override
+            public void dispatchSendMessage(TBase<?, ?> tBase) {
+                dispatchThreadNames.add(Thread.currentThread().getName());
+                latch.countDown();
+            }
+
+            @Override
+            public TBase dispatchRequestMessage(TBase<?, ?> tBase) {
+                return null;
+            }
+        };
+
+        final int port = findFreePort();
+        BaseUDPReceiver receiver = new BaseUDPReceiver(RECEIVER_NAME, dispatchHandler, "127.0.0.1", port, 1024 * 64, 1, 10, 2);
+        MetricRegistry metricRegistry = new MetricRegistry();
+        ReflectionTestUtils.setField(receiver, "metricRegistry", metricRegistry);
+        receiver.start();
+        try {
+            Assert.assertTrue(receiver.isMultiReader());
+            Assert.assertEquals(2, receiver.getReaderSize());
+
+            HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory().createSerializer();
+            DatagramSocket client = new DatagramSocket();
+            try {
+                for (int i = 0; i < messageCount; i++) {
+                    TApiMetaData apiMetaData = new TApiMetaData("agentId", System.currentTimeMillis(), i, "api");
+                    byte[] bytes = serializer.serialize(apiMetaData);
+                    client.send(new DatagramPacket(bytes, serializer.getInterBufferSize(), new InetSocketAddress("127.0.0.1", port)));
+                }
+            } finally {
+                client.close();
+            }
+
+            Assert.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+            for (String threadName : dispatchThreadNames) {
+                Assert.assertTrue(threadName, threadName.startsWith(RECEIVER_NAME + "-Io"));
+            }
+
+            Assert.assertTrue(metricRegistry.getTimers().containsKey(RECEIVER_NAME + "-reader-0-timer"));
+            Assert.assertTrue(metricRegistry.getTimers().containsKey(RECEIVER_NAME + "-reader-1-timer"));
+            Assert.assertTrue(metricRegistry.getCounters().containsKey(RECEIVER_NAME + "-reader-0-rejected"));
+            Assert.assertTrue(metricRegistry.getCounters().containsKey(RECEIVER_NAME + "-reader-1-rejected"));
+            // the timer is stopped after the dispatch returns
+            final long deadline = System.currentTimeMillis() + 3000;
+            long dispatchCount = getDispatchCount(metricRegistry);
+            while (dispatchCount < messageCount && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                dispatchCount = getDispatchCount(metricRegistry);
+            }
+            Assert.assertEquals(messageCount, dispatchCount);
+        } finally {
+            receiver.shutdown();
+        }
+    }
+
+    private long getDispatchCount(MetricRegistry metricRegistry) {
+        return metricRegistry.timer(RECEIVER_NAME + "-reader-0-timer").getCount()
+                + metricRegistry.timer(RECEIVER_NAME + "-reader-1-timer").getCount();
+    }
+
+    private int findFreePort() throws Exception {
+        DatagramSocket socket = new DatagramSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author agent
+ */
+public class StripedCounterMapTest {
+
+    @Test
+    public void testIncrement() throws Exception {
+        StripedCounterMap<String> cache = new StripedCounterMap<String>();
+        cache.increment("a", 1L);
+        cache.increment("a", 2L);
+        cache.increment("b", 5L);
+
+        Map<String, Long> remove = cache.remove();
+        Assert.assertEquals(3L, remove.get("a").longValue());
+        Assert.assertEquals(5L, remove.get("b").longValue());
+
+        cache.increment("a", 1L);
+        Map<String, Long> remove2 = cache.remove();
+        Assert.assertEquals(1L, remove2.get("a").longValue());
+        Assert.assertNull(remove2.get("b"));
+
+        Assert.assertTrue(cache.remove().isEmpty());
+    }
+
+    @Test
+    public void testKeyCopier() throws Exception {
+        StripedCounterMap.KeyCopier<StringBuilder> copier = new StripedCounterMap.KeyCopier<StringBuilder>() {
+            @Override
+            public StringBuilder copy(StringBuilder key) {
+                return new StringBuilder(key);
+            }
+        };
+        // StringBuilder has identity equals. the copied key is stored, so the reused probe does not match again
+        StripedCounterMap<StringBuilder> cache = new StripedCounterMap<StringBuilder>(1, copier);
+        StringBuilder probe = new StringBuilder("a");
+        cache.increment(probe, 1L);
+        probe.setLength(0);
+        probe.append("b");
+        cache.increment(probe, 1L);
+
+        Map<StringBuilder, Long> remove = cache.remove();
+        Assert.assertEquals(2, remove.size());
+        for (StringBuilder key : remove.keySet()) {
+            Assert.assertNotSame(probe, key);
+        }
+    }
+
+    @Test
+    public void testStripeSize() throws Exception {
+        Assert.assertEquals(1, new StripedCounterMap<String>(1).getStripeSize());
+        Assert.assertEquals(16, new StripedCounterMap<String>(10).getStripeSize());
+    }
+
+    @Test
+    public void testResize() throws Exception {
+        StripedCounterMap.CounterTable<Integer> table = new StripedCounterMap.CounterTable<Integer>(2);
+        for (int i = 0; i < 1000; i++) {
+            table.increment(i, i);
+            table.increment(i, 1);
+        }
+        Assert.assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i + 1, table.get(i));
+        }
+        Assert.assertEquals(0, table.get(1001));
+    }
+
+    @Test
+    public void testConcurrentIncrementAndRemove() throws Exception {
+        final StripedCounterMap<Integer> cache = new StripedCounterMap<Integer>(4);
+        final int threadSize = 8;
+        final int loop = 100000;
+        final int keySize = 10;
+        final CountDownLatch latch = new CountDownLatch(threadSize);
+        ExecutorService executor = Executors.newFixedThreadPool(threadSize);
+        for (int i = 0; i < threadSize; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < loop; j++) {
+                            cache.increment(j % keySize, 1L);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+
+        long total = 0;
+        // snapshot while writers are running
+        while (!latch.await(1, TimeUnit.MILLISECONDS)) {
+            total += sum(cache.remove());
+        }
+        total += sum(cache.remove());
+        executor.shutdown();
+
+        Assert.assertEquals((long) threadSize * loop, total);
+    }
+
+    private long sum(Map<Integer, Long> map) {
+        long sum = 0;
+        for (Long value : map.values()) {
+            sum += value;
+        }
+        return sum;
+    }
+}
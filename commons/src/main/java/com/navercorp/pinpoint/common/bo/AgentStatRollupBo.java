@@ -0,0 +1,363 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.bo;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+
+/**
+ * min/max/sum/count of the agent stats of a rollup slot.
+ * not thread safe.
+ *
+ * @author agent
+ */
+public class AgentStatRollupBo {
+
+    private static final byte VERSION = 1;
+
+    private final String agentId;
+    // start time of the rollup slot
+    private final long timestamp;
+    private String gcType;
+
+    private final LongStat jvmMemoryHeapUsed;
+    private final LongStat jvmMemoryHeapMax;
+    private final LongStat jvmMemoryNonHeapUsed;
+    private final LongStat jvmMemoryNonHeapMax;
+    private final LongStat jvmGcOldCount;
+    private final LongStat jvmGcOldTime;
+
+    private final DoubleStat jvmCpuLoad;
+    private final DoubleStat systemCpuLoad;
+
+    public AgentStatRollupBo(String agentId, long timestamp) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        this.agentId = agentId;
+        this.timestamp = timestamp;
+        this.jvmMemoryHeapUsed = new LongStat();
+        this.jvmMemoryHeapMax = new LongStat();
+        this.jvmMemoryNonHeapUsed = new LongStat();
+        this.jvmMemoryNonHeapMax = new LongStat();
+        this.jvmGcOldCount = new LongStat();
+        this.jvmGcOldTime = new LongStat();
+        this.jvmCpuLoad = new DoubleStat();
+        this.systemCpuLoad = new DoubleStat();
+    }
+
+    public AgentStatRollupBo(final byte[] value) {
+        if (value == null) {
+            throw new NullPointerException("value must not be null");
+        }
+        final Buffer buffer = new FixedBuffer(value);
+        final byte version = buffer.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unknown version:" + version);
+        }
+        this.agentId = buffer.readPrefixedString();
+        this.timestamp = buffer.readLong();
+        this.gcType = buffer.readPrefixedString();
+        this.jvmMemoryHeapUsed = LongStat.read(buffer);
+        this.jvmMemoryHeapMax = LongStat.read(buffer);
+        this.jvmMemoryNonHeapUsed = LongStat.read(buffer);
+        this.jvmMemoryNonHeapMax = LongStat.read(buffer);
+        this.jvmGcOldCount = LongStat.read(buffer);
+        this.jvmGcOldTime = LongStat.read(buffer);
+        this.jvmCpuLoad = DoubleStat.read(buffer);
+        this.systemCpuLoad = DoubleStat.read(buffer);
+    }
+
+    public void addMemoryGc(AgentStatMemoryGcBo memoryGc) {
+        if (memoryGc == null) {
+            return;
+        }
+        this.gcType = memoryGc.getGcType();
+        this.jvmMemoryHeapUsed.add(memoryGc.getJvmMemoryHeapUsed());
+        this.jvmMemoryHeapMax.add(memoryGc.getJvmMemoryHeapMax());
+        this.jvmMemoryNonHeapUsed.add(memoryGc.getJvmMemoryNonHeapUsed());
+        this.jvmMemoryNonHeapMax.add(memoryGc.getJvmMemoryNonHeapMax());
+        this.jvmGcOldCount.add(memoryGc.getJvmGcOldCount());
+        this.jvmGcOldTime.add(memoryGc.getJvmGcOldTime());
+    }
+
+    public void addCpuLoad(AgentStatCpuLoadBo cpuLoad) {
+        if (cpuLoad == null) {
+            return;
+        }
+        this.jvmCpuLoad.add(cpuLoad.getJvmCpuLoad());
+        this.systemCpuLoad.add(cpuLoad.getSystemCpuLoad());
+    }
+
+    /**
+     * merges the rollup of the same slot, written by another collector or before a restart.
+     */
+    public void merge(AgentStatRollupBo other) {
+        if (other == null) {
+            throw new NullPointerException("other must not be null");
+        }
+        if (!this.agentId.equals(other.agentId) || this.timestamp != other.timestamp) {
+            throw new IllegalArgumentException("different slot. agentId:" + other.agentId + " timestamp:" + other.timestamp);
+        }
+        if (this.gcType == null) {
+            this.gcType = other.gcType;
+        }
+        this.jvmMemoryHeapUsed.merge(other.jvmMemoryHeapUsed);
+        this.jvmMemoryHeapMax.merge(other.jvmMemoryHeapMax);
+        this.jvmMemoryNonHeapUsed.merge(other.jvmMemoryNonHeapUsed);
+        this.jvmMemoryNonHeapMax.merge(other.jvmMemoryNonHeapMax);
+        this.jvmGcOldCount.merge(other.jvmGcOldCount);
+        this.jvmGcOldTime.merge(other.jvmGcOldTime);
+        this.jvmCpuLoad.merge(other.jvmCpuLoad);
+        this.systemCpuLoad.merge(other.systemCpuLoad);
+    }
+
+    public byte[] writeValue() {
+        final Buffer buffer = new AutomaticBuffer(128);
+        buffer.put(VERSION);
+        buffer.putPrefixedString(this.agentId);
+        buffer.put(this.timestamp);
+        buffer.putPrefixedString(this.gcType);
+        this.jvmMemoryHeapUsed.write(buffer);
+        this.jvmMemoryHeapMax.write(buffer);
+        this.jvmMemoryNonHeapUsed.write(buffer);
+        this.jvmMemoryNonHeapMax.write(buffer);
+        this.jvmGcOldCount.write(buffer);
+        this.jvmGcOldTime.write(buffer);
+        this.jvmCpuLoad.write(buffer);
+        this.systemCpuLoad.write(buffer);
+        return buffer.getBuffer();
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getGcType() {
+        return gcType;
+    }
+
+    public LongStat getJvmMemoryHeapUsed() {
+        return jvmMemoryHeapUsed;
+    }
+
+    public LongStat getJvmMemoryHeapMax() {
+        return jvmMemoryHeapMax;
+    }
+
+    public LongStat getJvmMemoryNonHeapUsed() {
+        return jvmMemoryNonHeapUsed;
+    }
+
+    public LongStat getJvmMemoryNonHeapMax() {
+        return jvmMemoryNonHeapMax;
+    }
+
+    public LongStat getJvmGcOldCount() {
+        return jvmGcOldCount;
+    }
+
+    public LongStat getJvmGcOldTime() {
+        return jvmGcOldTime;
+    }
+
+    public DoubleStat getJvmCpuLoad() {
+        return jvmCpuLoad;
+    }
+
+    public DoubleStat getSystemCpuLoad() {
+        return systemCpuLoad;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("AgentStatRollupBo{");
+        sb.append("agentId='").append(this.agentId).append('\'');
+        sb.append(", timestamp=").append(this.timestamp);
+        sb.append(", gcType='").append(this.gcType).append('\'');
+        sb.append(", jvmMemoryHeapUsed=").append(this.jvmMemoryHeapUsed);
+        sb.append(", jvmMemoryHeapMax=").append(this.jvmMemoryHeapMax);
+        sb.append(", jvmMemoryNonHeapUsed=").append(this.jvmMemoryNonHeapUsed);
+        sb.append(", jvmMemoryNonHeapMax=").append(this.jvmMemoryNonHeapMax);
+        sb.append(", jvmGcOldCount=").append(this.jvmGcOldCount);
+        sb.append(", jvmGcOldTime=").append(this.jvmGcOldTime);
+        sb.append(", jvmCpuLoad=").append(this.jvmCpuLoad);
+        sb.append(", systemCpuLoad=").append(this.systemCpuLoad);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static final class LongStat {
+        private long min;
+        private long max;
+        private long sum;
+        private int count;
+
+        public void add(long value) {
+            if (count == 0) {
+                min = value;
+                max = value;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            sum += value;
+            count++;
+        }
+
+        private void merge(LongStat other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0) {
+                min = other.min;
+                max = other.max;
+            } else {
+                min = Math.min(min, other.min);
+                max = Math.max(max, other.max);
+            }
+            sum += other.sum;
+            count += other.count;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        private void write(Buffer buffer) {
+            buffer.putVar(count);
+            if (count == 0) {
+                return;
+            }
+            buffer.putSVar(min);
+            buffer.putSVar(max);
+            buffer.putSVar(sum);
+        }
+
+        private static LongStat read(Buffer buffer) {
+            final LongStat stat = new LongStat();
+            stat.count = buffer.readVarInt();
+            if (stat.count == 0) {
+                return stat;
+            }
+            stat.min = buffer.readSVarLong();
+            stat.max = buffer.readSVarLong();
+            stat.sum = buffer.readSVarLong();
+            return stat;
+        }
+
+        @Override
+        public String toString() {
+            return "{min=" + min + ", max=" + max + ", sum=" + sum + ", count=" + count + '}';
+        }
+    }
+
+    public static final class DoubleStat {
+        private double min;
+        private double max;
+        private double sum;
+        private int count;
+
+        public void add(double value) {
+            if (count == 0) {
+                min = value;
+                max = value;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            sum += value;
+            count++;
+        }
+
+        private void merge(DoubleStat other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0) {
+                min = other.min;
+                max = other.max;
+            } else {
+                min = Math.min(min, other.min);
+                max = Math.max(max, other.max);
+            }
+            sum += other.sum;
+            count += other.count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        private void write(Buffer buffer) {
+            buffer.putVar(count);
+            if (count == 0) {
+                return;
+            }
+            buffer.put(min);
+            buffer.put(max);
+            buffer.put(sum);
+        }
+
+        private static DoubleStat read(Buffer buffer) {
+            final DoubleStat stat = new DoubleStat();
+            stat.count = buffer.readVarInt();
+            if (stat.count == 0) {
+                return stat;
+            }
+            stat.min = buffer.readDouble();
+            stat.max = buffer.readDouble();
+            stat.sum = buffer.readDouble();
+            return stat;
+        }
+
+        @Override
+        public String toString() {
+            return "{min=" + min + ", max=" + max + ", sum=" + sum + ", count=" + count + '}';
+        }
+    }
+}
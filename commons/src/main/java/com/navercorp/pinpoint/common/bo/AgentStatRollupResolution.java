@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.bo;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+
+/**
+ * resolutions of the agent stat rollup table. each resolution is stored in its own column family.
+ * @author agent
+ */
+public enum AgentStatRollupResolution {
+
+    MINUTE(60 * 1000L, HBaseTables.AGENT_STAT_ROLLUP_CF_MINUTE),
+    HOUR(60 * 60 * 1000L, HBaseTables.AGENT_STAT_ROLLUP_CF_HOUR);
+
+    private final long resolution;
+    private final byte[] columnFamily;
+
+    private AgentStatRollupResolution(long resolution, byte[] columnFamily) {
+        this.resolution = resolution;
+        this.columnFamily = columnFamily;
+    }
+
+    public long getResolution() {
+        return resolution;
+    }
+
+    public byte[] getColumnFamily() {
+        return columnFamily;
+    }
+
+    public long getSlotTime(long timestamp) {
+        return timestamp - (timestamp % resolution);
+    }
+}
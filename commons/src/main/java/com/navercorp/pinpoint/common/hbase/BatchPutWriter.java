@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * write-behind buffer for puts.
+ * puts are grouped per table and flushed with a single batch put when the batch is full or the flush interval has elapsed.
+ * the caller never waits for the region server. puts are rejected when the buffered puts exceed maxBufferSize.
+ * a failed batch is not retried here. the hbase client has already retried it (hbase.client.retries.number),
+ * so it is logged and counted as failCount of the table.
+ *
+ * @author agent
+ */
+public class BatchPutWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_FLUSH_INTERVAL = 100;
+    public static final long DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024 * 64;
+    public static final int DEFAULT_FLUSH_THREAD_SIZE = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final HbaseOperations2 hbaseOperations;
+    private final int batchSize;
+    private final long flushInterval;
+    private final long maxBufferSize;
+    private final int flushThreadSize;
+
+    private final ConcurrentMap<String, TableBatch> tableBatchMap = new ConcurrentHashMap<String, TableBatch>();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private ScheduledExecutorService flushTimer;
+    private ExecutorService flushExecutor;
+    // put() holds the read lock while enqueueing, so no put is left in the queue after stop() has flushed it.
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed = true;
+
+    public BatchPutWriter(HbaseOperations2 hbaseOperations) {
+        this(hbaseOperations, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_FLUSH_THREAD_SIZE);
+    }
+
+    public BatchPutWriter(HbaseOperations2 hbaseOperations, int batchSize, long flushInterval, long maxBufferSize, int flushThreadSize) {
+        if (hbaseOperations == null) {
+            throw new NullPointerException("hbaseOperations must not be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive. batchSize:" + batchSize);
+        }
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("flushInterval must be positive. flushInterval:" + flushInterval);
+        }
+        if (maxBufferSize <= 0) {
+            throw new IllegalArgumentException("maxBufferSize must be positive. maxBufferSize:" + maxBufferSize);
+        }
+        if (flushThreadSize <= 0) {
+            throw new IllegalArgumentException("flushThreadSize must be positive. flushThreadSize:" + flushThreadSize);
+        }
+        this.hbaseOperations = hbaseOperations;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxBufferSize = maxBufferSize;
+        this.flushThreadSize = flushThreadSize;
+    }
+
+    public void start() {
+        // at most one flush per table is in flight, so the queue can not grow beyond the table count.
+        this.flushExecutor = new ThreadPoolExecutor(flushThreadSize, flushThreadSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new PinpointThreadFactory("Pinpoint-HbaseBatchPut-Flush", true));
+        this.flushTimer = new ScheduledThreadPoolExecutor(1, new PinpointThreadFactory("Pinpoint-HbaseBatchPut-Timer", true));
+        this.flushTimer.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flushExpired();
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        this.closed = false;
+        logger.info("BatchPutWriter started. batchSize:{}, flushInterval:{}, maxBufferSize:{}, flushThreadSize:{}", batchSize, flushInterval, maxBufferSize, flushThreadSize);
+    }
+
+    /**
+     * @return false if the put was rejected because the buffer is full or the writer is closed. the caller should write it synchronously.
+     */
+    public boolean put(String tableName, Put put) {
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        if (put == null) {
+            throw new NullPointerException("put must not be null");
+        }
+        final TableBatch tableBatch = getTableBatch(tableName);
+        final Lock readLock = closeLock.readLock();
+        readLock.lock();
+        try {
+            if (closed) {
+                tableBatch.recordReject();
+                return false;
+            }
+            final long heapSize = put.heapSize();
+            if (bufferedBytes.addAndGet(heapSize) > maxBufferSize) {
+                bufferedBytes.addAndGet(-heapSize);
+                tableBatch.recordReject();
+                final long rejectedCount = tableBatch.getRejectedCount();
+                if ((rejectedCount % 100) == 1) {
+                    logger.warn("batch put buffer is full. table:{} rejectedCount:{} bufferedBytes:{}", tableName, rejectedCount, bufferedBytes.get());
+                }
+                return false;
+            }
+            tableBatch.add(put);
+        } finally {
+            readLock.unlock();
+        }
+        if (tableBatch.getQueueSize() >= batchSize) {
+            submitFlush(tableBatch);
+        }
+        return true;
+    }
+
+    public TableBatch getTableBatch(String tableName) {
+        final TableBatch tableBatch = tableBatchMap.get(tableName);
+        if (tableBatch != null) {
+            return tableBatch;
+        }
+        final TableBatch newTableBatch = new TableBatch(tableName);
+        final TableBatch exist = tableBatchMap.putIfAbsent(tableName, newTableBatch);
+        if (exist != null) {
+            return exist;
+        }
+        return newTableBatch;
+    }
+
+    public List<TableBatch> getTableBatchList() {
+        return new ArrayList<TableBatch>(tableBatchMap.values());
+    }
+
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    private void flushExpired() {
+        final long currentTime = System.currentTimeMillis();
+        for (TableBatch tableBatch : tableBatchMap.values()) {
+            if (tableBatch.getQueueSize() == 0) {
+                continue;
+            }
+            if (currentTime - tableBatch.getLastFlushTime() >= flushInterval) {
+                submitFlush(tableBatch);
+            }
+        }
+    }
+
+    private void submitFlush(final TableBatch tableBatch) {
+        if (!tableBatch.tryStartFlush()) {
+            return;
+        }
+        try {
+            flushExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush(tableBatch);
+                    } finally {
+                        tableBatch.endFlush();
+                    }
+                    // a batch may have been filled up while the flag was still set
+                    if (tableBatch.getQueueSize() >= batchSize) {
+                        submitFlush(tableBatch);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closed
+            tableBatch.endFlush();
+        }
+    }
+
+    private void flush(TableBatch tableBatch) {
+        do {
+            final List<Put> putList = tableBatch.drain(batchSize);
+            if (putList.isEmpty()) {
+                return;
+            }
+            long heapSize = 0;
+            for (Put put : putList) {
+                heapSize += put.heapSize();
+            }
+            final long startTime = System.currentTimeMillis();
+            try {
+                hbaseOperations.put(tableBatch.getTableName(), putList);
+                final long latency = System.currentTimeMillis() - startTime;
+                tableBatch.recordFlush(latency);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("flush table:{} size:{} latency:{}ms queueSize:{}", tableBatch.getTableName(), putList.size(), latency, tableBatch.getQueueSize());
+                }
+            } catch (Exception e) {
+                // not retried. the hbase client has already retried the batch
+                tableBatch.recordFail(putList.size());
+                logger.warn("batch put failed. table:{} size:{} Caused:{}", tableBatch.getTableName(), putList.size(), e.getMessage(), e);
+            } finally {
+                bufferedBytes.addAndGet(-heapSize);
+            }
+        } while (tableBatch.getQueueSize() >= batchSize);
+    }
+
+    public void stop() {
+        final Lock writeLock = closeLock.writeLock();
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // waits for the puts being enqueued. later puts are rejected
+            this.closed = true;
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("BatchPutWriter stop.");
+        shutdownExecutor(flushTimer);
+        shutdownExecutor(flushExecutor);
+        // flush the remaining puts on the caller thread
+        for (TableBatch tableBatch : tableBatchMap.values()) {
+            while (tableBatch.getQueueSize() > 0) {
+                flush(tableBatch);
+            }
+            logger.info("{}", tableBatch);
+        }
+    }
+
+    private void shutdownExecutor(ExecutorService executor) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(3000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * a group of gets executed with a single multi-get.
+ * gets are ordered by row key before they are split, so the gets of a salt bucket (and of a region) end up in the same partition.
+ *
+ * @author agent
+ */
+final class GetPartition {
+
+    private final int[] indexes;
+    private final List<Get> getList;
+
+    private GetPartition(int[] indexes, List<Get> getList) {
+        this.indexes = indexes;
+        this.getList = getList;
+    }
+
+    static List<GetPartition> partition(final List<Get> getList, int batchSize) {
+        if (getList == null) {
+            throw new NullPointerException("getList must not be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive. batchSize:" + batchSize);
+        }
+        final int size = getList.size();
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Bytes.compareTo(getList.get(o1).getRow(), getList.get(o2).getRow());
+            }
+        });
+
+        final List<GetPartition> partitionList = new ArrayList<GetPartition>((size + batchSize - 1) / batchSize);
+        for (int start = 0; start < size; start += batchSize) {
+            final int end = Math.min(start + batchSize, size);
+            final int[] indexes = new int[end - start];
+            final List<Get> partitionGetList = new ArrayList<Get>(end - start);
+            for (int i = start; i < end; i++) {
+                final int index = order[i];
+                indexes[i - start] = index;
+                partitionGetList.add(getList.get(index));
+            }
+            partitionList.add(new GetPartition(indexes, partitionGetList));
+        }
+        return partitionList;
+    }
+
+    int[] getIndexes() {
+        return indexes;
+    }
+
+    List<Get> getGetList() {
+        return getList;
+    }
+}
@@ -39,6 +39,11 @@ public final class HBaseTables {
     public static final byte[] AGENT_STAT_CF_STATISTICS_CPU_LOAD = Bytes.toBytes("Cpu"); // qualifier for CPU load statistics
     public static final int AGENT_STAT_ROW_DISTRIBUTE_SIZE = 1; // agent statistics hash size
 
+    public static final String AGENT_STAT_ROLLUP = "AgentStatRollup";
+    public static final byte[] AGENT_STAT_ROLLUP_CF_MINUTE = Bytes.toBytes("M"); // 1 minute rollup column family
+    public static final byte[] AGENT_STAT_ROLLUP_CF_HOUR = Bytes.toBytes("H"); // 1 hour rollup column family
+    public static final byte[] AGENT_STAT_ROLLUP_CF_QUALIFIER = Bytes.toBytes("R"); // qualifier for min/max/sum/count of the slot
+
     public static final String TRACES = "Traces";
     public static final byte[] TRACES_CF_SPAN = Bytes.toBytes("S");  //Span
     public static final byte[] TRACES_CF_ANNOTATION = Bytes.toBytes("A");  //Annotation
@@ -65,6 +65,14 @@ public interface HbaseOperations2 extends HbaseOperations {
 
     <T> List<T> get(String tableName, final List<Get> get, final RowMapper<T> mapper);
 
+    /**
+     * splits the gets into partitions of adjacent row keys and executes them concurrently.
+     * the results are passed to the callback on the caller thread as each partition completes.
+     *
+     * @throws org.springframework.data.hadoop.hbase.HbaseSystemException if the gets are not completed within timeoutMillis
+     */
+    <T> void parallelGet(String tableName, final List<Get> getList, final RowMapper<T> mapper, long timeoutMillis, ResultCallback<T> callback);
+
 
     void put(String tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final byte[] value);
 
@@ -78,6 +86,23 @@ public interface HbaseOperations2 extends HbaseOperations {
 
     void put(String tableName, final List<Put> puts);
 
+    /**
+     * puts only if the current value of the column is the expectedValue. a null expectedValue means the column must not exist.
+     *
+     * @return true if the put was applied
+     */
+    boolean checkAndPut(String tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final byte[] expectedValue, final Put put);
+
+    /**
+     * Queues the put for a batched write-behind flush. The caller does not wait for the region server.
+     * Writes synchronously when the write-behind buffer is disabled.
+     *
+     * @param tableName target table
+     * @param put       put
+     * @return false if the put was rejected because the write-behind buffer is full or closed. the caller should write it synchronously.
+     */
+    boolean asyncPut(String tableName, final Put put);
+
     void delete(String tableName, final Delete delete);
 
     void delete(String tableName, final List<Delete> deletes);
@@ -94,6 +119,14 @@ public interface HbaseOperations2 extends HbaseOperations {
     
     <T> T find(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action);
 
+    <T> List<T> findParallel(String tableName, final Scan scan, AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action);
+
+    <T> List<T> findParallel(String tableName, final Scan scan, AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action);
+
+    <T> List<T> findParallel(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action, final LimitEventHandler limitEventHandler);
+
+    <T> T findParallel(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action);
+
     Result increment(String tableName, final Increment increment);
 
     /**
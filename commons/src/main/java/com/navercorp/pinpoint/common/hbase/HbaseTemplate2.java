@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.common.hbase;
 
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.common.util.StopWatch;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import com.sematext.hbase.wd.DistributedScanner;
@@ -31,7 +32,9 @@ import org.springframework.util.Assert;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -44,15 +47,33 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
     private PooledHTableFactory pooledHTableFactory;
     private int poolSize = PooledHTableFactory.DEFAULT_POOL_SIZE;
 
-    private ExecutorService executor = newCachedThreadPool();
+    public static final int DEFAULT_PARALLEL_THREAD_SIZE = 32;
+    public static final int DEFAULT_PARALLEL_GET_BATCH_SIZE = 100;
+    public static final int DEFAULT_PARALLEL_GET_CONCURRENCY = 8;
+    public static final int DEFAULT_PARALLEL_SCAN_BATCH_SIZE = 100;
+
+    private int parallelThreadSize = DEFAULT_PARALLEL_THREAD_SIZE;
+    private int parallelGetBatchSize = DEFAULT_PARALLEL_GET_BATCH_SIZE;
+    private int parallelGetConcurrency = DEFAULT_PARALLEL_GET_CONCURRENCY;
+    private ExecutorService executor;
+
+    private boolean asyncPutEnable = false;
+    private int asyncPutBatchSize = BatchPutWriter.DEFAULT_BATCH_SIZE;
+    private long asyncPutFlushInterval = BatchPutWriter.DEFAULT_FLUSH_INTERVAL;
+    private long asyncPutMaxBufferSize = BatchPutWriter.DEFAULT_MAX_BUFFER_SIZE;
+    private int asyncPutFlushThreadSize = BatchPutWriter.DEFAULT_FLUSH_THREAD_SIZE;
+    private BatchPutWriter batchPutWriter;
 
     public HbaseTemplate2() {
     }
 
-    public ExecutorService newCachedThreadPool() {
-        return new ThreadPoolExecutor(0, 128,
+    private ExecutorService newParallelExecutor(int threadSize) {
+        // a pool with zero core threads and an unbounded queue never grows beyond a single thread
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadSize, threadSize,
                 60L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>());
+                new LinkedBlockingQueue<Runnable>(), new PinpointThreadFactory("Pinpoint-HbaseParallel", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
 //    public Executor getExecutor() {
@@ -80,16 +101,71 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         this.poolSize = hTablePoolSize;
     }
 
+    public boolean isAsyncPutEnable() {
+        return asyncPutEnable;
+    }
+
+    public void setParallelThreadSize(int parallelThreadSize) {
+        this.parallelThreadSize = parallelThreadSize;
+    }
+
+    public void setParallelGetBatchSize(int parallelGetBatchSize) {
+        this.parallelGetBatchSize = parallelGetBatchSize;
+    }
+
+    /**
+     * max number of in flight multi-gets of a single parallelGet(). bounds the memory of the decoded results waiting for the caller.
+     */
+    public void setParallelGetConcurrency(int parallelGetConcurrency) {
+        this.parallelGetConcurrency = parallelGetConcurrency;
+    }
+
+    public void setAsyncPutEnable(boolean asyncPutEnable) {
+        this.asyncPutEnable = asyncPutEnable;
+    }
+
+    public void setAsyncPutBatchSize(int asyncPutBatchSize) {
+        this.asyncPutBatchSize = asyncPutBatchSize;
+    }
+
+    public void setAsyncPutFlushInterval(long asyncPutFlushInterval) {
+        this.asyncPutFlushInterval = asyncPutFlushInterval;
+    }
+
+    public void setAsyncPutMaxBufferSize(long asyncPutMaxBufferSize) {
+        this.asyncPutMaxBufferSize = asyncPutMaxBufferSize;
+    }
+
+    public void setAsyncPutFlushThreadSize(int asyncPutFlushThreadSize) {
+        this.asyncPutFlushThreadSize = asyncPutFlushThreadSize;
+    }
+
+    /**
+     * @return null if asyncPut is disabled
+     */
+    public BatchPutWriter getBatchPutWriter() {
+        return batchPutWriter;
+    }
+
     @Override
     public void afterPropertiesSet() {
         Configuration configuration = getConfiguration();
         Assert.notNull(configuration, "configuration is required");
         this.pooledHTableFactory = new PooledHTableFactory(configuration, poolSize);
         this.setTableFactory(pooledHTableFactory);
+        this.executor = newParallelExecutor(parallelThreadSize);
+        if (asyncPutEnable) {
+            this.batchPutWriter = new BatchPutWriter(this, asyncPutBatchSize, asyncPutFlushInterval, asyncPutMaxBufferSize, asyncPutFlushThreadSize);
+            this.batchPutWriter.start();
+        }
     }
 
     @Override
     public void destroy() throws Exception {
+        if (batchPutWriter != null) {
+            // flush the remaining puts before closing the tables
+            this.batchPutWriter.stop();
+        }
         if (pooledHTableFactory != null) {
             this.pooledHTableFactory.destroy();
         }
@@ -153,60 +229,6 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         return find(tableName, scan, new RowMapperResultsExtractor<T>(action));
     }
 
-//    public class ParallelScan<T> {
-//        private String tableName;
-//        private Scan scan;
-//        private RowMapper<T> mapper;
-//
-//        public String getTableName() {
-//            return tableName;
-//        }
-//
-//        public void setTableName(String tableName) {
-//            this.tableName = tableName;
-//        }
-//
-//        public Scan getScan() {
-//            return scan;
-//        }
-//
-//        public void setScan(Scan scan) {
-//            this.scan = scan;
-//        }
-//
-//        public RowMapper<T> getMapper() {
-//            return mapper;
-//        }
-//
-//        public void setMapper(RowMapper<T> action) {
-//            this.mapper = action;
-//        }
-//    }
-//
-//    /**
-//     * API for running a scanner in parallel
-//     * for now comment out, you don't know how scanner's implementation can execute in parallel.
-//     * @return
-//     */
-//    public <T> List<Future<List<T>>> findParallel(final ParallelScan<T> parallelScans) {
-//        Callable<List<T>> tCallable = new Callable<List<T>>() {
-//            @Override
-//            public List<T> call() throws Exception {
-//                return find(parallelScans.getTableName(), parallelScans.getScan(), parallelScans.getMapper());
-//            }
-//        };
-//        ArrayList<Callable<List<T>>> callables = new ArrayList<Callable<List<T>>>();
-//        callables.add(tCallable);
-//
-//        List<Future<List<T>>> futures = null;
-//        try {
-//            futures = this.executor.invokeAll(callables);
-//        } catch (InterruptedException e) {
-//            Thread.currentThread().interrupt();
-//        }
-//        return futures;
-//    }
-
     @Override
     public <T> T get(String tableName, String rowName, final RowMapper<T> mapper) {
         return get(tableName, rowName, null, null, mapper);
@@ -296,6 +318,89 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
     }
 
 
+    @Override
+    public <T> void parallelGet(final String tableName, List<Get> getList, final RowMapper<T> mapper, long timeoutMillis, ResultCallback<T> callback) {
+        if (getList == null) {
+            throw new NullPointerException("getList must not be null");
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback must not be null");
+        }
+        if (getList.isEmpty()) {
+            return;
+        }
+        final List<GetPartition> partitionList = GetPartition.partition(getList, parallelGetBatchSize);
+        if (partitionList.size() == 1) {
+            // not worth a thread hop
+            final GetPartition partition = partitionList.get(0);
+            final List<T> resultList = get(tableName, partition.getGetList(), mapper);
+            handlePartition(partition, resultList, callback);
+            return;
+        }
+
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        final CompletionService<List<T>> completionService = new ExecutorCompletionService<List<T>>(executor);
+        final Map<Future<List<T>>, GetPartition> runningMap = new HashMap<Future<List<T>>, GetPartition>();
+        int next = 0;
+        try {
+            for (; next < partitionList.size() && runningMap.size() < parallelGetConcurrency; next++) {
+                submitPartition(completionService, runningMap, tableName, partitionList.get(next), mapper);
+            }
+            while (!runningMap.isEmpty()) {
+                final long remaining = deadline - System.currentTimeMillis();
+                final Future<List<T>> future = remaining > 0 ? completionService.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                if (future == null) {
+                    throw new HbaseSystemException(new TimeoutException("parallelGet timeout. table:" + tableName + " timeout:" + timeoutMillis + "ms"));
+                }
+                final GetPartition partition = runningMap.remove(future);
+                final List<T> resultList = getResult(future);
+                if (next < partitionList.size()) {
+                    submitPartition(completionService, runningMap, tableName, partitionList.get(next++), mapper);
+                }
+                handlePartition(partition, resultList, callback);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HbaseSystemException(e);
+        } finally {
+            for (Future<List<T>> future : runningMap.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private <T> void submitPartition(CompletionService<List<T>> completionService, Map<Future<List<T>>, GetPartition> runningMap, final String tableName, final GetPartition partition, final RowMapper<T> mapper) {
+        final Future<List<T>> future = completionService.submit(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                return get(tableName, partition.getGetList(), mapper);
+            }
+        });
+        runningMap.put(future, partition);
+    }
+
+    private <T> List<T> getResult(Future<List<T>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HbaseSystemException(e);
+        }
+    }
+
+    private <T> void handlePartition(GetPartition partition, List<T> resultList, ResultCallback<T> callback) {
+        final int[] indexes = partition.getIndexes();
+        for (int i = 0; i < indexes.length; i++) {
+            callback.onResult(indexes[i], resultList.get(i));
+        }
+    }
+
     public void put(String tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final byte[] value) {
         put(tableName, rowName, familyName, qualifier, null, value);
     }
@@ -361,6 +466,16 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         });
     }
 
+    @Override
+    public boolean asyncPut(String tableName, final Put put) {
+        final BatchPutWriter batchPutWriter = this.batchPutWriter;
+        if (batchPutWriter == null) {
+            put(tableName, put);
+            return true;
+        }
+        return batchPutWriter.put(tableName, put);
+    }
+
     public void delete(String tableName, final Delete delete) {
         execute(tableName, new TableCallback() {
             @Override
@@ -483,7 +598,56 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         });
     }
 
+    /**
+     * same as find(tableName, scan, rowKeyDistributor, action) but scans the buckets in parallel.
+     * results are merged in the order of the original row key.
+     */
+    @Override
+    public <T> List<T> findParallel(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action) {
+        return findParallel(tableName, scan, rowKeyDistributor, new RowMapperResultsExtractor<T>(action));
+    }
+
+    @Override
+    public <T> List<T> findParallel(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action) {
+        return findParallel(tableName, scan, rowKeyDistributor, new LimitRowMapperResultsExtractor<T>(action, limit));
+    }
+
+    /**
+     * the limit and the last result passed to limitEventHandler apply to the merged result of all buckets.
+     */
+    @Override
+    public <T> List<T> findParallel(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action, final LimitEventHandler limitEventHandler) {
+        return findParallel(tableName, scan, rowKeyDistributor, new LimitRowMapperResultsExtractor<T>(action, limit, limitEventHandler));
+    }
+
+    @Override
+    public <T> T findParallel(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action) {
+        return execute(tableName, new TableCallback<T>() {
+            @Override
+            public T doInTable(HTableInterface htable) throws Throwable {
+                final ResultScanner scanner = createParallelScanner(htable, scan, rowKeyDistributor);
+                try {
+                    return action.extractData(scanner);
+                } finally {
+                    scanner.close();
+                }
+            }
+        });
+    }
+
+    public ResultScanner createParallelScanner(HTableInterface htable, Scan originalScan, AbstractRowKeyDistributor rowKeyDistributor) throws IOException {
+        final ResultScanner[] scanner = createBucketScanner(htable, originalScan, rowKeyDistributor);
+        final int caching = originalScan.getCaching();
+        final int batchSize = caching > 0 ? caching : DEFAULT_PARALLEL_SCAN_BATCH_SIZE;
+        return new ParallelResultScanner(executor, rowKeyDistributor, scanner, batchSize);
+    }
+
     public ResultScanner createDistributeScanner(HTableInterface htable, Scan originalScan, AbstractRowKeyDistributor rowKeyDistributor) throws IOException {
+        final ResultScanner[] scanner = createBucketScanner(htable, originalScan, rowKeyDistributor);
+        return new DistributedScanner(rowKeyDistributor, scanner);
+    }
+
+    private ResultScanner[] createBucketScanner(HTableInterface htable, Scan originalScan, AbstractRowKeyDistributor rowKeyDistributor) throws IOException {
 
         Scan[] scans = rowKeyDistributor.getDistributedScans(originalScan);
         final int length = scans.length;
@@ -506,8 +670,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
                 closeScanner(scanner);
             }
         }
-
-        return new DistributedScanner(rowKeyDistributor, scanner);
+        return scanner;
     }
 
     private void closeScanner(ResultScanner[] scannerList ) {
@@ -522,6 +685,15 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         }
     }
 
+    public boolean checkAndPut(String tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final byte[] expectedValue, final Put put) {
+        return execute(tableName, new TableCallback<Boolean>() {
+            @Override
+            public Boolean doInTable(HTableInterface htable) throws Throwable {
+                return htable.checkAndPut(rowName, familyName, qualifier, expectedValue, put);
+            }
+        });
+    }
+
     public Result increment(String tableName, final Increment increment) {
         return execute(tableName, new TableCallback<Result>() {
             @Override
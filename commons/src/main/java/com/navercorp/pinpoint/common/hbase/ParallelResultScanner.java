@@ -0,0 +1,312 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * merges the scanners of every salt bucket in the order of the original row key, like {@link com.sematext.hbase.wd.DistributedScanner}.
+ * unlike DistributedScanner, the next batch of each bucket is fetched on the executor while the caller consumes the current batch,
+ * so the round trips of the buckets overlap.
+ * <p>
+ * a fetch task never waits for the caller, so the scan can not dead lock even if the executor has fewer threads than buckets.
+ * at most two batches per bucket are held in memory.
+ *
+ * @author agent
+ */
+public class ParallelResultScanner implements ResultScanner {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final AbstractRowKeyDistributor keyDistributor;
+    private final BucketScanner[] buckets;
+    private final PriorityQueue<BucketScanner> mergeQueue;
+    private boolean initialized = false;
+    private boolean closed = false;
+
+    public ParallelResultScanner(ExecutorService executor, AbstractRowKeyDistributor keyDistributor, ResultScanner[] scanners, int batchSize) {
+        if (executor == null) {
+            throw new NullPointerException("executor must not be null");
+        }
+        if (keyDistributor == null) {
+            throw new NullPointerException("keyDistributor must not be null");
+        }
+        if (scanners == null) {
+            throw new NullPointerException("scanners must not be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive. batchSize:" + batchSize);
+        }
+        this.keyDistributor = keyDistributor;
+        this.buckets = new BucketScanner[scanners.length];
+        for (int i = 0; i < scanners.length; i++) {
+            buckets[i] = new BucketScanner(executor, scanners[i], batchSize);
+        }
+        this.mergeQueue = new PriorityQueue<BucketScanner>(Math.max(scanners.length, 1), new Comparator<BucketScanner>() {
+            @Override
+            public int compare(BucketScanner o1, BucketScanner o2) {
+                return Bytes.compareTo(o1.headKey, o2.headKey);
+            }
+        });
+        // every bucket starts fetching right away
+        for (BucketScanner bucket : buckets) {
+            bucket.prefetch();
+        }
+    }
+
+    @Override
+    public Result next() throws IOException {
+        if (closed) {
+            return null;
+        }
+        if (!initialized) {
+            for (BucketScanner bucket : buckets) {
+                offer(bucket);
+            }
+            initialized = true;
+        }
+        final BucketScanner bucket = mergeQueue.poll();
+        if (bucket == null) {
+            return null;
+        }
+        final Result result = bucket.poll();
+        offer(bucket);
+        return result;
+    }
+
+    private void offer(BucketScanner bucket) throws IOException {
+        final Result head = bucket.peek();
+        if (head != null) {
+            bucket.headKey = keyDistributor.getOriginalKey(head.getRow());
+            mergeQueue.offer(bucket);
+        }
+    }
+
+    @Override
+    public Result[] next(int nbRows) throws IOException {
+        final List<Result> resultList = new ArrayList<Result>(nbRows);
+        for (int i = 0; i < nbRows; i++) {
+            final Result next = next();
+            if (next == null) {
+                break;
+            }
+            resultList.add(next);
+        }
+        return resultList.toArray(new Result[resultList.size()]);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (BucketScanner bucket : buckets) {
+            bucket.close();
+        }
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return new Iterator<Result>() {
+            private Result next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                try {
+                    next = ParallelResultScanner.this.next();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return next != null;
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Result result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private class BucketScanner {
+        private final ExecutorService executor;
+        private final ResultScanner scanner;
+        private final int batchSize;
+
+        private FetchTask pendingTask;
+        private Future<Result[]> pending;
+        private Result[] batch;
+        private int position;
+        private boolean exhausted;
+        private byte[] headKey;
+
+        private BucketScanner(ExecutorService executor, ResultScanner scanner, int batchSize) {
+            this.executor = executor;
+            this.scanner = scanner;
+            this.batchSize = batchSize;
+        }
+
+        private void prefetch() {
+            if (exhausted) {
+                return;
+            }
+            final FetchTask fetchTask = new FetchTask(scanner, batchSize);
+            this.pendingTask = fetchTask;
+            this.pending = executor.submit(fetchTask);
+        }
+
+        private Result peek() throws IOException {
+            if (batch != null && position < batch.length) {
+                return batch[position];
+            }
+            if (exhausted || pending == null) {
+                return null;
+            }
+            final Result[] fetched = await(pending);
+            this.pending = null;
+            this.pendingTask = null;
+            if (fetched == null || fetched.length == 0) {
+                exhausted = true;
+                return null;
+            }
+            if (fetched.length < batchSize) {
+                // the scanner returns a short batch only at the end of the bucket
+                exhausted = true;
+            }
+            this.batch = fetched;
+            this.position = 0;
+            prefetch();
+            return batch[0];
+        }
+
+        private Result poll() {
+            return batch[position++];
+        }
+
+        private Result[] await(Future<Result[]> future) throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        private void close() {
+            final FetchTask pendingTask = this.pendingTask;
+            if (pendingTask != null) {
+                if (pendingTask.tryCancel()) {
+                    // not started. drop it from the executor queue
+                    pending.cancel(false);
+                } else {
+                    // a running fetch must complete before the scanner is closed
+                    try {
+                        pendingTask.awaitDone();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                this.pendingTask = null;
+                this.pending = null;
+            }
+            try {
+                scanner.close();
+            } catch (Exception e) {
+                logger.warn("Scanner.close() error Caused:{}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Future.cancel() does not wait for a running task, so the task itself tells whether it has started and when it is done.
+     */
+    private static class FetchTask implements Callable<Result[]> {
+        private final ResultScanner scanner;
+        private final int batchSize;
+
+        // set by the first of call() and tryCancel()
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private FetchTask(ResultScanner scanner, int batchSize) {
+            this.scanner = scanner;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public Result[] call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                // cancelled. the scanner may be closed already
+                return null;
+            }
+            try {
+                return scanner.next(batchSize);
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /**
+         * @return true if the fetch has not started and never will
+         */
+        private boolean tryCancel() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        private void awaitDone() throws InterruptedException {
+            done.await();
+        }
+    }
+}
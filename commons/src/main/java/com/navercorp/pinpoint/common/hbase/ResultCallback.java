@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+/**
+ * receives the results of a parallel operation as they arrive.
+ * the callback is always invoked on the caller thread, so it does not need to be thread safe.
+ *
+ * @author agent
+ */
+public interface ResultCallback<T> {
+    /**
+     * @param index index of the request the result belongs to
+     */
+    void onResult(int index, T result);
+}
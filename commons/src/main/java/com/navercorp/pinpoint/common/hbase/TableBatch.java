@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.client.Put;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * pending puts and flush statistics of a single table.
+ *
+ * @author agent
+ */
+public class TableBatch {
+
+    private final String tableName;
+
+    private final Queue<Put> queue = new ConcurrentLinkedQueue<Put>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    // only one flush per table is in flight
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private volatile long lastFlushTime = System.currentTimeMillis();
+
+    private final AtomicLong putCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushTime = new AtomicLong();
+    private volatile long lastFlushLatency;
+
+    TableBatch(String tableName) {
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        this.tableName = tableName;
+    }
+
+    void add(Put put) {
+        queue.offer(put);
+        queueSize.incrementAndGet();
+        putCount.incrementAndGet();
+    }
+
+    List<Put> drain(int maxSize) {
+        final List<Put> drainList = new ArrayList<Put>(Math.min(maxSize, Math.max(queueSize.get(), 1)));
+        while (drainList.size() < maxSize) {
+            final Put put = queue.poll();
+            if (put == null) {
+                break;
+            }
+            queueSize.decrementAndGet();
+            drainList.add(put);
+        }
+        return drainList;
+    }
+
+    boolean tryStartFlush() {
+        return flushing.compareAndSet(false, true);
+    }
+
+    void endFlush() {
+        this.lastFlushTime = System.currentTimeMillis();
+        flushing.set(false);
+    }
+
+    void recordFlush(long latency) {
+        flushCount.incrementAndGet();
+        flushTime.addAndGet(latency);
+        this.lastFlushLatency = latency;
+    }
+
+    void recordFail(int size) {
+        failCount.addAndGet(size);
+    }
+
+    void recordReject() {
+        rejectedCount.incrementAndGet();
+    }
+
+    long getLastFlushTime() {
+        return lastFlushTime;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public long getPutCount() {
+        return putCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getFailCount() {
+        return failCount.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return accumulated flush time in milliseconds
+     */
+    public long getFlushTime() {
+        return flushTime.get();
+    }
+
+    /**
+     * @return latency of the last flush in milliseconds
+     */
+    public long getLastFlushLatency() {
+        return lastFlushLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "TableBatch{" +
+                "tableName='" + tableName + '\'' +
+                ", queueSize=" + queueSize.get() +
+                ", putCount=" + putCount.get() +
+                ", rejectedCount=" + rejectedCount.get() +
+                ", failCount=" + failCount.get() +
+                ", flushCount=" + flushCount.get() +
+                ", flushTime=" + flushTime.get() +
+                ", lastFlushLatency=" + lastFlushLatency +
+                '}';
+    }
+}
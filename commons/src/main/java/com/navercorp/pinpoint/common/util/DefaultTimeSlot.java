@@ -38,4 +38,9 @@ public class DefaultTimeSlot implements TimeSlot {
         // not necessary to add ONE_MIN_RESOLUTION as all the timeslots are based on the start value of the given time.
         return (time / resolution) * resolution;
     }
+
+    @Override
+    public long getResolution() {
+        return resolution;
+    }
 }
@@ -21,4 +21,6 @@ package com.navercorp.pinpoint.common.util;
  */
 public interface TimeSlot {
     long getTimeSlot(long time);
+
+    long getResolution();
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.bo;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class AgentStatRollupBoTest {
+
+    private static final double DELTA = 1e-4;
+
+    @Test
+    public void testByteArrayConversion() {
+        // Given
+        final AgentStatRollupBo testBo = new AgentStatRollupBo("agentId", 60000L);
+        testBo.addMemoryGc(createMemoryGcBo(100L, 3L));
+        testBo.addMemoryGc(createMemoryGcBo(300L, 5L));
+        testBo.addCpuLoad(createCpuLoadBo(0.2D));
+        // When
+        final AgentStatRollupBo deserializedBo = new AgentStatRollupBo(testBo.writeValue());
+        // Then
+        assertEquals("agentId", deserializedBo.getAgentId());
+        assertEquals(60000L, deserializedBo.getTimestamp());
+        assertEquals("CMS", deserializedBo.getGcType());
+
+        final AgentStatRollupBo.LongStat heapUsed = deserializedBo.getJvmMemoryHeapUsed();
+        assertEquals(2, heapUsed.getCount());
+        assertEquals(100L, heapUsed.getMin());
+        assertEquals(300L, heapUsed.getMax());
+        assertEquals(400L, heapUsed.getSum());
+        assertEquals(8L, deserializedBo.getJvmGcOldCount().getSum());
+
+        final AgentStatRollupBo.DoubleStat jvmCpuLoad = deserializedBo.getJvmCpuLoad();
+        assertEquals(1, jvmCpuLoad.getCount());
+        assertEquals(0.2D, jvmCpuLoad.getMax(), DELTA);
+    }
+
+    @Test
+    public void testEmptyStat() {
+        // Given
+        final AgentStatRollupBo testBo = new AgentStatRollupBo("agentId", 0L);
+        testBo.addMemoryGc(createMemoryGcBo(-1L, 0L));
+        // When
+        final AgentStatRollupBo deserializedBo = new AgentStatRollupBo(testBo.writeValue());
+        // Then
+        assertEquals(-1L, deserializedBo.getJvmMemoryHeapUsed().getMin());
+        assertEquals(0, deserializedBo.getJvmCpuLoad().getCount());
+        assertEquals(0, deserializedBo.getSystemCpuLoad().getCount());
+    }
+
+    @Test
+    public void testMerge() {
+        // Given
+        final AgentStatRollupBo testBo = new AgentStatRollupBo("agentId", 60000L);
+        testBo.addMemoryGc(createMemoryGcBo(200L, 3L));
+        final AgentStatRollupBo storedBo = new AgentStatRollupBo("agentId", 60000L);
+        storedBo.addMemoryGc(createMemoryGcBo(100L, 1L));
+        storedBo.addMemoryGc(createMemoryGcBo(300L, 1L));
+        storedBo.addCpuLoad(createCpuLoadBo(0.2D));
+        // When
+        testBo.merge(new AgentStatRollupBo(storedBo.writeValue()));
+        // Then
+        final AgentStatRollupBo.LongStat heapUsed = testBo.getJvmMemoryHeapUsed();
+        assertEquals(3, heapUsed.getCount());
+        assertEquals(100L, heapUsed.getMin());
+        assertEquals(300L, heapUsed.getMax());
+        assertEquals(600L, heapUsed.getSum());
+        assertEquals(5L, testBo.getJvmGcOldCount().getSum());
+        assertEquals(1, testBo.getJvmCpuLoad().getCount());
+        assertEquals(0.2D, testBo.getJvmCpuLoad().getMin(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeDifferentSlot() {
+        final AgentStatRollupBo testBo = new AgentStatRollupBo("agentId", 60000L);
+        testBo.merge(new AgentStatRollupBo("agentId", 120000L));
+    }
+
+    private AgentStatMemoryGcBo createMemoryGcBo(long heapUsed, long gcOldCount) {
+        final AgentStatMemoryGcBo.Builder builder = new AgentStatMemoryGcBo.Builder("agentId", 0L, 60000L);
+        builder.gcType("CMS");
+        builder.jvmMemoryHeapUsed(heapUsed);
+        builder.jvmGcOldCount(gcOldCount);
+        return builder.build();
+    }
+
+    private AgentStatCpuLoadBo createCpuLoadBo(double cpuLoad) {
+        final AgentStatCpuLoadBo.Builder builder = new AgentStatCpuLoadBo.Builder("agentId", 0L, 60000L);
+        builder.jvmCpuLoad(cpuLoad);
+        builder.systemCpuLoad(cpuLoad);
+        return builder.build();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author agent
+ */
+public class BatchPutWriterTest {
+
+    private static final byte[] FAMILY = Bytes.toBytes("F");
+
+    @Test
+    public void flushBatchSize() throws Exception {
+        HbaseOperations2 hbaseOperations = mock(HbaseOperations2.class);
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicInteger putCount = new AtomicInteger();
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                List<?> putList = (List<?>) invocation.getArguments()[1];
+                putCount.addAndGet(putList.size());
+                latch.countDown();
+                return null;
+            }
+        }).when(hbaseOperations).put(eq("table"), anyListOf(Put.class));
+
+        // flush interval is long enough to be sure only the batch size triggers the flush
+        BatchPutWriter writer = new BatchPutWriter(hbaseOperations, 10, 60 * 1000, 1024 * 1024, 1);
+        writer.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                Assert.assertTrue(writer.put("table", createPut(i)));
+            }
+            Assert.assertTrue(latch.await(3000, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(20, putCount.get());
+
+            TableBatch tableBatch = writer.getTableBatch("table");
+            Assert.assertEquals(20, tableBatch.getPutCount());
+            Assert.assertEquals(0, tableBatch.getQueueSize());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void flushInterval() throws Exception {
+        HbaseOperations2 hbaseOperations = mock(HbaseOperations2.class);
+        final CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                latch.countDown();
+                return null;
+            }
+        }).when(hbaseOperations).put(eq("table"), anyListOf(Put.class));
+
+        BatchPutWriter writer = new BatchPutWriter(hbaseOperations, 100, 10, 1024 * 1024, 1);
+        writer.start();
+        try {
+            writer.put("table", createPut(0));
+            Assert.assertTrue(latch.await(3000, TimeUnit.MILLISECONDS));
+        } finally {
+            writer.stop();
+        }
+        // the flush is recorded after the put returns, stop() waits for the flush thread
+        Assert.assertEquals(1, writer.getTableBatch("table").getFlushCount());
+        Assert.assertEquals(0, writer.getBufferedBytes());
+    }
+
+    @Test
+    public void rejectBufferFull() throws Exception {
+        HbaseOperations2 hbaseOperations = mock(HbaseOperations2.class);
+
+        Put put = createPut(0);
+        BatchPutWriter writer = new BatchPutWriter(hbaseOperations, 100, 60 * 1000, put.heapSize(), 1);
+        writer.start();
+        try {
+            Assert.assertTrue(writer.put("table", put));
+            Assert.assertFalse(writer.put("table", createPut(1)));
+            Assert.assertEquals(1, writer.getTableBatch("table").getRejectedCount());
+        } finally {
+            writer.stop();
+        }
+        // remaining puts are flushed on stop
+        verify(hbaseOperations, times(1)).put(eq("table"), anyListOf(Put.class));
+        Assert.assertFalse(writer.put("table", createPut(2)));
+    }
+
+    @Test
+    public void flushAllOnStop() throws Exception {
+        HbaseOperations2 hbaseOperations = mock(HbaseOperations2.class);
+        final AtomicInteger putCount = new AtomicInteger();
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                List<?> putList = (List<?>) invocation.getArguments()[1];
+                putCount.addAndGet(putList.size());
+                return null;
+            }
+        }).when(hbaseOperations).put(eq("table"), anyListOf(Put.class));
+
+        final BatchPutWriter writer = new BatchPutWriter(hbaseOperations, 10, 60 * 1000, 1024 * 1024 * 64, 1);
+        writer.start();
+        final AtomicInteger accepted = new AtomicInteger();
+        final int threadSize = 4;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch endLatch = new CountDownLatch(threadSize);
+        for (int i = 0; i < threadSize; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < 1000; j++) {
+                            if (writer.put("table", createPut(j))) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        endLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        // stop while puts are racing
+        Thread.sleep(1);
+        writer.stop();
+        Assert.assertTrue(endLatch.await(3000, TimeUnit.MILLISECONDS));
+
+        // every accepted put is written
+        Assert.assertEquals(accepted.get(), putCount.get());
+        Assert.assertEquals(0, writer.getTableBatch("table").getQueueSize());
+        Assert.assertEquals(0, writer.getBufferedBytes());
+    }
+
+    private Put createPut(int i) {
+        Put put = new Put(Bytes.toBytes(i));
+        put.add(FAMILY, Bytes.toBytes("q"), Bytes.toBytes("value" + i));
+        return put;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent
+ */
+public class GetPartitionTest {
+
+    @Test
+    public void partition() {
+        List<Get> getList = new ArrayList<Get>();
+        // salt prefix in reverse order
+        for (int i = 9; i >= 0; i--) {
+            getList.add(new Get(new byte[]{(byte) i, 1}));
+        }
+        List<GetPartition> partitionList = GetPartition.partition(getList, 3);
+        Assert.assertEquals(4, partitionList.size());
+
+        // ordered by row key
+        GetPartition first = partitionList.get(0);
+        Assert.assertArrayEquals(new int[]{9, 8, 7}, first.getIndexes());
+        Assert.assertEquals(0, first.getGetList().get(0).getRow()[0]);
+
+        GetPartition last = partitionList.get(3);
+        Assert.assertArrayEquals(new int[]{0}, last.getIndexes());
+        Assert.assertSame(getList.get(0), last.getGetList().get(0));
+    }
+
+    @Test
+    public void partitionEmpty() {
+        Assert.assertTrue(GetPartition.partition(new ArrayList<Get>(), 10).isEmpty());
+    }
+}
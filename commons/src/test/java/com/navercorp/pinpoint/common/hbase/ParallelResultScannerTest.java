@@ -0,0 +1,238 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.hadoop.hbase.RowMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author agent
+ */
+public class ParallelResultScannerTest {
+
+    private static final byte[] FAMILY = Bytes.toBytes("F");
+
+    private final RowKeyDistributorByHashPrefix distributor = new RowKeyDistributorByHashPrefix(new RowKeyDistributorByHashPrefix.OneByteSimpleHash(4));
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        // fewer threads than buckets
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void mergeOrder() throws Exception {
+        FakeScanner[] scanners = createScanners(100);
+        ParallelResultScanner scanner = new ParallelResultScanner(executor, distributor, scanners, 7);
+
+        List<Integer> valueList = new ArrayList<Integer>();
+        for (Result result : scanner) {
+            valueList.add(Bytes.toInt(distributor.getOriginalKey(result.getRow())));
+        }
+        scanner.close();
+
+        Assert.assertEquals(100, valueList.size());
+        for (int i = 0; i < valueList.size(); i++) {
+            Assert.assertEquals(i, valueList.get(i).intValue());
+        }
+        for (FakeScanner fakeScanner : scanners) {
+            Assert.assertTrue(fakeScanner.closed);
+        }
+    }
+
+    @Test
+    public void limit() throws Exception {
+        FakeScanner[] scanners = createScanners(1000);
+        ParallelResultScanner scanner = new ParallelResultScanner(executor, distributor, scanners, 10);
+
+        final Result[] lastResult = new Result[1];
+        LimitRowMapperResultsExtractor<Integer> extractor = new LimitRowMapperResultsExtractor<Integer>(new RowMapper<Integer>() {
+            @Override
+            public Integer mapRow(Result result, int rowNum) throws Exception {
+                return Bytes.toInt(distributor.getOriginalKey(result.getRow()));
+            }
+        }, 15, new LimitEventHandler() {
+            @Override
+            public void handleLastResult(Result result) {
+                lastResult[0] = result;
+            }
+        });
+        List<Integer> valueList;
+        try {
+            valueList = extractor.extractData(scanner);
+        } finally {
+            scanner.close();
+        }
+
+        Assert.assertEquals(15, valueList.size());
+        Assert.assertEquals(14, valueList.get(14).intValue());
+        Assert.assertEquals(14, Bytes.toInt(distributor.getOriginalKey(lastResult[0].getRow())));
+        for (FakeScanner fakeScanner : scanners) {
+            Assert.assertTrue(fakeScanner.closed);
+        }
+    }
+
+    @Test
+    public void emptyBucket() throws Exception {
+        FakeScanner[] scanners = new FakeScanner[]{new FakeScanner(new ArrayList<Result>()), new FakeScanner(Arrays.asList(createResult(1)))};
+        ParallelResultScanner scanner = new ParallelResultScanner(executor, distributor, scanners, 10);
+
+        Assert.assertEquals(1, Bytes.toInt(distributor.getOriginalKey(scanner.next().getRow())));
+        Assert.assertNull(scanner.next());
+        scanner.close();
+    }
+
+    @Test
+    public void closeWaitsForRunningFetch() throws Exception {
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch fetchRelease = new CountDownLatch(1);
+        final AtomicBoolean closedWhileFetching = new AtomicBoolean(false);
+        FakeScanner blockingScanner = new FakeScanner(Arrays.asList(createResult(1))) {
+            private volatile boolean fetching;
+
+            @Override
+            public Result[] next(int nbRows) throws IOException {
+                fetching = true;
+                try {
+                    fetchStarted.countDown();
+                    fetchRelease.await();
+                    return super.next(nbRows);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    fetching = false;
+                }
+            }
+
+            @Override
+            public void close() {
+                if (fetching) {
+                    closedWhileFetching.set(true);
+                }
+                super.close();
+            }
+        };
+        final ParallelResultScanner scanner = new ParallelResultScanner(executor, distributor, new ResultScanner[]{blockingScanner}, 10);
+        Assert.assertTrue(fetchStarted.await(3000, TimeUnit.MILLISECONDS));
+
+        Thread closeThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scanner.close();
+            }
+        });
+        closeThread.start();
+        closeThread.join(100);
+        // close() waits for the fetch in progress
+        Assert.assertTrue(closeThread.isAlive());
+
+        fetchRelease.countDown();
+        closeThread.join(3000);
+        Assert.assertFalse(closeThread.isAlive());
+        Assert.assertFalse(closedWhileFetching.get());
+        Assert.assertTrue(blockingScanner.closed);
+    }
+
+    private FakeScanner[] createScanners(int size) {
+        List<List<Result>> bucketList = new ArrayList<List<Result>>();
+        for (int i = 0; i < 4; i++) {
+            bucketList.add(new ArrayList<Result>());
+        }
+        for (int i = 0; i < size; i++) {
+            Result result = createResult(i);
+            bucketList.get(result.getRow()[0]).add(result);
+        }
+        FakeScanner[] scanners = new FakeScanner[bucketList.size()];
+        for (int i = 0; i < scanners.length; i++) {
+            scanners[i] = new FakeScanner(bucketList.get(i));
+        }
+        return scanners;
+    }
+
+    private Result createResult(int value) {
+        byte[] row = distributor.getDistributedKey(Bytes.toBytes(value));
+        KeyValue keyValue = new KeyValue(row, FAMILY, Bytes.toBytes("q"), Bytes.toBytes(value));
+        return Result.create(new Cell[]{keyValue});
+    }
+
+    private static class FakeScanner implements ResultScanner {
+        private final Iterator<Result> iterator;
+        private volatile boolean closed;
+
+        private FakeScanner(List<Result> resultList) {
+            this.iterator = resultList.iterator();
+        }
+
+        @Override
+        public Result next() throws IOException {
+            if (closed) {
+                throw new IOException("closed");
+            }
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        @Override
+        public Result[] next(int nbRows) throws IOException {
+            List<Result> resultList = new ArrayList<Result>();
+            for (int i = 0; i < nbRows; i++) {
+                Result next = next();
+                if (next == null) {
+                    break;
+                }
+                resultList.add(next);
+            }
+            return resultList.toArray(new Result[resultList.size()]);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -26,8 +26,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
-import com.navercorp.pinpoint.bootstrap.instrument.ByteCodeInstrumentor;
 import com.navercorp.pinpoint.bootstrap.plugin.transformer.PinpointClassFileTransformer;
+import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
 import com.navercorp.pinpoint.profiler.modifier.AbstractModifier;
 import com.navercorp.pinpoint.profiler.modifier.DefaultModifierRegistry;
 import com.navercorp.pinpoint.profiler.modifier.ModifierRegistry;
@@ -49,14 +49,14 @@ public class ClassFileTransformerDispatcher implements ClassFileTransformer, Ret
     private final ModifierRegistry modifierRegistry;
 
     private final DefaultAgent agent;
-    private final ByteCodeInstrumentor byteCodeInstrumentor;
+    private final JavaAssistByteCodeInstrumentor byteCodeInstrumentor;
     private final ClassFileRetransformer retransformer;
 
     private final ProfilerConfig profilerConfig;
 
     private final ClassFileFilter skipFilter;
     
-    public ClassFileTransformerDispatcher(DefaultAgent agent, ByteCodeInstrumentor byteCodeInstrumentor, List<DefaultProfilerPluginContext> pluginContexts) {
+    public ClassFileTransformerDispatcher(DefaultAgent agent, JavaAssistByteCodeInstrumentor byteCodeInstrumentor, List<DefaultProfilerPluginContext> pluginContexts) {
         if (agent == null) {
             throw new NullPointerException("agent must not be null");
         }
@@ -101,15 +101,7 @@ public class ClassFileTransformerDispatcher implements ClassFileTransformer, Ret
         final String javaClassName = JavaAssistUtils.jvmNameToJavaName(jvmClassName);
 
         try {
-            final Thread thread = Thread.currentThread();
-            final ClassLoader before = getContextClassLoader(thread);
-            thread.setContextClassLoader(this.agentClassLoader);
-            try {
-                return findModifier.modify(classLoader, javaClassName, protectionDomain, classFileBuffer);
-            } finally {
-                // The context class loader have to be recovered even if it was null.
-                thread.setContextClassLoader(before);
-            }
+            return modify(findModifier, classLoader, javaClassName, protectionDomain, classFileBuffer);
         }
         catch (Throwable e) {
             logger.error("Modifier:{} modify fail. cl:{} ctxCl:{} agentCl:{} Cause:{}",
@@ -118,6 +110,20 @@ public class ClassFileTransformerDispatcher implements ClassFileTransformer, Ret
         }
     }
 
+    private byte[] modify(AbstractModifier modifier, ClassLoader classLoader, String javaClassName, ProtectionDomain protectionDomain, byte[] classFileBuffer) throws Throwable {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader before = getContextClassLoader(thread);
+        thread.setContextClassLoader(this.agentClassLoader);
+        try {
+            return modifier.modify(classLoader, javaClassName, protectionDomain, classFileBuffer);
+        } finally {
+            // The context class loader have to be recovered even if it was null.
+            thread.setContextClassLoader(before);
+            // the class is defined by the jvm from now on. don't keep the CtClass of it
+            byteCodeInstrumentor.detachClass(classLoader, javaClassName);
+        }
+    }
+
     @Override
     public void addRetransformEvent(Class<?> target, final ClassFileTransformer transformer) {
         this.retransformer.addRetransformEvent(target, transformer);
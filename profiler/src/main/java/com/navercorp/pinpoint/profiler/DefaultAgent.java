@@ -16,10 +16,10 @@
 
 package com.navercorp.pinpoint.profiler;
 
+import java.io.File;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -53,14 +53,20 @@ import com.navercorp.pinpoint.profiler.interceptor.InterceptorRegistryBinder;
 import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
 import com.navercorp.pinpoint.profiler.logging.Slf4jLoggerBinder;
 import com.navercorp.pinpoint.profiler.monitor.AgentStatMonitor;
+import com.navercorp.pinpoint.profiler.monitor.codahale.MetricMonitorRegistry;
 import com.navercorp.pinpoint.profiler.plugin.DefaultPluginClassLoaderFactory;
 import com.navercorp.pinpoint.profiler.plugin.DefaultProfilerPluginContext;
+import com.navercorp.pinpoint.profiler.plugin.ProfilerPluginSetup;
 import com.navercorp.pinpoint.profiler.receiver.CommandDispatcher;
 import com.navercorp.pinpoint.profiler.receiver.service.EchoService;
 import com.navercorp.pinpoint.profiler.receiver.service.ThreadDumpService;
 import com.navercorp.pinpoint.profiler.sampler.SamplerFactory;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueType;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueingExecutorOption;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
+import com.navercorp.pinpoint.profiler.sender.DataSpoolOption;
 import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
+import com.navercorp.pinpoint.profiler.sender.NioUdpDataSender;
 import com.navercorp.pinpoint.profiler.sender.TcpDataSender;
 import com.navercorp.pinpoint.profiler.sender.UdpDataSender;
 import com.navercorp.pinpoint.profiler.util.ApplicationServerTypeResolver;
@@ -88,6 +94,7 @@ public class DefaultAgent implements Agent {
 
     private final AgentInfoSender agentInfoSender;
     private final AgentStatMonitor agentStatMonitor;
+    private final MetricMonitorRegistry monitorRegistry = new MetricMonitorRegistry();
 
     private final TraceContext traceContext;
 
@@ -150,24 +157,33 @@ public class DefaultAgent implements Agent {
         
         this.profilerConfig = agentOption.getProfilerConfig();
 
+        final StartupPhaseTimer startupPhaseTimer = new StartupPhaseTimer();
+
         final Instrumentation instrumentation = agentOption.getInstrumentation();
         RetransformService retransformService = new RetransformService(instrumentation);
         
 
 
-        this.byteCodeInstrumentor = new JavaAssistByteCodeInstrumentor(this, interceptorRegistryBinder, agentOption.getBootStrapJarPath(), retransformService);
+        this.byteCodeInstrumentor = new JavaAssistByteCodeInstrumentor(this, interceptorRegistryBinder, agentOption.getBootStrapJarPath(), retransformService, profilerConfig.getClassPoolMaxCachedClassSize());
         if (logger.isInfoEnabled()) {
             logger.info("DefaultAgent classLoader:{}", this.getClass().getClassLoader());
         }
 
         Class<? extends ClassLoader> classLoaderType = new ClassLoaderResolver().resolve(instrumentation);
         pluginClassLoaderFactory = new DefaultPluginClassLoaderFactory(classLoaderType, agentOption.getPluginJars());
-        pluginContexts = loadProfilerPlugins(agentOption.getPluginJars());
+        startupPhaseTimer.mark("instrumentor");
+
+        final List<ProfilerPlugin> plugins = PluginLoader.load(ProfilerPlugin.class, agentOption.getPluginJars());
+        startupPhaseTimer.mark("pluginDiscovery");
+        final ProfilerPluginSetup pluginSetup = new ProfilerPluginSetup(this, profilerConfig.getPluginSetupThreadCount());
+        pluginContexts = pluginSetup.setup(plugins);
+        startupPhaseTimer.mark("pluginSetup");
 
         this.classFileTransformer = new ClassFileTransformerDispatcher(this, byteCodeInstrumentor, pluginContexts);
         retransformService.setRetransformEventListener(classFileTransformer);
         // TODO check retranform support
         instrumentation.addTransformer(this.classFileTransformer, true);
+        startupPhaseTimer.mark("transformer");
 
 
         String applicationServerTypeString = profilerConfig.getApplicationServerType();
@@ -178,6 +194,7 @@ public class DefaultAgent implements Agent {
         final AgentInformationFactory agentInformationFactory = new AgentInformationFactory();
         this.agentInformation = agentInformationFactory.createAgentInformation(typeResolver.resolve());
         logger.info("agentInformation:{}", agentInformation);
+        startupPhaseTimer.mark("applicationType");
         
         CommandDispatcher commandDispatcher = createCommandDispatcher();
         this.tcpDataSender = createTcpDataSender(commandDispatcher);
@@ -196,7 +213,10 @@ public class DefaultAgent implements Agent {
         this.agentInfoSender = new AgentInfoSender(tcpDataSender, profilerConfig.getAgentInfoSendRetryInterval(), this.agentInformation);
         this.serverMetaDataHolder.addListener(this.agentInfoSender);
 
-        this.agentStatMonitor = new AgentStatMonitor(this.statDataSender, this.agentInformation.getAgentId(), this.agentInformation.getStartTime());
+        this.agentStatMonitor = new AgentStatMonitor(this.statDataSender, this.agentInformation.getAgentId(), this.agentInformation.getStartTime(), this.byteCodeInstrumentor);
+        startupPhaseTimer.mark("dataSender");
+
+        logger.info("agent startup phases. plugins:{} setupThreads:{} {}", pluginContexts.size(), pluginSetup.getThreadCount(), startupPhaseTimer);
     }
 
 
@@ -207,22 +227,6 @@ public class DefaultAgent implements Agent {
         return commandDispatcher;
     }
 
-    private List<DefaultProfilerPluginContext> loadProfilerPlugins(URL[] pluginJars) {
-        List<ProfilerPlugin> plugins = PluginLoader.load(ProfilerPlugin.class, pluginJars);
-        List<DefaultProfilerPluginContext> pluginContexts = new ArrayList<DefaultProfilerPluginContext>(plugins.size());
-        
-        for (ProfilerPlugin plugin : plugins) {
-            logger.info("Loading plugin: {}", plugin.getClass().getName());
-            
-            DefaultProfilerPluginContext context = new DefaultProfilerPluginContext(this);
-            plugin.setup(context);
-            context.markInitialized();
-            pluginContexts.add(context);
-        }
-        
-        return pluginContexts;
-    }
-
     public ByteCodeInstrumentor getByteCodeInstrumentor() {
         return byteCodeInstrumentor;
     }
@@ -298,6 +302,13 @@ public class DefaultAgent implements Agent {
         int samplingRate = this.profilerConfig.getSamplingRate();
 
         SamplerFactory samplerFactory = new SamplerFactory();
+        if ("ADAPTIVE".equalsIgnoreCase(this.profilerConfig.getSamplingType())) {
+            final int targetTps = this.profilerConfig.getSamplingAdaptiveTargetTps();
+            final boolean keepErrorOrSlow = this.profilerConfig.isSamplingAdaptiveKeepErrorOrSlow();
+            final int provisionalTps = this.profilerConfig.getSamplingAdaptiveProvisionalTps();
+            final long slowThreshold = this.profilerConfig.getSamplingAdaptiveSlowThreshold();
+            return samplerFactory.createAdaptiveSampler(samplingEnable, targetTps, keepErrorOrSlow, provisionalTps, slowThreshold);
+        }
         return samplerFactory.createSampler(samplingEnable, samplingRate);
     }
     
@@ -348,15 +359,54 @@ public class DefaultAgent implements Agent {
     protected EnhancedDataSender createTcpDataSender(CommandDispatcher commandDispatcher) {
         this.factory = createPinpointSocketFactory(commandDispatcher);
         this.socket = createPinpointSocket(this.profilerConfig.getCollectorTcpServerIp(), this.profilerConfig.getCollectorTcpServerPort(), factory);
-        return new TcpDataSender(socket);
+        return new TcpDataSender(socket, createDataSenderOption(false));
     }
 
     protected DataSender createUdpStatDataSender(int port, String threadName, int writeQueueSize, int timeout, int sendBufferSize) {
-        return new UdpDataSender(this.profilerConfig.getCollectorStatServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize);
+        return createUdpDataSender(this.profilerConfig.getCollectorStatServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize);
     }
     
     protected DataSender createUdpSpanDataSender(int port, String threadName, int writeQueueSize, int timeout, int sendBufferSize) {
-        return new UdpDataSender(this.profilerConfig.getCollectorSpanServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize);
+        return createUdpDataSender(this.profilerConfig.getCollectorSpanServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize);
+    }
+
+    private DataSender createUdpDataSender(String host, int port, String threadName, int writeQueueSize, int timeout, int sendBufferSize) {
+        if (this.profilerConfig.isDataSenderUdpNio()) {
+            final boolean gatheringWrite = this.profilerConfig.isDataSenderUdpNioGatheringWrite();
+            return new NioUdpDataSender(host, port, threadName, writeQueueSize, timeout, sendBufferSize, gatheringWrite, createDataSenderOption(gatheringWrite));
+        }
+        return new UdpDataSender(host, port, threadName, writeQueueSize, timeout, sendBufferSize, createDataSenderOption(false));
+    }
+
+    /**
+     * @param batchWrite whether the sender writes a drained batch at once. otherwise lingering only adds latency.
+     */
+    private AsyncQueueingExecutorOption createDataSenderOption(boolean batchWrite) {
+        final AsyncQueueType queueType = AsyncQueueType.getType(this.profilerConfig.getDataSenderQueueType(), AsyncQueueType.LINKED);
+        final int maxDrainSize = this.profilerConfig.getDataSenderDrainMaxSize();
+        final int minDrainSize;
+        final long lingerTime;
+        if (batchWrite) {
+            minDrainSize = this.profilerConfig.getDataSenderDrainMinSize();
+            lingerTime = this.profilerConfig.getDataSenderLingerTime();
+        } else {
+            minDrainSize = AsyncQueueingExecutorOption.DEFAULT_MIN_DRAIN_SIZE;
+            lingerTime = 0;
+        }
+        return new AsyncQueueingExecutorOption(queueType, maxDrainSize, minDrainSize, lingerTime, createDataSpoolOption(), this.monitorRegistry);
+    }
+
+    private DataSpoolOption createDataSpoolOption() {
+        if (!this.profilerConfig.isDataSenderSpoolEnable()) {
+            return null;
+        }
+        String spoolDirectory = this.profilerConfig.getDataSenderSpoolDirectory();
+        if (spoolDirectory == null || spoolDirectory.trim().isEmpty()) {
+            spoolDirectory = System.getProperty("java.io.tmpdir") + File.separator + "pinpoint-spool";
+        }
+        // one directory per agent. spool files are named after the sender thread
+        final File agentSpoolDirectory = new File(spoolDirectory, this.agentInformation.getAgentId());
+        return new DataSpoolOption(agentSpoolDirectory, this.profilerConfig.getDataSenderSpoolSize(), this.profilerConfig.getDataSenderSpoolReplayRate());
     }
 
     protected EnhancedDataSender getTcpDataSender() {
@@ -371,6 +421,10 @@ public class DefaultAgent implements Agent {
         return spanDataSender;
     }
 
+    public MetricMonitorRegistry getMonitorRegistry() {
+        return monitorRegistry;
+    }
+
     public TraceContext getTraceContext() {
         return traceContext;
     }
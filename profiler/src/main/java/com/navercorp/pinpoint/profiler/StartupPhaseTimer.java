@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler;
+
+/**
+ * elapsed time of each agent startup phase.
+ * not thread safe. used on the premain thread only.
+ *
+ * @author agent
+ */
+class StartupPhaseTimer {
+
+    private final long startTime;
+    private long lastTime;
+    private final StringBuilder phases = new StringBuilder();
+
+    StartupPhaseTimer() {
+        this.startTime = System.currentTimeMillis();
+        this.lastTime = startTime;
+    }
+
+    /**
+     * ends the current phase.
+     */
+    void mark(String phase) {
+        final long currentTime = System.currentTimeMillis();
+        phases.append(phase).append('=').append(currentTime - lastTime).append("ms, ");
+        this.lastTime = currentTime;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + phases + "total=" + (lastTime - startTime) + "ms}";
+    }
+}
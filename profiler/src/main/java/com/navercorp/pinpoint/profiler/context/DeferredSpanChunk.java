@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TProtocol;
+
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+
+/**
+ * SpanChunk whose SpanEvent list is built by the sender thread instead of the application thread.
+ * The application thread fills the header fields and hands over the SpanEvent array; the SpanEvent list is built on first use
+ * (serialize, getSpanEventList(), toString()) and the array is returned to the pool.
+ *
+ * Caution. not thread safe. must be used by a single consumer thread after the hand-off.
+ *
+ * @author agent
+ */
+public class DeferredSpanChunk extends SpanChunk {
+
+    private final ObjectPool<SpanEvent[]> arrayPool;
+
+    private SpanEvent[] spanEventArray;
+    private final int size;
+
+    DeferredSpanChunk(SpanEvent[] spanEventArray, int size, ObjectPool<SpanEvent[]> arrayPool) {
+        this.spanEventArray = spanEventArray;
+        this.size = size;
+        this.arrayPool = arrayPool;
+    }
+
+    public void build() {
+        final SpanEvent[] spanEventArray = this.spanEventArray;
+        if (spanEventArray == null) {
+            // already built
+            return;
+        }
+        this.spanEventArray = null;
+
+        final List<SpanEvent> spanEventList = new ArrayList<SpanEvent>(size);
+        for (int i = 0; i < size; i++) {
+            spanEventList.add(spanEventArray[i]);
+        }
+        setSpanEventList((List) spanEventList);
+
+        arrayPool.returnObject(spanEventArray);
+    }
+
+    public boolean isBuilt() {
+        return spanEventArray == null;
+    }
+
+    @Override
+    public List<TSpanEvent> getSpanEventList() {
+        build();
+        return super.getSpanEventList();
+    }
+
+    @Override
+    public void write(TProtocol oprot) throws TException {
+        build();
+        super.write(oprot);
+    }
+
+    @Override
+    public String toString() {
+        build();
+        return super.toString();
+    }
+}
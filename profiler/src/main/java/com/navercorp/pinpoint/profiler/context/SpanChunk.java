@@ -32,4 +32,8 @@ public class SpanChunk extends TSpanChunk {
         }
         setSpanEventList((List) spanEventList);
     }
+
+    // for DeferredSpanChunk. SpanEvent list is set later on build
+    SpanChunk() {
+    }
 }
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.profiler.context;
 
 import com.navercorp.pinpoint.profiler.AgentInformation;
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
 
 import java.util.List;
 
@@ -45,14 +46,38 @@ public class SpanChunkFactory {
         }
 
 
-        final SpanEvent first = flushData.get(0);
+        final SpanChunk spanChunk = new SpanChunk(flushData);
+        fill(spanChunk, flushData.get(0));
+        return spanChunk;
+    }
+
+    /**
+     * Creates a SpanChunk whose SpanEvent list is built later by the sender thread. see {@link DeferredSpanChunk#build()}
+     * the header fields are copied from the parent span here, on the application thread, because the span may still change after the hand-off.
+     * spanEventArray is returned to the arrayPool after build.
+     */
+    public SpanChunk createDeferred(final SpanEvent[] spanEventArray, final int size, final ObjectPool<SpanEvent[]> arrayPool) {
+        if (spanEventArray == null) {
+            throw new NullPointerException("spanEventArray must not be null");
+        }
+        if (size < 1 || size > spanEventArray.length) {
+            throw new IllegalArgumentException("invalid size:" + size);
+        }
+        if (arrayPool == null) {
+            throw new NullPointerException("arrayPool must not be null");
+        }
+        final DeferredSpanChunk spanChunk = new DeferredSpanChunk(spanEventArray, size, arrayPool);
+        fill(spanChunk, spanEventArray[0]);
+        return spanChunk;
+    }
+
+    private void fill(final SpanChunk spanChunk, final SpanEvent first) {
         if (first == null) {
             throw new IllegalStateException("first SpanEvent is null");
         }
         final Span parentSpan = first.getSpan();
         final String agentId = this.agentInformation.getAgentId();
 
-        final SpanChunk spanChunk = new SpanChunk(flushData);
         spanChunk.setAgentId(agentId);
         spanChunk.setApplicationName(this.agentInformation.getApplicationName());
         spanChunk.setAgentStartTime(this.agentInformation.getStartTime());
@@ -68,6 +93,5 @@ public class SpanChunkFactory {
         spanChunk.setSpanId(parentSpan.getSpanId());
 
         spanChunk.setEndPoint(parentSpan.getEndPoint());
-        return spanChunk;
     }
 }
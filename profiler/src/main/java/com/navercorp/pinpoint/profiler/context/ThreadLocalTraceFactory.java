@@ -16,14 +16,19 @@
 
 package com.navercorp.pinpoint.profiler.context;
 
+import com.navercorp.pinpoint.bootstrap.context.SpanId;
 import com.navercorp.pinpoint.bootstrap.context.Trace;
 import com.navercorp.pinpoint.bootstrap.context.TraceContext;
 import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceFlag;
 import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
+import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
 import com.navercorp.pinpoint.exception.PinpointException;
+import com.navercorp.pinpoint.profiler.context.storage.ProvisionalStorage;
 import com.navercorp.pinpoint.profiler.context.storage.Storage;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
 import com.navercorp.pinpoint.profiler.monitor.metric.MetricRegistry;
+import com.navercorp.pinpoint.profiler.sampler.AdaptiveSampler;
 import com.navercorp.pinpoint.profiler.util.NamedThreadLocal;
 
 import org.slf4j.Logger;
@@ -45,6 +50,8 @@ public class ThreadLocalTraceFactory implements TraceFactory {
 
     private final StorageFactory storageFactory;
     private final Sampler sampler;
+    // nullable. records unsampled transactions provisionally to keep errors and slow ones.
+    private final AdaptiveSampler provisionalSampler;
 
 
     // Unique id for tracing a internal stacktrace and calculating a slow time of activethreadcount
@@ -68,6 +75,17 @@ public class ThreadLocalTraceFactory implements TraceFactory {
         this.metricRegistry = metricRegistry;
         this.storageFactory = storageFactory;
         this.sampler = sampler;
+        this.provisionalSampler = getProvisionalSampler(sampler);
+    }
+
+    private AdaptiveSampler getProvisionalSampler(Sampler sampler) {
+        if (sampler instanceof AdaptiveSampler) {
+            final AdaptiveSampler adaptiveSampler = (AdaptiveSampler) sampler;
+            if (adaptiveSampler.isKeepErrorOrSlow()) {
+                return adaptiveSampler;
+            }
+        }
+        return null;
     }
 
 
@@ -109,7 +127,7 @@ public class ThreadLocalTraceFactory implements TraceFactory {
     public Trace disableSampling() {
         checkBeforeTraceObject();
         final Trace metricTrace = createMetricTrace();
-        threadLocal.set(metricTrace);
+        bind(metricTrace);
 
         // TODO STATDISABLE, disabled to store statistics for now. createMetricTrace() returns DisableTrace.INSTANCE.
         return metricTrace;
@@ -118,6 +136,10 @@ public class ThreadLocalTraceFactory implements TraceFactory {
     // continue to trace the request that has been determined to be sampled on previous nodes
     @Override
     public Trace continueTraceObject(final TraceId traceID) {
+        if (SamplingFlagUtils.isProvisionalTrace(traceID.getFlags())) {
+            // the previous node may discard its span at the end. a span recorded here would be an orphan.
+            return disableSampling();
+        }
         checkBeforeTraceObject();
 
         // TODO need to modify how to bind a datasender
@@ -129,7 +151,7 @@ public class ThreadLocalTraceFactory implements TraceFactory {
         // TODO need to consider as a target to sample in case Trace object has a sampling flag (true) marked on previous node.
         trace.setSampling(true);
 
-        threadLocal.set(trace);
+        bind(trace);
         return trace;
     }
 
@@ -154,11 +176,22 @@ public class ThreadLocalTraceFactory implements TraceFactory {
             final DefaultTrace trace = new DefaultTrace(traceContext, nextTransactionId());
             trace.setStorage(storage);
             trace.setSampling(sampling);
-            threadLocal.set(trace);
+            bind(trace);
+            return trace;
+        } else if (provisionalSampler != null && provisionalSampler.isProvisionalSampling()) {
+            // decide to keep or discard when the transaction ends
+            final Storage storage = new ProvisionalStorage(storageFactory.createStorage(), provisionalSampler.getSlowThreshold());
+            // the flag is propagated to next nodes, which handle the request as unsampled
+            final TraceId traceId = new DefaultTraceId(traceContext.getAgentId(), traceContext.getAgentStartTime(), nextTransactionId(),
+                    SpanId.NULL, SpanId.newSpanId(), SamplingFlagUtils.PROVISIONAL_TRACE_FLAG);
+            final DefaultTrace trace = new DefaultTrace(traceContext, traceId);
+            trace.setStorage(storage);
+            trace.setSampling(true);
+            bind(trace);
             return trace;
         } else {
             final Trace metricTrace = createMetricTrace();
-            threadLocal.set(metricTrace);
+            bind(metricTrace);
             return metricTrace;
         }
     }
@@ -175,12 +208,19 @@ public class ThreadLocalTraceFactory implements TraceFactory {
 
 
     public void attachTraceObject(Trace trace) {
-        this.threadLocal.set(trace);
+        bind(trace);
     }
     
     @Override
     public void detachTraceObject() {
         this.threadLocal.remove();
+        SampledTraceFlag.set(false);
+    }
+
+    private void bind(Trace trace) {
+        this.threadLocal.set(trace);
+        // fast path of the SampledTraceOnlyInterceptor
+        SampledTraceFlag.set(trace != null && trace.canSampled());
     }
     
     public Trace continueAsyncTraceObject(TraceId traceId, int asyncId, long startTime) {
@@ -197,7 +237,7 @@ public class ThreadLocalTraceFactory implements TraceFactory {
         final AsyncTrace asyncTrace = new AsyncTrace(trace);
         asyncTrace.setAsyncId(asyncId);
         
-        threadLocal.set(asyncTrace);
+        bind(asyncTrace);
         
         return asyncTrace;
     }
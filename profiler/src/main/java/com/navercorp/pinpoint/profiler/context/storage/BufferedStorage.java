@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.profiler.context.storage;
 
 import com.navercorp.pinpoint.profiler.context.*;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +27,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Storage of a single trace. Only the thread owning the trace writes to it, so no lock is taken.
+ * SpanEvents are buffered in a pooled array; a full array is handed over to the sender thread, which builds the SpanEvent list of the SpanChunk.
+ *
  * @author emeroad
  */
 public class BufferedStorage implements Storage {
@@ -36,9 +40,13 @@ public class BufferedStorage implements Storage {
 
     private final int bufferSize;
 
-    private List<SpanEvent> storage ;
+    private SpanEvent[] storage;
+    private int storageIndex = 0;
+    private boolean flushed = false;
+
     private final DataSender dataSender;
     private final SpanChunkFactory spanChunkFactory;
+    private final ObjectPool<SpanEvent[]> arrayPool;
     private boolean async;
 
     public BufferedStorage(DataSender dataSender, SpanChunkFactory spanChunkFactory) {
@@ -46,53 +54,54 @@ public class BufferedStorage implements Storage {
     }
 
     public BufferedStorage(DataSender dataSender, SpanChunkFactory spanChunkFactory, int bufferSize) {
+        this(dataSender, spanChunkFactory, bufferSize, new ObjectPool<SpanEvent[]>(new SpanEventArrayPoolFactory(bufferSize), 0));
+    }
+
+    BufferedStorage(DataSender dataSender, SpanChunkFactory spanChunkFactory, int bufferSize, ObjectPool<SpanEvent[]> arrayPool) {
         if (dataSender == null) {
             throw new NullPointerException("dataSender must not be null");
         }
         if (spanChunkFactory == null) {
             throw new NullPointerException("spanChunkFactory must not be null");
         }
+        if (arrayPool == null) {
+            throw new NullPointerException("arrayPool must not be null");
+        }
         this.dataSender = dataSender;
         this.spanChunkFactory = spanChunkFactory;
         this.bufferSize = bufferSize;
-        this.storage = new ArrayList<SpanEvent>(bufferSize);
+        this.arrayPool = arrayPool;
     }
 
 
     @Override
     public void store(SpanEvent spanEvent) {
-
-        List<SpanEvent> flushData = null;
-        synchronized (this) {
-            addSpanEvent(spanEvent);
-            if (storage.size() >= bufferSize) {
-                // data copy
-                flushData = storage;
-                storage = new ArrayList<SpanEvent>(bufferSize);
-            }
-        }
-        if (flushData != null) {
-            final SpanChunk spanChunk = spanChunkFactory.create(flushData);
-            if (isDebug) {
-                logger.debug("flush SpanChunk {}", spanChunk);
-            }
-            dataSender.send(spanChunk);
-        }
-    }
-
-    private void addSpanEvent(SpanEvent spanEvent) {
-        final List<SpanEvent> storage = this.storage;
-        if (storage == null) {
+        if (flushed) {
             if (logger.isErrorEnabled()) {
                 logger.error("storage is null. discard spanEvent:{}", spanEvent);
             }
-            
             // Already flushed. This could happen with async processing.
             return;
         }
-        storage.add(spanEvent);
-    }
 
+        SpanEvent[] storage = this.storage;
+        if (storage == null) {
+            storage = arrayPool.getObject();
+            this.storage = storage;
+        }
+        storage[storageIndex++] = spanEvent;
+
+        if (storageIndex >= bufferSize) {
+            // hand over the array. SpanChunk is built by the sender thread
+            final SpanChunk spanChunk = spanChunkFactory.createDeferred(storage, storageIndex, arrayPool);
+            this.storage = null;
+            this.storageIndex = 0;
+            if (isDebug) {
+                logger.debug("flush SpanChunk size:{}", bufferSize);
+            }
+            dataSender.send(spanChunk);
+        }
+    }
 
     @Override
     public void store(Span span) {
@@ -100,21 +109,28 @@ public class BufferedStorage implements Storage {
     }
 
     private void flushAll(Span span) {
-        List<SpanEvent> spanEventList;
-        synchronized (this) {
-            spanEventList = storage;
-            this.storage = null;
-        }
-        
+        final SpanEvent[] storage = this.storage;
+        final int size = this.storageIndex;
+        this.storage = null;
+        this.storageIndex = 0;
+        this.flushed = true;
+
         if(async) {
-            if(spanEventList != null && !spanEventList.isEmpty()) {
-                final SpanChunk spanChunk = spanChunkFactory.create(spanEventList);
+            if (storage != null && size > 0) {
+                final SpanChunk spanChunk = spanChunkFactory.createDeferred(storage, size, arrayPool);
                 dataSender.send(spanChunk);
+            } else {
+                arrayPool.returnObject(storage);
             }
         } else {
-            if (spanEventList != null && !spanEventList.isEmpty()) {
+            if (storage != null && size > 0) {
+                final List<SpanEvent> spanEventList = new ArrayList<SpanEvent>(size);
+                for (int i = 0; i < size; i++) {
+                    spanEventList.add(storage[i]);
+                }
                 span.setSpanEventList((List) spanEventList);
             }
+            arrayPool.returnObject(storage);
             dataSender.send(span);
         }
 
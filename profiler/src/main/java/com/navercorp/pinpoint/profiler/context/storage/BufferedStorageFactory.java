@@ -19,16 +19,23 @@ package com.navercorp.pinpoint.profiler.context.storage;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.profiler.AgentInformation;
 import com.navercorp.pinpoint.profiler.context.SpanChunkFactory;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
 
 /**
  * @author emeroad
  */
 public class BufferedStorageFactory implements StorageFactory {
 
+    // arrays beyond this are left to gc after a burst of deep transactions
+    private static final int MAX_POOLED_ARRAY_SIZE = 256;
+
     private final DataSender dataSender;
     private final int bufferSize;
     private final SpanChunkFactory spanChunkFactory;
+    // shared by all storages. recycles SpanEvent arrays handed over to the sender thread
+    private final ObjectPool<SpanEvent[]> arrayPool;
 
     public BufferedStorageFactory(DataSender dataSender, ProfilerConfig config, AgentInformation agentInformation) {
         if (dataSender == null) {
@@ -42,12 +49,13 @@ public class BufferedStorageFactory implements StorageFactory {
         this.bufferSize = config.getIoBufferingBufferSize();
 
         this.spanChunkFactory = new SpanChunkFactory(agentInformation);
+        this.arrayPool = new ObjectPool<SpanEvent[]>(new SpanEventArrayPoolFactory(bufferSize), 0, MAX_POOLED_ARRAY_SIZE);
     }
 
 
     @Override
     public Storage createStorage() {
-        BufferedStorage bufferedStorage = new BufferedStorage(this.dataSender, spanChunkFactory, this.bufferSize);
+        BufferedStorage bufferedStorage = new BufferedStorage(this.dataSender, spanChunkFactory, this.bufferSize, this.arrayPool);
         return bufferedStorage;
     }
 
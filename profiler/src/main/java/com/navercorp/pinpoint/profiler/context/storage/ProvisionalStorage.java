@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage for a transaction that was not sampled but is recorded provisionally.
+ * SpanEvents are held in memory until the Span ends, and are passed to the delegate only if the transaction
+ * ended with an error or took longer than slowThreshold. Otherwise everything is discarded.
+ *
+ * @author agent
+ */
+public class ProvisionalStorage implements Storage {
+
+    public static final int DEFAULT_MAX_SPAN_EVENT_SIZE = 2048;
+
+    private final Storage delegate;
+    private final long slowThreshold;
+    private final int maxSpanEventSize;
+
+    private List<SpanEvent> spanEventList = new ArrayList<SpanEvent>();
+
+    public ProvisionalStorage(Storage delegate, long slowThreshold) {
+        this(delegate, slowThreshold, DEFAULT_MAX_SPAN_EVENT_SIZE);
+    }
+
+    public ProvisionalStorage(Storage delegate, long slowThreshold, int maxSpanEventSize) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate must not be null");
+        }
+        this.delegate = delegate;
+        this.slowThreshold = slowThreshold;
+        this.maxSpanEventSize = maxSpanEventSize;
+    }
+
+    @Override
+    public void store(SpanEvent spanEvent) {
+        final List<SpanEvent> spanEventList = this.spanEventList;
+        if (spanEventList == null) {
+            // already flushed
+            return;
+        }
+        if (spanEventList.size() >= maxSpanEventSize) {
+            // bound memory of a deep call tree. the rest of SpanEvents are dropped
+            return;
+        }
+        spanEventList.add(spanEvent);
+    }
+
+    @Override
+    public void store(Span span) {
+        final List<SpanEvent> spanEventList = this.spanEventList;
+        this.spanEventList = null;
+        if (!isKeep(span)) {
+            return;
+        }
+        if (spanEventList != null) {
+            for (SpanEvent spanEvent : spanEventList) {
+                delegate.store(spanEvent);
+            }
+        }
+        delegate.store(span);
+    }
+
+    boolean isKeep(Span span) {
+        if (span.getErrCode() != 0) {
+            return true;
+        }
+        return span.getElapsed() >= slowThreshold;
+    }
+
+    @Override
+    public void setAsync(boolean async) {
+        delegate.setAsync(async);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return delegate.isAsync();
+    }
+}
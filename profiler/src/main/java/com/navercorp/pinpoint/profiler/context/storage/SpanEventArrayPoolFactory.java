@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import java.util.Arrays;
+
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.util.ObjectPoolFactory;
+
+/**
+ * @author agent
+ */
+class SpanEventArrayPoolFactory implements ObjectPoolFactory<SpanEvent[]> {
+
+    private final int bufferSize;
+
+    SpanEventArrayPoolFactory(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public SpanEvent[] create() {
+        return new SpanEvent[bufferSize];
+    }
+
+    @Override
+    public void beforeReturn(SpanEvent[] spanEvents) {
+        // release SpanEvent references
+        Arrays.fill(spanEvents, null);
+    }
+}
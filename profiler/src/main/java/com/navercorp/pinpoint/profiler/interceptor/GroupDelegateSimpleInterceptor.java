@@ -44,6 +44,10 @@ public class GroupDelegateSimpleInterceptor implements SimpleAroundInterceptor,
         this.scope = scope;
     }
 
+    public SimpleAroundInterceptor getDelegate() {
+        return delegate;
+    }
+
     @Override
     public void before(Object target, Object[] args) {
         if (scope.tryEnter(ExecutionPolicy.BOUNDARY)) {
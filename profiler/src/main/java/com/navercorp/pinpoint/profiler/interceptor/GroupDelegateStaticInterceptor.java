@@ -41,6 +41,10 @@ public class GroupDelegateStaticInterceptor implements StaticAroundInterceptor,
         this.scope = scope;
     }
 
+    public StaticAroundInterceptor getDelegate() {
+        return delegate;
+    }
+
     @Override
     public void before(Object target, String className, String methodName, String parameterDescription, Object[] args) {
         if (scope.tryEnter(ExecutionPolicy.BOUNDARY)) {
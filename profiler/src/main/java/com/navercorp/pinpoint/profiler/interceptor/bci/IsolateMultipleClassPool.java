@@ -26,6 +26,9 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * class pool per class loader.
+ * the pools are weakly keyed by the class loader, so the pool of a collected class loader is evicted with the class loader.
+ *
  * @author emeroad
  */
 public class IsolateMultipleClassPool implements MultipleClassPool {
@@ -43,6 +46,8 @@ public class IsolateMultipleClassPool implements MultipleClassPool {
     public static final boolean DEFAULT_CHILD_FIRST_LOOKUP = true;
     private final boolean childFirstLookup;
 
+    private final int maxCachedClassSize;
+
 
     public static final EventListener EMPTY_EVENT_LISTENER = new EventListener() {
         @Override
@@ -67,10 +72,18 @@ public class IsolateMultipleClassPool implements MultipleClassPool {
     }
 
     public IsolateMultipleClassPool(boolean childFirstLookup, EventListener eventListener, ClassPoolHandler rootClassPoolHandler) {
+        this(childFirstLookup, NamedClassPool.UNBOUNDED, eventListener, rootClassPoolHandler);
+    }
+
+    /**
+     * @param maxCachedClassSize max CtClass size cached by each pool. {@link NamedClassPool#UNBOUNDED} to cache every class
+     */
+    public IsolateMultipleClassPool(boolean childFirstLookup, int maxCachedClassSize, EventListener eventListener, ClassPoolHandler rootClassPoolHandler) {
         if (eventListener == null) {
             throw new NullPointerException("eventListener must not be null");
         }
 
+        this.maxCachedClassSize = maxCachedClassSize;
         this.rootClassPool = createRootClassPool(rootClassPoolHandler);
         this.classPoolMap = Maps.newWeakConcurrentMap();
         this.eventListener = eventListener;
@@ -80,7 +93,7 @@ public class IsolateMultipleClassPool implements MultipleClassPool {
 
 
     private NamedClassPool createRootClassPool(ClassPoolHandler rootClassPoolHandler) {
-        NamedClassPool systemClassPool = new NamedClassPool("rootClassPool");
+        NamedClassPool systemClassPool = new NamedClassPool("rootClassPool", maxCachedClassSize);
         systemClassPool.appendSystemPath();
         if (rootClassPoolHandler != null ) {
             rootClassPoolHandler.handleClassPool(systemClassPool);
@@ -122,7 +135,7 @@ public class IsolateMultipleClassPool implements MultipleClassPool {
 
     private NamedClassPool createClassPool(ClassLoader classLoader) {
         String classLoaderName = classLoader.toString();
-        NamedClassPool newClassPool = new NamedClassPool(rootClassPool, classLoaderName + "-" + getNextId());
+        NamedClassPool newClassPool = new NamedClassPool(rootClassPool, classLoaderName + "-" + getNextId(), maxCachedClassSize);
         if (childFirstLookup) {
             newClassPool.childFirstLookup = true;
         }
@@ -142,6 +155,17 @@ public class IsolateMultipleClassPool implements MultipleClassPool {
         return this.classPoolMap.size();
     }
 
+    /**
+     * @return CtClass size cached by the root pool and the pools of the live class loaders
+     */
+    public int getCachedClassSize() {
+        int cachedClassSize = rootClassPool.getCachedClassSize();
+        for (NamedClassPool classPool : classPoolMap.values()) {
+            cachedClassSize += classPool.getCachedClassSize();
+        }
+        return cachedClassSize;
+    }
+
     // for Test
     Collection<NamedClassPool> values() {
         return classPoolMap.values();
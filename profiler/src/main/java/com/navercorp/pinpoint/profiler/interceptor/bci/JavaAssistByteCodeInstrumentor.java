@@ -58,7 +58,7 @@ public class JavaAssistByteCodeInstrumentor implements ByteCodeInstrumentor {
     private final boolean isInfo = logger.isInfoEnabled();
     private final boolean isDebug = logger.isDebugEnabled();
 
-    private final MultipleClassPool childClassPool;
+    private final IsolateMultipleClassPool childClassPool;
 
     private Agent agent;
 
@@ -91,6 +91,10 @@ public class JavaAssistByteCodeInstrumentor implements ByteCodeInstrumentor {
     }
 
     public JavaAssistByteCodeInstrumentor(Agent agent, InterceptorRegistryBinder interceptorRegistryBinder, final String bootStrapJar, RetransformEventTrigger retransformEventTrigger) {
+        this(agent, interceptorRegistryBinder, bootStrapJar, retransformEventTrigger, NamedClassPool.UNBOUNDED);
+    }
+
+    public JavaAssistByteCodeInstrumentor(Agent agent, InterceptorRegistryBinder interceptorRegistryBinder, final String bootStrapJar, RetransformEventTrigger retransformEventTrigger, int maxCachedClassSize) {
         if (interceptorRegistryBinder == null) {
             throw new NullPointerException("interceptorRegistryBinder must not be null");
         }
@@ -98,7 +102,7 @@ public class JavaAssistByteCodeInstrumentor implements ByteCodeInstrumentor {
             throw new NullPointerException("retransformEventTrigger must not be null");
         }
 
-        this.childClassPool = new IsolateMultipleClassPool(eventListener, new IsolateMultipleClassPool.ClassPoolHandler() {
+        this.childClassPool = new IsolateMultipleClassPool(IsolateMultipleClassPool.DEFAULT_CHILD_FIRST_LOOKUP, maxCachedClassSize, eventListener, new IsolateMultipleClassPool.ClassPoolHandler() {
             @Override
             public void handleClassPool(NamedClassPool systemClassPool) {
                 try {
@@ -157,6 +161,26 @@ public class JavaAssistByteCodeInstrumentor implements ByteCodeInstrumentor {
         return childClassPool.getClassPool(classLoader);
     }
 
+    /**
+     * detaches the transformed class from the pool of the classLoader.
+     * a transform which does not reach {@link JavaAssistClass#toBytecode()} would leave the class cached.
+     */
+    public void detachClass(ClassLoader classLoader, String className) {
+        if (className == null) {
+            throw new NullPointerException("className must not be null");
+        }
+        final NamedClassPool classPool = getClassPool(classLoader);
+        classPool.detach(className);
+    }
+
+    public int getClassPoolSize() {
+        return childClassPool.size();
+    }
+
+    public int getCachedClassSize() {
+        return childClassPool.getCachedClassSize();
+    }
+
 
     public Class<?> defineClass(ClassLoader classLoader, String defineClass, ProtectionDomain protectedDomain) throws InstrumentException {
         if (isInfo) {
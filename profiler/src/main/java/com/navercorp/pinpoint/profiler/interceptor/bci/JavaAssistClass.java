@@ -48,6 +48,8 @@ import com.navercorp.pinpoint.bootstrap.interceptor.Interceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.InterceptorRegistry;
 import com.navercorp.pinpoint.bootstrap.interceptor.LoggingInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.MethodDescriptor;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceFlag;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceOnlyInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.StaticAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.TraceContextSupport;
@@ -619,10 +621,11 @@ public class JavaAssistClass implements InstrumentClass {
             parameterTypeString = JavaAssistUtils.getParameterDescription(parameterType);
         }
         final String parameterIdentifier = getParameterIdentifier(parameterType);
+        final boolean sampledTraceOnly = isSampledTraceOnly(id);
 
         final CodeBuilder after = new CodeBuilder();
         after.begin();
-
+        beginSampledTraceGuard(after, sampledTraceOnly);
         if (interceptorType == STATIC_INTERCEPTOR) {
             after.format("  %1$s interceptor = %2$s.getStaticInterceptor(%3$d);", StaticAroundInterceptor.class.getName(), interceptorRegistryBinder.getInterceptorRegistryClassName(), id);
             after.format("  interceptor.after(%1$s, \"%2$s\", \"%3$s\", \"%4$s\", %5$s, %6$s, null);", target, ctClass.getName(), methodName, parameterTypeString, parameterIdentifier, returnType);
@@ -630,6 +633,7 @@ public class JavaAssistClass implements InstrumentClass {
             after.format("  %1$s interceptor = %2$s.getSimpleInterceptor(%3$d);", SimpleAroundInterceptor.class.getName(), interceptorRegistryBinder.getInterceptorRegistryClassName(), id);
             after.format("  interceptor.after(%1$s, %2$s, %3$s, null);", target, parameterIdentifier, returnType);
         }
+        endSampledTraceGuard(after, sampledTraceOnly);
         after.end();
 
         final String buildAfter = after.toString();
@@ -641,6 +645,7 @@ public class JavaAssistClass implements InstrumentClass {
 
         CodeBuilder catchCode = new CodeBuilder();
         catchCode.begin();
+        beginSampledTraceGuard(catchCode, sampledTraceOnly);
         if (interceptorType == STATIC_INTERCEPTOR) {
             catchCode.format("  %1$s interceptor = %2$s.getStaticInterceptor(%3$d);", StaticAroundInterceptor.class.getName(), interceptorRegistryBinder.getInterceptorRegistryClassName(), id);
             catchCode.format("  interceptor.after(%1$s, \"%2$s\", \"%3$s\", \"%4$s\", %5$s, null, $e);", target, ctClass.getName(), methodName, parameterTypeString, parameterIdentifier);
@@ -648,6 +653,7 @@ public class JavaAssistClass implements InstrumentClass {
             catchCode.format("  %1$s interceptor = %2$s.getSimpleInterceptor(%3$d);", SimpleAroundInterceptor.class.getName(), interceptorRegistryBinder.getInterceptorRegistryClassName(), id);
             catchCode.format("  interceptor.after(%1$s, %2$s, null, $e);", target, parameterIdentifier);
         }
+        endSampledTraceGuard(catchCode, sampledTraceOnly);
         catchCode.append("  throw $e;");
         catchCode.end();
         String buildCatch = catchCode.toString();
@@ -698,9 +704,11 @@ public class JavaAssistClass implements InstrumentClass {
             parameterDescription = JavaAssistUtils.getParameterDescription(parameterType);
         }
         final String parameterIdentifier = getParameterIdentifier(parameterType);
+        final boolean sampledTraceOnly = isSampledTraceOnly(id);
 
         CodeBuilder code = new CodeBuilder();
         code.begin();
+        beginSampledTraceGuard(code, sampledTraceOnly);
         if (interceptorType == STATIC_INTERCEPTOR) {
             code.format("  %1$s interceptor = %2$s.getStaticInterceptor(%3$d);", StaticAroundInterceptor.class.getName(), interceptorRegistryBinder.getInterceptorRegistryClassName(), id);
             code.format("  interceptor.before(%1$s, \"%2$s\", \"%3$s\", \"%4$s\", %5$s);", target, ctClass.getName(), methodName, parameterDescription, parameterIdentifier);
@@ -709,6 +717,7 @@ public class JavaAssistClass implements InstrumentClass {
             code.format("  %1$s interceptor = %2$s.getSimpleInterceptor(%3$d);", SimpleAroundInterceptor.class.getName(), interceptorRegistryBinder.getInterceptorRegistryClassName(), id);
             code.format("  interceptor.before(%1$s, %2$s);", target, parameterIdentifier);
         }
+        endSampledTraceGuard(code, sampledTraceOnly);
         code.end();
         String buildBefore = code.toString();
         if (isDebug) {
@@ -722,6 +731,29 @@ public class JavaAssistClass implements InstrumentClass {
         }
     }
 
+    private boolean isSampledTraceOnly(int interceptorId) {
+        Interceptor interceptor = interceptorRegistryBinder.getInterceptorRegistryAdaptor().findInterceptor(interceptorId);
+        if (interceptor instanceof GroupDelegateStaticInterceptor) {
+            interceptor = ((GroupDelegateStaticInterceptor) interceptor).getDelegate();
+        } else if (interceptor instanceof GroupDelegateSimpleInterceptor) {
+            interceptor = ((GroupDelegateSimpleInterceptor) interceptor).getDelegate();
+        }
+        return interceptor instanceof SampledTraceOnlyInterceptor;
+    }
+
+    private void beginSampledTraceGuard(CodeBuilder code, boolean sampledTraceOnly) {
+        // $args and the boxed return value are built only inside the guard, so an unsampled call does not allocate.
+        if (sampledTraceOnly) {
+            code.format("  if (%1$s.isSampled()) {", SampledTraceFlag.class.getName());
+        }
+    }
+
+    private void endSampledTraceGuard(CodeBuilder code, boolean sampledTraceOnly) {
+        if (sampledTraceOnly) {
+            code.append("  }");
+        }
+    }
+
     private String getParameterIdentifier(String[] parameterTypes) {
         if (parameterTypes.length == 0) {
             return "null";
@@ -17,31 +17,121 @@
 package com.navercorp.pinpoint.profiler.interceptor.bci;
 
 import javassist.ClassPool;
+import javassist.CtClass;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 /**
+ * with maxCachedClassSize, the least recently used CtClass is detached when the pool caches more classes than the size.
+ * the detached class is read again from the class path on the next lookup.
+ *
  * @author emeroad
  */
 public class NamedClassPool extends ClassPool {
+
+    public static final int UNBOUNDED = -1;
+
     private final String name;
 
+    // access ordered names of the cached classes. guarded by this
+    private final LinkedHashMap<String, Boolean> cachedClassNames;
+    private final int maxCachedClassSize;
+
     public NamedClassPool(String name) {
+        this(name, UNBOUNDED);
+    }
+
+    public NamedClassPool(String name, int maxCachedClassSize) {
         this.name = name;
+        this.maxCachedClassSize = maxCachedClassSize;
+        this.cachedClassNames = newCachedClassNames(maxCachedClassSize);
     }
 
     public NamedClassPool(boolean useDefaultPath, String name) {
         super(useDefaultPath);
         this.name = name;
+        this.maxCachedClassSize = UNBOUNDED;
+        this.cachedClassNames = null;
     }
 
     public NamedClassPool(ClassPool parent, String name) {
+        this(parent, name, UNBOUNDED);
+    }
+
+    public NamedClassPool(ClassPool parent, String name, int maxCachedClassSize) {
         super(parent);
         this.name = name;
+        this.maxCachedClassSize = maxCachedClassSize;
+        this.cachedClassNames = newCachedClassNames(maxCachedClassSize);
+    }
+
+    private static LinkedHashMap<String, Boolean> newCachedClassNames(int maxCachedClassSize) {
+        if (maxCachedClassSize <= 0) {
+            return null;
+        }
+        return new LinkedHashMap<String, Boolean>(16, 0.75f, true);
     }
 
     public String getName() {
         return name;
     }
 
+    @Override
+    protected synchronized CtClass getCached(String classname) {
+        final CtClass ctClass = super.getCached(classname);
+        if (ctClass != null && cachedClassNames != null) {
+            // mark as recently used
+            cachedClassNames.get(classname);
+        }
+        return ctClass;
+    }
+
+    @Override
+    protected synchronized void cacheCtClass(String classname, CtClass c, boolean dynamic) {
+        if (c == null) {
+            // CtClass.detach() puts back the class it removed. null if the class has been evicted
+            return;
+        }
+        super.cacheCtClass(classname, c, dynamic);
+        if (cachedClassNames != null) {
+            cachedClassNames.put(classname, Boolean.TRUE);
+            evict();
+        }
+    }
+
+    private void evict() {
+        final Iterator<String> iterator = cachedClassNames.keySet().iterator();
+        while (cachedClassNames.size() > maxCachedClassSize && iterator.hasNext()) {
+            final String eldest = iterator.next();
+            iterator.remove();
+            super.removeCached(eldest);
+        }
+    }
+
+    @Override
+    protected synchronized CtClass removeCached(String classname) {
+        if (cachedClassNames != null) {
+            cachedClassNames.remove(classname);
+        }
+        return super.removeCached(classname);
+    }
+
+    /**
+     * removes the class from this pool. the class is read again from the class path on the next lookup.
+     */
+    public boolean detach(String classname) {
+        return removeCached(classname) != null;
+    }
+
+    public int getCachedClassSize() {
+        return classes.size();
+    }
+
+    public int getMaxCachedClassSize() {
+        return maxCachedClassSize;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("NamedClassPool{");
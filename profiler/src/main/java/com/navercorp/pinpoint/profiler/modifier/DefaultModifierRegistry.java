@@ -16,9 +16,7 @@
 
 package com.navercorp.pinpoint.profiler.modifier;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.navercorp.pinpoint.bootstrap.Agent;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
@@ -61,6 +59,7 @@ import com.navercorp.pinpoint.profiler.modifier.orm.mybatis.MyBatisModifier;
 import com.navercorp.pinpoint.profiler.modifier.servlet.SpringFrameworkServletModifier;
 import com.navercorp.pinpoint.profiler.modifier.spring.beans.AbstractAutowireCapableBeanFactoryModifier;
 import com.navercorp.pinpoint.profiler.modifier.spring.orm.ibatis.SqlMapClientTemplateModifier;
+import com.navercorp.pinpoint.profiler.util.ClassNameIndex;
 import com.navercorp.pinpoint.profiler.util.JavaAssistUtils;
 
 /**
@@ -73,9 +72,10 @@ import com.navercorp.pinpoint.profiler.util.JavaAssistUtils;
  */
 public class DefaultModifierRegistry implements ModifierRegistry {
 
-    // No concurrent issue because only one thread put entries to the map and get operations are started after the map is completely build.
+    // No concurrent issue because only one thread put entries to the index and get operations are started after the index is completely build.
     // Set the map size big intentionally to keep hash collision low.
-    private final Map<String, AbstractModifier> registry = new HashMap<String, AbstractModifier>(512);
+    // every class load probes the index, most of the class names are rejected without hashing the whole name
+    private final ClassNameIndex<AbstractModifier> registry = new ClassNameIndex<AbstractModifier>(512);
 
     private final ByteCodeInstrumentor byteCodeInstrumentor;
     private final ProfilerConfig profilerConfig;
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import com.navercorp.pinpoint.bootstrap.context.Trace;
 import com.navercorp.pinpoint.bootstrap.context.TraceContext;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceOnlyInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.StaticAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.TraceContextSupport;
 import com.navercorp.pinpoint.bootstrap.interceptor.tracevalue.BindValueTraceValue;
@@ -29,9 +30,11 @@ import com.navercorp.pinpoint.bootstrap.util.NumberUtils;
 import com.navercorp.pinpoint.profiler.util.bindvalue.BindValueConverter;
 
 /**
+ * bind values are recorded only for a sampled trace, so the setXxx calls of an unsampled transaction skip the interceptor.
+ *
  * @author emeroad
  */
-public class PreparedStatementBindVariableInterceptor implements StaticAroundInterceptor, TraceContextSupport {
+public class PreparedStatementBindVariableInterceptor implements StaticAroundInterceptor, SampledTraceOnlyInterceptor, TraceContextSupport {
 
     private final PLogger logger = PLoggerFactory.getLogger(this.getClass());
     private final boolean isDebug = logger.isDebugEnabled();
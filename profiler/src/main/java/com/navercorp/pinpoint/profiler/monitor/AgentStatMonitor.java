@@ -23,7 +23,9 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
 import com.navercorp.pinpoint.profiler.monitor.codahale.AgentStatCollectorFactory;
+import com.navercorp.pinpoint.profiler.monitor.codahale.classpool.ClassPoolCollector;
 import com.navercorp.pinpoint.profiler.monitor.codahale.cpu.CpuLoadCollector;
 import com.navercorp.pinpoint.profiler.monitor.codahale.gc.GarbageCollector;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
@@ -59,10 +61,21 @@ public class AgentStatMonitor {
     private final long agentStartTime;
 
     public AgentStatMonitor(DataSender dataSender, String agentId, long startTime) {
-        this(dataSender, agentId, startTime, DEFAULT_COLLECTION_INTERVAL_MS, DEFAULT_NUM_COLLECTIONS_PER_SEND);
+        this(dataSender, agentId, startTime, null);
+    }
+
+    public AgentStatMonitor(DataSender dataSender, String agentId, long startTime, JavaAssistByteCodeInstrumentor instrumentor) {
+        this(dataSender, agentId, startTime, DEFAULT_COLLECTION_INTERVAL_MS, DEFAULT_NUM_COLLECTIONS_PER_SEND, instrumentor);
     }
 
     public AgentStatMonitor(DataSender dataSender, String agentId, long startTime, long collectionInterval, int numCollectionsPerBatch) {
+        this(dataSender, agentId, startTime, collectionInterval, numCollectionsPerBatch, null);
+    }
+
+    /**
+     * @param instrumentor source of the class pool stat. null to collect no class pool stat
+     */
+    public AgentStatMonitor(DataSender dataSender, String agentId, long startTime, long collectionInterval, int numCollectionsPerBatch, JavaAssistByteCodeInstrumentor instrumentor) {
         if (dataSender == null) {
             throw new NullPointerException("dataSender must not be null");
         }
@@ -74,7 +87,7 @@ public class AgentStatMonitor {
         this.agentStartTime = startTime;
         this.collectionIntervalMs = collectionInterval;
         this.numCollectionsPerBatch = numCollectionsPerBatch;
-        this.agentStatCollectorFactory = new AgentStatCollectorFactory();
+        this.agentStatCollectorFactory = new AgentStatCollectorFactory(instrumentor);
     }
 
     public void start() {
@@ -98,6 +111,8 @@ public class AgentStatMonitor {
 
         private final GarbageCollector garbageCollector;
         private final CpuLoadCollector cpuLoadCollector;
+        // nullable
+        private final ClassPoolCollector classPoolCollector;
         // Will be used by single thread.
         // I don't think this object would run with multi threads.
         private final int numStatsPerBatch;
@@ -107,6 +122,7 @@ public class AgentStatMonitor {
         private CollectJob(int numStatsPerBatch) {
             this.garbageCollector = agentStatCollectorFactory.getGarbageCollector();
             this.cpuLoadCollector = agentStatCollectorFactory.getCpuLoadCollector();
+            this.classPoolCollector = agentStatCollectorFactory.getClassPoolCollector();
             this.numStatsPerBatch = numStatsPerBatch;
             this.agentStats = new ArrayList<TAgentStat>(this.numStatsPerBatch);
         }
@@ -131,6 +147,10 @@ public class AgentStatMonitor {
             agentStat.setGc(gc);
             final TCpuLoad cpuLoad = cpuLoadCollector.collectCpuLoad();
             agentStat.setCpuLoad(cpuLoad);
+            if (classPoolCollector != null) {
+                agentStat.setClassPoolCount(classPoolCollector.collectClassPoolCount());
+                agentStat.setCachedClassCount(classPoolCollector.collectCachedClassCount());
+            }
             if (isTrace) {
                 logger.trace("collect agentStat:{}", agentStat);
             }
@@ -16,7 +16,10 @@
 
 package com.navercorp.pinpoint.profiler.monitor.codahale;
 
+import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
 import com.navercorp.pinpoint.profiler.monitor.MonitorName;
+import com.navercorp.pinpoint.profiler.monitor.codahale.classpool.ClassPoolCollector;
+import com.navercorp.pinpoint.profiler.monitor.codahale.classpool.ClassPoolMetricSet;
 import com.navercorp.pinpoint.profiler.monitor.codahale.cpu.CpuLoadCollector;
 import com.navercorp.pinpoint.profiler.monitor.codahale.cpu.metric.CpuLoadMetricSet;
 import com.navercorp.pinpoint.profiler.monitor.codahale.gc.CmsCollector;
@@ -44,11 +47,20 @@ public class AgentStatCollectorFactory {
     private final MetricMonitorRegistry monitorRegistry;
     private final GarbageCollector garbageCollector;
     private final CpuLoadCollector cpuLoadCollector;
+    private final ClassPoolCollector classPoolCollector;
 
     public AgentStatCollectorFactory() {
+        this(null);
+    }
+
+    /**
+     * @param instrumentor null to collect no class pool stat
+     */
+    public AgentStatCollectorFactory(JavaAssistByteCodeInstrumentor instrumentor) {
         this.monitorRegistry = createRegistry();
         this.garbageCollector = createGarbageCollector();
         this.cpuLoadCollector = createCpuLoadCollector();
+        this.classPoolCollector = createClassPoolCollector(instrumentor);
     }
 
     private MetricMonitorRegistry createRegistry() {
@@ -91,6 +103,14 @@ public class AgentStatCollectorFactory {
         return new CpuLoadCollector(cpuLoadMetricSet);
     }
 
+    private ClassPoolCollector createClassPoolCollector(JavaAssistByteCodeInstrumentor instrumentor) {
+        if (instrumentor == null) {
+            return null;
+        }
+        ClassPoolMetricSet classPoolMetricSet = this.monitorRegistry.registerClassPoolMonitor(new MonitorName(MetricMonitorValues.CLASS_POOL), instrumentor);
+        return new ClassPoolCollector(classPoolMetricSet);
+    }
+
     public GarbageCollector getGarbageCollector() {
         return this.garbageCollector;
     }
@@ -99,4 +119,11 @@ public class AgentStatCollectorFactory {
         return this.cpuLoadCollector;
     }
 
+    /**
+     * @return null if no instrumentor is given
+     */
+    public ClassPoolCollector getClassPoolCollector() {
+        return this.classPoolCollector;
+    }
+
 }
@@ -24,11 +24,13 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
 import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
+import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
 import com.navercorp.pinpoint.profiler.monitor.CounterMonitor;
 import com.navercorp.pinpoint.profiler.monitor.EventRateMonitor;
 import com.navercorp.pinpoint.profiler.monitor.HistogramMonitor;
 import com.navercorp.pinpoint.profiler.monitor.MonitorName;
 import com.navercorp.pinpoint.profiler.monitor.MonitorRegistry;
+import com.navercorp.pinpoint.profiler.monitor.codahale.classpool.ClassPoolMetricSet;
 import com.navercorp.pinpoint.profiler.monitor.codahale.cpu.CpuLoadMetricSetSelector;
 import com.navercorp.pinpoint.profiler.monitor.codahale.cpu.metric.CpuLoadMetricSet;
 
@@ -103,6 +105,13 @@ public class MetricMonitorRegistry implements MonitorRegistry {
         return this.delegate.register(monitorName.getName(), CpuLoadMetricSetSelector.getCpuLoadMetricSet());
     }
 
+    public ClassPoolMetricSet registerClassPoolMonitor(MonitorName monitorName, JavaAssistByteCodeInstrumentor instrumentor) {
+        if (monitorName == null) {
+            throw new NullPointerException("monitorName must not be null");
+        }
+        return this.delegate.register(monitorName.getName(), new ClassPoolMetricSet(instrumentor));
+    }
+
     public ThreadStatesGaugeSet registerJvmThreadStatesMonitor(MonitorName monitorName) {
         if (monitorName == null) {
             throw new NullPointerException("monitorName must not be null");
@@ -98,6 +98,12 @@ public final class MetricMonitorValues {
     // CPU Load (System)
     public static final String CPU_LOAD_SYSTEM = CPU_LOAD + ".system";
 
+    public static final String CLASS_POOL = "classPool";
+    // javassist class pool per class loader
+    public static final String CLASS_POOL_COUNT = CLASS_POOL + ".count";
+    // CtClass cached by the class pools
+    public static final String CLASS_POOL_CACHED_CLASS_COUNT = CLASS_POOL + ".cachedClass.count";
+
     private MetricMonitorValues() {
     }
 
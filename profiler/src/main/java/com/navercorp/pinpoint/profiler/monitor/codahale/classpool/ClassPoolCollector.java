@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.monitor.codahale.classpool;
+
+import static com.navercorp.pinpoint.profiler.monitor.codahale.MetricMonitorValues.*;
+
+import java.util.Map;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.navercorp.pinpoint.profiler.monitor.codahale.MetricMonitorValues;
+
+/**
+ * @author agent
+ */
+public class ClassPoolCollector {
+
+    private final Gauge<Long> classPoolCountGauge;
+    private final Gauge<Long> cachedClassCountGauge;
+
+    @SuppressWarnings("unchecked")
+    public ClassPoolCollector(ClassPoolMetricSet classPoolMetricSet) {
+        if (classPoolMetricSet == null) {
+            throw new NullPointerException("classPoolMetricSet must not be null");
+        }
+        Map<String, Metric> metrics = classPoolMetricSet.getMetrics();
+        this.classPoolCountGauge = (Gauge<Long>)MetricMonitorValues.getMetric(metrics, CLASS_POOL_COUNT, LONG_ZERO);
+        this.cachedClassCountGauge = (Gauge<Long>)MetricMonitorValues.getMetric(metrics, CLASS_POOL_CACHED_CLASS_COUNT, LONG_ZERO);
+    }
+
+    public long collectClassPoolCount() {
+        return this.classPoolCountGauge.getValue();
+    }
+
+    public long collectCachedClassCount() {
+        return this.cachedClassCountGauge.getValue();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.monitor.codahale.classpool;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
+import com.navercorp.pinpoint.profiler.monitor.codahale.MetricMonitorValues;
+
+/**
+ * javassist class pool size and cached CtClass size of the instrumentor.
+ *
+ * @author agent
+ */
+public class ClassPoolMetricSet implements MetricSet {
+
+    private final JavaAssistByteCodeInstrumentor instrumentor;
+
+    public ClassPoolMetricSet(JavaAssistByteCodeInstrumentor instrumentor) {
+        if (instrumentor == null) {
+            throw new NullPointerException("instrumentor must not be null");
+        }
+        this.instrumentor = instrumentor;
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> gauges = new HashMap<String, Metric>();
+        gauges.put(MetricMonitorValues.CLASS_POOL_COUNT, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return (long) instrumentor.getClassPoolSize();
+            }
+        });
+        gauges.put(MetricMonitorValues.CLASS_POOL_CACHED_CLASS_COUNT, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return (long) instrumentor.getCachedClassSize();
+            }
+        });
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassPoolMetricSet";
+    }
+}
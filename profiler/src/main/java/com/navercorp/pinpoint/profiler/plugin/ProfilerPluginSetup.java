@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.bootstrap.plugin.ProfilerPlugin;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.exception.PinpointException;
+import com.navercorp.pinpoint.profiler.DefaultAgent;
+
+/**
+ * runs {@link ProfilerPlugin#setup} of each plugin on its own context.
+ * contexts do not share state, so the plugins are set up in parallel and the result keeps the order of the plugins.
+ * <p>
+ * javassist class pools, plugin class loaders and interceptor classes are not created here.
+ * they are created when the first target class of the plugin is transformed.
+ *
+ * @author agent
+ */
+public class ProfilerPluginSetup {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final DefaultAgent agent;
+    private final int threadCount;
+
+    public ProfilerPluginSetup(DefaultAgent agent, int threadCount) {
+        this.agent = agent;
+        if (threadCount <= 0) {
+            this.threadCount = Runtime.getRuntime().availableProcessors();
+        } else {
+            this.threadCount = threadCount;
+        }
+    }
+
+    public List<DefaultProfilerPluginContext> setup(List<ProfilerPlugin> plugins) {
+        if (plugins == null) {
+            throw new NullPointerException("plugins must not be null");
+        }
+        final int poolSize = Math.min(threadCount, plugins.size());
+        if (poolSize <= 1) {
+            final List<DefaultProfilerPluginContext> pluginContexts = new ArrayList<DefaultProfilerPluginContext>(plugins.size());
+            for (ProfilerPlugin plugin : plugins) {
+                pluginContexts.add(setup(plugin));
+            }
+            return pluginContexts;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(poolSize, new PinpointThreadFactory("Pinpoint-plugin-setup", true));
+        try {
+            final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            final List<Future<DefaultProfilerPluginContext>> futures = new ArrayList<Future<DefaultProfilerPluginContext>>(plugins.size());
+            for (ProfilerPlugin plugin : plugins) {
+                futures.add(executor.submit(new SetupTask(plugin, contextClassLoader)));
+            }
+
+            final List<DefaultProfilerPluginContext> pluginContexts = new ArrayList<DefaultProfilerPluginContext>(plugins.size());
+            for (int i = 0; i < futures.size(); i++) {
+                pluginContexts.add(get(futures.get(i), plugins.get(i)));
+            }
+            return pluginContexts;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DefaultProfilerPluginContext get(Future<DefaultProfilerPluginContext> future, ProfilerPlugin plugin) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PinpointException("plugin setup interrupted. plugin:" + plugin.getClass().getName(), e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PinpointException("plugin setup fail. plugin:" + plugin.getClass().getName(), cause);
+        }
+    }
+
+    private DefaultProfilerPluginContext setup(ProfilerPlugin plugin) {
+        logger.info("Loading plugin: {}", plugin.getClass().getName());
+
+        DefaultProfilerPluginContext context = new DefaultProfilerPluginContext(agent);
+        plugin.setup(context);
+        context.markInitialized();
+        return context;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    private class SetupTask implements Callable<DefaultProfilerPluginContext> {
+        private final ProfilerPlugin plugin;
+        private final ClassLoader contextClassLoader;
+
+        private SetupTask(ProfilerPlugin plugin, ClassLoader contextClassLoader) {
+            this.plugin = plugin;
+            this.contextClassLoader = contextClassLoader;
+        }
+
+        @Override
+        public DefaultProfilerPluginContext call() throws Exception {
+            // plugins are set up as if they were on the premain thread
+            final Thread thread = Thread.currentThread();
+            final ClassLoader old = thread.getContextClassLoader();
+            thread.setContextClassLoader(contextClassLoader);
+            try {
+                return setup(plugin);
+            } finally {
+                thread.setContextClassLoader(old);
+            }
+        }
+    }
+}
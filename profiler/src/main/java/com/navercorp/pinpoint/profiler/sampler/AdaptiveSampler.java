@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
+
+/**
+ * Samples up to targetPerSecond new transactions per second regardless of the traffic.
+ * The effective sampling rate follows the traffic: every transaction is sampled under low load, and 1/N under N times the target.
+ *
+ * keepErrorOrSlow : transactions rejected by the bucket can still be recorded provisionally (up to provisionalPerSecond)
+ * and are only sent when they end with an error or take longer than slowThreshold.
+ *
+ * @author agent
+ */
+public class AdaptiveSampler implements Sampler {
+
+    private final int targetPerSecond;
+    private final TokenBucket tokenBucket;
+
+    private final boolean keepErrorOrSlow;
+    private final TokenBucket provisionalTokenBucket;
+    private final int provisionalPerSecond;
+    private final long slowThreshold;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong samplingCount = new AtomicLong();
+
+    public AdaptiveSampler(int targetPerSecond) {
+        this(targetPerSecond, false, 0, 0);
+    }
+
+    public AdaptiveSampler(int targetPerSecond, boolean keepErrorOrSlow, int provisionalPerSecond, long slowThreshold) {
+        if (targetPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid targetPerSecond " + targetPerSecond);
+        }
+        this.targetPerSecond = targetPerSecond;
+        // allow a burst of one second
+        this.tokenBucket = new TokenBucket(targetPerSecond, targetPerSecond);
+
+        this.keepErrorOrSlow = keepErrorOrSlow;
+        if (keepErrorOrSlow) {
+            if (provisionalPerSecond <= 0) {
+                throw new IllegalArgumentException("Invalid provisionalPerSecond " + provisionalPerSecond);
+            }
+            if (slowThreshold < 0) {
+                throw new IllegalArgumentException("Invalid slowThreshold " + slowThreshold);
+            }
+            this.provisionalTokenBucket = new TokenBucket(provisionalPerSecond, provisionalPerSecond);
+        } else {
+            this.provisionalTokenBucket = null;
+        }
+        this.provisionalPerSecond = provisionalPerSecond;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    public boolean isSampling() {
+        requestCount.incrementAndGet();
+        final boolean sampling = tokenBucket.tryAcquire();
+        if (sampling) {
+            samplingCount.incrementAndGet();
+        }
+        return sampling;
+    }
+
+    /**
+     * For a transaction rejected by {@link #isSampling()}. true if it may be recorded and kept when it ends with an error or is slow.
+     */
+    public boolean isProvisionalSampling() {
+        if (!keepErrorOrSlow) {
+            return false;
+        }
+        return provisionalTokenBucket.tryAcquire();
+    }
+
+    public boolean isKeepErrorOrSlow() {
+        return keepErrorOrSlow;
+    }
+
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public int getTargetPerSecond() {
+        return targetPerSecond;
+    }
+
+    /**
+     * @return sampled / requested since start. 1.0 if no request.
+     */
+    public double getEffectiveSamplingRatio() {
+        final long request = requestCount.get();
+        if (request == 0) {
+            return 1.0;
+        }
+        return samplingCount.get() / (double) request;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSampler{" +
+                "targetPerSecond=" + targetPerSecond +
+                ", keepErrorOrSlow=" + keepErrorOrSlow +
+                ", provisionalPerSecond=" + provisionalPerSecond +
+                ", slowThreshold=" + slowThreshold +
+                '}';
+    }
+}
@@ -31,4 +31,15 @@ public class SamplerFactory {
         }
         return new SamplingRateSampler(samplingRate);
     }
+
+    public Sampler createAdaptiveSampler(boolean sampling, int targetPerSecond) {
+        return createAdaptiveSampler(sampling, targetPerSecond, false, 0, 0);
+    }
+
+    public Sampler createAdaptiveSampler(boolean sampling, int targetPerSecond, boolean keepErrorOrSlow, int provisionalPerSecond, long slowThreshold) {
+        if (!sampling || targetPerSecond <= 0) {
+            return new FalseSampler();
+        }
+        return new AdaptiveSampler(targetPerSecond, keepErrorOrSlow, provisionalPerSecond, slowThreshold);
+    }
 }
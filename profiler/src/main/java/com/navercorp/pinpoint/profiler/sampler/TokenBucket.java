@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Implemented as GCRA (virtual scheduling): instead of a token count,
+ * the theoretical arrival time of the next token is kept in a single AtomicLong.
+ *
+ * @author agent
+ */
+class TokenBucket {
+
+    // nanos per token
+    private final long interval;
+    // how far the theoretical arrival time may run ahead of now. (burstSize - 1) * interval
+    private final long burstTolerance;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    TokenBucket(int permitsPerSecond, int burstSize) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive. permitsPerSecond:" + permitsPerSecond);
+        }
+        if (burstSize <= 0) {
+            throw new IllegalArgumentException("burstSize must be positive. burstSize:" + burstSize);
+        }
+        this.interval = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burstTolerance = this.interval * (burstSize - 1);
+        this.theoreticalArrivalTime = new AtomicLong(nanoTime());
+    }
+
+    boolean tryAcquire() {
+        final long now = nanoTime();
+        while (true) {
+            final long tat = theoreticalArrivalTime.get();
+            final long base = (tat - now > 0) ? tat : now;
+            if (base - now > burstTolerance) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, base + interval)) {
+                return true;
+            }
+        }
+    }
+
+    long nanoTime() {
+        return System.nanoTime();
+    }
+}
@@ -56,7 +56,11 @@ public abstract class AbstractDataSender implements DataSender {
     }
 
     protected AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName) {
-        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName);
+        return createAsyncQueueingExecutor(queueSize, executorName, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    protected AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueingExecutorOption executorOption) {
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName, executorOption);
         executor.setListener(new AsyncQueueingExecutorListener<Object>() {
             @Override
             public void execute(Collection<Object> messageList) {
@@ -68,9 +72,34 @@ public abstract class AbstractDataSender implements DataSender {
                 sendPacket(message);
             }
         });
+
+        final DataSpoolOption spoolOption = executorOption.getSpoolOption();
+        if (spoolOption != null && isSpoolSupported()) {
+            final DataSpool dataSpool = DataSpool.create(spoolOption, executorName);
+            if (dataSpool != null) {
+                dataSpool.start(executor, new DataSpool.ReplayCondition() {
+                    @Override
+                    public boolean isReplayable() {
+                        return isSpoolReplayable();
+                    }
+                }, executorName);
+                executor.setDataSpool(dataSpool);
+            }
+        }
         return executor;
     }
 
+    /**
+     * Spooled data is replayed as plain TBase (e.g. TSpan instead of Span).
+     */
+    protected boolean isSpoolSupported() {
+        return true;
+    }
+
+    protected boolean isSpoolReplayable() {
+        return true;
+    }
+
     protected byte[] serialize(HeaderTBaseSerializer serializer, TBase tBase) {
         return SerializationUtils.serialize(tBase, serializer, null);
     }
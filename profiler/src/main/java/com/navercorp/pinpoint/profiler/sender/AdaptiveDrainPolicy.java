@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how many items the sender thread drains in one pass.
+ * The drain size grows while the smoothed queue depth stays above it, and shrinks when the queue runs shallow
+ * or when sending a batch takes longer than maxSendTime. It moves between minDrainSize and maxDrainSize.
+ * When fewer than minDrainSize items are drained, the sender thread may linger up to lingerTime to fill the batch.
+ * Caution. single thread only.
+ *
+ * @author agent
+ */
+class AdaptiveDrainPolicy {
+
+    public static final long DEFAULT_MAX_SEND_TIME = 100;
+
+    // weight of the newest sample in the moving averages
+    private static final double SMOOTHING_FACTOR = 0.25;
+
+    private final int maxDrainSize;
+    private final int minDrainSize;
+    private final long lingerTimeNanos;
+    private final long maxSendTimeNanos;
+
+    private int drainSize;
+    private double smoothedQueueDepth;
+    private double smoothedSendTimeNanos;
+
+    public AdaptiveDrainPolicy(int maxDrainSize, int minDrainSize, long lingerTime, TimeUnit unit) {
+        this(maxDrainSize, minDrainSize, lingerTime, unit.convert(DEFAULT_MAX_SEND_TIME, TimeUnit.MILLISECONDS), unit);
+    }
+
+    public AdaptiveDrainPolicy(int maxDrainSize, int minDrainSize, long lingerTime, long maxSendTime, TimeUnit unit) {
+        if (maxDrainSize <= 0) {
+            throw new IllegalArgumentException("maxDrainSize must be positive");
+        }
+        if (minDrainSize <= 0 || minDrainSize > maxDrainSize) {
+            throw new IllegalArgumentException("invalid minDrainSize:" + minDrainSize);
+        }
+        if (maxSendTime <= 0) {
+            throw new IllegalArgumentException("maxSendTime must be positive");
+        }
+        this.maxDrainSize = maxDrainSize;
+        this.minDrainSize = minDrainSize;
+        this.lingerTimeNanos = unit.toNanos(lingerTime);
+        this.maxSendTimeNanos = unit.toNanos(maxSendTime);
+        this.drainSize = minDrainSize;
+    }
+
+    /**
+     * @param queueDepth queue size before a drain
+     */
+    public void updateQueueDepth(int queueDepth) {
+        smoothedQueueDepth += (queueDepth - smoothedQueueDepth) * SMOOTHING_FACTOR;
+    }
+
+    /**
+     * @param sendTimeNanos time spent sending the drained batch
+     */
+    public void updateSendTime(long sendTimeNanos) {
+        smoothedSendTimeNanos += (sendTimeNanos - smoothedSendTimeNanos) * SMOOTHING_FACTOR;
+        if (smoothedSendTimeNanos > maxSendTimeNanos) {
+            // a slow send. a smaller batch puts less burst on the socket buffer
+            shrink();
+        } else if (smoothedQueueDepth > drainSize) {
+            grow();
+        } else if (smoothedQueueDepth * 2 < drainSize) {
+            shrink();
+        }
+    }
+
+    private void grow() {
+        drainSize = Math.min(drainSize * 2, maxDrainSize);
+    }
+
+    private void shrink() {
+        drainSize = Math.max(drainSize / 2, minDrainSize);
+    }
+
+    public int getDrainSize() {
+        return drainSize;
+    }
+
+    public boolean isLinger(int drainSize) {
+        return lingerTimeNanos > 0 && drainSize < minDrainSize;
+    }
+
+    public int getMaxDrainSize() {
+        return maxDrainSize;
+    }
+
+    public int getMinDrainSize() {
+        return minDrainSize;
+    }
+
+    public long getLingerTimeNanos() {
+        return lingerTimeNanos;
+    }
+}
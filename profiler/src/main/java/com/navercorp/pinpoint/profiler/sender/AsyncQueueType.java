@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+/**
+ * @author agent
+ */
+public enum AsyncQueueType {
+    // java.util.concurrent.LinkedBlockingQueue
+    LINKED,
+    // pre-allocated lock-free multi-producer/single-consumer ring buffer
+    RINGBUFFER;
+
+    <T> AsyncQueue<T> createQueue(int queueSize) {
+        if (this == RINGBUFFER) {
+            return new RingBufferAsyncQueue<T>(queueSize);
+        }
+        return new LinkedAsyncQueue<T>(queueSize);
+    }
+
+    public static AsyncQueueType getType(String name, AsyncQueueType defaultType) {
+        if (name == null) {
+            return defaultType;
+        }
+        for (AsyncQueueType type : values()) {
+            if (type.name().equalsIgnoreCase(name.trim())) {
+                return type;
+            }
+        }
+        return defaultType;
+    }
+}
@@ -17,7 +17,6 @@
 package com.navercorp.pinpoint.profiler.sender;
 
 import java.util.Collection;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,6 +25,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.profiler.monitor.HistogramMonitor;
+import com.navercorp.pinpoint.profiler.monitor.MonitorName;
+import com.navercorp.pinpoint.profiler.monitor.MonitorRegistry;
 
 /**
  * @author emeroad
@@ -37,30 +39,63 @@ public class AsyncQueueingExecutor<T> implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final boolean isWarn = logger.isWarnEnabled();
 
-    private final LinkedBlockingQueue<T> queue;
+    private final AsyncQueue<T> queue;
     private final AtomicBoolean isRun = new AtomicBoolean(true);
     private final Thread executeThread;
     private final String executorName;
 
-    private final int maxDrainSize;
+    private final AdaptiveDrainPolicy drainPolicy;
     // Caution. single thread only. this Collection is simpler than ArrayList.
     private final Collection<T> drain;
 
+    // nullable
+    private final HistogramMonitor drainSizeMonitor;
+    private final HistogramMonitor queueDepthMonitor;
+
     private AsyncQueueingExecutorListener<T> listener = EMPTY_LISTENER;
 
+    // nullable. keeps overflowed data on local disk
+    private volatile DataSpool dataSpool;
+
 
     public AsyncQueueingExecutor() {
         this(1024 * 5, "Pinpoint-AsyncQueueingExecutor");
     }
 
     public AsyncQueueingExecutor(int queueSize, String executorName) {
+        this(queueSize, executorName, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public AsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueType queueType) {
+        this(queueSize, executorName, new AsyncQueueingExecutorOption(queueType));
+    }
+
+    public AsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueingExecutorOption option) {
         if (executorName == null) {
             throw new NullPointerException("executorName must not be null");
         }
+        if (option == null) {
+            throw new NullPointerException("option must not be null");
+        }
         // before executeThread start
-        this.maxDrainSize = 10;
-        this.drain = new UnsafeArrayCollection<T>(maxDrainSize);
-        this.queue = new LinkedBlockingQueue<T>(queueSize);
+        this.drainPolicy = new AdaptiveDrainPolicy(option.getMaxDrainSize(), option.getMinDrainSize(), option.getLingerTime(), TimeUnit.MILLISECONDS);
+        this.drain = new UnsafeArrayCollection<T>(drainPolicy.getMaxDrainSize());
+        this.queue = option.getQueueType().createQueue(queueSize);
+        if (queue instanceof RingBufferAsyncQueue) {
+            final int capacity = ((RingBufferAsyncQueue<T>) queue).getCapacity();
+            if (capacity != queueSize) {
+                logger.info("{} queueSize:{} is rounded up to the ring buffer capacity:{}", executorName, queueSize, capacity);
+            }
+        }
+
+        final MonitorRegistry monitorRegistry = option.getMonitorRegistry();
+        if (monitorRegistry != null) {
+            this.drainSizeMonitor = monitorRegistry.newHistogramMonitor(new MonitorName(executorName + ".drain.size"));
+            this.queueDepthMonitor = monitorRegistry.newHistogramMonitor(new MonitorName(executorName + ".queue.depth"));
+        } else {
+            this.drainSizeMonitor = null;
+            this.queueDepthMonitor = null;
+        }
 
         this.executeThread = this.createExecuteThread(executorName);
         this.executorName = executeThread.getName();
@@ -84,16 +119,25 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         while (isRun()) {
             try {
                 Collection<T> dtoList = getDrainQueue();
-                int drainSize = takeN(dtoList, this.maxDrainSize);
+                int drainSize = drain(dtoList);
                 if (drainSize > 0) {
-                    doExecute(dtoList);
+                    send(dtoList);
                     continue;
                 }
 
                 while (isRun()) {
                     T dto = takeOne();
                     if (dto != null) {
-                        doExecute(dto);
+                        if (drainPolicy.isLinger(1)) {
+                            // trade a few milliseconds of latency for a fuller batch
+                            dtoList = getDrainQueue();
+                            dtoList.add(dto);
+                            recordDrain(0, linger(dtoList, 1));
+                            send(dtoList);
+                        } else {
+                            recordDrain(0, 1);
+                            doExecute(dto);
+                        }
                         continue drainStartEntry;
                     }
                 }
@@ -104,6 +148,57 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         flushQueue();
     }
 
+    private int drain(Collection<T> dtoList) {
+        final int queueDepth = queue.size();
+        drainPolicy.updateQueueDepth(queueDepth);
+        int drainSize = takeN(dtoList, drainPolicy.getDrainSize());
+        if (drainSize > 0) {
+            if (drainPolicy.isLinger(drainSize)) {
+                drainSize = linger(dtoList, drainSize);
+            }
+            recordDrain(queueDepth, drainSize);
+        }
+        return drainSize;
+    }
+
+    private void send(Collection<T> dtoList) {
+        final long startTime = System.nanoTime();
+        doExecute(dtoList);
+        drainPolicy.updateSendTime(System.nanoTime() - startTime);
+    }
+
+    private void recordDrain(int queueDepth, int drainSize) {
+        if (drainSizeMonitor != null) {
+            drainSizeMonitor.update(drainSize);
+            queueDepthMonitor.update(queueDepth);
+        }
+    }
+
+    private int linger(Collection<T> dtoList, int drainSize) {
+        final int minDrainSize = drainPolicy.getMinDrainSize();
+        final long deadline = System.nanoTime() + drainPolicy.getLingerTimeNanos();
+        while (drainSize < minDrainSize && isRun()) {
+            final long remain = deadline - System.nanoTime();
+            if (remain <= 0) {
+                break;
+            }
+            final T dto;
+            try {
+                dto = queue.poll(remain, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (dto == null) {
+                break;
+            }
+            dtoList.add(dto);
+            drainSize++;
+            drainSize += takeN(dtoList, minDrainSize - drainSize);
+        }
+        return drainSize;
+    }
+
     private void flushQueue() {
         boolean debugEnabled = logger.isDebugEnabled();
         if (debugEnabled) {
@@ -111,7 +206,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         }
         while(true) {
             Collection<T> dtoList = getDrainQueue();
-           int drainSize = takeN(dtoList, this.maxDrainSize);
+           int drainSize = takeN(dtoList, drainPolicy.getMaxDrainSize());
             if (drainSize == 0) {
                 break;
             }
@@ -150,6 +245,9 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         }
         boolean offer = queue.offer(data);
         if (!offer) {
+            if (spool(data)) {
+                return true;
+            }
             if (isWarn) {
                 logger.warn("{} Drop data. queue is full. size:{}", executorName, queue.size());
             }
@@ -157,6 +255,29 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         return offer;
     }
 
+    /**
+     * Hands data over to the DataSpool. It is written to the spool file by the spool thread and replayed later.
+     * @return false if the spool is disabled or full
+     */
+    public boolean spool(T data) {
+        final DataSpool dataSpool = this.dataSpool;
+        if (dataSpool == null) {
+            return false;
+        }
+        return dataSpool.spool(data);
+    }
+
+    boolean replay(T data) {
+        if (!isRun.get()) {
+            return false;
+        }
+        return queue.offer(data);
+    }
+
+    void setDataSpool(DataSpool dataSpool) {
+        this.dataSpool = dataSpool;
+    }
+
     public void setListener(AsyncQueueingExecutorListener<T> listener) {
         if (listener == null) {
             throw new NullPointerException("listener must not be null");
@@ -183,6 +304,12 @@ public class AsyncQueueingExecutor<T> implements Runnable {
     public void stop() {
         isRun.set(false);
 
+        final DataSpool dataSpool = this.dataSpool;
+        if (dataSpool != null) {
+            // remaining spooled data is replayed after restart
+            dataSpool.stop();
+        }
+
         if (!isEmpty()) {
             logger.info("Wait 5 seconds. Flushing queued data.");
         }
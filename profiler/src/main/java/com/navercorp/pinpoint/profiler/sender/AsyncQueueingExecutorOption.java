@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import com.navercorp.pinpoint.profiler.monitor.MonitorRegistry;
+
+/**
+ * @author agent
+ */
+public class AsyncQueueingExecutorOption {
+
+    public static final int DEFAULT_MAX_DRAIN_SIZE = 10;
+    public static final int DEFAULT_MIN_DRAIN_SIZE = 1;
+    public static final long DEFAULT_LINGER_TIME = 0;
+
+    public static final AsyncQueueingExecutorOption DEFAULT = new AsyncQueueingExecutorOption(AsyncQueueType.LINKED);
+
+    private final AsyncQueueType queueType;
+    private final int maxDrainSize;
+    private final int minDrainSize;
+    // millis
+    private final long lingerTime;
+    private final DataSpoolOption spoolOption;
+    private final MonitorRegistry monitorRegistry;
+
+    public AsyncQueueingExecutorOption(AsyncQueueType queueType) {
+        this(queueType, DEFAULT_MAX_DRAIN_SIZE, DEFAULT_MIN_DRAIN_SIZE, DEFAULT_LINGER_TIME);
+    }
+
+    public AsyncQueueingExecutorOption(AsyncQueueType queueType, int maxDrainSize, int minDrainSize, long lingerTime) {
+        this(queueType, maxDrainSize, minDrainSize, lingerTime, null, null);
+    }
+
+    public AsyncQueueingExecutorOption(AsyncQueueType queueType, int maxDrainSize, int minDrainSize, long lingerTime, DataSpoolOption spoolOption, MonitorRegistry monitorRegistry) {
+        if (queueType == null) {
+            throw new NullPointerException("queueType must not be null");
+        }
+        if (maxDrainSize <= 0) {
+            throw new IllegalArgumentException("maxDrainSize must be positive. maxDrainSize:" + maxDrainSize);
+        }
+        if (minDrainSize <= 0 || minDrainSize > maxDrainSize) {
+            throw new IllegalArgumentException("invalid minDrainSize:" + minDrainSize + " maxDrainSize:" + maxDrainSize);
+        }
+        if (lingerTime < 0) {
+            throw new IllegalArgumentException("lingerTime must not be negative. lingerTime:" + lingerTime);
+        }
+        this.queueType = queueType;
+        this.maxDrainSize = maxDrainSize;
+        this.minDrainSize = minDrainSize;
+        this.lingerTime = lingerTime;
+        // nullable. null means spool disabled
+        this.spoolOption = spoolOption;
+        // nullable. records the drain size and queue depth histograms
+        this.monitorRegistry = monitorRegistry;
+    }
+
+    public AsyncQueueType getQueueType() {
+        return queueType;
+    }
+
+    public int getMaxDrainSize() {
+        return maxDrainSize;
+    }
+
+    public int getMinDrainSize() {
+        return minDrainSize;
+    }
+
+    public long getLingerTime() {
+        return lingerTime;
+    }
+
+    public DataSpoolOption getSpoolOption() {
+        return spoolOption;
+    }
+
+    public MonitorRegistry getMonitorRegistry() {
+        return monitorRegistry;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AsyncQueueingExecutorOption{");
+        sb.append("queueType=").append(queueType);
+        sb.append(", maxDrainSize=").append(maxDrainSize);
+        sb.append(", minDrainSize=").append(minDrainSize);
+        sb.append(", lingerTime=").append(lingerTime);
+        sb.append(", spoolOption=").append(spoolOption);
+        sb.append(", monitorRegistry=").append(monitorRegistry);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializerFactory;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
+
+/**
+ * Keeps data that could not be queued (queue full, collector unreachable) in a {@link MappedRingFile}
+ * and replays it to the {@link AsyncQueueingExecutor} at a limited rate once the queue is drained.
+ * Only TBase data is spooled. When the spool file is full, data is dropped.
+ * The caller only hands data over to a bounded queue. Serialization and file writes are done by the spool thread,
+ * which also replays, so the application threads never wait for the spool file.
+ *
+ * @author agent
+ */
+class DataSpool {
+
+    static final long REPLAY_INTERVAL = 100;
+    static final int DEFAULT_PENDING_QUEUE_SIZE = 1024 * 5;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final MappedRingFile ringFile;
+    // data waiting to be written by the spool thread
+    private final LinkedBlockingQueue<TBase<?, ?>> pendingQueue;
+    // spool thread only
+    private final HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory(false, HeaderTBaseSerializerFactory.DEFAULT_STREAM_SIZE, true).createSerializer();
+    // spool thread only
+    private final HeaderTBaseDeserializer deserializer = HeaderTBaseDeserializerFactory.DEFAULT_FACTORY.createDeserializer();
+
+    private final int replayRate;
+    private final AtomicLong spoolCount = new AtomicLong();
+    private final AtomicLong replayCount = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+
+    private volatile boolean run = true;
+    private Thread spoolThread;
+
+    DataSpool(File spoolFile, int spoolSize, int replayRate) throws IOException {
+        this(spoolFile, spoolSize, replayRate, DEFAULT_PENDING_QUEUE_SIZE);
+    }
+
+    DataSpool(File spoolFile, int spoolSize, int replayRate, int pendingQueueSize) throws IOException {
+        if (spoolFile == null) {
+            throw new NullPointerException("spoolFile must not be null");
+        }
+        if (replayRate <= 0) {
+            throw new IllegalArgumentException("replayRate must be positive");
+        }
+        this.ringFile = new MappedRingFile(spoolFile, spoolSize);
+        this.pendingQueue = new LinkedBlockingQueue<TBase<?, ?>>(pendingQueueSize);
+        this.replayRate = replayRate;
+        final int count = ringFile.getCount();
+        if (count > 0) {
+            logger.info("{} has {} spooled data from previous run", spoolFile, count);
+        }
+    }
+
+    static DataSpool create(DataSpoolOption option, String executorName) {
+        final File spoolFile = new File(option.getSpoolDirectory(), executorName + ".spool");
+        try {
+            return new DataSpool(spoolFile, option.getSpoolSize(), option.getReplayRate());
+        } catch (IOException e) {
+            LoggerFactory.getLogger(DataSpool.class).warn("DataSpool create fail. file:{} Caused:{}", spoolFile, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return false if data is not TBase or the pending queue is full
+     */
+    boolean spool(Object data) {
+        if (!(data instanceof TBase)) {
+            return false;
+        }
+        if (!run || !pendingQueue.offer((TBase<?, ?>) data)) {
+            dropCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * spool thread only
+     */
+    void writePending() {
+        while (true) {
+            final TBase<?, ?> data = pendingQueue.poll();
+            if (data == null) {
+                return;
+            }
+            write(data);
+        }
+    }
+
+    private void write(TBase<?, ?> data) {
+        boolean success;
+        try {
+            final byte[] bytes = serializer.serialize(data);
+            success = ringFile.offer(bytes, 0, serializer.getInterBufferSize());
+        } catch (TException e) {
+            logger.warn("spool fail. Caused:{}", e.getMessage(), e);
+            success = false;
+        }
+        if (success) {
+            spoolCount.incrementAndGet();
+        } else {
+            dropCount.incrementAndGet();
+        }
+    }
+
+    void start(final AsyncQueueingExecutor<Object> executor, final ReplayCondition replayCondition, String executorName) {
+        if (executor == null) {
+            throw new NullPointerException("executor must not be null");
+        }
+        if (replayCondition == null) {
+            throw new NullPointerException("replayCondition must not be null");
+        }
+        final ThreadFactory threadFactory = new PinpointThreadFactory(executorName + "-Spool", true);
+        this.spoolThread = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                replayLoop(executor, replayCondition);
+            }
+        });
+        this.spoolThread.start();
+    }
+
+    private void replayLoop(AsyncQueueingExecutor<Object> executor, ReplayCondition replayCondition) {
+        // token bucket refilled every interval. no burst above one interval
+        final int permitsPerInterval = Math.max(1, (int) (replayRate * REPLAY_INTERVAL / TimeUnit.SECONDS.toMillis(1)));
+        long nextReplayTime = System.currentTimeMillis() + REPLAY_INTERVAL;
+        while (run) {
+            final long waitTime = nextReplayTime - System.currentTimeMillis();
+            if (waitTime > 0) {
+                final TBase<?, ?> data;
+                try {
+                    data = pendingQueue.poll(waitTime, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (data != null) {
+                    write(data);
+                    writePending();
+                }
+                continue;
+            }
+            nextReplayTime = System.currentTimeMillis() + REPLAY_INTERVAL;
+
+            if (ringFile.getCount() == 0) {
+                continue;
+            }
+            if (!executor.isEmpty() || !replayCondition.isReplayable()) {
+                continue;
+            }
+            try {
+                replay(executor, permitsPerInterval);
+            } catch (Throwable th) {
+                logger.warn("replay fail. Caused:{}", th.getMessage(), th);
+            }
+        }
+    }
+
+    int replay(AsyncQueueingExecutor<Object> executor, int permits) {
+        int replay = 0;
+        while (replay < permits) {
+            final byte[] bytes = ringFile.peek();
+            if (bytes == null) {
+                break;
+            }
+            final TBase<?, ?> data;
+            try {
+                data = deserializer.deserialize(bytes);
+            } catch (TException e) {
+                logger.warn("discard broken spool data. Caused:{}", e.getMessage(), e);
+                ringFile.remove();
+                continue;
+            }
+            if (!executor.replay(data)) {
+                // queue is full again
+                break;
+            }
+            ringFile.remove();
+            replay++;
+        }
+        if (replay > 0) {
+            replayCount.addAndGet(replay);
+            if (logger.isDebugEnabled()) {
+                logger.debug("replay {}. remain:{}", replay, ringFile.getCount());
+            }
+        }
+        return replay;
+    }
+
+    void stop() {
+        run = false;
+        final Thread spoolThread = this.spoolThread;
+        if (spoolThread != null) {
+            spoolThread.interrupt();
+            try {
+                spoolThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (spoolThread == null || !spoolThread.isAlive()) {
+            // keep pending data for the next run
+            writePending();
+        }
+        ringFile.close();
+        logger.info("DataSpool stopped. spool:{} replay:{} drop:{} remain:{}", spoolCount.get(), replayCount.get(), dropCount.get(), ringFile.getCount());
+    }
+
+    int getCount() {
+        return ringFile.getCount();
+    }
+
+    int getPendingCount() {
+        return pendingQueue.size();
+    }
+
+    long getSpoolCount() {
+        return spoolCount.get();
+    }
+
+    long getReplayCount() {
+        return replayCount.get();
+    }
+
+    long getDropCount() {
+        return dropCount.get();
+    }
+
+    interface ReplayCondition {
+        boolean isReplayable();
+    }
+}
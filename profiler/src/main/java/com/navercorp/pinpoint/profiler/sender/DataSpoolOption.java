@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.io.File;
+
+/**
+ * @author agent
+ */
+public class DataSpoolOption {
+
+    public static final int DEFAULT_SPOOL_SIZE = 1024 * 1024 * 64;
+    public static final int DEFAULT_REPLAY_RATE = 1000;
+
+    private final File spoolDirectory;
+    // bytes per spool file
+    private final int spoolSize;
+    // records per second
+    private final int replayRate;
+
+    public DataSpoolOption(File spoolDirectory) {
+        this(spoolDirectory, DEFAULT_SPOOL_SIZE, DEFAULT_REPLAY_RATE);
+    }
+
+    public DataSpoolOption(File spoolDirectory, int spoolSize, int replayRate) {
+        if (spoolDirectory == null) {
+            throw new NullPointerException("spoolDirectory must not be null");
+        }
+        if (spoolSize <= 0) {
+            throw new IllegalArgumentException("spoolSize must be positive. spoolSize:" + spoolSize);
+        }
+        if (replayRate <= 0) {
+            throw new IllegalArgumentException("replayRate must be positive. replayRate:" + replayRate);
+        }
+        this.spoolDirectory = spoolDirectory;
+        this.spoolSize = spoolSize;
+        this.replayRate = replayRate;
+    }
+
+    public File getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    public int getSpoolSize() {
+        return spoolSize;
+    }
+
+    public int getReplayRate() {
+        return replayRate;
+    }
+
+    @Override
+    public String toString() {
+        return "DataSpoolOption{" +
+                "spoolDirectory=" + spoolDirectory +
+                ", spoolSize=" + spoolSize +
+                ", replayRate=" + replayRate +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.nio.ByteBuffer;
+
+import com.navercorp.pinpoint.profiler.util.ObjectPoolFactory;
+
+/**
+ * @author agent
+ */
+public class DirectByteBufferPoolFactory implements ObjectPoolFactory<ByteBuffer> {
+
+    private final int bufferSize;
+
+    public DirectByteBufferPoolFactory(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public ByteBuffer create() {
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void beforeReturn(ByteBuffer byteBuffer) {
+        byteBuffer.clear();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded ring of variable length records stored in a memory-mapped file.
+ * Read/write positions are kept in the file header, so records left over from a previous run are still readable.
+ *
+ * file layout : [magic(4)][capacity(4)][head(8)][tail(8)][count(4)][reserved(4)] [data(capacity)]
+ * record : [length(4)][body(length)]. records wrap around the end of the data area.
+ * a record length torn by a crash during a write resets the ring, and the remaining records are dropped.
+ *
+ * @author agent
+ */
+class MappedRingFile {
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_HEADER_SIZE = 4;
+
+    private static final int MAGIC = 0x50535031;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int HEAD_OFFSET = 8;
+    private static final int TAIL_OFFSET = 16;
+    private static final int COUNT_OFFSET = 24;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    // absolute read/write position. position in data area is (position % capacity)
+    private long head;
+    private long tail;
+    private int count;
+    private boolean closed = false;
+
+    MappedRingFile(File file, int capacity) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file must not be null");
+        }
+        if (capacity <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("invalid capacity:" + capacity);
+        }
+        this.file = file;
+        this.capacity = capacity;
+
+        final File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+            throw new IOException("can't create directory. " + parent);
+        }
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+        load();
+    }
+
+    private void load() {
+        if (buffer.getInt(MAGIC_OFFSET) == MAGIC && buffer.getInt(CAPACITY_OFFSET) == capacity) {
+            final long head = buffer.getLong(HEAD_OFFSET);
+            final long tail = buffer.getLong(TAIL_OFFSET);
+            final int count = buffer.getInt(COUNT_OFFSET);
+            if (head >= 0 && head <= tail && tail - head <= capacity && count >= 0) {
+                this.head = head;
+                this.tail = tail;
+                this.count = count;
+                return;
+            }
+        }
+        // new or broken file
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        this.head = 0;
+        this.tail = 0;
+        this.count = 0;
+        writePosition();
+    }
+
+    private void writePosition() {
+        buffer.putLong(HEAD_OFFSET, head);
+        buffer.putLong(TAIL_OFFSET, tail);
+        buffer.putInt(COUNT_OFFSET, count);
+    }
+
+    /**
+     * @return false if there is not enough free space. the record is not written.
+     */
+    synchronized boolean offer(byte[] data, int offset, int length) {
+        if (data == null) {
+            throw new NullPointerException("data must not be null");
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException("invalid length:" + length);
+        }
+        if (closed) {
+            return false;
+        }
+        final long recordSize = RECORD_HEADER_SIZE + (long) length;
+        if (recordSize > capacity - (tail - head)) {
+            return false;
+        }
+        long position = tail;
+        position = writeInt(position, length);
+        position = write(position, data, offset, length);
+        this.tail = position;
+        this.count++;
+        writePosition();
+        return true;
+    }
+
+    /**
+     * @return the oldest record without removing it. null if empty.
+     */
+    synchronized byte[] peek() {
+        if (closed || count == 0) {
+            return null;
+        }
+        final int length = readRecordLength();
+        if (length == -1) {
+            return null;
+        }
+        final byte[] data = new byte[length];
+        read(head + RECORD_HEADER_SIZE, data);
+        return data;
+    }
+
+    /**
+     * removes the oldest record.
+     */
+    synchronized boolean remove() {
+        if (closed || count == 0) {
+            return false;
+        }
+        final int length = readRecordLength();
+        if (length == -1) {
+            return false;
+        }
+        this.head += RECORD_HEADER_SIZE + length;
+        this.count--;
+        if (count == 0) {
+            // keep positions small
+            this.head = 0;
+            this.tail = 0;
+        }
+        writePosition();
+        return true;
+    }
+
+    /**
+     * @return the length of the record at head. -1 if the length is broken, and the ring is reset.
+     */
+    private int readRecordLength() {
+        final int length = readInt(head);
+        if (length > 0 && length <= capacity - RECORD_HEADER_SIZE && head + RECORD_HEADER_SIZE + length <= tail) {
+            return length;
+        }
+        logger.warn("broken record length:{} head:{} tail:{}. reset {}, dropped:{}", length, head, tail, file, count);
+        this.head = 0;
+        this.tail = 0;
+        this.count = 0;
+        writePosition();
+        return -1;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized long getUsedBytes() {
+        return tail - head;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        try {
+            randomAccessFile.close();
+        } catch (IOException ignore) {
+            // skip
+        }
+    }
+
+    private long writeInt(long position, int value) {
+        final byte[] bytes = new byte[RECORD_HEADER_SIZE];
+        bytes[0] = (byte) (value >>> 24);
+        bytes[1] = (byte) (value >>> 16);
+        bytes[2] = (byte) (value >>> 8);
+        bytes[3] = (byte) value;
+        return write(position, bytes, 0, RECORD_HEADER_SIZE);
+    }
+
+    private int readInt(long position) {
+        final byte[] bytes = new byte[RECORD_HEADER_SIZE];
+        read(position, bytes);
+        return ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    }
+
+    private long write(long position, byte[] data, int offset, int length) {
+        final int index = (int) (position % capacity);
+        final int firstLength = Math.min(length, capacity - index);
+        buffer.position(HEADER_SIZE + index);
+        buffer.put(data, offset, firstLength);
+        if (firstLength < length) {
+            // wrap around
+            buffer.position(HEADER_SIZE);
+            buffer.put(data, offset + firstLength, length - firstLength);
+        }
+        return position + length;
+    }
+
+    private void read(long position, byte[] data) {
+        final int index = (int) (position % capacity);
+        final int firstLength = Math.min(data.length, capacity - index);
+        buffer.position(HEADER_SIZE + index);
+        buffer.get(data, 0, firstLength);
+        if (firstLength < data.length) {
+            buffer.position(HEADER_SIZE);
+            buffer.get(data, firstLength, data.length - firstLength);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedRingFile{" +
+                "file=" + file +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
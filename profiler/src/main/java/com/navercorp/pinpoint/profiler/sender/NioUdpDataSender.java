@@ -0,0 +1,316 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
+import com.navercorp.pinpoint.thrift.io.Header;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
+import com.navercorp.pinpoint.thrift.io.NetworkAvailabilityCheckPacket;
+
+/**
+ * UDP sender based on {@link DatagramChannel}.
+ * TBase objects are serialized directly into pooled direct ByteBuffers, so there is no copy into a DatagramPacket.
+ *
+ * gatheringWrite=true : several TBase objects are sent as one chunked datagram with a single gathering write.
+ * only use pair collector-ChunkedUDPReceiver (collector.udpChunkedReceiver=true).
+ * the sender probes the collector with a chunked network availability check packet when it is created,
+ * and falls back to one datagram per TBase if the collector does not answer.
+ *
+ * @author agent
+ */
+public class NioUdpDataSender extends AbstractDataSender implements DataSender {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final boolean isDebug = logger.isDebugEnabled();
+
+    public static final int SOCKET_TIMEOUT = 1000 * 5;
+    public static final int SEND_BUFFER_SIZE = 1024 * 64 * 16;
+    public static final int UDP_MAX_PACKET_LENGTH = 65507;
+
+    static final int MAX_GATHER_SIZE = 16;
+
+    private final DatagramChannel udpChannel;
+
+    // Caution. not thread safe. only the locator and protocol are used. internal buffer is not used.
+    private final HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory(false, 256, true).createSerializer();
+
+    private final ObjectPool<ByteBuffer> bufferPool;
+
+    private final boolean gatheringWrite;
+    // Caution. not thread safe
+    private final ByteBuffer chunkHeader;
+    private final ByteBuffer[] gatherBuffers = new ByteBuffer[MAX_GATHER_SIZE + 1];
+
+    private final AsyncQueueingExecutor<Object> executor;
+
+    public NioUdpDataSender(String host, int port, String threadName, int queueSize) {
+        this(host, port, threadName, queueSize, SOCKET_TIMEOUT, SEND_BUFFER_SIZE, false, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public NioUdpDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize, boolean gatheringWrite, AsyncQueueingExecutorOption executorOption) {
+        if (host == null) {
+            throw new NullPointerException("host must not be null");
+        }
+        if (threadName == null) {
+            throw new NullPointerException("threadName must not be null");
+        }
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize");
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout");
+        }
+        if (sendBufferSize <= 0) {
+            throw new IllegalArgumentException("sendBufferSize");
+        }
+
+        // TODO If fail to create socket, stop agent start
+        logger.info("NioUdpDataSender initialized. host={}, port={}, gatheringWrite={}", host, port, gatheringWrite);
+        this.udpChannel = createChannel(host, port, timeout, sendBufferSize);
+
+        this.chunkHeader = createChunkHeader();
+        this.bufferPool = new ObjectPool<ByteBuffer>(new DirectByteBufferPoolFactory(UDP_MAX_PACKET_LENGTH), MAX_GATHER_SIZE);
+        if (gatheringWrite && !isChunkedReceiverAvailable()) {
+            logger.warn("collector {}:{} does not accept chunked packets. gatheringWrite is disabled. set collector.udpChunkedReceiver=true on the collector", host, port);
+            this.gatheringWrite = false;
+        } else {
+            this.gatheringWrite = gatheringWrite;
+        }
+
+        this.executor = createAsyncQueueingExecutor(queueSize, threadName, executorOption);
+    }
+
+    private DatagramChannel createChannel(String host, int port, int timeout, int sendBufferSize) {
+        try {
+            DatagramChannel datagramChannel = DatagramChannel.open();
+            datagramChannel.socket().setSoTimeout(timeout);
+            datagramChannel.socket().setSendBufferSize(sendBufferSize);
+
+            if (logger.isWarnEnabled()) {
+                final int checkSendBufferSize = datagramChannel.socket().getSendBufferSize();
+                if (sendBufferSize != checkSendBufferSize) {
+                    logger.warn("DatagramChannel.setSendBufferSize() error. {}!={}", sendBufferSize, checkSendBufferSize);
+                }
+            }
+
+            InetSocketAddress serverAddress = new InetSocketAddress(host, port);
+            datagramChannel.connect(serverAddress);
+            return datagramChannel;
+        } catch (IOException e) {
+            throw new IllegalStateException("DatagramChannel create fail. Cause" + e.getMessage(), e);
+        }
+    }
+
+    private ByteBuffer createChunkHeader() {
+        final Header header = HeaderTBaseSerializerFactory.DEFAULT_FACTORY.getLocator().getChunkHeader();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(Header.HEADER_SIZE);
+        buffer.put(header.getSignature());
+        buffer.put(header.getVersion());
+        buffer.putShort(header.getType());
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public boolean send(TBase<?, ?> data) {
+        return executor.execute(data);
+    }
+
+    @Override
+    public void stop() {
+        executor.stop();
+        try {
+            udpChannel.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close udp channel.", e);
+        }
+    }
+
+    @Override
+    public boolean isNetworkAvailable() {
+        final NetworkAvailabilityCheckPacket dto = new NetworkAvailabilityCheckPacket();
+        final ByteBuffer buffer = bufferPool.getObject();
+        try {
+            if (!serialize(dto, buffer)) {
+                return false;
+            }
+            buffer.flip();
+            udpChannel.write(buffer);
+
+            final byte[] receiveData = new byte[NetworkAvailabilityCheckPacket.DATA_OK.length];
+            final DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
+            // the socket adaptor honours SO_TIMEOUT
+            udpChannel.socket().receive(receivePacket);
+
+            return Arrays.equals(NetworkAvailabilityCheckPacket.DATA_OK, receiveData);
+        } catch (IOException e) {
+            logger.warn("packet send error {}", dto, e);
+            return false;
+        } finally {
+            bufferPool.returnObject(buffer);
+        }
+    }
+
+    /**
+     * BaseUDPReceiver can't read the chunk header and does not answer.
+     */
+    boolean isChunkedReceiverAvailable() {
+        final NetworkAvailabilityCheckPacket dto = new NetworkAvailabilityCheckPacket();
+        final ByteBuffer buffer = bufferPool.getObject();
+        try {
+            if (!serialize(dto, buffer)) {
+                return false;
+            }
+            buffer.flip();
+            chunkHeader.rewind();
+            udpChannel.write(new ByteBuffer[]{chunkHeader, buffer});
+
+            final byte[] receiveData = new byte[NetworkAvailabilityCheckPacket.DATA_OK.length];
+            final DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
+            udpChannel.socket().receive(receivePacket);
+
+            return Arrays.equals(NetworkAvailabilityCheckPacket.DATA_OK, receiveData);
+        } catch (IOException e) {
+            logger.info("chunked packet check fail. Cause:{}", e.getMessage());
+            return false;
+        } finally {
+            bufferPool.returnObject(buffer);
+        }
+    }
+
+    boolean isGatheringWrite() {
+        return gatheringWrite;
+    }
+
+    @Override
+    protected void sendPacket(Object message) {
+        if (!(message instanceof TBase)) {
+            logger.warn("sendPacket fail. invalid type:{}", message != null ? message.getClass() : null);
+            return;
+        }
+        final TBase<?, ?> dto = (TBase<?, ?>) message;
+        final ByteBuffer buffer = bufferPool.getObject();
+        if (!serialize(dto, buffer)) {
+            bufferPool.returnObject(buffer);
+            return;
+        }
+        buffer.flip();
+        if (gatheringWrite) {
+            // ChunkedUDPReceiver accepts chunked packets only
+            gatherBuffers[1] = buffer;
+            gatheringWrite(1, Header.HEADER_SIZE + buffer.remaining());
+            return;
+        }
+        try {
+            final int length = buffer.remaining();
+            udpChannel.write(buffer);
+            if (isDebug) {
+                logger.debug("Data sent. size:{}, {}", length, dto);
+            }
+        } catch (IOException e) {
+            logger.warn("packet send error. {}", dto, e);
+        } finally {
+            bufferPool.returnObject(buffer);
+        }
+    }
+
+    @Override
+    protected void sendPacketN(Collection<Object> messageList) {
+        if (!gatheringWrite) {
+            super.sendPacketN(messageList);
+            return;
+        }
+        // Cannot use toArray(T[] array) because passed messageList doesn't implement it properly.
+        final Object[] dataList = messageList.toArray();
+        final int size = messageList.size();
+
+        int gatherCount = 0;
+        int packetLength = Header.HEADER_SIZE;
+        for (int i = 0; i < size; i++) {
+            final Object message = dataList[i];
+            if (!(message instanceof TBase)) {
+                logger.warn("sendPacket fail. invalid type:{}", message != null ? message.getClass() : null);
+                continue;
+            }
+            final ByteBuffer buffer = bufferPool.getObject();
+            if (!serialize((TBase<?, ?>) message, buffer)) {
+                bufferPool.returnObject(buffer);
+                continue;
+            }
+            buffer.flip();
+
+            if (gatherCount == MAX_GATHER_SIZE || packetLength + buffer.remaining() > UDP_MAX_PACKET_LENGTH) {
+                gatheringWrite(gatherCount, packetLength);
+                gatherCount = 0;
+                packetLength = Header.HEADER_SIZE;
+            }
+            // gatherBuffers[0] is the chunk header
+            gatherCount++;
+            gatherBuffers[gatherCount] = buffer;
+            packetLength += buffer.remaining();
+        }
+        gatheringWrite(gatherCount, packetLength);
+    }
+
+    private void gatheringWrite(int gatherCount, int packetLength) {
+        if (gatherCount == 0) {
+            return;
+        }
+        chunkHeader.rewind();
+        gatherBuffers[0] = chunkHeader;
+        try {
+            // one datagram per write
+            udpChannel.write(gatherBuffers, 0, gatherCount + 1);
+            if (isDebug) {
+                logger.debug("Data sent. count:{}, size:{}", gatherCount, packetLength);
+            }
+        } catch (IOException e) {
+            logger.warn("packet send error. count:{}, size:{}", gatherCount, packetLength, e);
+        } finally {
+            for (int i = 1; i <= gatherCount; i++) {
+                bufferPool.returnObject(gatherBuffers[i]);
+                gatherBuffers[i] = null;
+            }
+            gatherBuffers[0] = null;
+        }
+    }
+
+    private boolean serialize(TBase<?, ?> dto, ByteBuffer buffer) {
+        try {
+            serializer.serialize(dto, buffer);
+            return true;
+        } catch (TException e) {
+            // When packet size is greater than UDP packet size limit, it's better to discard packet than let the socket API fails.
+            logger.warn("discard packet. Caused:{}, {}", e.getMessage(), dto, e);
+            return false;
+        }
+    }
+}
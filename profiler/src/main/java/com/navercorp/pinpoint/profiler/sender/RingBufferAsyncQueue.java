@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free multi-producer/single-consumer queue.
+ * Every slot is pre-allocated and owns a sequence number, so offer() does not allocate a node and does not take a lock.
+ * Caution. only a single consumer thread may call poll() and drainTo().
+ * The capacity is the queueSize rounded up to a power of two. ex) 5120 -> 8192
+ *
+ * @author agent
+ */
+class RingBufferAsyncQueue<T> implements AsyncQueue<T> {
+
+    private static final long SPIN_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicReferenceArray<T> buffer;
+    // slot is writable when sequence == tail, readable when sequence == head + 1
+    private final AtomicLongArray sequence;
+
+    private final PaddedAtomicLong tail = new PaddedAtomicLong(0);
+    private final PaddedAtomicLong head = new PaddedAtomicLong(0);
+
+    private volatile Thread waitingConsumer;
+
+    public RingBufferAsyncQueue(int queueSize) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize must be positive");
+        }
+        this.capacity = nextPowerOfTwo(queueSize);
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<T>(capacity);
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    static int nextPowerOfTwo(int value) {
+        if (value > (1 << 30)) {
+            throw new IllegalArgumentException("queueSize too large:" + value);
+        }
+        int size = 1;
+        while (size < value) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean offer(T data) {
+        if (data == null) {
+            throw new NullPointerException("data must not be null");
+        }
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            final long diff = sequence.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // queue is full
+                return false;
+            } else {
+                // another producer claimed this slot
+                position = tail.get();
+            }
+        }
+        buffer.lazySet(index, data);
+        // volatile write : the consumer must see the slot before this thread reads waitingConsumer
+        sequence.set(index, position + 1);
+
+        final Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private T pollNow() {
+        final long position = head.get();
+        final int index = (int) (position & mask);
+        if (sequence.get(index) != position + 1) {
+            return null;
+        }
+        final T data = buffer.get(index);
+        buffer.lazySet(index, null);
+        // release the slot for the producer of the next lap
+        sequence.lazySet(index, position + capacity);
+        head.lazySet(position + 1);
+        return data;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        T data = pollNow();
+        if (data != null) {
+            return data;
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.waitingConsumer = currentThread;
+        try {
+            while (true) {
+                data = pollNow();
+                if (data != null) {
+                    return data;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                final long remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    return null;
+                }
+                // a lost unpark costs at most SPIN_PARK_NANOS of latency
+                LockSupport.parkNanos(this, Math.min(remain, SPIN_PARK_NANOS));
+            }
+        } finally {
+            this.waitingConsumer = null;
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> drain, int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            final T data = pollNow();
+            if (data == null) {
+                break;
+            }
+            drain.add(data);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        // read head first. tail is always equal or larger than head.
+        final long currentHead = head.get();
+        final long currentTail = tail.get();
+        final long size = currentTail - currentHead;
+        if (size < 0) {
+            return 0;
+        }
+        if (size > capacity) {
+            return capacity;
+        }
+        return (int) size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // prevent false sharing between the producer side(tail) and the consumer side(head)
+    @SuppressWarnings("unused")
+    private static class PaddedAtomicLong extends AtomicLong {
+        private long p1, p2, p3, p4, p5, p6, p7 = 7L;
+
+        PaddedAtomicLong(long initialValue) {
+            super(initialValue);
+        }
+
+        long sumPaddingToPreventOptimisation() {
+            return p1 + p2 + p3 + p4 + p5 + p6 + p7;
+        }
+    }
+}
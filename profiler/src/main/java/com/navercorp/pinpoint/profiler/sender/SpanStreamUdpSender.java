@@ -68,6 +68,10 @@ public class SpanStreamUdpSender extends AbstractDataSender {
     }
 
     public SpanStreamUdpSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize, int dataBufferSize) {
+        this(host, port, threadName, queueSize, timeout, sendBufferSize, dataBufferSize, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public SpanStreamUdpSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize, int dataBufferSize, AsyncQueueingExecutorOption executorOption) {
         if (host == null) {
             throw new NullPointerException("host must not be null");
         }
@@ -98,7 +102,7 @@ public class SpanStreamUdpSender extends AbstractDataSender {
         this.standbySpanStreamDataSendWorker = new StandbySpanStreamDataSendWorker(new FlushHandler(), new StandbySpanStreamDataStorage());
         this.standbySpanStreamDataSendWorker.start();
 
-        this.executor = createAsyncQueueingExecutor(queueSize, threadName);
+        this.executor = createAsyncQueueingExecutor(queueSize, threadName, executorOption);
     }
 
     private DatagramChannel createChannel(String host, int port, int timeout, int sendBufferSize) {
@@ -150,6 +154,12 @@ public class SpanStreamUdpSender extends AbstractDataSender {
         return false;
     }
 
+    @Override
+    protected boolean isSpoolSupported() {
+        // only handles Span, SpanChunk
+        return false;
+    }
+
     @Override
     protected void sendPacket(Object message) {
         logger.info("sendPacket message:{}", message);
@@ -70,10 +70,14 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
     private AsyncQueueingExecutor<Object> executor;
 
     public TcpDataSender(PinpointSocket socket) {
+        this(socket, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public TcpDataSender(PinpointSocket socket, AsyncQueueingExecutorOption executorOption) {
         this.socket = socket;
         this.timer = createTimer();
         writeFailFutureListener = new WriteFailFutureListener(logger, "io write fail.", "host", -1);
-        this.executor = createAsyncQueueingExecutor(1024 * 5, "Pinpoint-TcpDataExecutor");
+        this.executor = createAsyncQueueingExecutor(1024 * 5, "Pinpoint-TcpDataExecutor", executorOption);
     }
     
     private Timer createTimer() {
@@ -124,10 +128,20 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
         }
     }
 
+    @Override
+    protected boolean isSpoolReplayable() {
+        // replay after the collector connection is recovered
+        return isNetworkAvailable();
+    }
+
     @Override
     protected void sendPacket(Object message) {
         try {
             if (message instanceof TBase) {
+                if (!socket.isConnected() && executor.spool(message)) {
+                    // collector unreachable
+                    return;
+                }
                 byte[] copy = serialize(serializer, (TBase) message);
                 if (copy == null) {
                     return;
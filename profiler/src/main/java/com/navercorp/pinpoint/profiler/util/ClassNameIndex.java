@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * index of the class names to instrument, keyed by the jvm class name (e.g. java/lang/String).
+ * <p>
+ * the name passed to a ClassFileTransformer is a new String for each class load, so a HashMap lookup hashes the whole name every time.
+ * a bit set of a fingerprint taken from the length and a few chars of the names is probed first.
+ * most of the loaded classes are rejected by a single bit test, and only the rest are looked up in the map.
+ * <p>
+ * not thread safe for writes. all the names must be put before the index is published to the transformer threads.
+ *
+ * @author agent
+ */
+public class ClassNameIndex<T> {
+
+    // 64k bits. a false positive only costs the map lookup
+    private static final int FINGERPRINT_BITS = 1 << 16;
+    private static final int FINGERPRINT_MASK = FINGERPRINT_BITS - 1;
+
+    private final long[] fingerprints = new long[FINGERPRINT_BITS / 64];
+    private final Map<String, T> map;
+
+    public ClassNameIndex() {
+        this(512);
+    }
+
+    public ClassNameIndex(int initialCapacity) {
+        this.map = new HashMap<String, T>(initialCapacity);
+    }
+
+    static int fingerprint(String name) {
+        final int length = name.length();
+        int hash = length;
+        if (length > 0) {
+            // the simple class name differs the most, the package is shared by many classes
+            hash = 31 * hash + name.charAt(length - 1);
+            hash = 31 * hash + name.charAt(length >> 1);
+            hash = 31 * hash + name.charAt((length >> 1) + (length >> 2));
+            if (length > 1) {
+                hash = 31 * hash + name.charAt(length - 2);
+            }
+        }
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash & FINGERPRINT_MASK;
+    }
+
+    /**
+     * @return previous value of the name, null if there was none
+     */
+    public T put(String name, T value) {
+        if (name == null) {
+            throw new NullPointerException("name must not be null");
+        }
+        if (value == null) {
+            throw new NullPointerException("value must not be null");
+        }
+        final int fingerprint = fingerprint(name);
+        fingerprints[fingerprint >>> 6] |= 1L << fingerprint;
+        return map.put(name, value);
+    }
+
+    /**
+     * @return false if the name is surely not in the index
+     */
+    public boolean mightContain(String name) {
+        final int fingerprint = fingerprint(name);
+        return (fingerprints[fingerprint >>> 6] & (1L << fingerprint)) != 0;
+    }
+
+    public T get(String name) {
+        if (name == null) {
+            return null;
+        }
+        if (!mightContain(name)) {
+            return null;
+        }
+        return map.get(name);
+    }
+
+    public int size() {
+        return map.size();
+    }
+}
@@ -2,6 +2,7 @@ package com.navercorp.pinpoint.profiler.util;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author emeroad
@@ -14,11 +15,26 @@ public class ObjectPool<T> {
 
     private final ObjectPoolFactory<T> factory;
 
+    private final int maxSize;
+    // queue.size() of ConcurrentLinkedQueue is O(n)
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
     public ObjectPool(ObjectPoolFactory<T> factory, int size) {
+        this(factory, size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * objects returned while maxSize objects are already pooled are dropped.
+     */
+    public ObjectPool(ObjectPoolFactory<T> factory, int size, int maxSize) {
         if (factory == null) {
             throw new NullPointerException("factory");
         }
+        if (maxSize < size) {
+            throw new IllegalArgumentException("maxSize < size maxSize:" + maxSize + " size:" + size);
+        }
         this.factory = factory;
+        this.maxSize = maxSize;
         fill(size);
     }
 
@@ -26,6 +42,7 @@ public class ObjectPool<T> {
         for (int i = 0; i < size; i++) {
             T t = this.factory.create();
             queue.offer(t);
+            pooledCount.incrementAndGet();
         }
     }
 
@@ -35,6 +52,7 @@ public class ObjectPool<T> {
             // create dynamically
             return factory.create();
         }
+        pooledCount.decrementAndGet();
         return object;
     }
 
@@ -43,7 +61,16 @@ public class ObjectPool<T> {
             return;
         }
         factory.beforeReturn(t);
+        if (pooledCount.incrementAndGet() > maxSize) {
+            // pool is full. let gc collect it
+            pooledCount.decrementAndGet();
+            return;
+        }
         queue.offer(t);
     }
 
+    int getPooledCount() {
+        return pooledCount.get();
+    }
+
 }
@@ -22,11 +22,14 @@ import com.navercorp.pinpoint.profiler.AgentInformation;
 import com.navercorp.pinpoint.profiler.context.Span;
 import com.navercorp.pinpoint.profiler.context.SpanChunkFactory;
 import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
+import com.navercorp.pinpoint.profiler.util.ObjectPoolFactory;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -57,4 +60,42 @@ public class SpanChunkFactoryTest {
         spanChunkFactory.create(spanEvents);
 
     }
+
+    @Test
+    public void createDeferred() {
+        AgentInformation agentInformation = new AgentInformation("agentId", "applicationName", 0,0, "machineName", "127.0.0.1", ServiceType.STAND_ALONE, Version.VERSION);
+        SpanChunkFactory spanChunkFactory = new SpanChunkFactory(agentInformation);
+        ObjectPool<SpanEvent[]> arrayPool = new ObjectPool<SpanEvent[]>(new ObjectPoolFactory<SpanEvent[]>() {
+            @Override
+            public SpanEvent[] create() {
+                return new SpanEvent[4];
+            }
+
+            @Override
+            public void beforeReturn(SpanEvent[] spanEvents) {
+                Arrays.fill(spanEvents, null);
+            }
+        }, 0);
+
+        Span span = new Span();
+        span.setSpanId(10);
+        SpanEvent[] spanEventArray = arrayPool.getObject();
+        spanEventArray[0] = new SpanEvent(span);
+        spanEventArray[1] = new SpanEvent(span);
+
+        DeferredSpanChunk spanChunk = (DeferredSpanChunk) spanChunkFactory.createDeferred(spanEventArray, 2, arrayPool);
+        Assert.assertFalse(spanChunk.isBuilt());
+        // header is copied on the application thread
+        span.setSpanId(20);
+        Assert.assertEquals(10, spanChunk.getSpanId());
+
+        Assert.assertEquals(2, spanChunk.getSpanEventList().size());
+        Assert.assertTrue(spanChunk.isBuilt());
+        Assert.assertEquals("agentId", spanChunk.getAgentId());
+        Assert.assertEquals(10, spanChunk.getSpanId());
+
+        // array is recycled
+        Assert.assertNull(spanEventArray[0]);
+        Assert.assertSame(spanEventArray, arrayPool.getObject());
+    }
 }
@@ -20,6 +20,9 @@ import java.util.Collections;
 
 import com.navercorp.pinpoint.bootstrap.context.ServerMetaDataHolder;
 import com.navercorp.pinpoint.bootstrap.context.Trace;
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceFlag;
+import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
 import com.navercorp.pinpoint.common.Version;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.profiler.AgentInformation;
@@ -28,6 +31,7 @@ import com.navercorp.pinpoint.profiler.context.DefaultTraceContext;
 import com.navercorp.pinpoint.profiler.context.ThreadLocalTraceFactory;
 import com.navercorp.pinpoint.profiler.context.storage.LogStorageFactory;
 import com.navercorp.pinpoint.profiler.monitor.metric.MetricRegistry;
+import com.navercorp.pinpoint.profiler.sampler.AdaptiveSampler;
 import com.navercorp.pinpoint.profiler.sampler.TrueSampler;
 
 import org.junit.Assert;
@@ -57,6 +61,56 @@ public class ThreadLocalTraceFactoryTest {
 
     }
 
+    @Test
+    public void sampledTraceFlag() {
+        ThreadLocalTraceFactory traceFactory = getTraceFactory();
+        Assert.assertFalse(SampledTraceFlag.isSampled());
+
+        Trace trace = traceFactory.newTraceObject();
+        Assert.assertTrue(SampledTraceFlag.isSampled());
+
+        traceFactory.detachTraceObject();
+        Assert.assertFalse(SampledTraceFlag.isSampled());
+
+        traceFactory.attachTraceObject(trace);
+        Assert.assertTrue(SampledTraceFlag.isSampled());
+        traceFactory.detachTraceObject();
+
+        traceFactory.disableSampling();
+        Assert.assertFalse(SampledTraceFlag.isSampled());
+        traceFactory.detachTraceObject();
+    }
+
+    @Test
+    public void provisionalTrace() {
+        LogStorageFactory logStorageFactory = new LogStorageFactory();
+        AdaptiveSampler adaptiveSampler = new AdaptiveSampler(1, true, 10, 3000);
+        ServerMetaDataHolder serverMetaDataHolder = new DefaultServerMetaDataHolder(Collections.<String>emptyList());
+        AgentInformation agentInformation = new AgentInformation("agentId", "applicationName", System.currentTimeMillis(), 10, "test", "127.0.0.1", ServiceType.STAND_ALONE, Version.VERSION);
+        DefaultTraceContext traceContext = new DefaultTraceContext(100, agentInformation, logStorageFactory, adaptiveSampler, serverMetaDataHolder);
+        ThreadLocalTraceFactory traceFactory = new ThreadLocalTraceFactory(traceContext, new MetricRegistry(ServiceType.STAND_ALONE), logStorageFactory, adaptiveSampler);
+
+        Trace sampledTrace = traceFactory.newTraceObject();
+        Assert.assertFalse(SamplingFlagUtils.isProvisionalTrace(sampledTrace.getTraceId().getFlags()));
+        traceFactory.detachTraceObject();
+
+        // over the target tps
+        Trace provisionalTrace = traceFactory.newTraceObject();
+        Assert.assertTrue(provisionalTrace.canSampled());
+        TraceId nextTraceId = provisionalTrace.getTraceId().getNextTraceId();
+        Assert.assertTrue(SamplingFlagUtils.isProvisionalTrace(nextTraceId.getFlags()));
+        traceFactory.detachTraceObject();
+
+        // next node doesn't sample the provisional trace
+        Trace nextNodeTrace = traceFactory.continueTraceObject(nextTraceId);
+        Assert.assertFalse(nextNodeTrace.canSampled());
+        traceFactory.detachTraceObject();
+
+        Trace continueTrace = traceFactory.continueTraceObject(sampledTrace.getTraceId().getNextTraceId());
+        Assert.assertTrue(continueTrace.canSampled());
+        traceFactory.detachTraceObject();
+    }
+
     @Test
     public void testCurrentTraceObject() throws Exception {
         ThreadLocalTraceFactory traceFactory = getTraceFactory();
@@ -25,10 +25,17 @@ import com.navercorp.pinpoint.profiler.context.SpanEvent;
 import com.navercorp.pinpoint.profiler.context.storage.BufferedStorage;
 import com.navercorp.pinpoint.profiler.sender.CountingDataSender;
 
+import com.navercorp.pinpoint.profiler.context.SpanChunk;
+import com.navercorp.pinpoint.profiler.sender.DataSender;
+
+import org.apache.thrift.TBase;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class BufferedStorageTest {
 
     private AgentInformation agentInformation = new AgentInformation("agentId", "applicationName", 0, 1, "hostName", "127.0.0.1", ServiceType.STAND_ALONE, Version.VERSION);
@@ -101,4 +108,52 @@ public class BufferedStorageTest {
         Assert.assertEquals(0, countingDataSender.getSpanCounter(), 1);
         Assert.assertEquals(0, countingDataSender.getSpanChunkCounter(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStore_deferredSpanChunk() throws Exception {
+        final List<TBase<?, ?>> sendList = new ArrayList<TBase<?, ?>>();
+        final DataSender dataSender = new CountingDataSender() {
+            @Override
+            public boolean send(TBase<?, ?> data) {
+                sendList.add(data);
+                return super.send(data);
+            }
+        };
+        BufferedStorage bufferedStorage = new BufferedStorage(dataSender, spanChunkFactory, 3);
+
+        Span span = new Span();
+        span.setSpanId(1);
+        for (int i = 0; i < 7; i++) {
+            SpanEvent spanEvent = new SpanEvent(span);
+            spanEvent.setSequence((short) i);
+            bufferedStorage.store(spanEvent);
+        }
+        bufferedStorage.store(span);
+
+        Assert.assertEquals(3, sendList.size());
+        SpanChunk first = (SpanChunk) sendList.get(0);
+        Assert.assertEquals(3, first.getSpanEventList().size());
+        Assert.assertEquals(0, first.getSpanEventList().get(0).getSequence());
+        Assert.assertEquals(1, first.getSpanId());
+        SpanChunk second = (SpanChunk) sendList.get(1);
+        Assert.assertEquals(3, second.getSpanEventList().get(0).getSequence());
+
+        Span flushedSpan = (Span) sendList.get(2);
+        Assert.assertEquals(1, flushedSpan.getSpanEventList().size());
+        Assert.assertEquals(6, flushedSpan.getSpanEventList().get(0).getSequence());
+    }
+
+    @Test
+    public void testStore_deepCallTree() throws Exception {
+        BufferedStorage bufferedStorage = new BufferedStorage(countingDataSender, spanChunkFactory, 20);
+
+        Span span = new Span();
+        for (int i = 0; i < 510; i++) {
+            bufferedStorage.store(new SpanEvent(span));
+        }
+        bufferedStorage.store(span);
+
+        Assert.assertEquals(25, countingDataSender.getSpanChunkCounter());
+        Assert.assertEquals(1, countingDataSender.getSpanCounter());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.sender.CountingDataSender;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ProvisionalStorageTest {
+
+    private final CountingDataSender countingDataSender = new CountingDataSender();
+
+    @Test
+    public void discardFastTransaction() {
+        ProvisionalStorage storage = new ProvisionalStorage(new SpanStorage(countingDataSender), 100);
+
+        Span span = new Span();
+        span.setElapsed(10);
+        storage.store(new SpanEvent(span));
+        storage.store(span);
+
+        Assert.assertEquals(0, countingDataSender.getTotalCount());
+    }
+
+    @Test
+    public void keepSlowTransaction() {
+        ProvisionalStorage storage = new ProvisionalStorage(new SpanStorage(countingDataSender), 100);
+
+        Span span = new Span();
+        span.setElapsed(100);
+        storage.store(new SpanEvent(span));
+        storage.store(new SpanEvent(span));
+        storage.store(span);
+
+        Assert.assertEquals(1, countingDataSender.getSpanCounter());
+        Assert.assertEquals(2, span.getSpanEventList().size());
+    }
+
+    @Test
+    public void keepErrorTransaction() {
+        ProvisionalStorage storage = new ProvisionalStorage(new SpanStorage(countingDataSender), 100);
+
+        Span span = new Span();
+        span.setElapsed(1);
+        span.setErrCode(1);
+        storage.store(span);
+
+        Assert.assertEquals(1, countingDataSender.getSpanCounter());
+    }
+
+    @Test
+    public void maxSpanEventSize() {
+        ProvisionalStorage storage = new ProvisionalStorage(new SpanStorage(countingDataSender), 0, 3);
+
+        Span span = new Span();
+        for (int i = 0; i < 10; i++) {
+            storage.store(new SpanEvent(span));
+        }
+        storage.store(span);
+
+        Assert.assertEquals(3, span.getSpanEventList().size());
+    }
+}
@@ -149,4 +149,42 @@ public class IsolateMultipleClassPoolTest {
     }
 
 
+    @Test
+    public void testMaxCachedClassSize() throws Exception {
+        IsolateMultipleClassPool pool = new IsolateMultipleClassPool(true, 2, IsolateMultipleClassPool.EMPTY_EVENT_LISTENER, null);
+        NamedClassPool childPool = pool.getClassPool(child1);
+        final int primitiveSize = pool.getCachedClassSize();
+
+        CtClass string = childPool.get("java.lang.String");
+        CtClass integer = childPool.get("java.lang.Integer");
+        // String is the recently used class
+        Assert.assertSame(string, childPool.get("java.lang.String"));
+        childPool.get("java.lang.Long");
+        Assert.assertEquals(2, childPool.getCachedClassSize());
+        Assert.assertEquals(primitiveSize + 2, pool.getCachedClassSize());
+
+        Assert.assertSame(string, childPool.get("java.lang.String"));
+        // Integer has been evicted and read again
+        Assert.assertNotSame(integer, childPool.get("java.lang.Integer"));
+        Assert.assertEquals(2, childPool.getCachedClassSize());
+
+        // detach of the evicted class does not put it back
+        integer.detach();
+        Assert.assertEquals(2, childPool.getCachedClassSize());
+    }
+
+    @Test
+    public void testDetach() throws Exception {
+        IsolateMultipleClassPool pool = new IsolateMultipleClassPool();
+        NamedClassPool childPool = pool.getClassPool(child1);
+
+        CtClass string = childPool.get("java.lang.String");
+        Assert.assertEquals(1, childPool.getCachedClassSize());
+
+        Assert.assertTrue(childPool.detach("java.lang.String"));
+        Assert.assertFalse(childPool.detach("java.lang.String"));
+        Assert.assertEquals(0, childPool.getCachedClassSize());
+        Assert.assertNotSame(string, childPool.get("java.lang.String"));
+    }
+
 }
\ No newline at end of file
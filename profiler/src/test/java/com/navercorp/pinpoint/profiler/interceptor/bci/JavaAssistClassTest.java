@@ -38,6 +38,9 @@ import com.navercorp.pinpoint.bootstrap.instrument.InstrumentClass;
 import com.navercorp.pinpoint.bootstrap.instrument.InstrumentException;
 import com.navercorp.pinpoint.bootstrap.instrument.MethodInfo;
 import com.navercorp.pinpoint.bootstrap.interceptor.Interceptor;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceFlag;
+import com.navercorp.pinpoint.bootstrap.interceptor.SampledTraceOnlyInterceptor;
+import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.tracevalue.BindValueTraceValue;
 import com.navercorp.pinpoint.bootstrap.interceptor.tracevalue.DatabaseInfoTraceValue;
 import com.navercorp.pinpoint.bootstrap.interceptor.tracevalue.IntTraceValue;
@@ -259,6 +262,66 @@ public class JavaAssistClassTest {
 
     }
 
+    @Test
+    public void addSampledTraceOnlyInterceptor() throws Exception {
+        ByteCodeInstrumentor byteCodeInstrumentor = JavaAssistByteCodeInstrumentor.createTestInstrumentor();
+        final String javassistClassName = "com.navercorp.pinpoint.profiler.interceptor.bci.TestObject";
+
+        InstrumentClass testObject = byteCodeInstrumentor.getClass(null, javassistClassName, null);
+        SampledTraceOnlyTestInterceptor interceptor = new SampledTraceOnlyTestInterceptor();
+        testObject.addInterceptor("callA", null, interceptor);
+        final byte[] bytecode = testObject.toBytecode();
+
+        ClassLoader loader = new ClassLoader(this.getClass().getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                // child first, the parent has the original TestObject
+                if (name.equals(javassistClassName)) {
+                    Class<?> clazz = findLoadedClass(name);
+                    if (clazz == null) {
+                        clazz = defineClass(name, bytecode, 0, bytecode.length);
+                    }
+                    return clazz;
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        Class<?> testObjectClazz = loader.loadClass(javassistClassName);
+        Object target = testObjectClazz.newInstance();
+        Method callA = testObjectClazz.getMethod("callA");
+
+        callA.invoke(target);
+        Assert.assertEquals(0, interceptor.before);
+        Assert.assertEquals(0, interceptor.after);
+
+        SampledTraceFlag.set(true);
+        try {
+            callA.invoke(target);
+        } finally {
+            SampledTraceFlag.set(false);
+        }
+        Assert.assertEquals(1, interceptor.before);
+        Assert.assertEquals(1, interceptor.after);
+        Assert.assertEquals(1, interceptor.result);
+    }
+
+    public static class SampledTraceOnlyTestInterceptor implements SimpleAroundInterceptor, SampledTraceOnlyInterceptor {
+        private int before;
+        private int after;
+        private Object result;
+
+        @Override
+        public void before(Object target, Object[] args) {
+            before++;
+        }
+
+        @Override
+        public void after(Object target, Object[] args, Object result, Throwable throwable) {
+            after++;
+            this.result = result;
+        }
+    }
+
     private TestClassLoader getTestClassLoader() {
         PLoggerFactory.initialize(new Slf4jLoggerBinder());
 
@@ -18,10 +18,14 @@ package com.navercorp.pinpoint.profiler.monitor;
 
 import static org.junit.Assert.*;
 
+import static org.mockito.Mockito.*;
+
+import com.navercorp.pinpoint.profiler.interceptor.bci.JavaAssistByteCodeInstrumentor;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 import com.navercorp.pinpoint.test.ListenableDataSender;
 import com.navercorp.pinpoint.test.TBaseRecorder;
 import com.navercorp.pinpoint.test.TBaseRecorderAdaptor;
+import com.navercorp.pinpoint.thrift.dto.TAgentStat;
 import com.navercorp.pinpoint.thrift.dto.TAgentStatBatch;
 
 import org.junit.Before;
@@ -76,4 +80,49 @@ public class AgentStatMonitorTest {
         }
     }
 
+    @Test
+    public void classPoolStat() throws InterruptedException {
+        // Given
+        final long collectionIntervalMs = 100;
+        final int numCollectionsPerBatch = 2;
+        JavaAssistByteCodeInstrumentor instrumentor = mock(JavaAssistByteCodeInstrumentor.class);
+        when(instrumentor.getClassPoolSize()).thenReturn(3);
+        when(instrumentor.getCachedClassSize()).thenReturn(42);
+        // When
+        AgentStatMonitor monitor = new AgentStatMonitor(this.dataSender, "agentId", System.currentTimeMillis(), collectionIntervalMs,
+                numCollectionsPerBatch, instrumentor);
+        monitor.start();
+        Thread.sleep(collectionIntervalMs * numCollectionsPerBatch * 3);
+        monitor.stop();
+        // Then
+        assertTrue(tBaseRecorder.size() >= 1);
+        for (TAgentStatBatch agentStatBatch : tBaseRecorder) {
+            for (TAgentStat agentStat : agentStatBatch.getAgentStats()) {
+                assertEquals(3, agentStat.getClassPoolCount());
+                assertEquals(42, agentStat.getCachedClassCount());
+            }
+        }
+    }
+
+    @Test
+    public void noClassPoolStat() throws InterruptedException {
+        // Given
+        final long collectionIntervalMs = 100;
+        final int numCollectionsPerBatch = 2;
+        // When
+        AgentStatMonitor monitor = new AgentStatMonitor(this.dataSender, "agentId", System.currentTimeMillis(), collectionIntervalMs,
+                numCollectionsPerBatch);
+        monitor.start();
+        Thread.sleep(collectionIntervalMs * numCollectionsPerBatch * 3);
+        monitor.stop();
+        // Then
+        assertTrue(tBaseRecorder.size() >= 1);
+        for (TAgentStatBatch agentStatBatch : tBaseRecorder) {
+            for (TAgentStat agentStat : agentStatBatch.getAgentStats()) {
+                assertFalse(agentStat.isSetClassPoolCount());
+                assertFalse(agentStat.isSetCachedClassCount());
+            }
+        }
+    }
+
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.plugin;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.bootstrap.plugin.ProfilerPlugin;
+import com.navercorp.pinpoint.bootstrap.plugin.ProfilerPluginContext;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author agent
+ */
+public class ProfilerPluginSetupTest {
+
+    @Test
+    public void keepPluginOrder() {
+        final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final List<ProfilerPlugin> plugins = new ArrayList<ProfilerPlugin>();
+        final List<ClassFileTransformer> transformers = new ArrayList<ClassFileTransformer>();
+        for (int i = 0; i < 8; i++) {
+            final ClassFileTransformer transformer = mock(ClassFileTransformer.class);
+            transformers.add(transformer);
+            plugins.add(new TestPlugin(transformer, threadNames));
+        }
+
+        ProfilerPluginSetup pluginSetup = new ProfilerPluginSetup(null, 4);
+        List<DefaultProfilerPluginContext> pluginContexts = pluginSetup.setup(plugins);
+
+        Assert.assertEquals(plugins.size(), pluginContexts.size());
+        for (int i = 0; i < pluginContexts.size(); i++) {
+            Assert.assertSame(transformers.get(i), pluginContexts.get(i).getClassEditors().get(0));
+        }
+        Assert.assertFalse(threadNames.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void premainThread() {
+        final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        List<ProfilerPlugin> plugins = new ArrayList<ProfilerPlugin>();
+        plugins.add(new TestPlugin(mock(ClassFileTransformer.class), threadNames));
+        plugins.add(new TestPlugin(mock(ClassFileTransformer.class), threadNames));
+
+        ProfilerPluginSetup pluginSetup = new ProfilerPluginSetup(null, 1);
+        pluginSetup.setup(plugins);
+
+        Assert.assertEquals(Collections.singleton(Thread.currentThread().getName()), threadNames);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setupFail() {
+        List<ProfilerPlugin> plugins = new ArrayList<ProfilerPlugin>();
+        plugins.add(new TestPlugin(mock(ClassFileTransformer.class), Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>())));
+        plugins.add(new ProfilerPlugin() {
+            @Override
+            public void setup(ProfilerPluginContext context) {
+                throw new IllegalStateException("setup fail");
+            }
+        });
+
+        ProfilerPluginSetup pluginSetup = new ProfilerPluginSetup(null, 2);
+        pluginSetup.setup(plugins);
+    }
+
+    private static class TestPlugin implements ProfilerPlugin {
+        private final ClassFileTransformer transformer;
+        private final Set<String> threadNames;
+
+        private TestPlugin(ClassFileTransformer transformer, Set<String> threadNames) {
+            this.transformer = transformer;
+            this.threadNames = threadNames;
+        }
+
+        @Override
+        public void setup(ProfilerPluginContext context) {
+            threadNames.add(Thread.currentThread().getName());
+            context.addClassFileTransformer(transformer);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class AdaptiveSamplerTest {
+
+    @Test
+    public void targetPerSecond() {
+        AdaptiveSampler sampler = new AdaptiveSampler(10);
+        int sampling = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampler.isSampling()) {
+                sampling++;
+            }
+        }
+        // burst of one second. a few more may be refilled while looping
+        Assert.assertTrue("sampling:" + sampling, sampling >= 10 && sampling < 20);
+        Assert.assertTrue(sampler.getEffectiveSamplingRatio() < 0.1);
+    }
+
+    @Test
+    public void provisionalSampling() {
+        AdaptiveSampler sampler = new AdaptiveSampler(1, true, 2, 100);
+        Assert.assertTrue(sampler.isKeepErrorOrSlow());
+        Assert.assertTrue(sampler.isProvisionalSampling());
+        Assert.assertTrue(sampler.isProvisionalSampling());
+        Assert.assertFalse(sampler.isProvisionalSampling());
+    }
+
+    @Test
+    public void provisionalSampling_disable() {
+        AdaptiveSampler sampler = new AdaptiveSampler(1);
+        Assert.assertFalse(sampler.isProvisionalSampling());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTarget() {
+        new AdaptiveSampler(0);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class TokenBucketTest {
+
+    @Test
+    public void burstAndRefill() {
+        final long[] now = {0};
+        TokenBucket tokenBucket = new TokenBucket(10, 5) {
+            @Override
+            long nanoTime() {
+                return now[0];
+            }
+        };
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(tokenBucket.tryAcquire());
+        }
+        Assert.assertFalse(tokenBucket.tryAcquire());
+
+        // 10 per second. one token per 100ms
+        now[0] += TimeUnit.MILLISECONDS.toNanos(100);
+        Assert.assertTrue(tokenBucket.tryAcquire());
+        Assert.assertFalse(tokenBucket.tryAcquire());
+
+        // idle time doesn't accumulate more than burstSize
+        now[0] += TimeUnit.SECONDS.toNanos(10);
+        int acquire = 0;
+        while (tokenBucket.tryAcquire()) {
+            acquire++;
+        }
+        Assert.assertEquals(5, acquire);
+    }
+
+    @Test
+    public void concurrent() throws InterruptedException {
+        final long[] now = {0};
+        final TokenBucket tokenBucket = new TokenBucket(1000, 100) {
+            @Override
+            long nanoTime() {
+                return now[0];
+            }
+        };
+        final AtomicInteger acquireCount = new AtomicInteger();
+        final int threadCount = 8;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        if (tokenBucket.tryAcquire()) {
+                            acquireCount.incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(100, acquireCount.get());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.codahale.metrics.Histogram;
+import com.navercorp.pinpoint.profiler.monitor.codahale.MetricMonitorRegistry;
+
+/**
+ * @author agent
+ */
+public class AsyncQueueingExecutorTest {
+
+    @Test
+    public void drainSize() {
+        AdaptiveDrainPolicy policy = new AdaptiveDrainPolicy(64, 4, 10, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(4, policy.getDrainSize());
+
+        // backlog. the drain size doubles up to maxDrainSize
+        for (int i = 0; i < 20; i++) {
+            policy.updateQueueDepth(1000);
+            policy.updateSendTime(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Assert.assertEquals(64, policy.getDrainSize());
+
+        // the queue runs shallow. the drain size halves down to minDrainSize
+        for (int i = 0; i < 40; i++) {
+            policy.updateQueueDepth(1);
+            policy.updateSendTime(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Assert.assertEquals(4, policy.getDrainSize());
+
+        Assert.assertTrue(policy.isLinger(1));
+        Assert.assertFalse(policy.isLinger(4));
+        Assert.assertFalse(new AdaptiveDrainPolicy(64, 4, 0, TimeUnit.MILLISECONDS).isLinger(1));
+    }
+
+    @Test
+    public void slowSend() {
+        AdaptiveDrainPolicy policy = new AdaptiveDrainPolicy(64, 4, 0, 100, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 20; i++) {
+            policy.updateQueueDepth(1000);
+            policy.updateSendTime(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Assert.assertEquals(64, policy.getDrainSize());
+
+        // the send time limit wins over the backlog
+        policy.updateQueueDepth(1000);
+        policy.updateSendTime(TimeUnit.MILLISECONDS.toNanos(1000));
+        Assert.assertEquals(32, policy.getDrainSize());
+    }
+
+    @Test
+    public void drainHistogram() throws InterruptedException {
+        final MetricMonitorRegistry monitorRegistry = new MetricMonitorRegistry();
+        final AsyncQueueingExecutorOption option = new AsyncQueueingExecutorOption(AsyncQueueType.LINKED, 10, 1, 0, null, monitorRegistry);
+        final AsyncQueueingExecutor<Integer> executor = new AsyncQueueingExecutor<Integer>(1024, "Pinpoint-AsyncQueueingExecutorTest", option);
+        final CountDownLatch latch = new CountDownLatch(100);
+        executor.setListener(new AsyncQueueingExecutorListener<Integer>() {
+            @Override
+            public void execute(Collection<Integer> messageList) {
+                for (int i = 0; i < messageList.size(); i++) {
+                    latch.countDown();
+                }
+            }
+
+            @Override
+            public void execute(Integer message) {
+                latch.countDown();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(executor.execute(i));
+        }
+        Assert.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+        executor.stop();
+
+        final Histogram drainSize = monitorRegistry.getRegistry().getHistograms().get("Pinpoint-AsyncQueueingExecutorTest.drain.size");
+        final Histogram queueDepth = monitorRegistry.getRegistry().getHistograms().get("Pinpoint-AsyncQueueingExecutorTest.queue.depth");
+        Assert.assertTrue(drainSize.getCount() > 0);
+        Assert.assertEquals(drainSize.getCount(), queueDepth.getCount());
+        Assert.assertTrue(drainSize.getSnapshot().getMax() <= 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidOption() {
+        new AsyncQueueingExecutorOption(AsyncQueueType.LINKED, 10, 20, 0);
+    }
+
+    @Test
+    public void lingerBatch() throws InterruptedException {
+        final AsyncQueueingExecutorOption option = new AsyncQueueingExecutorOption(AsyncQueueType.RINGBUFFER, 64, 5, 3000);
+        final AsyncQueueingExecutor<Integer> executor = new AsyncQueueingExecutor<Integer>(1024, "Pinpoint-AsyncQueueingExecutorTest", option);
+
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.setListener(new AsyncQueueingExecutorListener<Integer>() {
+            @Override
+            public void execute(Collection<Integer> messageList) {
+                batchSizes.add(messageList.size());
+                latch.countDown();
+            }
+
+            @Override
+            public void execute(Integer message) {
+                batchSizes.add(1);
+                latch.countDown();
+            }
+        });
+
+        // slower than the sender thread, but within the linger time
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(executor.execute(i));
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+        executor.stop();
+
+        Assert.assertEquals(Integer.valueOf(5), batchSizes.get(0));
+    }
+
+    @Test
+    public void noLinger() throws InterruptedException {
+        final AsyncQueueingExecutor<Integer> executor = new AsyncQueueingExecutor<Integer>(1024, "Pinpoint-AsyncQueueingExecutorTest");
+        Assert.assertEquals(10, AsyncQueueingExecutorOption.DEFAULT_MAX_DRAIN_SIZE);
+        final List<Integer> received = new ArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        executor.setListener(new AsyncQueueingExecutorListener<Integer>() {
+            @Override
+            public void execute(Collection<Integer> messageList) {
+                for (Object message : messageList.toArray()) {
+                    if (message != null) {
+                        add((Integer) message);
+                    }
+                }
+            }
+
+            @Override
+            public void execute(Integer message) {
+                add(message);
+            }
+
+            private void add(Integer message) {
+                synchronized (received) {
+                    received.add(message);
+                }
+                latch.countDown();
+            }
+        });
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(executor.execute(i));
+        }
+        Assert.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+        final long elapsed = System.currentTimeMillis() - start;
+        executor.stop();
+
+        synchronized (received) {
+            Assert.assertEquals(Arrays.asList(0, 1, 2), received);
+        }
+        // nothing waits for a fuller batch without the linger time
+        Assert.assertTrue("elapsed:" + elapsed, elapsed < 1000);
+    }
+}
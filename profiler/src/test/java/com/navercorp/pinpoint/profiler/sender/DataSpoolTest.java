@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+
+/**
+ * @author agent
+ */
+public class DataSpoolTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("pinpoint-dataspool", ".spool");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void spoolAndReplay() throws Exception {
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        final List<Object> received = new ArrayList<Object>();
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(1, "Pinpoint-DataSpoolTest");
+        executor.setListener(new AsyncQueueingExecutorListener<Object>() {
+            @Override
+            public void execute(Collection<Object> messageList) {
+                // messageList doesn't support iterator()
+                final Object[] dataList = messageList.toArray();
+                for (int i = 0; i < messageList.size(); i++) {
+                    execute(dataList[i]);
+                }
+            }
+
+            @Override
+            public void execute(Object message) {
+                try {
+                    blockLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                synchronized (received) {
+                    received.add(message);
+                }
+            }
+        });
+        final DataSpool dataSpool = new DataSpool(file, 1024 * 64, 1000);
+        executor.setDataSpool(dataSpool);
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertTrue(executor.execute(createAgentInfo("agent" + i)));
+            }
+            // non TBase data can't be spooled
+            Assert.assertFalse(executor.spool(new Object()));
+            Assert.assertTrue(dataSpool.getPendingCount() > 0);
+            dataSpool.writePending();
+            Assert.assertTrue(dataSpool.getCount() > 0);
+
+            dataSpool.start(executor, new DataSpool.ReplayCondition() {
+                @Override
+                public boolean isReplayable() {
+                    return true;
+                }
+            }, "Pinpoint-DataSpoolTest");
+            blockLatch.countDown();
+
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+            while (System.currentTimeMillis() < deadline) {
+                synchronized (received) {
+                    // the record is removed from the spool after the executor accepted it
+                    if (received.size() >= 10 && dataSpool.getCount() == 0) {
+                        break;
+                    }
+                }
+                Thread.sleep(50);
+            }
+            synchronized (received) {
+                Assert.assertEquals(10, received.size());
+                for (int i = 0; i < 10; i++) {
+                    Assert.assertTrue(received.contains(createAgentInfo("agent" + i)));
+                }
+            }
+            Assert.assertEquals(0, dataSpool.getCount());
+        } finally {
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void replayCondition() throws Exception {
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(1, "Pinpoint-DataSpoolTest");
+        final DataSpool dataSpool = new DataSpool(file, 1024 * 64, 1000);
+        try {
+            executor.setDataSpool(dataSpool);
+            Assert.assertTrue(executor.spool(createAgentInfo("agent")));
+            dataSpool.start(executor, new DataSpool.ReplayCondition() {
+                @Override
+                public boolean isReplayable() {
+                    return false;
+                }
+            }, "Pinpoint-DataSpoolTest");
+            Thread.sleep(DataSpool.REPLAY_INTERVAL * 3);
+            Assert.assertEquals(1, dataSpool.getCount());
+        } finally {
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void spoolFull() throws Exception {
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(1, "Pinpoint-DataSpoolTest");
+        final DataSpool dataSpool = new DataSpool(file, 64, 1000);
+        try {
+            executor.setDataSpool(dataSpool);
+            for (int i = 0; i < 10; i++) {
+                Assert.assertTrue(executor.spool(createAgentInfo("agent" + i)));
+            }
+            dataSpool.writePending();
+            final long spoolCount = dataSpool.getSpoolCount();
+            Assert.assertTrue(spoolCount < 10);
+            Assert.assertEquals(10 - spoolCount, dataSpool.getDropCount());
+        } finally {
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void pendingQueueFull() throws Exception {
+        final DataSpool dataSpool = new DataSpool(file, 1024 * 64, 1000, 2);
+        try {
+            Assert.assertTrue(dataSpool.spool(createAgentInfo("agent1")));
+            Assert.assertTrue(dataSpool.spool(createAgentInfo("agent2")));
+            Assert.assertFalse(dataSpool.spool(createAgentInfo("agent3")));
+            Assert.assertEquals(1, dataSpool.getDropCount());
+
+            dataSpool.writePending();
+            Assert.assertEquals(0, dataSpool.getPendingCount());
+            Assert.assertEquals(2, dataSpool.getCount());
+        } finally {
+            dataSpool.stop();
+        }
+    }
+
+    @Test
+    public void writePendingOnStop() throws Exception {
+        DataSpool dataSpool = new DataSpool(file, 1024 * 64, 1000);
+        Assert.assertTrue(dataSpool.spool(createAgentInfo("agent")));
+        dataSpool.stop();
+
+        dataSpool = new DataSpool(file, 1024 * 64, 1000);
+        try {
+            Assert.assertEquals(1, dataSpool.getCount());
+        } finally {
+            dataSpool.stop();
+        }
+    }
+
+    private TAgentInfo createAgentInfo(String agentId) {
+        TAgentInfo agentInfo = new TAgentInfo();
+        agentInfo.setAgentId(agentId);
+        agentInfo.setHostname("host");
+        return agentInfo;
+    }
+}
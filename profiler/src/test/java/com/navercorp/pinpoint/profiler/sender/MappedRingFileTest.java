@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class MappedRingFileTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("pinpoint-ringfile", ".spool");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void offerAndPeek() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 64);
+        try {
+            Assert.assertNull(ringFile.peek());
+            Assert.assertTrue(ringFile.offer(new byte[]{1, 2, 3}, 0, 3));
+            Assert.assertTrue(ringFile.offer(new byte[]{9, 4, 5, 9}, 1, 2));
+            Assert.assertEquals(2, ringFile.getCount());
+            Assert.assertEquals(4 + 3 + 4 + 2, ringFile.getUsedBytes());
+
+            Assert.assertArrayEquals(new byte[]{1, 2, 3}, ringFile.peek());
+            Assert.assertTrue(ringFile.remove());
+            Assert.assertArrayEquals(new byte[]{4, 5}, ringFile.peek());
+            Assert.assertTrue(ringFile.remove());
+            Assert.assertFalse(ringFile.remove());
+            Assert.assertEquals(0, ringFile.getUsedBytes());
+        } finally {
+            ringFile.close();
+        }
+    }
+
+    @Test
+    public void full() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 20);
+        try {
+            Assert.assertTrue(ringFile.offer(new byte[10], 0, 10));
+            // 14 + 14 > 20
+            Assert.assertFalse(ringFile.offer(new byte[10], 0, 10));
+            Assert.assertTrue(ringFile.offer(new byte[2], 0, 2));
+            Assert.assertEquals(2, ringFile.getCount());
+        } finally {
+            ringFile.close();
+        }
+    }
+
+    @Test
+    public void wrapAround() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 32);
+        try {
+            for (int i = 0; i < 100; i++) {
+                byte[] first = createData(i, 7);
+                byte[] second = createData(i + 1, 5);
+                Assert.assertTrue(ringFile.offer(first, 0, first.length));
+                Assert.assertTrue(ringFile.offer(second, 0, second.length));
+
+                Assert.assertArrayEquals(first, ringFile.peek());
+                ringFile.remove();
+                Assert.assertArrayEquals(second, ringFile.peek());
+                // keep one record to move the position forward
+                Assert.assertTrue(ringFile.offer(first, 0, first.length));
+                ringFile.remove();
+                Assert.assertArrayEquals(first, ringFile.peek());
+                ringFile.remove();
+            }
+        } finally {
+            ringFile.close();
+        }
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 64);
+        ringFile.offer(new byte[]{1}, 0, 1);
+        ringFile.offer(new byte[]{2, 2}, 0, 2);
+        ringFile.remove();
+        ringFile.close();
+
+        MappedRingFile reopen = new MappedRingFile(file, 64);
+        try {
+            Assert.assertEquals(1, reopen.getCount());
+            Assert.assertArrayEquals(new byte[]{2, 2}, reopen.peek());
+        } finally {
+            reopen.close();
+        }
+    }
+
+    @Test
+    public void reopenWithDifferentCapacity() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 64);
+        ringFile.offer(new byte[]{1}, 0, 1);
+        ringFile.close();
+
+        MappedRingFile reopen = new MappedRingFile(file, 128);
+        try {
+            Assert.assertEquals(0, reopen.getCount());
+        } finally {
+            reopen.close();
+        }
+    }
+
+    @Test
+    public void brokenRecordLength() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 64);
+        ringFile.offer(new byte[]{1, 1}, 0, 2);
+        ringFile.offer(new byte[]{2, 2}, 0, 2);
+        ringFile.close();
+
+        // torn length of the first record
+        writeInt(MappedRingFile.HEADER_SIZE, -7);
+        MappedRingFile reopen = new MappedRingFile(file, 64);
+        try {
+            Assert.assertEquals(2, reopen.getCount());
+            Assert.assertNull(reopen.peek());
+            Assert.assertEquals(0, reopen.getCount());
+            Assert.assertEquals(0, reopen.getUsedBytes());
+            // still writable after the reset
+            Assert.assertTrue(reopen.offer(new byte[]{3}, 0, 1));
+            Assert.assertArrayEquals(new byte[]{3}, reopen.peek());
+        } finally {
+            reopen.close();
+        }
+    }
+
+    @Test
+    public void recordLengthBeyondTail() throws IOException {
+        MappedRingFile ringFile = new MappedRingFile(file, 64);
+        ringFile.offer(new byte[]{1, 1}, 0, 2);
+        ringFile.close();
+
+        // within the capacity, but longer than the written data
+        writeInt(MappedRingFile.HEADER_SIZE, 20);
+        MappedRingFile reopen = new MappedRingFile(file, 64);
+        try {
+            Assert.assertFalse(reopen.remove());
+            Assert.assertEquals(0, reopen.getCount());
+        } finally {
+            reopen.close();
+        }
+    }
+
+    private void writeInt(long position, int value) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(value);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private byte[] createData(int seed, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed + i);
+        }
+        return data;
+    }
+}
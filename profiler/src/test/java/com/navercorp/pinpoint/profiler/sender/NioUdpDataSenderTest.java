@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import com.navercorp.pinpoint.profiler.logging.Slf4jLoggerBinderInitializer;
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+import com.navercorp.pinpoint.thrift.io.ChunkHeaderTBaseDeserializer;
+import com.navercorp.pinpoint.thrift.io.ChunkHeaderTBaseDeserializerFactory;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializerFactory;
+import com.navercorp.pinpoint.thrift.io.NetworkAvailabilityCheckPacket;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.thrift.TBase;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author agent
+ */
+public class NioUdpDataSenderTest {
+
+    private DatagramSocket receiver;
+
+    @BeforeClass
+    public static void before() {
+        Slf4jLoggerBinderInitializer.beforeClass();
+    }
+
+    @AfterClass
+    public static void after() {
+        Slf4jLoggerBinderInitializer.afterClass();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        receiver = new DatagramSocket(new InetSocketAddress("localhost", 0));
+        receiver.setSoTimeout(3000);
+    }
+
+    @After
+    public void tearDown() {
+        if (receiver != null) {
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void send() throws Exception {
+        NioUdpDataSender sender = new NioUdpDataSender("localhost", receiver.getLocalPort(), "test", 128);
+        try {
+            for (int i = 0; i < 10; i++) {
+                sender.send(createAgentInfo("agent" + i));
+            }
+            List<TBase<?, ?>> received = receive(10, false);
+            Assert.assertEquals(10, received.size());
+            Assert.assertEquals(createAgentInfo("agent0"), received.get(0));
+            Assert.assertEquals(createAgentInfo("agent9"), received.get(9));
+        } finally {
+            sender.stop();
+        }
+    }
+
+    @Test
+    public void sendGatheringWrite() throws Exception {
+        Thread responder = startChunkedReceiverResponder();
+        NioUdpDataSender sender = new NioUdpDataSender("localhost", receiver.getLocalPort(), "test", 1024, 1000, NioUdpDataSender.SEND_BUFFER_SIZE, true, AsyncQueueingExecutorOption.DEFAULT);
+        responder.join(3000);
+        try {
+            Assert.assertTrue(sender.isGatheringWrite());
+            final int count = NioUdpDataSender.MAX_GATHER_SIZE * 3;
+            for (int i = 0; i < count; i++) {
+                sender.send(createAgentInfo("agent" + i));
+            }
+            List<TBase<?, ?>> received = receive(count, true);
+            Assert.assertEquals(count, received.size());
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(createAgentInfo("agent" + i), received.get(i));
+            }
+        } finally {
+            sender.stop();
+        }
+    }
+
+    @Test
+    public void gatheringWriteFallback() throws Exception {
+        // the receiver does not answer the chunked check packet like BaseUDPReceiver
+        NioUdpDataSender sender = new NioUdpDataSender("localhost", receiver.getLocalPort(), "test", 128, 500, NioUdpDataSender.SEND_BUFFER_SIZE, true, AsyncQueueingExecutorOption.DEFAULT);
+        try {
+            Assert.assertFalse(sender.isGatheringWrite());
+            // skip the check packet
+            receiver.receive(new DatagramPacket(new byte[NioUdpDataSender.UDP_MAX_PACKET_LENGTH], NioUdpDataSender.UDP_MAX_PACKET_LENGTH));
+
+            sender.send(createAgentInfo("agent"));
+            List<TBase<?, ?>> received = receive(1, false);
+            Assert.assertEquals(createAgentInfo("agent"), received.get(0));
+        } finally {
+            sender.stop();
+        }
+    }
+
+    private Thread startChunkedReceiverResponder() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final byte[] buffer = new byte[NioUdpDataSender.UDP_MAX_PACKET_LENGTH];
+                    final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    receiver.receive(packet);
+                    List<TBase<?, ?>> list = new ChunkHeaderTBaseDeserializerFactory().createDeserializer().deserialize(packet.getData(), packet.getOffset(), packet.getLength());
+                    if (list.size() == 1 && list.get(0) instanceof NetworkAvailabilityCheckPacket) {
+                        final byte[] ok = NetworkAvailabilityCheckPacket.DATA_OK;
+                        receiver.send(new DatagramPacket(ok, ok.length, packet.getSocketAddress()));
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void sendExceedData() throws Exception {
+        NioUdpDataSender sender = new NioUdpDataSender("localhost", receiver.getLocalPort(), "test", 128);
+        try {
+            String random = RandomStringUtils.randomAlphabetic(NioUdpDataSender.UDP_MAX_PACKET_LENGTH + 100);
+            sender.send(createAgentInfo(random));
+            sender.send(createAgentInfo("small"));
+
+            // the oversized packet is discarded, the next one is still sent
+            List<TBase<?, ?>> received = receive(1, false);
+            Assert.assertEquals(createAgentInfo("small"), received.get(0));
+        } finally {
+            sender.stop();
+        }
+    }
+
+    private List<TBase<?, ?>> receive(int expected, boolean chunked) throws Exception {
+        final ChunkHeaderTBaseDeserializer chunkDeserializer = new ChunkHeaderTBaseDeserializerFactory().createDeserializer();
+        final HeaderTBaseDeserializer deserializer = new HeaderTBaseDeserializerFactory().createDeserializer();
+        final byte[] buffer = new byte[NioUdpDataSender.UDP_MAX_PACKET_LENGTH];
+        final List<TBase<?, ?>> result = new ArrayList<TBase<?, ?>>();
+        while (result.size() < expected) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                receiver.receive(packet);
+            } catch (SocketTimeoutException e) {
+                break;
+            }
+            if (chunked) {
+                result.addAll(chunkDeserializer.deserialize(packet.getData(), packet.getOffset(), packet.getLength()));
+            } else {
+                result.add(deserializer.deserialize(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getLength())));
+            }
+        }
+        return result;
+    }
+
+    private TAgentInfo createAgentInfo(String agentId) {
+        TAgentInfo agentInfo = new TAgentInfo();
+        agentInfo.setAgentId(agentId);
+        agentInfo.setHostname("host");
+        agentInfo.setApplicationName("applicationName");
+        return agentInfo;
+    }
+}
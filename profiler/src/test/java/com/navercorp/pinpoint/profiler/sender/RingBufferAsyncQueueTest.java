@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class RingBufferAsyncQueueTest {
+
+    @Test
+    public void capacity() {
+        Assert.assertEquals(1, new RingBufferAsyncQueue<Object>(1).getCapacity());
+        Assert.assertEquals(8, new RingBufferAsyncQueue<Object>(5).getCapacity());
+        Assert.assertEquals(1024 * 8, new RingBufferAsyncQueue<Object>(1024 * 5).getCapacity());
+    }
+
+    @Test
+    public void offerAndPoll() throws InterruptedException {
+        RingBufferAsyncQueue<Integer> queue = new RingBufferAsyncQueue<Integer>(4);
+        Assert.assertTrue(queue.isEmpty());
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse("queue is full", queue.offer(4));
+        Assert.assertEquals(4, queue.size());
+
+        Assert.assertEquals(Integer.valueOf(0), queue.poll(1, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(queue.offer(4));
+
+        List<Integer> drain = new ArrayList<Integer>();
+        Assert.assertEquals(3, queue.drainTo(drain, 3));
+        Assert.assertEquals(Integer.valueOf(1), drain.get(0));
+        Assert.assertEquals(Integer.valueOf(3), drain.get(2));
+
+        Assert.assertEquals(Integer.valueOf(4), queue.poll(1, TimeUnit.MILLISECONDS));
+        Assert.assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void pollWakeUp() throws InterruptedException {
+        final RingBufferAsyncQueue<String> queue = new RingBufferAsyncQueue<String>(16);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignore) {
+                }
+                queue.offer("data");
+            }
+        });
+        producer.start();
+
+        long start = System.currentTimeMillis();
+        Assert.assertEquals("data", queue.poll(5000, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        producer.join();
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void pollInterrupted() throws InterruptedException {
+        RingBufferAsyncQueue<String> queue = new RingBufferAsyncQueue<String>(16);
+        Thread.currentThread().interrupt();
+        queue.poll(1000, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void multiProducer() throws InterruptedException {
+        final int producerCount = 8;
+        final int perProducer = 10000;
+        final RingBufferAsyncQueue<Integer> queue = new RingBufferAsyncQueue<Integer>(128);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int i = 0; i < producerCount; i++) {
+            final int producerId = i;
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < perProducer; j++) {
+                        Integer value = producerId * perProducer + j;
+                        while (!queue.offer(value)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        startLatch.countDown();
+
+        // every producer's values must arrive in order and exactly once
+        int[] lastSeen = new int[producerCount];
+        for (int i = 0; i < producerCount; i++) {
+            lastSeen[i] = -1;
+        }
+        int received = 0;
+        while (received < producerCount * perProducer) {
+            Integer value = queue.poll(1000, TimeUnit.MILLISECONDS);
+            Assert.assertNotNull("lost data", value);
+            int producerId = value / perProducer;
+            int sequence = value % perProducer;
+            Assert.assertEquals(lastSeen[producerId] + 1, sequence);
+            lastSeen[producerId] = sequence;
+            received++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void queueType() {
+        Assert.assertSame(AsyncQueueType.RINGBUFFER, AsyncQueueType.getType("ringbuffer", AsyncQueueType.LINKED));
+        Assert.assertSame(AsyncQueueType.LINKED, AsyncQueueType.getType("unknown", AsyncQueueType.LINKED));
+        Assert.assertSame(AsyncQueueType.LINKED, AsyncQueueType.getType(null, AsyncQueueType.LINKED));
+        Assert.assertTrue(AsyncQueueType.RINGBUFFER.createQueue(10) instanceof RingBufferAsyncQueue);
+    }
+}
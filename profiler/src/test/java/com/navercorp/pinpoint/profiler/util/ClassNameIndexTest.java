@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ClassNameIndexTest {
+
+    @Test
+    public void get() {
+        ClassNameIndex<String> index = new ClassNameIndex<String>();
+        Assert.assertNull(index.put("org/apache/catalina/core/StandardHostValve", "valve"));
+        Assert.assertNull(index.put("org/apache/catalina/core/StandardService", "service"));
+        Assert.assertEquals(2, index.size());
+
+        Assert.assertTrue(index.mightContain("org/apache/catalina/core/StandardHostValve"));
+        Assert.assertEquals("valve", index.get(new String("org/apache/catalina/core/StandardHostValve")));
+        Assert.assertEquals("service", index.get("org/apache/catalina/core/StandardService"));
+
+        Assert.assertNull(index.get("org/apache/catalina/core/Standard"));
+        Assert.assertNull(index.get("org/apache/catalina/core/StandardHostValve$1"));
+        Assert.assertNull(index.get("java/lang/String"));
+        Assert.assertNull(index.get(""));
+        Assert.assertNull(index.get(null));
+    }
+
+    @Test
+    public void replace() {
+        ClassNameIndex<String> index = new ClassNameIndex<String>();
+        index.put("a/B", "first");
+        Assert.assertEquals("first", index.put("a/B", "second"));
+        Assert.assertEquals("second", index.get("a/B"));
+        Assert.assertEquals(1, index.size());
+    }
+
+    @Test
+    public void reject() {
+        ClassNameIndex<Object> index = new ClassNameIndex<Object>();
+        for (int i = 0; i < 300; i++) {
+            index.put("com/company/service/Registered" + i, this);
+        }
+        int passed = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (index.mightContain("com/company/service/Loaded" + i)) {
+                passed++;
+            }
+        }
+        // 300 names set at most 300 of 64k bits
+        Assert.assertTrue("passed:" + passed, passed < 300);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ObjectPoolTest {
+
+    private final ObjectPoolFactory<Object> factory = new ObjectPoolFactory<Object>() {
+        @Override
+        public Object create() {
+            return new Object();
+        }
+
+        @Override
+        public void beforeReturn(Object o) {
+        }
+    };
+
+    @Test
+    public void maxSize() {
+        ObjectPool<Object> pool = new ObjectPool<Object>(factory, 1, 2);
+        Assert.assertEquals(1, pool.getPooledCount());
+
+        Object first = pool.getObject();
+        Object second = pool.getObject();
+        Object third = pool.getObject();
+        Assert.assertEquals(0, pool.getPooledCount());
+
+        pool.returnObject(first);
+        pool.returnObject(second);
+        // dropped
+        pool.returnObject(third);
+        Assert.assertEquals(2, pool.getPooledCount());
+
+        Assert.assertSame(first, pool.getObject());
+        Assert.assertSame(second, pool.getObject());
+        Assert.assertNotSame(third, pool.getObject());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxSizeLessThanSize() {
+        new ObjectPool<Object>(factory, 2, 1);
+    }
+}
@@ -40,6 +40,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
   private static final org.apache.thrift.protocol.TField TIMESTAMP_FIELD_DESC = new org.apache.thrift.protocol.TField("timestamp", org.apache.thrift.protocol.TType.I64, (short)3);
   private static final org.apache.thrift.protocol.TField GC_FIELD_DESC = new org.apache.thrift.protocol.TField("gc", org.apache.thrift.protocol.TType.STRUCT, (short)10);
   private static final org.apache.thrift.protocol.TField CPU_LOAD_FIELD_DESC = new org.apache.thrift.protocol.TField("cpuLoad", org.apache.thrift.protocol.TType.STRUCT, (short)20);
+  private static final org.apache.thrift.protocol.TField CLASS_POOL_COUNT_FIELD_DESC = new org.apache.thrift.protocol.TField("classPoolCount", org.apache.thrift.protocol.TType.I64, (short)30);
+  private static final org.apache.thrift.protocol.TField CACHED_CLASS_COUNT_FIELD_DESC = new org.apache.thrift.protocol.TField("cachedClassCount", org.apache.thrift.protocol.TType.I64, (short)31);
   private static final org.apache.thrift.protocol.TField METADATA_FIELD_DESC = new org.apache.thrift.protocol.TField("metadata", org.apache.thrift.protocol.TType.STRING, (short)200);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
@@ -53,6 +55,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
   private long timestamp; // optional
   private TJvmGc gc; // optional
   private TCpuLoad cpuLoad; // optional
+  private long classPoolCount; // optional
+  private long cachedClassCount; // optional
   private String metadata; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
@@ -62,6 +66,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     TIMESTAMP((short)3, "timestamp"),
     GC((short)10, "gc"),
     CPU_LOAD((short)20, "cpuLoad"),
+    CLASS_POOL_COUNT((short)30, "classPoolCount"),
+    CACHED_CLASS_COUNT((short)31, "cachedClassCount"),
     METADATA((short)200, "metadata");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
@@ -87,6 +93,10 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
           return GC;
         case 20: // CPU_LOAD
           return CPU_LOAD;
+        case 30: // CLASS_POOL_COUNT
+          return CLASS_POOL_COUNT;
+        case 31: // CACHED_CLASS_COUNT
+          return CACHED_CLASS_COUNT;
         case 200: // METADATA
           return METADATA;
         default:
@@ -131,8 +141,10 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
   // isset id assignments
   private static final int __STARTTIMESTAMP_ISSET_ID = 0;
   private static final int __TIMESTAMP_ISSET_ID = 1;
+  private static final int __CLASSPOOLCOUNT_ISSET_ID = 2;
+  private static final int __CACHEDCLASSCOUNT_ISSET_ID = 3;
   private byte __isset_bitfield = 0;
-  private _Fields optionals[] = {_Fields.AGENT_ID,_Fields.START_TIMESTAMP,_Fields.TIMESTAMP,_Fields.GC,_Fields.CPU_LOAD,_Fields.METADATA};
+  private _Fields optionals[] = {_Fields.AGENT_ID,_Fields.START_TIMESTAMP,_Fields.TIMESTAMP,_Fields.GC,_Fields.CPU_LOAD,_Fields.CLASS_POOL_COUNT,_Fields.CACHED_CLASS_COUNT,_Fields.METADATA};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -146,6 +158,10 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TJvmGc.class)));
     tmpMap.put(_Fields.CPU_LOAD, new org.apache.thrift.meta_data.FieldMetaData("cpuLoad", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TCpuLoad.class)));
+    tmpMap.put(_Fields.CLASS_POOL_COUNT, new org.apache.thrift.meta_data.FieldMetaData("classPoolCount", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+    tmpMap.put(_Fields.CACHED_CLASS_COUNT, new org.apache.thrift.meta_data.FieldMetaData("cachedClassCount", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
     tmpMap.put(_Fields.METADATA, new org.apache.thrift.meta_data.FieldMetaData("metadata", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
@@ -171,6 +187,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     if (other.isSetCpuLoad()) {
       this.cpuLoad = new TCpuLoad(other.cpuLoad);
     }
+    this.classPoolCount = other.classPoolCount;
+    this.cachedClassCount = other.cachedClassCount;
     if (other.isSetMetadata()) {
       this.metadata = other.metadata;
     }
@@ -189,6 +207,10 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     this.timestamp = 0;
     this.gc = null;
     this.cpuLoad = null;
+    setClassPoolCountIsSet(false);
+    this.classPoolCount = 0;
+    setCachedClassCountIsSet(false);
+    this.cachedClassCount = 0;
     this.metadata = null;
   }
 
@@ -305,6 +327,50 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     }
   }
 
+  public long getClassPoolCount() {
+    return this.classPoolCount;
+  }
+
+  public void setClassPoolCount(long classPoolCount) {
+    this.classPoolCount = classPoolCount;
+    setClassPoolCountIsSet(true);
+  }
+
+  public void unsetClassPoolCount() {
+    __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __CLASSPOOLCOUNT_ISSET_ID);
+  }
+
+  /** Returns true if field classPoolCount is set (has been assigned a value) and false otherwise */
+  public boolean isSetClassPoolCount() {
+    return EncodingUtils.testBit(__isset_bitfield, __CLASSPOOLCOUNT_ISSET_ID);
+  }
+
+  public void setClassPoolCountIsSet(boolean value) {
+    __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __CLASSPOOLCOUNT_ISSET_ID, value);
+  }
+
+  public long getCachedClassCount() {
+    return this.cachedClassCount;
+  }
+
+  public void setCachedClassCount(long cachedClassCount) {
+    this.cachedClassCount = cachedClassCount;
+    setCachedClassCountIsSet(true);
+  }
+
+  public void unsetCachedClassCount() {
+    __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __CACHEDCLASSCOUNT_ISSET_ID);
+  }
+
+  /** Returns true if field cachedClassCount is set (has been assigned a value) and false otherwise */
+  public boolean isSetCachedClassCount() {
+    return EncodingUtils.testBit(__isset_bitfield, __CACHEDCLASSCOUNT_ISSET_ID);
+  }
+
+  public void setCachedClassCountIsSet(boolean value) {
+    __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __CACHEDCLASSCOUNT_ISSET_ID, value);
+  }
+
   public String getMetadata() {
     return this.metadata;
   }
@@ -370,6 +436,22 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       }
       break;
 
+    case CLASS_POOL_COUNT:
+      if (value == null) {
+        unsetClassPoolCount();
+      } else {
+        setClassPoolCount((Long)value);
+      }
+      break;
+
+    case CACHED_CLASS_COUNT:
+      if (value == null) {
+        unsetCachedClassCount();
+      } else {
+        setCachedClassCount((Long)value);
+      }
+      break;
+
     case METADATA:
       if (value == null) {
         unsetMetadata();
@@ -398,6 +480,12 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     case CPU_LOAD:
       return getCpuLoad();
 
+    case CLASS_POOL_COUNT:
+      return Long.valueOf(getClassPoolCount());
+
+    case CACHED_CLASS_COUNT:
+      return Long.valueOf(getCachedClassCount());
+
     case METADATA:
       return getMetadata();
 
@@ -422,6 +510,10 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       return isSetGc();
     case CPU_LOAD:
       return isSetCpuLoad();
+    case CLASS_POOL_COUNT:
+      return isSetClassPoolCount();
+    case CACHED_CLASS_COUNT:
+      return isSetCachedClassCount();
     case METADATA:
       return isSetMetadata();
     }
@@ -486,6 +578,24 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         return false;
     }
 
+    boolean this_present_classPoolCount = true && this.isSetClassPoolCount();
+    boolean that_present_classPoolCount = true && that.isSetClassPoolCount();
+    if (this_present_classPoolCount || that_present_classPoolCount) {
+      if (!(this_present_classPoolCount && that_present_classPoolCount))
+        return false;
+      if (this.classPoolCount != that.classPoolCount)
+        return false;
+    }
+
+    boolean this_present_cachedClassCount = true && this.isSetCachedClassCount();
+    boolean that_present_cachedClassCount = true && that.isSetCachedClassCount();
+    if (this_present_cachedClassCount || that_present_cachedClassCount) {
+      if (!(this_present_cachedClassCount && that_present_cachedClassCount))
+        return false;
+      if (this.cachedClassCount != that.cachedClassCount)
+        return false;
+    }
+
     boolean this_present_metadata = true && this.isSetMetadata();
     boolean that_present_metadata = true && that.isSetMetadata();
     if (this_present_metadata || that_present_metadata) {
@@ -561,6 +671,26 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetClassPoolCount()).compareTo(other.isSetClassPoolCount());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetClassPoolCount()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.classPoolCount, other.classPoolCount);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
+    lastComparison = Boolean.valueOf(isSetCachedClassCount()).compareTo(other.isSetCachedClassCount());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetCachedClassCount()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.cachedClassCount, other.cachedClassCount);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     lastComparison = Boolean.valueOf(isSetMetadata()).compareTo(other.isSetMetadata());
     if (lastComparison != 0) {
       return lastComparison;
@@ -632,6 +762,18 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       }
       first = false;
     }
+    if (isSetClassPoolCount()) {
+      if (!first) sb.append(", ");
+      sb.append("classPoolCount:");
+      sb.append(this.classPoolCount);
+      first = false;
+    }
+    if (isSetCachedClassCount()) {
+      if (!first) sb.append(", ");
+      sb.append("cachedClassCount:");
+      sb.append(this.cachedClassCount);
+      first = false;
+    }
     if (isSetMetadata()) {
       if (!first) sb.append(", ");
       sb.append("metadata:");
@@ -735,6 +877,22 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 30: // CLASS_POOL_COUNT
+            if (schemeField.type == org.apache.thrift.protocol.TType.I64) {
+              struct.classPoolCount = iprot.readI64();
+              struct.setClassPoolCountIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
+          case 31: // CACHED_CLASS_COUNT
+            if (schemeField.type == org.apache.thrift.protocol.TType.I64) {
+              struct.cachedClassCount = iprot.readI64();
+              struct.setCachedClassCountIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           case 200: // METADATA
             if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
               struct.metadata = iprot.readString();
@@ -787,6 +945,16 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
           oprot.writeFieldEnd();
         }
       }
+      if (struct.isSetClassPoolCount()) {
+        oprot.writeFieldBegin(CLASS_POOL_COUNT_FIELD_DESC);
+        oprot.writeI64(struct.classPoolCount);
+        oprot.writeFieldEnd();
+      }
+      if (struct.isSetCachedClassCount()) {
+        oprot.writeFieldBegin(CACHED_CLASS_COUNT_FIELD_DESC);
+        oprot.writeI64(struct.cachedClassCount);
+        oprot.writeFieldEnd();
+      }
       if (struct.metadata != null) {
         if (struct.isSetMetadata()) {
           oprot.writeFieldBegin(METADATA_FIELD_DESC);
@@ -827,10 +995,16 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       if (struct.isSetCpuLoad()) {
         optionals.set(4);
       }
-      if (struct.isSetMetadata()) {
+      if (struct.isSetClassPoolCount()) {
         optionals.set(5);
       }
-      oprot.writeBitSet(optionals, 6);
+      if (struct.isSetCachedClassCount()) {
+        optionals.set(6);
+      }
+      if (struct.isSetMetadata()) {
+        optionals.set(7);
+      }
+      oprot.writeBitSet(optionals, 8);
       if (struct.isSetAgentId()) {
         oprot.writeString(struct.agentId);
       }
@@ -846,6 +1020,12 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       if (struct.isSetCpuLoad()) {
         struct.cpuLoad.write(oprot);
       }
+      if (struct.isSetClassPoolCount()) {
+        oprot.writeI64(struct.classPoolCount);
+      }
+      if (struct.isSetCachedClassCount()) {
+        oprot.writeI64(struct.cachedClassCount);
+      }
       if (struct.isSetMetadata()) {
         oprot.writeString(struct.metadata);
       }
@@ -854,7 +1034,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     @Override
     public void read(org.apache.thrift.protocol.TProtocol prot, TAgentStat struct) throws org.apache.thrift.TException {
       TTupleProtocol iprot = (TTupleProtocol) prot;
-      BitSet incoming = iprot.readBitSet(6);
+      BitSet incoming = iprot.readBitSet(8);
       if (incoming.get(0)) {
         struct.agentId = iprot.readString();
         struct.setAgentIdIsSet(true);
@@ -878,6 +1058,14 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         struct.setCpuLoadIsSet(true);
       }
       if (incoming.get(5)) {
+        struct.classPoolCount = iprot.readI64();
+        struct.setClassPoolCountIsSet(true);
+      }
+      if (incoming.get(6)) {
+        struct.cachedClassCount = iprot.readI64();
+        struct.setCachedClassCountIsSet(true);
+      }
+      if (incoming.get(7)) {
         struct.metadata = iprot.readString();
         struct.setMetadataIsSet(true);
       }
@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.thrift.io;
 
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 
 import org.apache.thrift.TBase;
 import org.apache.thrift.TException;
@@ -38,6 +39,10 @@ public class HeaderTBaseSerializer {
     private final TProtocol protocol;
     private final TBaseLocator locator;
 
+    // for serialize(TBase, ByteBuffer)
+    private final ByteBufferOutputStream bufferOutputStream;
+    private final TProtocol bufferProtocol;
+
     /**
      * Create a new HeaderTBaseSerializer. 
      */
@@ -46,6 +51,9 @@ public class HeaderTBaseSerializer {
         TIOStreamTransport transport = new TIOStreamTransport(bos);
         this.protocol = protocolFactory.getProtocol(transport);
         this.locator = locator;
+
+        this.bufferOutputStream = new ByteBufferOutputStream();
+        this.bufferProtocol = protocolFactory.getProtocol(new TIOStreamTransport(bufferOutputStream));
     }
 
     /**
@@ -64,6 +72,35 @@ public class HeaderTBaseSerializer {
         return baos.toByteArray();
     }
     
+    /**
+     * Serialize the Thrift object directly into the target buffer, starting at its current position.
+     * The internal byte array is not used, so a direct buffer can be handed to a channel without copying.
+     * If the object does not fit, the position of the target buffer is restored and TException is thrown.
+     *
+     * @param base The object to serialize
+     * @param target heap or direct buffer
+     * @return number of bytes written
+     */
+    public int serialize(TBase<?, ?> base, ByteBuffer target) throws TException {
+        if (target == null) {
+            throw new NullPointerException("target must not be null");
+        }
+        final Header header = locator.headerLookup(base);
+        final int startPosition = target.position();
+        bufferOutputStream.setBuffer(target);
+        try {
+            writeHeader(bufferProtocol, header);
+            base.write(bufferProtocol);
+        } catch (java.nio.BufferOverflowException e) {
+            target.position(startPosition);
+            bufferProtocol.reset();
+            throw new TException("buffer overflow. remaining:" + (target.limit() - startPosition) + " type:" + header.getType(), e);
+        } finally {
+            bufferOutputStream.setBuffer(null);
+        }
+        return target.position() - startPosition;
+    }
+
     public byte[] continueSerialize(TBase<?, ?> base) throws TException {
         final Header header = locator.headerLookup(base);
         writeHeader(header);
@@ -84,6 +121,10 @@ public class HeaderTBaseSerializer {
     }
 
     private void writeHeader(Header header) throws TException {
+        writeHeader(this.protocol, header);
+    }
+
+    private void writeHeader(TProtocol protocol, Header header) throws TException {
         protocol.writeByte(header.getSignature());
         protocol.writeByte(header.getVersion());
         // fixed size regardless protocol
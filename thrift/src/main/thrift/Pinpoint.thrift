@@ -58,6 +58,8 @@ struct TAgentStat {
     3: optional i64         timestamp
     10: optional TJvmGc     gc
     20: optional TCpuLoad   cpuLoad
+    30: optional i64        classPoolCount
+    31: optional i64        cachedClassCount
     200: optional string    metadata    
 }
 
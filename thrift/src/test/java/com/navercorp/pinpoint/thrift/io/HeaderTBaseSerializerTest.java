@@ -29,6 +29,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -54,6 +55,59 @@ public class HeaderTBaseSerializerTest {
         test(serializer, deserializer);
     }
     
+    @Test
+    public void testSerializeByteBuffer() throws Exception {
+        HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory(false).createSerializer();
+        HeaderTBaseDeserializer deserializer = new HeaderTBaseDeserializerFactory().createDeserializer();
+
+        TAgentInfo tAgentInfo = createAgentInfo();
+        byte[] expected = Arrays.copyOf(serializer.serialize(tAgentInfo), serializer.getInterBufferSize());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        buffer.position(10);
+        int size = serializer.serialize(tAgentInfo, buffer);
+        Assert.assertEquals(expected.length, size);
+        Assert.assertEquals(10 + size, buffer.position());
+
+        buffer.flip();
+        buffer.position(10);
+        byte[] actual = new byte[buffer.remaining()];
+        buffer.get(actual);
+        Assert.assertArrayEquals(expected, actual);
+
+        TAgentInfo deserialize = (TAgentInfo) deserializer.deserialize(actual);
+        Assert.assertEquals(tAgentInfo, deserialize);
+    }
+
+    @Test
+    public void testSerializeByteBufferOverflow() throws Exception {
+        HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory(false).createSerializer();
+
+        TAgentInfo tAgentInfo = createAgentInfo();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.position(2);
+        try {
+            serializer.serialize(tAgentInfo, buffer);
+            Assert.fail("expected overflow");
+        } catch (TException expected) {
+        }
+        Assert.assertEquals(2, buffer.position());
+
+        // reusable after overflow
+        ByteBuffer large = ByteBuffer.allocate(1024);
+        int size = serializer.serialize(tAgentInfo, large);
+        serializer.serialize(tAgentInfo);
+        Assert.assertEquals(serializer.getInterBufferSize(), size);
+    }
+
+    private TAgentInfo createAgentInfo() {
+        TAgentInfo tAgentInfo = new TAgentInfo();
+        tAgentInfo.setAgentId("agentId");
+        tAgentInfo.setHostname("host");
+        tAgentInfo.setApplicationName("applicationName");
+        return tAgentInfo;
+    }
+
     private void test(HeaderTBaseSerializer serializer, HeaderTBaseDeserializer deserializer) throws TException {
 
         Header header = new Header();
@@ -19,10 +19,6 @@ package com.navercorp.pinpoint.web.applicationmap.histogram;
 import com.navercorp.pinpoint.common.trace.HistogramSchema;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.common.trace.SlotType;
-import com.navercorp.pinpoint.web.applicationmap.rawdata.AgentHistogram;
-import com.navercorp.pinpoint.web.applicationmap.rawdata.AgentHistogramList;
-import com.navercorp.pinpoint.web.util.TimeWindow;
-import com.navercorp.pinpoint.web.util.TimeWindowDownSampler;
 import com.navercorp.pinpoint.web.view.AgentResponseTimeViewModel;
 import com.navercorp.pinpoint.web.view.ResponseTimeViewModel;
 import com.navercorp.pinpoint.web.vo.Application;
@@ -44,9 +40,8 @@ public class AgentTimeHistogram {
 
     private final Application application;
     private final Range range;
-    private final TimeWindow window;
 
-    private final AgentHistogramList agentHistogramList;
+    private final TimeHistogramTable histogramTable;
 
     public AgentTimeHistogram(Application application, Range range) {
         if (application == null) {
@@ -57,34 +52,36 @@ public class AgentTimeHistogram {
         }
         this.application = application;
         this.range = range;
-        this.window = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
-        this.agentHistogramList = new AgentHistogramList();
+        this.histogramTable = null;
     }
 
-    public AgentTimeHistogram(Application application, Range range, AgentHistogramList agentHistogramList) {
+    public AgentTimeHistogram(Application application, Range range, TimeHistogramTable histogramTable) {
         if (application == null) {
             throw new NullPointerException("application must not be null");
         }
         if (range == null) {
             throw new NullPointerException("range must not be null");
         }
-        if (agentHistogramList == null) {
-            throw new NullPointerException("agentHistogramList must not be null");
+        if (histogramTable == null) {
+            throw new NullPointerException("histogramTable must not be null");
         }
         this.application = application;
         this.range = range;
-        this.window = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
-        this.agentHistogramList = agentHistogramList;
+        this.histogramTable = histogramTable;
     }
 
 
     public List<AgentResponseTimeViewModel> createViewModel() {
-        final List<AgentResponseTimeViewModel> result = new ArrayList<AgentResponseTimeViewModel>();
-        for (AgentHistogram agentHistogram : agentHistogramList.getAgentHistogramList()) {
-            Application agentId = agentHistogram.getAgentId();
-            List<TimeHistogram> timeList = sortTimeHistogram(agentHistogram.getTimeHistogram());
-            AgentResponseTimeViewModel model = createAgentResponseTimeViewModel(agentId, timeList);
-            result.add(model);
+        if (histogramTable == null) {
+            return new ArrayList<AgentResponseTimeViewModel>();
+        }
+        final List<Application> agentList = histogramTable.getAgentList();
+        final List<AgentResponseTimeViewModel> result = new ArrayList<AgentResponseTimeViewModel>(agentList.size());
+        final long[] timeStamps = histogramTable.getTimeStamps();
+        for (int agentOrdinal = 0; agentOrdinal < agentList.size(); agentOrdinal++) {
+            Application agentId = agentList.get(agentOrdinal);
+            List<ResponseTimeViewModel> responseTimeViewModel = createResponseTimeViewModel(agentOrdinal, timeStamps);
+            result.add(new AgentResponseTimeViewModel(agentId, responseTimeViewModel));
         }
         Collections.sort(result, new Comparator<AgentResponseTimeViewModel>() {
             @Override
@@ -95,40 +92,20 @@ public class AgentTimeHistogram {
         return result;
     }
 
-    private List<TimeHistogram> sortTimeHistogram(Collection<TimeHistogram> timeMap) {
-        List<TimeHistogram> timeList = new ArrayList<TimeHistogram>(timeMap);
-        Collections.sort(timeList, TimeHistogram.TIME_STAMP_ASC_COMPARATOR);
-        return timeList;
-    }
-
-
-    private AgentResponseTimeViewModel createAgentResponseTimeViewModel(Application agentName, List<TimeHistogram> timeHistogramList) {
-        List<ResponseTimeViewModel> responseTimeViewModel = createResponseTimeViewModel(timeHistogramList);
-        AgentResponseTimeViewModel agentResponseTimeViewModel = new AgentResponseTimeViewModel(agentName, responseTimeViewModel);
-        return agentResponseTimeViewModel;
-    }
-
-    public List<ResponseTimeViewModel> createResponseTimeViewModel(List<TimeHistogram> timeHistogramList) {
+    private List<ResponseTimeViewModel> createResponseTimeViewModel(int agentOrdinal, long[] timeStamps) {
         final List<ResponseTimeViewModel> value = new ArrayList<ResponseTimeViewModel>(5);
         ServiceType serviceType = application.getServiceType();
         HistogramSchema schema = serviceType.getHistogramSchema();
-        value.add(new ResponseTimeViewModel(schema.getFastSlot().getSlotName(), getColumnValue(SlotType.FAST, timeHistogramList)));
-        value.add(new ResponseTimeViewModel(schema.getNormalSlot().getSlotName(), getColumnValue(SlotType.NORMAL, timeHistogramList)));
-        value.add(new ResponseTimeViewModel(schema.getSlowSlot().getSlotName(), getColumnValue(SlotType.SLOW, timeHistogramList)));
-        value.add(new ResponseTimeViewModel(schema.getVerySlowSlot().getSlotName(), getColumnValue(SlotType.VERY_SLOW, timeHistogramList)));
-        value.add(new ResponseTimeViewModel(schema.getErrorSlot().getSlotName(), getColumnValue(SlotType.ERROR, timeHistogramList)));
+        // the time stamp array is shared by every column, view models are read only
+        value.add(new ResponseTimeViewModel(schema.getFastSlot().getSlotName(), timeStamps, histogramTable.getAgentTimeSeries(agentOrdinal, SlotType.FAST)));
+        value.add(new ResponseTimeViewModel(schema.getNormalSlot().getSlotName(), timeStamps, histogramTable.getAgentTimeSeries(agentOrdinal, SlotType.NORMAL)));
+        value.add(new ResponseTimeViewModel(schema.getSlowSlot().getSlotName(), timeStamps, histogramTable.getAgentTimeSeries(agentOrdinal, SlotType.SLOW)));
+        value.add(new ResponseTimeViewModel(schema.getVerySlowSlot().getSlotName(), timeStamps, histogramTable.getAgentTimeSeries(agentOrdinal, SlotType.VERY_SLOW)));
+        value.add(new ResponseTimeViewModel(schema.getErrorSlot().getSlotName(), timeStamps, histogramTable.getAgentTimeSeries(agentOrdinal, SlotType.ERROR)));
         return value;
     }
 
-    public List<ResponseTimeViewModel.TimeCount> getColumnValue(SlotType slotType, List<TimeHistogram> timeHistogramList) {
-        List<ResponseTimeViewModel.TimeCount> result = new ArrayList<ResponseTimeViewModel.TimeCount>(timeHistogramList.size());
-        for (TimeHistogram timeHistogram : timeHistogramList) {
-            result.add(new ResponseTimeViewModel.TimeCount(timeHistogram.getTimeStamp(), getCount(timeHistogram, slotType)));
-        }
-        return result;
-    }
-
-    public long getCount(TimeHistogram timeHistogram, SlotType slotType) {
-        return timeHistogram.getCount(slotType);
+    public TimeHistogramTable getHistogramTable() {
+        return histogramTable;
     }
 }
@@ -56,8 +56,17 @@ public class AgentTimeHistogramBuilder {
 
 
     public AgentTimeHistogram build(List<ResponseTime> responseHistogramList) {
-        AgentHistogramList agentHistogramList = new AgentHistogramList(application, responseHistogramList);
-        return build(agentHistogramList);
+        if (responseHistogramList == null) {
+            throw new NullPointerException("responseHistogramList must not be null");
+        }
+        final TimeHistogramTable histogramTable = newHistogramTable();
+        for (ResponseTime responseTime : responseHistogramList) {
+            for (Map.Entry<String, TimeHistogram> agentEntry : responseTime.getAgentHistogram()) {
+                final Application agentId = new Application(agentEntry.getKey(), application.getServiceType());
+                histogramTable.add(agentId, agentEntry.getValue());
+            }
+        }
+        return new AgentTimeHistogram(application, range, histogramTable);
     }
 
     public AgentTimeHistogram buildSource(LinkCallDataMap linkCallDataMap) {
@@ -76,40 +85,21 @@ public class AgentTimeHistogramBuilder {
 
 
     private AgentTimeHistogram build(AgentHistogramList agentHistogramList) {
-        AgentHistogramList histogramList = interpolation(agentHistogramList, window);
-        AgentTimeHistogram agentTimeHistogram = new AgentTimeHistogram(application, range, histogramList);
-        return agentTimeHistogram;
-    }
-
-
-    private AgentHistogramList interpolation(AgentHistogramList agentHistogramList, TimeWindow window) {
-        if (agentHistogramList.size() == 0) {
-            return new AgentHistogramList();
-        }
-
-        // create window space. Prior to using a AgentHistogramList, we used a raw data structure.
-        // could've been a list, but since range overflow may occur when applying filters, we use a map instead.
-        // TODO: find better structure
-        final AgentHistogramList resultAgentHistogramList = new AgentHistogramList();
-        for (AgentHistogram agentHistogram : agentHistogramList.getAgentHistogramList()) {
-            List<TimeHistogram> timeHistogramList = new ArrayList<TimeHistogram>();
-            for (Long time : window) {
-                timeHistogramList.add(new TimeHistogram(application.getServiceType(), time));
-            }
-            resultAgentHistogramList.addTimeHistogram(agentHistogram.getAgentId(), timeHistogramList);
-        }
-
+        // the window interpolation is done by the table index. a timestamp out of the window goes to the nearest slot
+        final TimeHistogramTable histogramTable = newHistogramTable();
         for (AgentHistogram agentHistogram : agentHistogramList.getAgentHistogramList()) {
+            final Application agentId = agentHistogram.getAgentId();
+            // register the agent even if it has no histogram, the view shows an empty time series
+            histogramTable.getAgentOrdinal(agentId);
             for (TimeHistogram timeHistogram : agentHistogram.getTimeHistogram()) {
-                final Long time = window.refineTimestamp(timeHistogram.getTimeStamp());
-                Application agentId = agentHistogram.getAgentId();
-                TimeHistogram windowHistogram = new TimeHistogram(timeHistogram.getHistogramSchema(), time);
-                windowHistogram.add(timeHistogram);
-                resultAgentHistogramList.addTimeHistogram(agentId, windowHistogram);
+                histogramTable.add(agentId, timeHistogram);
             }
         }
+        return new AgentTimeHistogram(application, range, histogramTable);
+    }
 
-        return resultAgentHistogramList;
+    private TimeHistogramTable newHistogramTable() {
+        return new TimeHistogramTable(application.getServiceType().getHistogramSchema(), window);
     }
 
 
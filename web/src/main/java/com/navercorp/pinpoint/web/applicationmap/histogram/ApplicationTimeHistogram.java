@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 
 /**
+ * application level time series. the counts of every agent are summed up from the {@link TimeHistogramTable}
  * @author emeroad
  */
 public class ApplicationTimeHistogram {
@@ -38,55 +39,61 @@ public class ApplicationTimeHistogram {
     private final Application application;
     private final Range range;
 
-    private List<TimeHistogram> histogramList;
+    private final TimeHistogramTable histogramTable;
 
     public ApplicationTimeHistogram(Application application, Range range) {
-        this(application, range, Collections.<TimeHistogram>emptyList());
+        if (application == null) {
+            throw new NullPointerException("application must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        this.application = application;
+        this.range = range;
+        this.histogramTable = null;
     }
 
-    public ApplicationTimeHistogram(Application application, Range range, List<TimeHistogram> histogramList) {
+    public ApplicationTimeHistogram(Application application, Range range, TimeHistogramTable histogramTable) {
         if (application == null) {
             throw new NullPointerException("application must not be null");
         }
         if (range == null) {
             throw new NullPointerException("range must not be null");
         }
-        if (histogramList == null) {
-            throw new NullPointerException("histogramList must not be null");
+        if (histogramTable == null) {
+            throw new NullPointerException("histogramTable must not be null");
         }
         this.application = application;
         this.range = range;
-        this.histogramList = histogramList;
+        this.histogramTable = histogramTable;
     }
 
     public List<ResponseTimeViewModel> createViewModel() {
         final List<ResponseTimeViewModel> value = new ArrayList<ResponseTimeViewModel>(5);
         ServiceType serviceType = application.getServiceType();
         HistogramSchema schema = serviceType.getHistogramSchema();
-        value.add(new ResponseTimeViewModel(schema.getFastSlot().getSlotName(), getColumnValue(SlotType.FAST)));
-        value.add(new ResponseTimeViewModel(schema.getNormalSlot().getSlotName(), getColumnValue(SlotType.NORMAL)));
-        value.add(new ResponseTimeViewModel(schema.getSlowSlot().getSlotName(), getColumnValue(SlotType.SLOW)));
-        value.add(new ResponseTimeViewModel(schema.getVerySlowSlot().getSlotName(), getColumnValue(SlotType.VERY_SLOW)));
-        value.add(new ResponseTimeViewModel(schema.getErrorSlot().getSlotName(), getColumnValue(SlotType.ERROR)));
+        value.add(createResponseTimeViewModel(schema.getFastSlot().getSlotName(), SlotType.FAST));
+        value.add(createResponseTimeViewModel(schema.getNormalSlot().getSlotName(), SlotType.NORMAL));
+        value.add(createResponseTimeViewModel(schema.getSlowSlot().getSlotName(), SlotType.SLOW));
+        value.add(createResponseTimeViewModel(schema.getVerySlowSlot().getSlotName(), SlotType.VERY_SLOW));
+        value.add(createResponseTimeViewModel(schema.getErrorSlot().getSlotName(), SlotType.ERROR));
         return value;
 
     }
 
-    public List<ResponseTimeViewModel.TimeCount> getColumnValue(SlotType slotType) {
-        List<ResponseTimeViewModel.TimeCount> result = new ArrayList<ResponseTimeViewModel.TimeCount>(histogramList.size());
-        for (TimeHistogram timeHistogram : histogramList) {
-            final long timeStamp = timeHistogram.getTimeStamp();
-
-            ResponseTimeViewModel.TimeCount TimeCount = new ResponseTimeViewModel.TimeCount(timeStamp, getCount(timeHistogram, slotType));
-            result.add(TimeCount);
+    private ResponseTimeViewModel createResponseTimeViewModel(String columnName, SlotType slotType) {
+        if (histogramTable == null) {
+            return new ResponseTimeViewModel(columnName, new long[0], new long[0]);
         }
-        return result;
+        return new ResponseTimeViewModel(columnName, histogramTable.getTimeStamps(), histogramTable.getTimeSeries(slotType));
     }
 
-
-    public long getCount(TimeHistogram timeHistogram, SlotType slotType) {
-        return timeHistogram.getCount(slotType);
+    public List<ResponseTimeViewModel.TimeCount> getColumnValue(SlotType slotType) {
+        return createResponseTimeViewModel(slotType.name(), slotType).getColumnValue();
     }
 
+    public TimeHistogramTable getHistogramTable() {
+        return histogramTable;
+    }
 
 }
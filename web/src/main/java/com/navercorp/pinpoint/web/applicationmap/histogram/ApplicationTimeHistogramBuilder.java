@@ -57,81 +57,35 @@ public class ApplicationTimeHistogramBuilder {
             throw new NullPointerException("responseHistogramList must not be null");
         }
 
-        Map<Long, TimeHistogram> applicationLevelHistogram = new HashMap<Long, TimeHistogram>();
-
+        // application level table has a single row. the window interpolation is done by the table index
+        final TimeHistogramTable histogramTable = new TimeHistogramTable(application.getServiceType().getHistogramSchema(), window);
         for (ResponseTime responseTime : responseHistogramList) {
-            final Long timeStamp = responseTime.getTimeStamp();
-            TimeHistogram timeHistogram = applicationLevelHistogram.get(timeStamp);
-            if (timeHistogram == null) {
-                timeHistogram = new TimeHistogram(application.getServiceType(), timeStamp);
-                applicationLevelHistogram.put(timeStamp, timeHistogram);
-            }
             // add each agent-level data
             Histogram applicationResponseHistogram = responseTime.getApplicationResponseHistogram();
-            timeHistogram.add(applicationResponseHistogram);
+            histogramTable.add(application, responseTime.getTimeStamp(), applicationResponseHistogram);
         }
 
-
-//        Collections.sort(histogramList, TimeHistogram.TIME_STAMP_ASC_COMPARATOR);
-        List<TimeHistogram> histogramList = interpolation(applicationLevelHistogram.values());
         if (logger.isTraceEnabled()) {
-            for (TimeHistogram histogram : histogramList) {
-                logger.trace("applicationLevel histogram:{}", histogram);
-            }
+            logger.trace("applicationLevel histogram:{}", histogramTable);
         }
-        ApplicationTimeHistogram applicationTimeHistogram = new ApplicationTimeHistogram(application, range, histogramList);
+        ApplicationTimeHistogram applicationTimeHistogram = new ApplicationTimeHistogram(application, range, histogramTable);
         return applicationTimeHistogram;
     }
 
     public ApplicationTimeHistogram build(Collection<LinkCallData> linkCallDataMapList) {
-        Map<Long, TimeHistogram> applicationLevelHistogram = new HashMap<Long, TimeHistogram>();
+        final TimeHistogramTable histogramTable = new TimeHistogramTable(application.getServiceType().getHistogramSchema(), window);
         for (LinkCallData linkCallData : linkCallDataMapList) {
             for (TimeHistogram timeHistogram : linkCallData.getTimeHistogram()) {
-                Long timeStamp = timeHistogram.getTimeStamp();
-                TimeHistogram histogram = applicationLevelHistogram.get(timeStamp);
-                if (histogram == null) {
-                    histogram = new TimeHistogram(timeHistogram.getHistogramSchema(), timeStamp);
-                    applicationLevelHistogram.put(timeStamp, histogram);
-                }
-                histogram.add(timeHistogram);
+                histogramTable.add(application, timeHistogram);
             }
         }
 
-        List<TimeHistogram> histogramList = interpolation(applicationLevelHistogram.values());
         if (logger.isTraceEnabled()) {
-            for (TimeHistogram histogram : histogramList) {
-                logger.trace("applicationLevel histogram:{}", histogram);
-            }
+            logger.trace("applicationLevel histogram:{}", histogramTable);
         }
-        ApplicationTimeHistogram applicationTimeHistogram = new ApplicationTimeHistogram(application, range, histogramList);
+        ApplicationTimeHistogram applicationTimeHistogram = new ApplicationTimeHistogram(application, range, histogramTable);
         return applicationTimeHistogram;
 
     }
 
-    private List<TimeHistogram> interpolation(Collection<TimeHistogram> histogramList) {
-        // upon individual span query, "window time" alone may not be enough
-        //
-        Map<Long, TimeHistogram> resultMap = new HashMap<Long, TimeHistogram>();
-        for (Long time : window) {
-            resultMap.put(time, new TimeHistogram(application.getServiceType(), time));
-        }
-
-
-        for (TimeHistogram timeHistogram : histogramList) {
-            long time = window.refineTimestamp(timeHistogram.getTimeStamp());
-
-            TimeHistogram windowHistogram = resultMap.get(time);
-            if (windowHistogram == null) {
-                windowHistogram = new TimeHistogram(application.getServiceType(), time);
-                resultMap.put(time, windowHistogram);
-            }
-            windowHistogram.add(timeHistogram);
-        }
-
-
-        List<TimeHistogram> resultList = new ArrayList<TimeHistogram>(resultMap.values());
-        Collections.sort(resultList, TimeHistogram.TIME_STAMP_ASC_COMPARATOR);
-        return resultList;
-    }
-
 }
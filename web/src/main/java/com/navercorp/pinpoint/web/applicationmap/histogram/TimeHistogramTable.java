@@ -0,0 +1,302 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.applicationmap.histogram;
+
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.SlotType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * columnar time series histogram of the agents of an application.
+ * the counts of a slot type are kept in a single long[] indexed by (agent ordinal * time size + window index),
+ * instead of a {@link TimeHistogram} object per agent per window slot. merge and sum are plain loops over the arrays.
+ * <p>
+ * a count outside of the window is dropped, but the agent is still added to the table.
+ * not thread safe.
+ *
+ * @author agent
+ */
+public class TimeHistogramTable {
+
+    private static final SlotType[] SLOT_TYPES = SlotType.values();
+    private static final int DEFAULT_AGENT_CAPACITY = 4;
+
+    private final HistogramSchema schema;
+    private final TimeWindow window;
+    private final int timeSize;
+    private final long windowFrom;
+
+    private final Map<Application, Integer> agentOrdinalMap = new HashMap<Application, Integer>();
+    private final List<Application> agentList = new ArrayList<Application>();
+
+    // [slotType.ordinal()][agentOrdinal * timeSize + timeIndex]
+    private final long[][] columns = new long[SLOT_TYPES.length][];
+
+    public TimeHistogramTable(HistogramSchema schema, TimeWindow window) {
+        if (schema == null) {
+            throw new NullPointerException("schema must not be null");
+        }
+        if (window == null) {
+            throw new NullPointerException("window must not be null");
+        }
+        this.schema = schema;
+        this.window = window;
+        this.timeSize = (int) window.getWindowRangeCount();
+        this.windowFrom = window.getWindowRange().getFrom();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new long[DEFAULT_AGENT_CAPACITY * timeSize];
+        }
+    }
+
+    public int getAgentOrdinal(Application agent) {
+        if (agent == null) {
+            throw new NullPointerException("agent must not be null");
+        }
+        final Integer ordinal = agentOrdinalMap.get(agent);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        final int newOrdinal = agentList.size();
+        ensureCapacity(newOrdinal + 1);
+        agentOrdinalMap.put(agent, newOrdinal);
+        agentList.add(agent);
+        return newOrdinal;
+    }
+
+    private void ensureCapacity(int agentSize) {
+        final int required = agentSize * timeSize;
+        if (columns[0].length >= required) {
+            return;
+        }
+        final int newLength = Math.max(columns[0].length * 2, required);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Arrays.copyOf(columns[i], newLength);
+        }
+    }
+
+    /**
+     * @return -1 if the timestamp is outside of the window
+     */
+    int getTimeIndex(long timestamp) {
+        final int index = window.getWindowIndex(window.refineTimestamp(timestamp));
+        if (index < 0 || index >= timeSize) {
+            return -1;
+        }
+        return index;
+    }
+
+    public void addCallCount(Application agent, long timestamp, short slotTime, long count) {
+        final int agentOrdinal = getAgentOrdinal(agent);
+        final SlotType slotType = findSlotType(slotTime);
+        final int timeIndex = getTimeIndex(timestamp);
+        if (timeIndex == -1) {
+            return;
+        }
+        columns[slotType.ordinal()][agentOrdinal * timeSize + timeIndex] += count;
+    }
+
+    /**
+     * same slot mapping as {@link Histogram#addCallCount(short, long)}
+     */
+    private SlotType findSlotType(short slotTime) {
+        if (slotTime == schema.getVerySlowSlot().getSlotTime()) {
+            return SlotType.VERY_SLOW;
+        }
+        if (slotTime == schema.getErrorSlot().getSlotTime()) {
+            return SlotType.ERROR;
+        }
+        if (slotTime <= schema.getFastSlot().getSlotTime()) {
+            return SlotType.FAST;
+        }
+        if (slotTime <= schema.getNormalSlot().getSlotTime()) {
+            return SlotType.NORMAL;
+        }
+        if (slotTime <= schema.getSlowSlot().getSlotTime()) {
+            return SlotType.SLOW;
+        }
+        throw new IllegalArgumentException("slot not found slotTime:" + slotTime);
+    }
+
+    public void add(Application agent, TimeHistogram timeHistogram) {
+        if (timeHistogram == null) {
+            throw new NullPointerException("timeHistogram must not be null");
+        }
+        add(agent, timeHistogram.getTimeStamp(), timeHistogram);
+    }
+
+    public void add(Application agent, long timestamp, Histogram histogram) {
+        if (histogram == null) {
+            throw new NullPointerException("histogram must not be null");
+        }
+        final int agentOrdinal = getAgentOrdinal(agent);
+        final int timeIndex = getTimeIndex(timestamp);
+        if (timeIndex == -1) {
+            return;
+        }
+        final int offset = agentOrdinal * timeSize + timeIndex;
+        for (SlotType slotType : SLOT_TYPES) {
+            columns[slotType.ordinal()][offset] += histogram.getCount(slotType);
+        }
+    }
+
+    /**
+     * adds every count of the other table. the tables must have the same window.
+     */
+    public void merge(TimeHistogramTable other) {
+        if (other == null) {
+            throw new NullPointerException("other must not be null");
+        }
+        if (other.timeSize != this.timeSize || other.windowFrom != this.windowFrom || other.window.getWindowSlotSize() != this.window.getWindowSlotSize()) {
+            throw new IllegalArgumentException("window not equals");
+        }
+        final int timeSize = this.timeSize;
+        for (int otherOrdinal = 0; otherOrdinal < other.agentList.size(); otherOrdinal++) {
+            final int srcOffset = otherOrdinal * timeSize;
+            final int dstOffset = getAgentOrdinal(other.agentList.get(otherOrdinal)) * timeSize;
+            for (int slot = 0; slot < columns.length; slot++) {
+                final long[] src = other.columns[slot];
+                final long[] dst = this.columns[slot];
+                for (int i = 0; i < timeSize; i++) {
+                    dst[dstOffset + i] += src[srcOffset + i];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return count of every agent for each window slot
+     */
+    public long[] getTimeSeries(SlotType slotType) {
+        if (slotType == null) {
+            throw new NullPointerException("slotType must not be null");
+        }
+        final long[] column = columns[slotType.ordinal()];
+        final int timeSize = this.timeSize;
+        final long[] result = new long[timeSize];
+        final int agentSize = agentList.size();
+        for (int agent = 0; agent < agentSize; agent++) {
+            final int offset = agent * timeSize;
+            for (int i = 0; i < timeSize; i++) {
+                result[i] += column[offset + i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return count of the agent for each window slot
+     */
+    public long[] getAgentTimeSeries(int agentOrdinal, SlotType slotType) {
+        if (slotType == null) {
+            throw new NullPointerException("slotType must not be null");
+        }
+        checkAgentOrdinal(agentOrdinal);
+        final int offset = agentOrdinal * timeSize;
+        return Arrays.copyOfRange(columns[slotType.ordinal()], offset, offset + timeSize);
+    }
+
+    public Histogram getAgentHistogram(int agentOrdinal) {
+        checkAgentOrdinal(agentOrdinal);
+        final Histogram histogram = new Histogram(schema);
+        final int offset = agentOrdinal * timeSize;
+        for (SlotType slotType : SLOT_TYPES) {
+            final long[] column = columns[slotType.ordinal()];
+            long sum = 0;
+            for (int i = 0; i < timeSize; i++) {
+                sum += column[offset + i];
+            }
+            addCount(histogram, slotType, sum);
+        }
+        return histogram;
+    }
+
+    private void addCount(Histogram histogram, SlotType slotType, long count) {
+        if (count == 0) {
+            return;
+        }
+        switch (slotType) {
+            case FAST:
+                histogram.addCallCount(schema.getFastSlot().getSlotTime(), count);
+                return;
+            case NORMAL:
+                histogram.addCallCount(schema.getNormalSlot().getSlotTime(), count);
+                return;
+            case SLOW:
+                histogram.addCallCount(schema.getSlowSlot().getSlotTime(), count);
+                return;
+            case VERY_SLOW:
+                histogram.addCallCount(schema.getVerySlowSlot().getSlotTime(), count);
+                return;
+            case ERROR:
+                histogram.addCallCount(schema.getErrorSlot().getSlotTime(), count);
+                return;
+        }
+        throw new IllegalArgumentException("slotType:" + slotType);
+    }
+
+    private void checkAgentOrdinal(int agentOrdinal) {
+        if (agentOrdinal < 0 || agentOrdinal >= agentList.size()) {
+            throw new IndexOutOfBoundsException("agentOrdinal:" + agentOrdinal + " agentSize:" + agentList.size());
+        }
+    }
+
+    public long getTimeStamp(int timeIndex) {
+        return windowFrom + timeIndex * window.getWindowSlotSize();
+    }
+
+    public long[] getTimeStamps() {
+        final long[] timeStamps = new long[timeSize];
+        for (int i = 0; i < timeSize; i++) {
+            timeStamps[i] = getTimeStamp(i);
+        }
+        return timeStamps;
+    }
+
+    public List<Application> getAgentList() {
+        return agentList;
+    }
+
+    public int getAgentSize() {
+        return agentList.size();
+    }
+
+    public int getTimeSize() {
+        return timeSize;
+    }
+
+    public HistogramSchema getHistogramSchema() {
+        return schema;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeHistogramTable{" +
+                "schema=" + schema +
+                ", windowFrom=" + windowFrom +
+                ", timeSize=" + timeSize +
+                ", agentList=" + agentList +
+                '}';
+    }
+}
@@ -22,7 +22,6 @@ import com.navercorp.pinpoint.web.service.AgentInfoService;
 import com.navercorp.pinpoint.web.service.AgentStatService;
 import com.navercorp.pinpoint.web.util.TimeWindow;
 import com.navercorp.pinpoint.web.util.TimeWindowSlotCentricSampler;
-import com.navercorp.pinpoint.web.vo.AgentStat;
 import com.navercorp.pinpoint.web.vo.ApplicationAgentList;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
@@ -36,8 +35,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import java.util.List;
-
 /**
  * @author emeroad
  * @author minwoo.jung
@@ -64,12 +61,10 @@ public class AgentStatController {
             @RequestParam("to") long to,
             @RequestParam(value = "sampleRate", required = false) Integer sampleRate) throws Exception {
         StopWatch watch = new StopWatch();
-        watch.start("agentStatService.selectAgentStatList");
+        watch.start("agentStatService.selectAgentStatChart");
         TimeWindow timeWindow = new TimeWindow(new Range(from, to), new TimeWindowSlotCentricSampler());
-        long scanFrom = timeWindow.getWindowRange().getFrom();
-        long scanTo = timeWindow.getWindowRange().getTo() + timeWindow.getWindowSlotSize();
-        Range rangeToScan = new Range(scanFrom, scanTo);
-        List<AgentStat> agentStatList = agentStatService.selectAgentStatList(agentId, rangeToScan);
+        // agent stats are folded into the timeslots while scanning
+        AgentStatChartGroup chartGroup = agentStatService.selectAgentStatChart(agentId, timeWindow);
         watch.stop();
 
         if (logger.isInfoEnabled()) {
@@ -82,10 +77,6 @@ public class AgentStatController {
 //            sampleRate = nPoints < 300 ? 1 : nPoints / 300;
 //        }
 
-        AgentStatChartGroup chartGroup = new AgentStatChartGroup(timeWindow);
-        chartGroup.addAgentStats(agentStatList);
-        chartGroup.buildCharts();
-
         return chartGroup;
     }
 
@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.web.controller;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -23,7 +24,11 @@ import java.util.TreeSet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.common.util.DateUtils;
 import com.navercorp.pinpoint.web.filter.Filter;
 import com.navercorp.pinpoint.web.filter.FilterBuilder;
@@ -33,6 +38,8 @@ import com.navercorp.pinpoint.web.util.LimitUtils;
 import com.navercorp.pinpoint.web.util.TimeUtils;
 import com.navercorp.pinpoint.web.vo.*;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
 import com.navercorp.pinpoint.web.vo.scatter.ScatterIndex;
 
 import org.slf4j.Logger;
@@ -80,6 +87,8 @@ public class ScatterChartController {
     private static final String PREFIX_TIME = "T";
     private static final String PREFIX_RESPONSE_TIME = "R";
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Deprecated
     @RequestMapping(value = "/scatterpopup", method = RequestMethod.GET)
     public String scatterPopup(Model model,
@@ -193,6 +202,192 @@ public class ScatterChartController {
         return mv;
     }
 
+    /**
+     * streams the scatter data while the trace index is scanned, so the response does not hold every dot in memory.
+     * the dots of each scanned batch are flushed as a chunk.
+     * if the limit is reached, the response has a cursor. pass its acceptedTime and transactionId to get the next page.
+     *
+     * @param applicationName
+     * @param from
+     * @param to
+     * @param limit
+     * @param cursorTime acceptedTime of the cursor returned by the previous page
+     * @param cursorTransactionId transactionId of the cursor returned by the previous page
+     * @param response
+     * @throws IOException
+     */
+    @RequestMapping(value = "/getScatterDataStream", method = RequestMethod.GET)
+    public void getScatterDataStream(
+                                @RequestParam("application") String applicationName,
+                                @RequestParam("from") long from,
+                                @RequestParam("to") long to,
+                                @RequestParam("limit") int limit,
+                                @RequestParam(value = "cursorTime", required = false, defaultValue = "-1") long cursorTime,
+                                @RequestParam(value = "cursorTransactionId", required = false) String cursorTransactionId,
+                                HttpServletResponse response) throws IOException {
+        limit = LimitUtils.checkRange(limit);
+
+        StopWatch watch = new StopWatch();
+        watch.start("selectScatterDataStream");
+
+        final Range range = Range.createUncheckedRange(from, to);
+        ScatterCursor cursor = null;
+        if (cursorTransactionId != null) {
+            cursor = new ScatterCursor(cursorTime, new TransactionId(cursorTransactionId));
+        }
+        logger.debug("stream scatter data. {}, LIMIT={}, CURSOR={}", range, limit, cursor);
+
+        response.setContentType("application/json;charset=UTF-8");
+        final JsonGenerator jsonGenerator = MAPPER.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        try {
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeObjectField("scatterIndex", ScatterIndex.MATA_DATA);
+            jsonGenerator.writeArrayFieldStart("scatter");
+
+            final DotStreamWriter dotStreamWriter = new DotStreamWriter(jsonGenerator);
+            final ScatterCursor nextCursor = scatter.selectScatterData(applicationName, range, limit, cursor, dotStreamWriter);
+
+            jsonGenerator.writeEndArray();
+            if (dotStreamWriter.getLastDot() == null) {
+                jsonGenerator.writeNumberField("resultFrom", -1);
+                jsonGenerator.writeNumberField("resultTo", -1);
+            } else {
+                jsonGenerator.writeNumberField("resultFrom", dotStreamWriter.getLastDot().getAcceptedTime());
+                jsonGenerator.writeNumberField("resultTo", range.getTo());
+            }
+            if (nextCursor == null) {
+                jsonGenerator.writeNullField("cursor");
+            } else {
+                jsonGenerator.writeObjectFieldStart("cursor");
+                jsonGenerator.writeNumberField("acceptedTime", nextCursor.getAcceptedTime());
+                jsonGenerator.writeStringField("transactionId", nextCursor.getTransactionId().getFormatString());
+                jsonGenerator.writeEndObject();
+            }
+            jsonGenerator.writeEndObject();
+        } finally {
+            jsonGenerator.close();
+        }
+
+        watch.stop();
+        logger.info("Stream scatterData time : {}ms", watch.getLastTaskTimeMillis());
+    }
+
+    /**
+     * scatter chart as a density grid, for time ranges with too many dots to draw.
+     *
+     * @param applicationName
+     * @param from
+     * @param to
+     * @param xCount number of time buckets
+     * @param yCount number of elapsed time buckets
+     * @param maxElapsed upper bound of the elapsed time axis. slower transactions are counted in the top bucket
+     * @param jsonpCallback
+     * @param response 400 if xCount, yCount or maxElapsed is out of range
+     * @return
+     */
+    @RequestMapping(value = "/getScatterHeatmap", method = RequestMethod.GET)
+    public ModelAndView getScatterHeatmap(
+                                @RequestParam("application") String applicationName,
+                                @RequestParam("from") long from,
+                                @RequestParam("to") long to,
+                                @RequestParam(value = "xCount", required = false, defaultValue = "100") int xCount,
+                                @RequestParam(value = "yCount", required = false, defaultValue = "50") int yCount,
+                                @RequestParam(value = "maxElapsed", required = false, defaultValue = "10000") int maxElapsed,
+                                @RequestParam(value = "_callback", required = false) String jsonpCallback,
+                                HttpServletResponse response) throws IOException {
+        if (!checkHeatmapGrid(xCount, yCount, maxElapsed, response)) {
+            return null;
+        }
+        StopWatch watch = new StopWatch();
+        watch.start("selectScatterHeatmap");
+
+        final Range range = new Range(from, to);
+        logger.debug("fetch scatter heatmap. {}, xCount={}, yCount={}, maxElapsed={}", range, xCount, yCount, maxElapsed);
+        final ScatterHeatmap heatmap = scatter.selectScatterHeatmap(applicationName, range, xCount, yCount, maxElapsed);
+
+        watch.stop();
+        logger.info("Fetch scatterHeatmap time : {}ms", watch.getLastTaskTimeMillis());
+
+        ModelAndView mv = new ModelAndView();
+        mv.addObject("heatmap", heatmap);
+        if (jsonpCallback == null) {
+            mv.setViewName("jsonView");
+        } else {
+            mv.setViewName("jsonpView");
+        }
+        return mv;
+    }
+
+    /**
+     * dots of a heatmap cell. the cell is resolved with the same grid parameters as {@link #getScatterHeatmap}.
+     */
+    @RequestMapping(value = "/getScatterHeatmapCell", method = RequestMethod.GET)
+    public ModelAndView getScatterHeatmapCell(
+                                @RequestParam("application") String applicationName,
+                                @RequestParam("from") long from,
+                                @RequestParam("to") long to,
+                                @RequestParam(value = "xCount", required = false, defaultValue = "100") int xCount,
+                                @RequestParam(value = "yCount", required = false, defaultValue = "50") int yCount,
+                                @RequestParam(value = "maxElapsed", required = false, defaultValue = "10000") int maxElapsed,
+                                @RequestParam("x") int x,
+                                @RequestParam("y") int y,
+                                @RequestParam("limit") int limit,
+                                @RequestParam(value = "_callback", required = false) String jsonpCallback,
+                                HttpServletResponse response) throws IOException {
+        if (!checkHeatmapGrid(xCount, yCount, maxElapsed, response)) {
+            return null;
+        }
+        limit = LimitUtils.checkRange(limit);
+
+        final ScatterHeatmap grid = new ScatterHeatmap(new Range(from, to), xCount, yCount, maxElapsed);
+        final SelectedScatterArea area = grid.getCellArea(x, y);
+        logger.debug("fetch scatter heatmap cell. {}, LIMIT={}", area, limit);
+
+        final List<Dot> scatterData = scatter.selectScatterData(applicationName, area, null, -1, limit);
+        return createModelAndView(area.getTimeRange(), jsonpCallback, scatterData);
+    }
+
+    private boolean checkHeatmapGrid(int xCount, int yCount, int maxElapsed, HttpServletResponse response) throws IOException {
+        if (xCount <= 0 || xCount > ScatterHeatmap.MAX_X_COUNT || yCount <= 0 || yCount > ScatterHeatmap.MAX_Y_COUNT || maxElapsed <= 0) {
+            final String message = "invalid heatmap grid. xCount:" + xCount + " (max " + ScatterHeatmap.MAX_X_COUNT + "), yCount:" + yCount
+                    + " (max " + ScatterHeatmap.MAX_Y_COUNT + "), maxElapsed:" + maxElapsed;
+            logger.debug(message);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, message);
+            return false;
+        }
+        return true;
+    }
+
+    private static class DotStreamWriter implements ResultCallback<List<Dot>> {
+        private final JsonGenerator jsonGenerator;
+        private Dot lastDot;
+
+        private DotStreamWriter(JsonGenerator jsonGenerator) {
+            this.jsonGenerator = jsonGenerator;
+        }
+
+        @Override
+        public void onResult(int index, List<Dot> dotList) {
+            if (dotList.isEmpty()) {
+                return;
+            }
+            try {
+                for (Dot dot : dotList) {
+                    jsonGenerator.writeObject(dot);
+                }
+                // flushing before the response is complete makes the container send a chunk
+                jsonGenerator.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            this.lastDot = dotList.get(dotList.size() - 1);
+        }
+
+        public Dot getLastDot() {
+            return lastDot;
+        }
+    }
+
     /**
      * scatter chart data query for "NOW" button
      *
@@ -18,8 +18,10 @@ package com.navercorp.pinpoint.web.dao;
 
 import java.util.List;
 
+import com.navercorp.pinpoint.common.bo.AgentStatRollupResolution;
 import com.navercorp.pinpoint.web.vo.AgentStat;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
 
 /**
  * @author hyungil.jeong
@@ -28,4 +30,16 @@ public interface AgentStatDao {
 
     List<AgentStat> scanAgentStatList(String agentId, Range range);
 
+    /**
+     * folds the agent stats into the chart group while scanning, instead of returning every row of the range
+     * @return number of scanned agent stats
+     */
+    int scanAgentStat(String agentId, Range range, AgentStatChartGroup chartGroup);
+
+    /**
+     * folds the rollup rows of the resolution written by the collector into the chart group
+     * @return number of scanned rollup rows
+     */
+    int scanAgentStatRollup(String agentId, AgentStatRollupResolution resolution, Range range, AgentStatChartGroup chartGroup);
+
 }
@@ -16,13 +16,18 @@
 
 package com.navercorp.pinpoint.web.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.navercorp.pinpoint.common.bo.ApiMetaDataBo;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 /**
  * @author emeroad
  */
 public interface ApiMetaDataDao {
     List<ApiMetaDataBo> getApiMetaData(String agentId, long time, int apiId);
+
+    Map<MetaDataKey, List<ApiMetaDataBo>> getApiMetaData(Collection<MetaDataKey> keys);
 }
@@ -18,11 +18,14 @@ package com.navercorp.pinpoint.web.dao;
 
 import java.util.List;
 
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
 
 /**
  * @author emeroad
@@ -36,6 +39,19 @@ public interface ApplicationTraceIndexDao {
 
     List<Dot> scanTraceScatter(String applicationName, Range range, int limit);
 
+    /**
+     * passes the dots of each row to the callback as they are scanned.
+     *
+     * @param cursor resume after this dot. null to start from range.to
+     * @return cursor of the last dot if there may be more dots in the range, otherwise null
+     */
+    ScatterCursor scanTraceScatter(String applicationName, Range range, int limit, ScatterCursor cursor, ResultCallback<List<Dot>> callback);
+
+    /**
+     * counts the transactions of the range into the cells of the heatmap.
+     */
+    ScatterHeatmap scanTraceHeatmap(String applicationName, Range range, int xCount, int yCount, int maxElapsed);
+
     /**
      *
      * select transactions in a selection range(box) in the scatter chart.
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.List;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 
 /**
@@ -36,6 +37,11 @@ public interface TraceDao {
     
     List<List<SpanBo>> selectAllSpans(Collection<TransactionId> transactionIdList);
 
+    /**
+     * streams the spans of each transaction to the callback as they arrive. the index is the position in transactionIdList.
+     */
+    void selectAllSpans(Collection<TransactionId> transactionIdList, ResultCallback<List<SpanBo>> callback);
+
     List<SpanBo> selectSpans(TransactionId transactionId);
     
 }
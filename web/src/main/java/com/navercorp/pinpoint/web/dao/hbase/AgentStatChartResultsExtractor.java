@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.web.vo.AgentStat;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
+import org.springframework.data.hadoop.hbase.RowMapper;
+
+import java.util.List;
+
+/**
+ * folds the agent stats of each row into the chart group as the scanner returns it.
+ * only the timeslot accumulators of the chart group are kept, not the scanned rows.
+ *
+ * @author agent
+ */
+class AgentStatChartResultsExtractor implements ResultsExtractor<Integer> {
+
+    private final RowMapper<List<AgentStat>> rowMapper;
+    private final AgentStatChartGroup chartGroup;
+
+    AgentStatChartResultsExtractor(RowMapper<List<AgentStat>> rowMapper, AgentStatChartGroup chartGroup) {
+        if (rowMapper == null) {
+            throw new NullPointerException("rowMapper must not be null");
+        }
+        if (chartGroup == null) {
+            throw new NullPointerException("chartGroup must not be null");
+        }
+        this.rowMapper = rowMapper;
+        this.chartGroup = chartGroup;
+    }
+
+    /**
+     * @return number of the agent stats folded into the chart group
+     */
+    @Override
+    public Integer extractData(ResultScanner results) throws Exception {
+        int rowNum = 0;
+        int statCount = 0;
+        for (Result result : results) {
+            final List<AgentStat> agentStatList = rowMapper.mapRow(result, rowNum++);
+            for (AgentStat agentStat : agentStatList) {
+                chartGroup.addAgentStat(agentStat);
+                statCount++;
+            }
+        }
+        return statCount;
+    }
+}
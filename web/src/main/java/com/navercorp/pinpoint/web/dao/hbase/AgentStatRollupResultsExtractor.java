@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.bo.AgentStatRollupBo;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
+
+/**
+ * folds the rollup rows of a resolution into the chart group as the scanner returns them.
+ *
+ * @author agent
+ */
+class AgentStatRollupResultsExtractor implements ResultsExtractor<Integer> {
+
+    private final byte[] family;
+    private final AgentStatChartGroup chartGroup;
+
+    AgentStatRollupResultsExtractor(byte[] family, AgentStatChartGroup chartGroup) {
+        if (family == null) {
+            throw new NullPointerException("family must not be null");
+        }
+        if (chartGroup == null) {
+            throw new NullPointerException("chartGroup must not be null");
+        }
+        this.family = family;
+        this.chartGroup = chartGroup;
+    }
+
+    /**
+     * @return number of the rollup rows folded into the chart group
+     */
+    @Override
+    public Integer extractData(ResultScanner results) throws Exception {
+        int rollupCount = 0;
+        for (Result result : results) {
+            final byte[] value = result.getValue(family, HBaseTables.AGENT_STAT_ROLLUP_CF_QUALIFIER);
+            if (value == null) {
+                continue;
+            }
+            chartGroup.addAgentStatRollup(new AgentStatRollupBo(value));
+            rollupCount++;
+        }
+        return rollupCount;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
+import org.springframework.data.hadoop.hbase.RowMapper;
+
+import java.util.List;
+
+/**
+ * passes the dots of each trace index row to the callback as the scanner returns it, instead of collecting all of them.
+ * dots up to and including the cursor are skipped, and the scan stops exactly at the limit.
+ *
+ * @author agent
+ */
+class DotStreamResultsExtractor implements ResultsExtractor<ScatterCursor> {
+
+    private final RowMapper<List<Dot>> rowMapper;
+    private final int limit;
+    private final ScatterCursor cursor;
+    private final ResultCallback<List<Dot>> callback;
+
+    DotStreamResultsExtractor(RowMapper<List<Dot>> rowMapper, int limit, ScatterCursor cursor, ResultCallback<List<Dot>> callback) {
+        if (rowMapper == null) {
+            throw new NullPointerException("rowMapper must not be null");
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback must not be null");
+        }
+        this.rowMapper = rowMapper;
+        this.limit = limit;
+        this.cursor = cursor;
+        this.callback = callback;
+    }
+
+    /**
+     * @return cursor of the last dot if the limit was reached, null if the scan is complete
+     */
+    @Override
+    public ScatterCursor extractData(ResultScanner results) throws Exception {
+        if (limit <= 0) {
+            return null;
+        }
+        int rowNum = 0;
+        int count = 0;
+        for (Result result : results) {
+            List<Dot> dotList = skipCursor(rowMapper.mapRow(result, rowNum));
+            if (dotList.isEmpty()) {
+                rowNum++;
+                continue;
+            }
+            final int remaining = limit - count;
+            if (dotList.size() > remaining) {
+                dotList = dotList.subList(0, remaining);
+            }
+            callback.onResult(rowNum++, dotList);
+            count += dotList.size();
+            if (count >= limit) {
+                return ScatterCursor.of(dotList.get(dotList.size() - 1));
+            }
+        }
+        return null;
+    }
+
+    private List<Dot> skipCursor(List<Dot> dotList) {
+        if (cursor == null || dotList.isEmpty()) {
+            return dotList;
+        }
+        // every dot of a row has the same acceptedTime
+        if (dotList.get(0).getAcceptedTime() != cursor.getAcceptedTime()) {
+            return dotList;
+        }
+        final String cursorTransactionId = cursor.getTransactionId().getFormatString();
+        for (int i = 0; i < dotList.size(); i++) {
+            if (cursorTransactionId.equals(dotList.get(i).getTransactionId())) {
+                return dotList.subList(i + 1, dotList.size());
+            }
+        }
+        // the cursor row has changed. sending a dot twice is better than losing it
+        return dotList;
+    }
+}
@@ -21,6 +21,7 @@ import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.navercorp.pinpoint.common.bo.AgentStatRollupResolution;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.util.BytesUtils;
@@ -29,6 +30,7 @@ import com.navercorp.pinpoint.common.util.TimeUtils;
 import com.navercorp.pinpoint.web.dao.AgentStatDao;
 import com.navercorp.pinpoint.web.vo.AgentStat;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
 
 import org.apache.hadoop.hbase.client.Scan;
 import org.slf4j.Logger;
@@ -81,7 +83,7 @@ public class HbaseAgentStatDao implements AgentStatDao {
 
         Scan scan = createScan(agentId, range);
 
-        List<List<AgentStat>> intermediate = hbaseOperations2.find(HBaseTables.AGENT_STAT, scan, rowKeyDistributor, agentStatMapper);
+        List<List<AgentStat>> intermediate = hbaseOperations2.findParallel(HBaseTables.AGENT_STAT, scan, rowKeyDistributor, agentStatMapper);
 
         int expectedSize = (int)(range.getRange() / 5000); // data for 5 seconds
         List<AgentStat> merged = new ArrayList<AgentStat>(expectedSize);
@@ -93,6 +95,63 @@ public class HbaseAgentStatDao implements AgentStatDao {
         return merged;
     }
 
+    @Override
+    public int scanAgentStat(String agentId, Range range, AgentStatChartGroup chartGroup) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (chartGroup == null) {
+            throw new NullPointerException("chartGroup must not be null");
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("scanAgentStat : agentId={}, {}", agentId, range);
+        }
+
+        Scan scan = createScan(agentId, range);
+
+        // the bucket scanners are merged into a single scanner, so the chart group is only accessed by this thread
+        AgentStatChartResultsExtractor extractor = new AgentStatChartResultsExtractor(agentStatMapper, chartGroup);
+        return hbaseOperations2.findParallel(HBaseTables.AGENT_STAT, scan, rowKeyDistributor, extractor);
+    }
+
+    /**
+     * the rollup row of a slot is selected when from <= slot start < to
+     */
+    @Override
+    public int scanAgentStatRollup(String agentId, AgentStatRollupResolution resolution, Range range, AgentStatChartGroup chartGroup) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (resolution == null) {
+            throw new NullPointerException("resolution must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (chartGroup == null) {
+            throw new NullPointerException("chartGroup must not be null");
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("scanAgentStatRollup : agentId={}, {}, {}", agentId, resolution, range);
+        }
+
+        Scan scan = new Scan();
+        scan.setCaching(this.scanCacheSize);
+        // start key is replaced by end key because key has been reversed
+        scan.setStartRow(getRowKey(agentId, range.getTo() - 1));
+        scan.setStopRow(getRowKey(agentId, range.getFrom() - 1));
+        scan.addFamily(resolution.getColumnFamily());
+        scan.setId("AgentStatRollupScan");
+
+        AgentStatRollupResultsExtractor extractor = new AgentStatRollupResultsExtractor(resolution.getColumnFamily(), chartGroup);
+        return hbaseOperations2.findParallel(HBaseTables.AGENT_STAT_ROLLUP, scan, rowKeyDistributor, extractor);
+    }
+
     /**
      * make a row key based on timestamp
      * FIXME there is the same duplicate code at collector's dao module
@@ -16,14 +16,18 @@
 
 package com.navercorp.pinpoint.web.dao.hbase;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 
 import org.apache.hadoop.hbase.client.Get;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
@@ -32,14 +36,23 @@ import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
 
+import javax.annotation.PostConstruct;
+
 /**
  * @author emeroad
  * @author jaehong.kim
  */
 @Repository
 public class HbaseApiMetaDataDao implements ApiMetaDataDao {
-    static final String SPEL_KEY = "#agentId.toString() + '.' + #time.toString() + '.' + #apiId.toString()";
-    
+
+    private static final MetaDataCache.ValueWeigher<ApiMetaDataBo> WEIGHER = new MetaDataCache.ValueWeigher<ApiMetaDataBo>() {
+        @Override
+        public int weigh(ApiMetaDataBo value) {
+            final String apiInfo = value.getApiInfo();
+            return 64 + (apiInfo == null ? 0 : apiInfo.length() * 2);
+        }
+    };
+
     @Autowired
     private HbaseOperations2 hbaseOperations2;
 
@@ -51,18 +64,47 @@ public class HbaseApiMetaDataDao implements ApiMetaDataDao {
     @Qualifier("metadataRowKeyDistributor")
     private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
 
+    @Value("#{pinpointWebProps['web.metadata.api.cache.maxWeight'] ?: " + MetaDataCache.DEFAULT_MAX_WEIGHT + "}")
+    private long cacheMaxWeight = MetaDataCache.DEFAULT_MAX_WEIGHT;
+
+    private MetaDataCache<ApiMetaDataBo> cache;
+
+    private final MetaDataCache.Loader<ApiMetaDataBo> loader = new MetaDataCache.Loader<ApiMetaDataBo>() {
+        @Override
+        public List<List<ApiMetaDataBo>> load(List<MetaDataKey> keyList) {
+            final List<Get> getList = new ArrayList<Get>(keyList.size());
+            for (MetaDataKey key : keyList) {
+                ApiMetaDataBo apiMetaData = new ApiMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+                byte[] rowKey = getDistributedKey(apiMetaData.toRowKey());
+
+                Get get = new Get(rowKey);
+                get.addFamily(HBaseTables.API_METADATA_CF_API);
+                getList.add(get);
+            }
+            return hbaseOperations2.get(HBaseTables.API_METADATA, getList, apiMetaDataMapper);
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        this.cache = new MetaDataCache<ApiMetaDataBo>(cacheMaxWeight, WEIGHER);
+    }
+
     @Override
-    @Cacheable(value="apiMetaData", key=SPEL_KEY)
     public List<ApiMetaDataBo> getApiMetaData(String agentId, long time, int apiId) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
 
-        ApiMetaDataBo apiMetaDataBo = new ApiMetaDataBo(agentId, time, apiId);
-        byte[] sqlId = getDistributedKey(apiMetaDataBo.toRowKey());
-        Get get = new Get(sqlId);
-        get.addFamily(HBaseTables.API_METADATA_CF_API);
-        return hbaseOperations2.get(HBaseTables.API_METADATA, get, apiMetaDataMapper);
+        return cache.get(new MetaDataKey(agentId, time, apiId), loader);
+    }
+
+    @Override
+    public Map<MetaDataKey, List<ApiMetaDataBo>> getApiMetaData(Collection<MetaDataKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        return cache.getAll(keys, loader);
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
@@ -42,6 +42,7 @@ import com.navercorp.pinpoint.common.buffer.Buffer;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.hbase.LimitEventHandler;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.common.util.BytesUtils;
 import com.navercorp.pinpoint.common.util.DateUtils;
 import com.navercorp.pinpoint.common.util.SpanUtils;
@@ -55,6 +56,8 @@ import com.navercorp.pinpoint.web.vo.ResponseTimeRange;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 
 /**
@@ -103,7 +106,7 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
 
         final LimitedScanResult<List<TransactionId>> limitedScanResult = new LimitedScanResult<List<TransactionId>>();
         LastRowAccessor lastRowAccessor = new LastRowAccessor();
-        List<List<TransactionId>> traceIndexList = hbaseOperations2.find(HBaseTables.APPLICATION_TRACE_INDEX,
+        List<List<TransactionId>> traceIndexList = hbaseOperations2.findParallel(HBaseTables.APPLICATION_TRACE_INDEX,
                 scan, traceIdRowKeyDistributor, limit, traceIndexMapper, lastRowAccessor);
 
         List<TransactionId> transactionIdSum = new ArrayList<TransactionId>(128);
@@ -144,7 +147,7 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
 
         final LimitedScanResult<List<TransactionId>> limitedScanResult = new LimitedScanResult<List<TransactionId>>();
         LastRowAccessor lastRowAccessor = new LastRowAccessor();
-        List<List<TransactionId>> traceIndexList = hbaseOperations2.find(HBaseTables.APPLICATION_TRACE_INDEX,
+        List<List<TransactionId>> traceIndexList = hbaseOperations2.findParallel(HBaseTables.APPLICATION_TRACE_INDEX,
                 scan, traceIdRowKeyDistributor, limit, traceIndexMapper, lastRowAccessor);
 
         List<TransactionId> transactionIdSum = new ArrayList<TransactionId>(128);
@@ -242,7 +245,7 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
         logger.debug("scanTraceScatter");
         Scan scan = createScan(applicationName, range);
 
-        List<List<Dot>> dotListList = hbaseOperations2.find(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, limit, traceIndexScatterMapper);
+        List<List<Dot>> dotListList = hbaseOperations2.findParallel(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, limit, traceIndexScatterMapper);
         List<Dot> mergeList = new ArrayList<Dot>(limit + 10);
         for(List<Dot> dotList : dotListList) {
             mergeList.addAll(dotList);
@@ -250,6 +253,52 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
         return mergeList;
     }
 
+    @Override
+    public ScatterCursor scanTraceScatter(String applicationName, Range range, int limit, ScatterCursor cursor, ResultCallback<List<Dot>> callback) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit:" + limit);
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback must not be null");
+        }
+        logger.debug("scanTraceScatter stream cursor:{}", cursor);
+        Range scanRange = range;
+        if (cursor != null) {
+            if (cursor.getAcceptedTime() < range.getFrom()) {
+                // stale cursor of a previous range. nothing is left to scan
+                logger.debug("cursor is out of range. cursor:{} range:{}", cursor, range);
+                return null;
+            }
+            // the row of the cursor is scanned again, the dots sent already are skipped by the extractor
+            scanRange = new Range(range.getFrom(), Math.min(range.getTo(), cursor.getAcceptedTime()));
+        }
+        Scan scan = createScan(applicationName, scanRange);
+
+        DotStreamResultsExtractor extractor = new DotStreamResultsExtractor(traceIndexScatterMapper, limit, cursor, callback);
+        return hbaseOperations2.findParallel(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, extractor);
+    }
+
+    @Override
+    public ScatterHeatmap scanTraceHeatmap(String applicationName, Range range, int xCount, int yCount, int maxElapsed) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        logger.debug("scanTraceHeatmap");
+        final ScatterHeatmap heatmap = new ScatterHeatmap(range, xCount, yCount, maxElapsed);
+        Scan scan = createScan(applicationName, range);
+
+        return hbaseOperations2.findParallel(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, new ScatterHeatmapResultsExtractor(heatmap));
+    }
+
     /**
      *
      */
@@ -275,7 +324,7 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
         ResponseTimeRange responseTimeRange = area.getResponseTimeRange();
         TraceIndexScatterMapper2 mapper = new TraceIndexScatterMapper2(responseTimeRange.getFrom(), responseTimeRange.getTo());
 
-        List<List<Dot>> dotListList = hbaseOperations2.find(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, limit, mapper);
+        List<List<Dot>> dotListList = hbaseOperations2.findParallel(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, limit, mapper);
 
         List<Dot> result = new ArrayList<Dot>();
         for(List<Dot> dotList : dotListList) {
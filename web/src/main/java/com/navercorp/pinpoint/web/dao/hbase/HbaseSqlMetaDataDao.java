@@ -16,13 +16,18 @@
 
 package com.navercorp.pinpoint.web.dao.hbase;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 
 import org.apache.hadoop.hbase.client.Get;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
@@ -31,12 +36,22 @@ import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
 
+import javax.annotation.PostConstruct;
+
 /**
  * @author emeroad
  */
 @Repository
 public class HbaseSqlMetaDataDao implements SqlMetaDataDao {
 
+    private static final MetaDataCache.ValueWeigher<SqlMetaDataBo> WEIGHER = new MetaDataCache.ValueWeigher<SqlMetaDataBo>() {
+        @Override
+        public int weigh(SqlMetaDataBo value) {
+            final String sql = value.getSql();
+            return 64 + (sql == null ? 0 : sql.length() * 2);
+        }
+    };
+
     @Autowired
     private HbaseOperations2 hbaseOperations2;
 
@@ -48,19 +63,47 @@ public class HbaseSqlMetaDataDao implements SqlMetaDataDao {
     @Qualifier("metadataRowKeyDistributor")
     private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
 
+    @Value("#{pinpointWebProps['web.metadata.sql.cache.maxWeight'] ?: " + MetaDataCache.DEFAULT_MAX_WEIGHT + "}")
+    private long cacheMaxWeight = MetaDataCache.DEFAULT_MAX_WEIGHT;
+
+    private MetaDataCache<SqlMetaDataBo> cache;
+
+    private final MetaDataCache.Loader<SqlMetaDataBo> loader = new MetaDataCache.Loader<SqlMetaDataBo>() {
+        @Override
+        public List<List<SqlMetaDataBo>> load(List<MetaDataKey> keyList) {
+            final List<Get> getList = new ArrayList<Get>(keyList.size());
+            for (MetaDataKey key : keyList) {
+                SqlMetaDataBo sqlMetaData = new SqlMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+                byte[] sqlId = getDistributedKey(sqlMetaData.toRowKey());
+
+                Get get = new Get(sqlId);
+                get.addFamily(HBaseTables.SQL_METADATA_CF_SQL);
+                getList.add(get);
+            }
+            return hbaseOperations2.get(HBaseTables.SQL_METADATA, getList, sqlMetaDataMapper);
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        this.cache = new MetaDataCache<SqlMetaDataBo>(cacheMaxWeight, WEIGHER);
+    }
+
     @Override
     public List<SqlMetaDataBo> getSqlMetaData(String agentId, long time, int hashCode) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
 
-        SqlMetaDataBo sqlMetaData = new SqlMetaDataBo(agentId, time, hashCode);
-        byte[] sqlId = getDistributedKey(sqlMetaData.toRowKey());
-
-        Get get = new Get(sqlId);
-        get.addFamily(HBaseTables.SQL_METADATA_CF_SQL);
+        return cache.get(new MetaDataKey(agentId, time, hashCode), loader);
+    }
 
-        return hbaseOperations2.get(HBaseTables.SQL_METADATA, get, sqlMetaDataMapper);
+    @Override
+    public Map<MetaDataKey, List<SqlMetaDataBo>> getSqlMetaData(Collection<MetaDataKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        return cache.getAll(keys, loader);
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
@@ -16,19 +16,27 @@
 
 package com.navercorp.pinpoint.web.dao.hbase;
 
-import com.navercorp.pinpoint.common.bo.StringMetaDataBo;
-import com.navercorp.pinpoint.common.hbase.HBaseTables;
-import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
-import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 
 import org.apache.hadoop.hbase.client.Get;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import com.navercorp.pinpoint.common.bo.StringMetaDataBo;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
+
+import javax.annotation.PostConstruct;
 
 /**
  * @author emeroad
@@ -36,6 +44,14 @@ import java.util.List;
 @Repository
 public class HbaseStringMetaDataDao implements StringMetaDataDao {
 
+    private static final MetaDataCache.ValueWeigher<StringMetaDataBo> WEIGHER = new MetaDataCache.ValueWeigher<StringMetaDataBo>() {
+        @Override
+        public int weigh(StringMetaDataBo value) {
+            final String stringValue = value.getStringValue();
+            return 64 + (stringValue == null ? 0 : stringValue.length() * 2);
+        }
+    };
+
     @Autowired
     private HbaseOperations2 hbaseOperations2;
 
@@ -47,19 +63,47 @@ public class HbaseStringMetaDataDao implements StringMetaDataDao {
     @Qualifier("metadataRowKeyDistributor")
     private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
 
+    @Value("#{pinpointWebProps['web.metadata.string.cache.maxWeight'] ?: " + MetaDataCache.DEFAULT_MAX_WEIGHT + "}")
+    private long cacheMaxWeight = MetaDataCache.DEFAULT_MAX_WEIGHT;
+
+    private MetaDataCache<StringMetaDataBo> cache;
+
+    private final MetaDataCache.Loader<StringMetaDataBo> loader = new MetaDataCache.Loader<StringMetaDataBo>() {
+        @Override
+        public List<List<StringMetaDataBo>> load(List<MetaDataKey> keyList) {
+            final List<Get> getList = new ArrayList<Get>(keyList.size());
+            for (MetaDataKey key : keyList) {
+                StringMetaDataBo stringMetaData = new StringMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+                byte[] rowKey = getDistributedKey(stringMetaData.toRowKey());
+
+                Get get = new Get(rowKey);
+                get.addFamily(HBaseTables.STRING_METADATA_CF_STR);
+                getList.add(get);
+            }
+            return hbaseOperations2.get(HBaseTables.STRING_METADATA, getList, stringMetaDataMapper);
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        this.cache = new MetaDataCache<StringMetaDataBo>(cacheMaxWeight, WEIGHER);
+    }
+
     @Override
     public List<StringMetaDataBo> getStringMetaData(String agentId, long time, int stringId) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
 
-        StringMetaDataBo stringMetaData = new StringMetaDataBo(agentId, time, stringId);
-        byte[] rowKey = getDistributedKey(stringMetaData.toRowKey());
-
-        Get get = new Get(rowKey);
-        get.addFamily(HBaseTables.STRING_METADATA_CF_STR);
+        return cache.get(new MetaDataKey(agentId, time, stringId), loader);
+    }
 
-        return hbaseOperations2.get(HBaseTables.STRING_METADATA, get, stringMetaDataMapper);
+    @Override
+    public Map<MetaDataKey, List<StringMetaDataBo>> getStringMetaData(Collection<MetaDataKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        return cache.getAll(keys, loader);
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
@@ -23,6 +23,7 @@ import java.util.List;
 import com.navercorp.pinpoint.common.bo.SpanBo;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.web.dao.TraceDao;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
@@ -30,6 +31,7 @@ import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import org.apache.hadoop.hbase.client.Get;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
@@ -54,6 +56,9 @@ public class HbaseTraceDao implements TraceDao {
     @Qualifier("spanAnnotationMapper")
     private RowMapper<List<SpanBo>> spanAnnotationMapper;
 
+    @Value("#{pinpointWebProps['web.hbase.selectSpans.timeout'] ?: 60000}")
+    private long selectSpansTimeout = 60000;
+
     @Override
     public List<SpanBo> selectSpan(TransactionId transactionId) {
         if (transactionId == null) {
@@ -91,7 +96,7 @@ public class HbaseTraceDao implements TraceDao {
             get.addFamily(HBaseTables.TRACES_CF_SPAN);
             getList.add(get);
         }
-        return template2.get(HBaseTables.TRACES, getList, spanMapper);
+        return parallelGet(getList);
     }
 
     @Override
@@ -100,6 +105,19 @@ public class HbaseTraceDao implements TraceDao {
             throw new NullPointerException("transactionIdList must not be null");
         }
 
+        return parallelGet(createAllSpansGetList(transactionIdList));
+    }
+
+    @Override
+    public void selectAllSpans(Collection<TransactionId> transactionIdList, ResultCallback<List<SpanBo>> callback) {
+        if (transactionIdList == null) {
+            throw new NullPointerException("transactionIdList must not be null");
+        }
+
+        template2.parallelGet(HBaseTables.TRACES, createAllSpansGetList(transactionIdList), spanMapper, selectSpansTimeout, callback);
+    }
+
+    private List<Get> createAllSpansGetList(Collection<TransactionId> transactionIdList) {
         final List<Get> gets = new ArrayList<Get>(transactionIdList.size());
         for (TransactionId transactionId : transactionIdList) {
             final byte[] transactionIdBytes = this.rowKeyDistributor.getDistributedKey(transactionId.getBytes());
@@ -108,7 +126,22 @@ public class HbaseTraceDao implements TraceDao {
             get.addFamily(HBaseTables.TRACES_CF_TERMINALSPAN);
             gets.add(get);
         }
-        return template2.get(HBaseTables.TRACES, gets, spanMapper);
+        return gets;
+    }
+
+    private List<List<SpanBo>> parallelGet(List<Get> getList) {
+        final List<List<SpanBo>> result = new ArrayList<List<SpanBo>>(getList.size());
+        for (int i = 0; i < getList.size(); i++) {
+            result.add(null);
+        }
+        // keep the order of the request
+        template2.parallelGet(HBaseTables.TRACES, getList, spanMapper, selectSpansTimeout, new ResultCallback<List<SpanBo>>() {
+            @Override
+            public void onResult(int index, List<SpanBo> spanList) {
+                result.set(index, spanList);
+            }
+        });
+        return result;
     }
 
     @Override
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * bounded cache of the immutable metadata.
+ * metadata never changes once it is written, so entries do not expire and are only evicted by weight.
+ * the weight of an entry is roughly its heap size in bytes.
+ * <p>
+ * a not found result is not cached. the agent may send the metadata after the trace that refers to it.
+ *
+ * @author agent
+ */
+public class MetaDataCache<V> {
+
+    public static final long DEFAULT_MAX_WEIGHT = 1024 * 1024 * 16;
+
+    // key object, agentId string and the cache entry itself
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final Cache<MetaDataKey, List<V>> cache;
+
+    public MetaDataCache(long maxWeight, final ValueWeigher<V> valueWeigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive. maxWeight:" + maxWeight);
+        }
+        if (valueWeigher == null) {
+            throw new NullPointerException("valueWeigher must not be null");
+        }
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(new Weigher<MetaDataKey, List<V>>() {
+                    @Override
+                    public int weigh(MetaDataKey key, List<V> valueList) {
+                        int weight = ENTRY_OVERHEAD + key.getAgentId().length() * 2;
+                        for (V value : valueList) {
+                            weight += valueWeigher.weigh(value);
+                        }
+                        return weight;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public interface ValueWeigher<V> {
+        int weigh(V value);
+    }
+
+    public interface Loader<V> {
+        /**
+         * @return metadata list of each key in the order of keyList
+         */
+        List<List<V>> load(List<MetaDataKey> keyList);
+    }
+
+    public List<V> get(MetaDataKey key, Loader<V> loader) {
+        return getAll(Collections.singletonList(key), loader).get(key);
+    }
+
+    /**
+     * looks up the cache first and loads every missing key with a single call to the loader.
+     */
+    public Map<MetaDataKey, List<V>> getAll(Collection<MetaDataKey> keys, Loader<V> loader) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        if (loader == null) {
+            throw new NullPointerException("loader must not be null");
+        }
+        final Set<MetaDataKey> keySet = new LinkedHashSet<MetaDataKey>(keys);
+        final Map<MetaDataKey, List<V>> result = new HashMap<MetaDataKey, List<V>>(Math.max((int) (keySet.size() / 0.75f) + 1, 16));
+        final List<MetaDataKey> missList = new ArrayList<MetaDataKey>();
+        for (MetaDataKey key : keySet) {
+            final List<V> cached = cache.getIfPresent(key);
+            if (cached != null) {
+                result.put(key, cached);
+            } else {
+                missList.add(key);
+            }
+        }
+        if (missList.isEmpty()) {
+            return result;
+        }
+
+        final List<List<V>> loadedList = loader.load(missList);
+        for (int i = 0; i < missList.size(); i++) {
+            final MetaDataKey key = missList.get(i);
+            final List<V> loaded = loadedList.get(i);
+            if (loaded == null || loaded.isEmpty()) {
+                result.put(key, Collections.<V>emptyList());
+                continue;
+            }
+            final List<V> value = Collections.unmodifiableList(loaded);
+            cache.put(key, value);
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
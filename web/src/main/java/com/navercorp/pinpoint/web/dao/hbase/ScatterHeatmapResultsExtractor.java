@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.TimeUtils;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
+
+/**
+ * counts the trace index cells into the heatmap while scanning.
+ * only elapsed and exceptionCode are read from the value, so no {@link Dot} is created.
+ *
+ * @author agent
+ */
+class ScatterHeatmapResultsExtractor implements ResultsExtractor<ScatterHeatmap> {
+
+    private static final int ACCEPTED_TIME_OFFSET = HBaseTables.APPLICATION_NAME_MAX_LEN + HBaseTables.APPLICATION_TRACE_INDEX_ROW_DISTRIBUTE_SIZE;
+
+    private final ScatterHeatmap heatmap;
+
+    ScatterHeatmapResultsExtractor(ScatterHeatmap heatmap) {
+        if (heatmap == null) {
+            throw new NullPointerException("heatmap must not be null");
+        }
+        this.heatmap = heatmap;
+    }
+
+    @Override
+    public ScatterHeatmap extractData(ResultScanner results) throws Exception {
+        for (Result result : results) {
+            if (result.isEmpty()) {
+                continue;
+            }
+            final KeyValue[] raw = result.raw();
+            // every cell of a row has the same acceptedTime
+            final long acceptedTime = getAcceptedTime(raw[0]);
+            for (KeyValue kv : raw) {
+                final Buffer valueBuffer = new OffsetFixedBuffer(kv.getBuffer(), kv.getValueOffset());
+                final int elapsed = valueBuffer.readVarInt();
+                final int exceptionCode = valueBuffer.readSVarInt();
+                heatmap.addDot(acceptedTime, elapsed, exceptionCode != Dot.EXCEPTION_NONE);
+            }
+        }
+        return heatmap;
+    }
+
+    private long getAcceptedTime(KeyValue kv) {
+        final long reverseAcceptedTime = BytesUtils.bytesToLong(kv.getBuffer(), kv.getRowOffset() + ACCEPTED_TIME_OFFSET);
+        return TimeUtils.recoveryTimeMillis(reverseAcceptedTime);
+    }
+}
@@ -19,7 +19,9 @@ package com.navercorp.pinpoint.web.service;
 import java.util.List;
 
 import com.navercorp.pinpoint.web.vo.AgentStat;
+import com.navercorp.pinpoint.web.util.TimeWindow;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
 
 /**
  * @author hyungil.jeong
@@ -28,4 +30,6 @@ public interface AgentStatService {
 
     List<AgentStat> selectAgentStatList(String agentId, Range range);
 
+    AgentStatChartGroup selectAgentStatChart(String agentId, TimeWindow timeWindow);
+
 }
@@ -18,11 +18,17 @@ package com.navercorp.pinpoint.web.service;
 
 import java.util.List;
 
+import com.navercorp.pinpoint.common.bo.AgentStatRollupResolution;
 import com.navercorp.pinpoint.web.dao.AgentStatDao;
 import com.navercorp.pinpoint.web.vo.AgentStat;
+import com.navercorp.pinpoint.web.util.TimeWindow;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -32,9 +38,26 @@ import org.springframework.stereotype.Service;
 @Service
 public class AgentStatServiceImpl implements AgentStatService {
 
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
     @Autowired
     private AgentStatDao agentStatDao;
 
+    @Value("#{pinpointWebProps['web.agentstat.rollup.enable'] ?: false}")
+    private boolean rollupEnable = false;
+
+    // a rollup slot is selected when the slot has ended this long ago. must be longer than the flush delay of the collector
+    @Value("#{pinpointWebProps['web.agentstat.rollup.delay'] ?: 120000}")
+    private long rollupDelay = 120000;
+
+    public void setRollupEnable(boolean rollupEnable) {
+        this.rollupEnable = rollupEnable;
+    }
+
+    public void setRollupDelay(long rollupDelay) {
+        this.rollupDelay = rollupDelay;
+    }
+
     public List<AgentStat> selectAgentStatList(String agentId, Range range) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
@@ -42,4 +65,66 @@ public class AgentStatServiceImpl implements AgentStatService {
         return agentStatDao.scanAgentStatList(agentId, range);
     }
 
+    @Override
+    public AgentStatChartGroup selectAgentStatChart(String agentId, TimeWindow timeWindow) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (timeWindow == null) {
+            throw new NullPointerException("timeWindow must not be null");
+        }
+        long scanFrom = timeWindow.getWindowRange().getFrom();
+        long scanTo = timeWindow.getWindowRange().getTo() + timeWindow.getWindowSlotSize();
+        Range rangeToScan = new Range(scanFrom, scanTo);
+
+        AgentStatChartGroup chartGroup = new AgentStatChartGroup(timeWindow);
+        int statCount = scanAgentStat(agentId, rangeToScan, timeWindow.getWindowSlotSize(), chartGroup, System.currentTimeMillis());
+        if (logger.isDebugEnabled()) {
+            logger.debug("selectAgentStatChart agentId={}, {} statCount:{}", agentId, rangeToScan, statCount);
+        }
+        chartGroup.buildCharts();
+        return chartGroup;
+    }
+
+    /**
+     * the closed rollup slots of the coarsest resolution not coarser than a chart slot are read from the rollup table,
+     * the partial slots at both ends and the recent slots not yet flushed by the collector are read from the raw agent stats.
+     */
+    int scanAgentStat(String agentId, Range rangeToScan, long windowSlotSize, AgentStatChartGroup chartGroup, long currentTime) {
+        final AgentStatRollupResolution resolution = selectRollupResolution(windowSlotSize);
+        if (resolution == null) {
+            return agentStatDao.scanAgentStat(agentId, rangeToScan, chartGroup);
+        }
+        final long rollupSize = resolution.getResolution();
+        final long rollupFrom = resolution.getSlotTime(rangeToScan.getFrom() + rollupSize - 1);
+        final long rollupTo = Math.min(resolution.getSlotTime(rangeToScan.getTo()), resolution.getSlotTime(currentTime - rollupDelay));
+        if (rollupFrom >= rollupTo) {
+            return agentStatDao.scanAgentStat(agentId, rangeToScan, chartGroup);
+        }
+
+        int statCount = 0;
+        // raw scan range excludes from and includes to
+        if (rangeToScan.getFrom() < rollupFrom) {
+            statCount += agentStatDao.scanAgentStat(agentId, new Range(rangeToScan.getFrom(), rollupFrom - 1), chartGroup);
+        }
+        statCount += agentStatDao.scanAgentStatRollup(agentId, resolution, new Range(rollupFrom, rollupTo), chartGroup);
+        statCount += agentStatDao.scanAgentStat(agentId, new Range(rollupTo - 1, rangeToScan.getTo()), chartGroup);
+        return statCount;
+    }
+
+    private AgentStatRollupResolution selectRollupResolution(long windowSlotSize) {
+        if (!rollupEnable) {
+            return null;
+        }
+        AgentStatRollupResolution selected = null;
+        for (AgentStatRollupResolution resolution : AgentStatRollupResolution.values()) {
+            if (resolution.getResolution() <= windowSlotSize) {
+                if (selected == null || selected.getResolution() < resolution.getResolution()) {
+                    selected = resolution;
+                }
+            }
+        }
+        return selected;
+    }
+
 }
@@ -35,10 +35,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Breadth-first link search
  * not thread safe
+ * <p>
+ * with an executor, the caller/callee scans of a depth level and the accept application lookups are issued concurrently.
+ * the visit check and the merge are done on the calling thread in the order of the level, so the result is the same as the sequential search.
  * @author emeroad
  */
 public class BFSLinkSelector implements LinkSelector {
@@ -59,7 +67,19 @@ public class BFSLinkSelector implements LinkSelector {
 
     private final Queue nextQueue = new Queue();
 
+    // accept applications looked up concurrently for the caller links of the current level
+    private final Map<Application, Set<AcceptApplication>> prefetchedAcceptApplication = new HashMap<Application, Set<AcceptApplication>>();
+
+    private final Executor executor;
+
     public BFSLinkSelector(MapStatisticsCallerDao mapStatisticsCallerDao, MapStatisticsCalleeDao mapStatisticsCalleeDao, HostApplicationMapDao hostApplicationMapDao) {
+        this(mapStatisticsCallerDao, mapStatisticsCalleeDao, hostApplicationMapDao, null);
+    }
+
+    /**
+     * @param executor executor of the scans. null to scan on the calling thread
+     */
+    public BFSLinkSelector(MapStatisticsCallerDao mapStatisticsCallerDao, MapStatisticsCalleeDao mapStatisticsCalleeDao, HostApplicationMapDao hostApplicationMapDao, Executor executor) {
         if (mapStatisticsCalleeDao == null) {
             throw new NullPointerException("mapStatisticsCalleeDao must not be null");
         }
@@ -72,6 +92,7 @@ public class BFSLinkSelector implements LinkSelector {
         this.mapStatisticsCalleeDao = mapStatisticsCalleeDao;
         this.mapStatisticsCallerDao = mapStatisticsCallerDao;
         this.hostApplicationMapDao = hostApplicationMapDao;
+        this.executor = executor;
     }
 
     /**
@@ -83,12 +104,29 @@ public class BFSLinkSelector implements LinkSelector {
      */
     private LinkDataDuplexMap selectLink(List<Application> targetApplicationList, Range range, SearchDepth callerDepth, SearchDepth calleeDepth) {
 
-        final LinkDataDuplexMap searchResult = new LinkDataDuplexMap();
-
+        // visit check first, then scan every node of the level concurrently
+        final List<Future<LinkDataMap>> callerFutureList = new ArrayList<Future<LinkDataMap>>(targetApplicationList.size());
+        final List<Future<LinkDataMap>> calleeFutureList = new ArrayList<Future<LinkDataMap>>(targetApplicationList.size());
         for (Application targetApplication : targetApplicationList) {
             final boolean searchCallerNode = checkNextCaller(targetApplication, callerDepth);
-            if (searchCallerNode) {
-                final LinkDataMap caller = mapStatisticsCallerDao.selectCaller(targetApplication, range);
+            callerFutureList.add(searchCallerNode ? submitSelectCaller(targetApplication, range) : null);
+
+            final boolean searchCalleeNode = checkNextCallee(targetApplication, calleeDepth);
+            calleeFutureList.add(searchCalleeNode ? submitSelectCallee(targetApplication, range) : null);
+        }
+
+        final List<LinkDataMap> callerList = new ArrayList<LinkDataMap>(targetApplicationList.size());
+        for (Future<LinkDataMap> callerFuture : callerFutureList) {
+            callerList.add(callerFuture == null ? null : getResult(callerFuture));
+        }
+        prefetchAcceptApplication(callerList, range);
+
+        // merge in the order of the level, not in the order of completion
+        final LinkDataDuplexMap searchResult = new LinkDataDuplexMap();
+        for (int i = 0; i < targetApplicationList.size(); i++) {
+            final Application targetApplication = targetApplicationList.get(i);
+            final LinkDataMap caller = callerList.get(i);
+            if (caller != null) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Found Caller. count={}, caller={}, depth={}", caller.size(), targetApplication, callerDepth.getDepth());
                 }
@@ -108,9 +146,9 @@ public class BFSLinkSelector implements LinkSelector {
                 }
             }
 
-            final boolean searchCalleeNode = checkNextCallee(targetApplication, calleeDepth);
-            if (searchCalleeNode) {
-                final LinkDataMap callee = mapStatisticsCalleeDao.selectCallee(targetApplication, range);
+            final Future<LinkDataMap> calleeFuture = calleeFutureList.get(i);
+            if (calleeFuture != null) {
+                final LinkDataMap callee = getResult(calleeFuture);
                 if (logger.isInfoEnabled()) {
                     logger.debug("Found Callee. count={}, callee={}, depth={}", callee.size(), targetApplication, calleeDepth.getDepth());
                 }
@@ -122,10 +160,97 @@ public class BFSLinkSelector implements LinkSelector {
                 }
             }
         }
+        prefetchedAcceptApplication.clear();
         logger.debug("{} depth search end", callerDepth.getDepth());
         return searchResult;
     }
 
+    private Future<LinkDataMap> submitSelectCaller(final Application application, final Range range) {
+        return submit(new Callable<LinkDataMap>() {
+            @Override
+            public LinkDataMap call() throws Exception {
+                return mapStatisticsCallerDao.selectCaller(application, range);
+            }
+        });
+    }
+
+    private Future<LinkDataMap> submitSelectCallee(final Application application, final Range range) {
+        return submit(new Callable<LinkDataMap>() {
+            @Override
+            public LinkDataMap call() throws Exception {
+                return mapStatisticsCalleeDao.selectCallee(application, range);
+            }
+        });
+    }
+
+    private <V> Future<V> submit(Callable<V> task) {
+        final FutureTask<V> future = new FutureTask<V>(task);
+        if (executor == null) {
+            future.run();
+        } else {
+            executor.execute(future);
+        }
+        return future;
+    }
+
+    private <V> V getResult(Future<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("link select interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * looks up the accept applications the rpc links of the level will miss in the local cache, concurrently.
+     */
+    private void prefetchAcceptApplication(List<LinkDataMap> callerList, final Range range) {
+        if (executor == null) {
+            return;
+        }
+        final Set<Application> missSet = new HashSet<Application>();
+        for (LinkDataMap caller : callerList) {
+            if (caller == null) {
+                continue;
+            }
+            for (LinkData linkData : caller.getLinkDataList()) {
+                final Application toApplication = linkData.getToApplication();
+                if (!toApplication.getServiceType().isRpcClient()) {
+                    continue;
+                }
+                final RpcApplication rpcApplication = new RpcApplication(toApplication.getName(), linkData.getFromApplication());
+                if (CollectionUtils.isEmpty(this.acceptApplicationLocalCache.get(rpcApplication))) {
+                    missSet.add(linkData.getFromApplication());
+                }
+            }
+        }
+        if (missSet.isEmpty()) {
+            return;
+        }
+        final Map<Application, Future<Set<AcceptApplication>>> futureMap = new HashMap<Application, Future<Set<AcceptApplication>>>();
+        for (final Application fromApplication : missSet) {
+            futureMap.put(fromApplication, submit(new Callable<Set<AcceptApplication>>() {
+                @Override
+                public Set<AcceptApplication> call() throws Exception {
+                    return hostApplicationMapDao.findAcceptApplicationName(fromApplication, range);
+                }
+            }));
+        }
+        for (Map.Entry<Application, Future<Set<AcceptApplication>>> entry : futureMap.entrySet()) {
+            prefetchedAcceptApplication.put(entry.getKey(), getResult(entry.getValue()));
+        }
+    }
+
     private void addNextNode(Application sourceApplication) {
         final boolean add = this.nextQueue.addNextNode(sourceApplication);
         if (!add) {
@@ -223,7 +348,7 @@ public class BFSLinkSelector implements LinkSelector {
             logger.debug("acceptApplicationLocalCache hit {}", rpcApplication);
             return hit;
         }
-        final Set<AcceptApplication> acceptApplicationSet= hostApplicationMapDao.findAcceptApplicationName(fromApplication, range);
+        final Set<AcceptApplication> acceptApplicationSet = findAcceptApplicationName(fromApplication, range);
         this.acceptApplicationLocalCache.put(rpcApplication, acceptApplicationSet);
 
         Set<AcceptApplication> acceptApplication = this.acceptApplicationLocalCache.get(rpcApplication);
@@ -231,6 +356,14 @@ public class BFSLinkSelector implements LinkSelector {
         return acceptApplication;
     }
 
+    private Set<AcceptApplication> findAcceptApplicationName(Application fromApplication, Range range) {
+        // the lookup depends only on the caller, a prefetched result is the same as the result of a new lookup
+        if (prefetchedAcceptApplication.containsKey(fromApplication)) {
+            return prefetchedAcceptApplication.get(fromApplication);
+        }
+        return hostApplicationMapDao.findAcceptApplicationName(fromApplication, range);
+    }
+
     private void fillEmulationLink(LinkDataDuplexMap linkDataDuplexMap) {
         // TODO need to be reimplemented - virtual node creation logic needs an overhaul.
         // Currently, only the reversed relationship node is displayed. We need to create a virtual node and convert the rpc data appropriately.
@@ -346,9 +479,13 @@ public class BFSLinkSelector implements LinkSelector {
 
         logger.info("unvisited callee node {}", unvisitedList);
 
-        final LinkDataMap calleeLinkData = new LinkDataMap();
+        final List<Future<LinkDataMap>> calleeFutureList = new ArrayList<Future<LinkDataMap>>(unvisitedList.size());
         for (Application application : unvisitedList) {
-            LinkDataMap callee = mapStatisticsCalleeDao.selectCallee(application, range);
+            calleeFutureList.add(submitSelectCallee(application, range));
+        }
+        final LinkDataMap calleeLinkData = new LinkDataMap();
+        for (Future<LinkDataMap> calleeFuture : calleeFutureList) {
+            LinkDataMap callee = getResult(calleeFuture);
             logger.debug("calleeNode:{}", callee);
             calleeLinkData.addLinkDataMap(callee);
         }
@@ -26,6 +26,7 @@ import java.util.Set;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
 import com.navercorp.pinpoint.common.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.trace.HistogramSchema;
 import com.navercorp.pinpoint.common.trace.HistogramSlot;
@@ -123,8 +124,7 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         StopWatch watch = new StopWatch();
         watch.start();
 
-        List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(traceIdSet);
-        List<SpanBo> filteredTransactionList = filterList(originalList, filter);
+        List<SpanBo> filteredTransactionList = selectFilteredSpanList(traceIdSet, filter);
 
         LoadFactor statistics = new LoadFactor(range);
 
@@ -158,23 +158,32 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         return statistics;
     }
 
-    private List<SpanBo> filterList(List<List<SpanBo>> transactionList, Filter filter) {
+    /**
+     * filters each transaction as it arrives, so transactions filtered out are never held all together.
+     */
+    private List<SpanBo> selectFilteredSpanList(Collection<TransactionId> transactionIdList, final Filter filter) {
         final List<SpanBo> filteredResult = new ArrayList<SpanBo>();
-        for (List<SpanBo> transaction : transactionList) {
-            if (filter.include(transaction)) {
-                filteredResult.addAll(transaction);
+        this.traceDao.selectAllSpans(transactionIdList, new ResultCallback<List<SpanBo>>() {
+            @Override
+            public void onResult(int index, List<SpanBo> transaction) {
+                if (filter.include(transaction)) {
+                    filteredResult.addAll(transaction);
+                }
             }
-        }
+        });
         return filteredResult;
     }
 
-    private List<List<SpanBo>> filterList2(List<List<SpanBo>> transactionList, Filter filter) {
+    private List<List<SpanBo>> selectFilteredTransactionList(Collection<TransactionId> transactionIdList, final Filter filter) {
         final List<List<SpanBo>> filteredResult = new ArrayList<List<SpanBo>>();
-        for (List<SpanBo> transaction : transactionList) {
-            if (filter.include(transaction)) {
-                filteredResult.add(transaction);
+        this.traceDao.selectAllSpans(transactionIdList, new ResultCallback<List<SpanBo>>() {
+            @Override
+            public void onResult(int index, List<SpanBo> transaction) {
+                if (filter.include(transaction)) {
+                    filteredResult.add(transaction);
+                }
             }
-        }
+        });
         return filteredResult;
     }
 
@@ -221,9 +230,7 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         final Collection<TransactionId> recursiveFilterList = recursiveCallFilter(transactionIdList);
 
         // FIXME might be better to simply traverse the List<Span> and create a process chain for execution
-        final List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(recursiveFilterList);
-
-        return filterList2(originalList, filter);
+        return selectFilteredTransactionList(recursiveFilterList, filter);
     }
 
     private ApplicationMap createMap(Range range, Range scanRange, List<List<SpanBo>> filterList) {
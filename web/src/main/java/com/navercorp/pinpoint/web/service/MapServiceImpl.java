@@ -19,6 +19,8 @@ package com.navercorp.pinpoint.web.service;
 import java.util.*;
 
 import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.common.util.TimeSlot;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMap;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMapBuilder;
 import com.navercorp.pinpoint.web.applicationmap.histogram.NodeHistogram;
@@ -26,14 +28,25 @@ import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
 import com.navercorp.pinpoint.web.applicationmap.link.MatcherGroup;
 import com.navercorp.pinpoint.web.applicationmap.rawdata.*;
 import com.navercorp.pinpoint.web.dao.*;
+import com.navercorp.pinpoint.web.service.map.CachedMapStatisticsCalleeDao;
+import com.navercorp.pinpoint.web.service.map.CachedMapStatisticsCallerDao;
+import com.navercorp.pinpoint.web.service.map.LinkDataMapCache;
 import com.navercorp.pinpoint.web.vo.*;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StopWatch;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author netspider
  * @author emeroad
@@ -62,6 +75,61 @@ public class MapServiceImpl implements MapService {
     @Autowired(required=false)
     private MatcherGroup matcherGroup;
 
+    @Autowired
+    private TimeSlot timeSlot;
+
+    @Value("#{pinpointWebProps['web.servermap.cache.enable'] ?: true}")
+    private boolean cacheEnable = true;
+
+    @Value("#{pinpointWebProps['web.servermap.cache.maxWeight'] ?: " + LinkDataMapCache.DEFAULT_MAX_WEIGHT + "}")
+    private long cacheMaxWeight = LinkDataMapCache.DEFAULT_MAX_WEIGHT;
+
+    @Value("#{pinpointWebProps['web.servermap.cache.closedSlotDelay'] ?: " + LinkDataMapCache.DEFAULT_CLOSED_SLOT_DELAY + "}")
+    private long cacheClosedSlotDelay = LinkDataMapCache.DEFAULT_CLOSED_SLOT_DELAY;
+
+    @Value("#{pinpointWebProps['web.servermap.cache.expireAfterWrite'] ?: " + LinkDataMapCache.DEFAULT_EXPIRE_AFTER_WRITE + "}")
+    private long cacheExpireAfterWrite = LinkDataMapCache.DEFAULT_EXPIRE_AFTER_WRITE;
+
+    // 0 to scan on the request thread
+    @Value("#{pinpointWebProps['web.servermap.select.threadSize'] ?: 16}")
+    private int selectThreadSize = 16;
+
+    private LinkDataMapCache linkDataMapCache;
+
+    // the dao of the link search. reads the closed slots from the cache when the cache is enabled
+    private MapStatisticsCallerDao linkSelectCallerDao;
+    private MapStatisticsCalleeDao linkSelectCalleeDao;
+
+    private ExecutorService linkSelectExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (cacheEnable) {
+            this.linkDataMapCache = new LinkDataMapCache(timeSlot, cacheMaxWeight, cacheClosedSlotDelay, cacheExpireAfterWrite);
+            this.linkSelectCallerDao = new CachedMapStatisticsCallerDao(mapStatisticsCallerDao, linkDataMapCache);
+            this.linkSelectCalleeDao = new CachedMapStatisticsCalleeDao(mapStatisticsCalleeDao, linkDataMapCache);
+        } else {
+            this.linkSelectCallerDao = mapStatisticsCallerDao;
+            this.linkSelectCalleeDao = mapStatisticsCalleeDao;
+        }
+        logger.info("servermap cache enable:{}, maxWeight:{}, closedSlotDelay:{}", cacheEnable, cacheMaxWeight, cacheClosedSlotDelay);
+        if (selectThreadSize > 0) {
+            // shared by every request, so the number of concurrent scans is bounded by the thread size
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(selectThreadSize, selectThreadSize, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new PinpointThreadFactory("Pinpoint-LinkSelect", true));
+            executor.allowCoreThreadTimeOut(true);
+            this.linkSelectExecutor = executor;
+        }
+        logger.info("servermap select threadSize:{}", selectThreadSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (linkSelectExecutor != null) {
+            linkSelectExecutor.shutdown();
+        }
+    }
+
     /**
      * Used in the main UI - draws the server map by querying the timeslot by time.
      */
@@ -78,8 +146,7 @@ public class MapServiceImpl implements MapService {
         StopWatch watch = new StopWatch("ApplicationMap");
         watch.start("ApplicationMap Hbase Io Fetch(Caller,Callee) Time");
 
-        LinkSelector linkSelector = new BFSLinkSelector(this.mapStatisticsCallerDao, this.mapStatisticsCalleeDao, hostApplicationMapDao);
-        LinkDataDuplexMap linkDataDuplexMap = linkSelector.select(sourceApplication, range, searchOption);
+        LinkDataDuplexMap linkDataDuplexMap = selectLink(sourceApplication, range, searchOption);
         watch.stop();
 
         watch.start("ApplicationMap MapBuilding(Response) Time");
@@ -88,11 +155,20 @@ public class MapServiceImpl implements MapService {
         watch.stop();
         if (logger.isInfoEnabled()) {
             logger.info("ApplicationMap BuildTime: {}", watch.prettyPrint());
+            if (linkDataMapCache != null) {
+                logger.info("ApplicationMap cache size:{}, {}, selectCount:{}", linkDataMapCache.size(), linkDataMapCache.getStats(), linkDataMapCache.getSelectCount());
+            }
         }
 
         return map;
     }
 
+    private LinkDataDuplexMap selectLink(Application sourceApplication, Range range, SearchOption searchOption) {
+        // BFSLinkSelector is not thread safe
+        LinkSelector linkSelector = new BFSLinkSelector(linkSelectCallerDao, linkSelectCalleeDao, hostApplicationMapDao, linkSelectExecutor);
+        return linkSelector.select(sourceApplication, range, searchOption);
+    }
+
 
     @Override
     @Deprecated
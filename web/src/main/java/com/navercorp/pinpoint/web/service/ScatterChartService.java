@@ -17,12 +17,15 @@
 package com.navercorp.pinpoint.web.service;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.web.filter.Filter;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.TransactionMetadataQuery;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
 
 import java.util.Collection;
 import java.util.List;
@@ -49,6 +52,31 @@ public interface ScatterChartService {
      */
     List<Dot> selectScatterData(String applicationName, Range range, int limit);
 
+    /**
+     * Streams the dots of the time range to the callback as they are scanned.
+     *
+     * @param applicationName
+     * @param range
+     * @param limit
+     * @param cursor cursor returned by the previous page, or null
+     * @param callback
+     * @return cursor to resume from, or null if there are no more dots
+     */
+    ScatterCursor selectScatterData(String applicationName, Range range, int limit, ScatterCursor cursor, ResultCallback<List<Dot>> callback);
+
+    /**
+     * Counts the dots of the time range into a (time, elapsed) grid instead of returning each dot.
+     * Use {@link ScatterHeatmap#getCellArea(int, int)} to select the dots of a cell.
+     *
+     * @param applicationName
+     * @param range
+     * @param xCount number of time buckets
+     * @param yCount number of elapsed time buckets
+     * @param maxElapsed upper bound of the elapsed time axis
+     * @return
+     */
+    ScatterHeatmap selectScatterHeatmap(String applicationName, Range range, int xCount, int yCount, int maxElapsed);
+
     /**
      * @param applicationName
      * @param area
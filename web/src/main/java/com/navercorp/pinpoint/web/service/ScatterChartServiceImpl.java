@@ -26,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
 import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.web.dao.TraceDao;
 import com.navercorp.pinpoint.web.filter.Filter;
@@ -34,6 +35,8 @@ import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.TransactionMetadataQuery;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
 
 /**
  * @author netspider
@@ -61,6 +64,28 @@ public class ScatterChartServiceImpl implements ScatterChartService {
         return applicationTraceIndexDao.scanTraceScatter(applicationName, range, limit);
     }
 
+    @Override
+    public ScatterCursor selectScatterData(String applicationName, Range range, int limit, ScatterCursor cursor, ResultCallback<List<Dot>> callback) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        return applicationTraceIndexDao.scanTraceScatter(applicationName, range, limit, cursor, callback);
+    }
+
+    @Override
+    public ScatterHeatmap selectScatterHeatmap(String applicationName, Range range, int xCount, int yCount, int maxElapsed) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        return applicationTraceIndexDao.scanTraceHeatmap(applicationName, range, xCount, yCount, maxElapsed);
+    }
+
     @Override
     public List<Dot> selectScatterData(String applicationName, SelectedScatterArea area, TransactionId offsetTransactionId, int offsetTransactionElapsed, int limit) {
         if (applicationName == null) {
@@ -18,7 +18,10 @@ package com.navercorp.pinpoint.web.service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.navercorp.pinpoint.common.bo.*;
 import com.navercorp.pinpoint.common.trace.AnnotationKey;
@@ -33,6 +36,7 @@ import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
 import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
 import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
 import com.navercorp.pinpoint.web.dao.TraceDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 
 import org.apache.commons.lang3.StringUtils;
@@ -79,16 +83,88 @@ public class SpanServiceImpl implements SpanService {
         final SpanResult result = order(spans, selectedSpanHint);
         final CallTreeIterator callTreeIterator = result.getCallTree();
         final List<SpanAlign> values = callTreeIterator.values();
-        
-        transitionDynamicApiId(values);
-        transitionSqlId(values);
-        transitionCachedString(values);
-        transitionException(values);
+
+        // resolve every metadata id of the trace with a single multi-get per metadata table
+        final Map<MetaDataKey, List<ApiMetaDataBo>> apiMetaDataMap = apiMetaDataDao.getApiMetaData(collectApiMetaDataKey(values));
+        final Map<MetaDataKey, List<SqlMetaDataBo>> sqlMetaDataMap = sqlMetaDataDao.getSqlMetaData(collectSqlMetaDataKey(values));
+        final Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap = stringMetaDataDao.getStringMetaData(collectStringMetaDataKey(values));
+
+        transitionDynamicApiId(values, apiMetaDataMap);
+        transitionSqlId(values, sqlMetaDataMap);
+        transitionCachedString(values, stringMetaDataMap);
+        transitionException(values, stringMetaDataMap);
         // TODO need to at least show the row data when root span is not found. 
         return result;
     }
 
+    private Set<MetaDataKey> collectApiMetaDataKey(List<SpanAlign> spanAlignList) {
+        final Set<MetaDataKey> keySet = new HashSet<MetaDataKey>();
+        for (SpanAlign spanAlign : spanAlignList) {
+            final AgentKey agentKey = getAgentKey(spanAlign);
+            keySet.add(new MetaDataKey(agentKey.getAgentId(), agentKey.getAgentStartTime(), getApiId(spanAlign)));
+        }
+        return keySet;
+    }
 
+    private Set<MetaDataKey> collectSqlMetaDataKey(List<SpanAlign> spanAlignList) {
+        final Set<MetaDataKey> keySet = new HashSet<MetaDataKey>();
+        for (SpanAlign spanAlign : spanAlignList) {
+            final List<AnnotationBo> annotationBoList = getAnnotationBoList(spanAlign);
+            if (annotationBoList == null) {
+                continue;
+            }
+            final AnnotationBo sqlIdAnnotation = findAnnotation(annotationBoList, AnnotationKey.SQL_ID.getCode());
+            if (sqlIdAnnotation == null) {
+                continue;
+            }
+            final AgentKey agentKey = getAgentKey(spanAlign);
+            final IntStringStringValue sqlValue = (IntStringStringValue) sqlIdAnnotation.getValue();
+            keySet.add(new MetaDataKey(agentKey.getAgentId(), agentKey.getAgentStartTime(), sqlValue.getIntValue()));
+        }
+        return keySet;
+    }
+
+    private Set<MetaDataKey> collectStringMetaDataKey(List<SpanAlign> spanAlignList) {
+        final Set<MetaDataKey> keySet = new HashSet<MetaDataKey>();
+        for (SpanAlign spanAlign : spanAlignList) {
+            final AgentKey agentKey = getAgentKey(spanAlign);
+            final List<AnnotationBo> annotationBoList = getAnnotationBoList(spanAlign);
+            if (annotationBoList != null) {
+                for (AnnotationBo annotationBo : findCachedStringAnnotation(annotationBoList)) {
+                    final int stringMetaDataId = (Integer) annotationBo.getValue();
+                    keySet.add(new MetaDataKey(agentKey.getAgentId(), agentKey.getAgentStartTime(), stringMetaDataId));
+                }
+            }
+            if (spanAlign.isSpan()) {
+                final SpanBo spanBo = spanAlign.getSpanBo();
+                if (spanBo.hasException()) {
+                    keySet.add(new MetaDataKey(spanBo.getAgentId(), spanBo.getAgentStartTime(), spanBo.getExceptionId()));
+                }
+            } else {
+                final SpanEventBo spanEventBo = spanAlign.getSpanEventBo();
+                if (spanEventBo.hasException()) {
+                    keySet.add(new MetaDataKey(spanEventBo.getAgentId(), spanEventBo.getAgentStartTime(), spanEventBo.getExceptionId()));
+                }
+            }
+        }
+        return keySet;
+    }
+
+    private List<AnnotationBo> getAnnotationBoList(SpanAlign spanAlign) {
+        if (spanAlign.isSpan()) {
+            return spanAlign.getSpanBo().getAnnotationBoList();
+        } else {
+            return spanAlign.getSpanEventBo().getAnnotationBoList();
+        }
+    }
+
+    private <T> List<T> getMetaData(Map<MetaDataKey, List<T>> metaDataMap, String agentId, long agentStartTime, int id) {
+        final List<T> metaDataList = metaDataMap.get(new MetaDataKey(agentId, agentStartTime, id));
+        if (metaDataList == null) {
+            return Collections.emptyList();
+        }
+        return metaDataList;
+    }
 
     private void transitionAnnotation(List<SpanAlign> spans, AnnotationReplacementCallback annotationReplacementCallback) {
         for (SpanAlign spanAlign : spans) {
@@ -111,7 +187,7 @@ public class SpanServiceImpl implements SpanService {
         }
     }
 
-    private void transitionSqlId(final List<SpanAlign> spans) {
+    private void transitionSqlId(final List<SpanAlign> spans, final Map<MetaDataKey, List<SqlMetaDataBo>> sqlMetaDataMap) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(SpanAlign spanAlign, List<AnnotationBo> annotationBoList) {
@@ -126,7 +202,7 @@ public class SpanServiceImpl implements SpanService {
                 final IntStringStringValue sqlValue = (IntStringStringValue) sqlIdAnnotation.getValue();
                 final int hashCode = sqlValue.getIntValue();
                 final String sqlParam = sqlValue.getStringValue1();
-                final List<SqlMetaDataBo> sqlMetaDataList = sqlMetaDataDao.getSqlMetaData(agentKey.getAgentId(), agentKey.getAgentStartTime(), hashCode);
+                final List<SqlMetaDataBo> sqlMetaDataList = getMetaData(sqlMetaDataMap, agentKey.getAgentId(), agentKey.getAgentStartTime(), hashCode);
                 final int size = sqlMetaDataList.size();
                 if (size == 0) {
                     AnnotationBo api = new AnnotationBo();
@@ -219,14 +295,14 @@ public class SpanServiceImpl implements SpanService {
     }
 
 
-    private void transitionDynamicApiId(List<SpanAlign> spans) {
+    private void transitionDynamicApiId(List<SpanAlign> spans, final Map<MetaDataKey, List<ApiMetaDataBo>> apiMetaDataMap) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(SpanAlign spanAlign, List<AnnotationBo> annotationBoList) {
                 final AgentKey key = getAgentKey(spanAlign);
                 final int apiId = getApiId(spanAlign);
                 // may be able to get a more accurate data using agentIdentifier.
-                List<ApiMetaDataBo> apiMetaDataList = apiMetaDataDao.getApiMetaData(key.getAgentId(), key.getAgentStartTime(), apiId);
+                List<ApiMetaDataBo> apiMetaDataList = getMetaData(apiMetaDataMap, key.getAgentId(), key.getAgentStartTime(), apiId);
                 int size = apiMetaDataList.size();
                 if (size == 0) {
                     AnnotationBo api = new AnnotationBo();
@@ -265,7 +341,7 @@ public class SpanServiceImpl implements SpanService {
         });
     }
 
-    private void transitionCachedString(List<SpanAlign> spans) {
+    private void transitionCachedString(List<SpanAlign> spans, final Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(SpanAlign spanAlign, List<AnnotationBo> annotationBoList) {
@@ -277,7 +353,7 @@ public class SpanServiceImpl implements SpanService {
                 for (AnnotationBo annotationBo : cachedStringAnnotation) {
                     final int cachedArgsKey = annotationBo.getKey();
                     int stringMetaDataId = (Integer) annotationBo.getValue();
-                    List<StringMetaDataBo> stringMetaList = stringMetaDataDao.getStringMetaData(key.getAgentId(), key.getAgentStartTime(), stringMetaDataId);
+                    List<StringMetaDataBo> stringMetaList = getMetaData(stringMetaDataMap, key.getAgentId(), key.getAgentStartTime(), stringMetaDataId);
                     int size = stringMetaList.size();
                     if (size == 0) {
                         logger.warn("StringMetaData not Found {}/{}/{}", key.getAgentId(), stringMetaDataId, key.getAgentStartTime());
@@ -313,18 +389,18 @@ public class SpanServiceImpl implements SpanService {
         return findAnnotationBoList;
     }
 
-    private void transitionException(List<SpanAlign> spanAlignList) {
+    private void transitionException(List<SpanAlign> spanAlignList, Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap) {
         for (SpanAlign spanAlign : spanAlignList) {
             if (spanAlign.isSpan()) {
                 final SpanBo spanBo = spanAlign.getSpanBo();
                 if (spanBo.hasException()) {
-                    StringMetaDataBo stringMetaData = selectStringMetaData(spanBo.getAgentId(), spanBo.getExceptionId(), spanBo.getAgentStartTime());
+                    StringMetaDataBo stringMetaData = selectStringMetaData(stringMetaDataMap, spanBo.getAgentId(), spanBo.getExceptionId(), spanBo.getAgentStartTime());
                     spanBo.setExceptionClass(stringMetaData.getStringValue());
                 }
             } else {
                 final SpanEventBo spanEventBo = spanAlign.getSpanEventBo();
                 if (spanEventBo.hasException()) {
-                    StringMetaDataBo stringMetaData = selectStringMetaData(spanEventBo.getAgentId(), spanEventBo.getExceptionId(), spanEventBo.getAgentStartTime());
+                    StringMetaDataBo stringMetaData = selectStringMetaData(stringMetaDataMap, spanEventBo.getAgentId(), spanEventBo.getExceptionId(), spanEventBo.getAgentStartTime());
                     if (stringMetaData != null) {
                         spanEventBo.setExceptionClass(stringMetaData.getStringValue());
                     }
@@ -334,8 +410,8 @@ public class SpanServiceImpl implements SpanService {
 
     }
 
-    private StringMetaDataBo selectStringMetaData(String agentId, int cacheId, long agentStartTime) {
-        final List<StringMetaDataBo> metaDataList = stringMetaDataDao.getStringMetaData(agentId, agentStartTime, cacheId);
+    private StringMetaDataBo selectStringMetaData(Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap, String agentId, int cacheId, long agentStartTime) {
+        final List<StringMetaDataBo> metaDataList = getMetaData(stringMetaDataMap, agentId, agentStartTime, cacheId);
         if (metaDataList == null || metaDataList.isEmpty()) {
             logger.warn("StringMetaData not Found agent:{}, cacheId{}, agentStartTime:{}", agentId, cacheId, agentStartTime);
             StringMetaDataBo stringMetaDataBo = new StringMetaDataBo(agentId, agentStartTime, cacheId);
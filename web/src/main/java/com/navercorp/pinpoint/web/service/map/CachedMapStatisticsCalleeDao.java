@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+
+import java.util.List;
+
+/**
+ * reads the callee links of the closed time slots from {@link LinkDataMapCache}.
+ *
+ * @author agent
+ */
+public class CachedMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
+
+    private final MapStatisticsCalleeDao mapStatisticsCalleeDao;
+    private final LinkDataMapCache linkDataMapCache;
+
+    public CachedMapStatisticsCalleeDao(MapStatisticsCalleeDao mapStatisticsCalleeDao, LinkDataMapCache linkDataMapCache) {
+        if (mapStatisticsCalleeDao == null) {
+            throw new NullPointerException("mapStatisticsCalleeDao must not be null");
+        }
+        if (linkDataMapCache == null) {
+            throw new NullPointerException("linkDataMapCache must not be null");
+        }
+        this.mapStatisticsCalleeDao = mapStatisticsCalleeDao;
+        this.linkDataMapCache = linkDataMapCache;
+    }
+
+    @Override
+    public LinkDataMap selectCallee(final Application calleeApplication, Range range) {
+        return linkDataMapCache.get(LinkDataMapCache.LinkDirection.CALLEE, calleeApplication, range, new LinkDataMapCache.Loader() {
+            @Override
+            public LinkDataMap load(Range selectRange) {
+                return mapStatisticsCalleeDao.selectCallee(calleeApplication, selectRange);
+            }
+        });
+    }
+
+    @Override
+    @Deprecated
+    public List<LinkDataMap> selectCalleeStatistics(Application callerApplication, Application calleeApplication, Range range) {
+        return mapStatisticsCalleeDao.selectCalleeStatistics(callerApplication, calleeApplication, range);
+    }
+}
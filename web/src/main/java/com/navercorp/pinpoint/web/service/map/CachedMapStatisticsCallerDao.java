@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+
+import java.util.List;
+
+/**
+ * reads the caller links of the closed time slots from {@link LinkDataMapCache}.
+ *
+ * @author agent
+ */
+public class CachedMapStatisticsCallerDao implements MapStatisticsCallerDao {
+
+    private final MapStatisticsCallerDao mapStatisticsCallerDao;
+    private final LinkDataMapCache linkDataMapCache;
+
+    public CachedMapStatisticsCallerDao(MapStatisticsCallerDao mapStatisticsCallerDao, LinkDataMapCache linkDataMapCache) {
+        if (mapStatisticsCallerDao == null) {
+            throw new NullPointerException("mapStatisticsCallerDao must not be null");
+        }
+        if (linkDataMapCache == null) {
+            throw new NullPointerException("linkDataMapCache must not be null");
+        }
+        this.mapStatisticsCallerDao = mapStatisticsCallerDao;
+        this.linkDataMapCache = linkDataMapCache;
+    }
+
+    @Override
+    public LinkDataMap selectCaller(final Application callerApplication, Range range) {
+        return linkDataMapCache.get(LinkDataMapCache.LinkDirection.CALLER, callerApplication, range, new LinkDataMapCache.Loader() {
+            @Override
+            public LinkDataMap load(Range selectRange) {
+                return mapStatisticsCallerDao.selectCaller(callerApplication, selectRange);
+            }
+        });
+    }
+
+    @Override
+    public List<LinkDataMap> selectCallerStatistics(Application callerApplication, Application calleeApplication, Range range) {
+        return mapStatisticsCallerDao.selectCallerStatistics(callerApplication, calleeApplication, range);
+    }
+}
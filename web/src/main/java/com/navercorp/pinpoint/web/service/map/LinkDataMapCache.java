@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkCallData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * cache of the caller/callee {@link LinkDataMap} of each application, per statistics time slot.
+ * a slot is closed when it does not receive new statistics any more. the closed slots are cached one by one,
+ * so a sliding range reuses every closed slot it shares with the previous range.
+ * the missing closed slots and the open slots are selected together, one select per contiguous run of slots.
+ * <p>
+ * the link search runs over the merged closed and open slots of each node, so the result is the same as the uncached select.
+ * the cached maps are never exposed. the result is always a new map merged from them.
+ *
+ * @author agent
+ */
+public class LinkDataMapCache {
+
+    public static final long DEFAULT_MAX_WEIGHT = 1024 * 1024 * 64;
+    // late spans of long transactions are still added to a slot after the slot time has passed
+    public static final long DEFAULT_CLOSED_SLOT_DELAY = 60 * 1000;
+    public static final long DEFAULT_EXPIRE_AFTER_WRITE = 10 * 60 * 1000;
+
+    // rough heap size of each object of the map
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int LINK_DATA_SIZE = 256;
+    private static final int LINK_CALL_DATA_SIZE = 192;
+    private static final int TIME_HISTOGRAM_SIZE = 128;
+
+    public enum LinkDirection {
+        CALLER, CALLEE
+    }
+
+    private final TimeSlot timeSlot;
+    private final long closedSlotDelay;
+    private final Cache<Key, LinkDataMap> cache;
+
+    private final AtomicLong selectCount = new AtomicLong();
+
+    public LinkDataMapCache(TimeSlot timeSlot) {
+        this(timeSlot, DEFAULT_MAX_WEIGHT, DEFAULT_CLOSED_SLOT_DELAY, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    public LinkDataMapCache(TimeSlot timeSlot, long maxWeight, long closedSlotDelay, long expireAfterWrite) {
+        if (timeSlot == null) {
+            throw new NullPointerException("timeSlot must not be null");
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive. maxWeight:" + maxWeight);
+        }
+        if (closedSlotDelay < 0) {
+            throw new IllegalArgumentException("negative closedSlotDelay:" + closedSlotDelay);
+        }
+        if (expireAfterWrite <= 0) {
+            throw new IllegalArgumentException("expireAfterWrite must be positive. expireAfterWrite:" + expireAfterWrite);
+        }
+        this.timeSlot = timeSlot;
+        this.closedSlotDelay = closedSlotDelay;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(new Weigher<Key, LinkDataMap>() {
+                    @Override
+                    public int weigh(Key key, LinkDataMap value) {
+                        return weighLinkDataMap(value);
+                    }
+                })
+                .expireAfterWrite(expireAfterWrite, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public interface Loader {
+        LinkDataMap load(Range range);
+    }
+
+    public LinkDataMap get(LinkDirection direction, Application application, Range range, Loader loader) {
+        return get(direction, application, range, loader, System.currentTimeMillis());
+    }
+
+    LinkDataMap get(LinkDirection direction, Application application, Range range, Loader loader, long currentTime) {
+        if (direction == null) {
+            throw new NullPointerException("direction must not be null");
+        }
+        if (application == null) {
+            throw new NullPointerException("application must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (loader == null) {
+            throw new NullPointerException("loader must not be null");
+        }
+        final long resolution = timeSlot.getResolution();
+        final long fromSlot = timeSlot.getTimeSlot(range.getFrom());
+        final long toSlot = timeSlot.getTimeSlot(range.getTo());
+        // a slot is closed when the slot has ended closedSlotDelay ago
+        final long lastClosedSlot = timeSlot.getTimeSlot(currentTime - closedSlotDelay) - resolution;
+
+        final int slotCount = (int) ((toSlot - fromSlot) / resolution) + 1;
+        final LinkDataMap[] cachedSlot = new LinkDataMap[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            final long slot = fromSlot + i * resolution;
+            if (slot > lastClosedSlot) {
+                break;
+            }
+            cachedSlot[i] = cache.getIfPresent(new Key(direction, application, slot));
+        }
+
+        final LinkDataMap result = new LinkDataMap();
+        int index = 0;
+        while (index < slotCount) {
+            if (cachedSlot[index] != null) {
+                result.addLinkDataMap(cachedSlot[index]);
+                index++;
+                continue;
+            }
+            int lastIndex = index;
+            while (lastIndex + 1 < slotCount && cachedSlot[lastIndex + 1] == null) {
+                lastIndex++;
+            }
+            final long runFromSlot = fromSlot + index * resolution;
+            final long runToSlot = fromSlot + lastIndex * resolution;
+            selectCount.incrementAndGet();
+            final LinkDataMap loaded = loader.load(new Range(runFromSlot, runToSlot));
+            result.addLinkDataMap(loaded);
+            if (runFromSlot <= lastClosedSlot) {
+                putClosedSlot(direction, application, loaded, runFromSlot, Math.min(runToSlot, lastClosedSlot));
+            }
+            index = lastIndex + 1;
+        }
+        return result;
+    }
+
+    private void putClosedSlot(LinkDirection direction, Application application, LinkDataMap loaded, long fromSlot, long toSlot) {
+        final Map<Long, LinkDataMap> slotMap = splitBySlot(loaded);
+        for (long slot = fromSlot; slot <= toSlot; slot += timeSlot.getResolution()) {
+            LinkDataMap linkDataMap = slotMap.get(slot);
+            if (linkDataMap == null) {
+                // an empty slot is cached too, so that it is not selected again
+                linkDataMap = new LinkDataMap();
+            }
+            cache.put(new Key(direction, application, slot), linkDataMap);
+        }
+    }
+
+    private Map<Long, LinkDataMap> splitBySlot(LinkDataMap loaded) {
+        final Map<Long, LinkDataMap> slotMap = new HashMap<Long, LinkDataMap>();
+        for (LinkData linkData : loaded.getLinkDataList()) {
+            for (LinkCallData linkCallData : linkData.getLinkCallDataMap().getLinkDataList()) {
+                for (TimeHistogram timeHistogram : linkCallData.getTimeHistogram()) {
+                    final long slot = timeSlot.getTimeSlot(timeHistogram.getTimeStamp());
+                    LinkDataMap linkDataMap = slotMap.get(slot);
+                    if (linkDataMap == null) {
+                        linkDataMap = new LinkDataMap();
+                        slotMap.put(slot, linkDataMap);
+                    }
+                    final LinkData slotLinkData = new LinkData(linkData.getFromApplication(), linkData.getToApplication());
+                    slotLinkData.getLinkCallDataMap().addCallData(linkCallData.getSource(), linkCallData.getSourceServiceType(),
+                            linkCallData.getTarget(), linkCallData.getTargetServiceType(), Collections.singletonList(timeHistogram));
+                    linkDataMap.addLinkData(slotLinkData);
+                }
+            }
+        }
+        return slotMap;
+    }
+
+    static int weighLinkDataMap(LinkDataMap linkDataMap) {
+        long weight = ENTRY_OVERHEAD;
+        for (LinkData linkData : linkDataMap.getLinkDataList()) {
+            weight += LINK_DATA_SIZE;
+            for (LinkCallData linkCallData : linkData.getLinkCallDataMap().getLinkDataList()) {
+                weight += LINK_CALL_DATA_SIZE + (linkCallData.getSource().length() + linkCallData.getTarget().length()) * 2;
+                weight += linkCallData.getTimeHistogram().size() * TIME_HISTOGRAM_SIZE;
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * hit and miss of the closed slots
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * number of the selects of the missing closed slots and the open slots
+     */
+    public long getSelectCount() {
+        return selectCount.get();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static final class Key {
+        private final LinkDirection direction;
+        private final Application application;
+        private final long slot;
+
+        private Key(LinkDirection direction, Application application, long slot) {
+            this.direction = direction;
+            this.application = application;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            if (slot != key.slot) return false;
+            if (direction != key.direction) return false;
+            if (!application.equals(key.application)) return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = direction.hashCode();
+            result = 31 * result + application.hashCode();
+            result = 31 * result + (int) (slot ^ (slot >>> 32));
+            return result;
+        }
+    }
+}
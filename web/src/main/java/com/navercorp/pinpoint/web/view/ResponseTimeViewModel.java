@@ -19,15 +19,20 @@ package com.navercorp.pinpoint.web.view;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * @author emeroad
  */
+@JsonSerialize(using=ResponseTimeViewModelSerializer.class)
 public class ResponseTimeViewModel {
 
     private final String columnName;
-    private final List<TimeCount> columnValue;
+    // columnar time series. timeStamps[i] and counts[i] are a point
+    private final long[] timeStamps;
+    private final long[] counts;
 
     public ResponseTimeViewModel(String columnName, List<TimeCount> columnValue) {
         if (columnName == null) {
@@ -37,7 +42,31 @@ public class ResponseTimeViewModel {
             throw new NullPointerException("columnValue must not be null");
         }
         this.columnName = columnName;
-        this.columnValue = columnValue;
+        this.timeStamps = new long[columnValue.size()];
+        this.counts = new long[columnValue.size()];
+        for (int i = 0; i < timeStamps.length; i++) {
+            final TimeCount timeCount = columnValue.get(i);
+            timeStamps[i] = timeCount.getTime();
+            counts[i] = timeCount.getCount();
+        }
+    }
+
+    public ResponseTimeViewModel(String columnName, long[] timeStamps, long[] counts) {
+        if (columnName == null) {
+            throw new NullPointerException("columnName must not be null");
+        }
+        if (timeStamps == null) {
+            throw new NullPointerException("timeStamps must not be null");
+        }
+        if (counts == null) {
+            throw new NullPointerException("counts must not be null");
+        }
+        if (timeStamps.length != counts.length) {
+            throw new IllegalArgumentException("timeStamps.length:" + timeStamps.length + " counts.length:" + counts.length);
+        }
+        this.columnName = columnName;
+        this.timeStamps = timeStamps;
+        this.counts = counts;
     }
 
     @JsonProperty("key")
@@ -47,9 +76,25 @@ public class ResponseTimeViewModel {
 
     @JsonProperty("values")
     public List<TimeCount> getColumnValue() {
+        final List<TimeCount> columnValue = new ArrayList<TimeCount>(timeStamps.length);
+        for (int i = 0; i < timeStamps.length; i++) {
+            columnValue.add(new TimeCount(timeStamps[i], counts[i]));
+        }
         return columnValue;
     }
 
+    int size() {
+        return timeStamps.length;
+    }
+
+    long getTimeStamp(int index) {
+        return timeStamps[index];
+    }
+
+    long getCount(int index) {
+        return counts[index];
+    }
+
     @JsonSerialize(using=TimeCountSerializer.class)
     public static class TimeCount {
 
@@ -70,4 +115,12 @@ public class ResponseTimeViewModel {
         }
     }
 
+    @Override
+    public String toString() {
+        return "ResponseTimeViewModel{" +
+                "columnName='" + columnName + '\'' +
+                ", timeStamps=" + Arrays.toString(timeStamps) +
+                ", counts=" + Arrays.toString(counts) +
+                '}';
+    }
 }
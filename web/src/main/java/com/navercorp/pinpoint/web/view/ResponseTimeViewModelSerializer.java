@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * writes the columnar time series without creating a {@link ResponseTimeViewModel.TimeCount} per point
+ * @author agent
+ */
+public class ResponseTimeViewModelSerializer extends JsonSerializer<ResponseTimeViewModel> {
+    @Override
+    public void serialize(ResponseTimeViewModel value, JsonGenerator jgen, SerializerProvider provider) throws IOException, JsonProcessingException {
+        jgen.writeStartObject();
+        jgen.writeStringField("key", value.getColumnName());
+        jgen.writeArrayFieldStart("values");
+        final int size = value.size();
+        for (int i = 0; i < size; i++) {
+            jgen.writeStartArray();
+            jgen.writeNumber(value.getTimeStamp(i));
+            jgen.writeNumber(value.getCount(i));
+            jgen.writeEndArray();
+        }
+        jgen.writeEndArray();
+        jgen.writeEndObject();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterHeatmap;
+
+import java.io.IOException;
+
+/**
+ * only the non-empty cells are written as [x, y, successCount, failedCount]
+ *
+ * @author agent
+ */
+public class ScatterHeatmapSerializer extends JsonSerializer<ScatterHeatmap> {
+    @Override
+    public void serialize(ScatterHeatmap heatmap, JsonGenerator jgen, SerializerProvider provider) throws IOException, JsonProcessingException {
+        jgen.writeStartObject();
+        jgen.writeNumberField("from", heatmap.getFrom());
+        jgen.writeNumberField("to", heatmap.getTo());
+        jgen.writeNumberField("xCount", heatmap.getXCount());
+        jgen.writeNumberField("yCount", heatmap.getYCount());
+        jgen.writeNumberField("xBucketSize", heatmap.getXBucketSize());
+        jgen.writeNumberField("yBucketSize", heatmap.getYBucketSize());
+
+        jgen.writeArrayFieldStart("cells");
+        for (int x = 0; x < heatmap.getXCount(); x++) {
+            for (int y = 0; y < heatmap.getYCount(); y++) {
+                final int successCount = heatmap.getSuccessCount(x, y);
+                final int failedCount = heatmap.getFailedCount(x, y);
+                if (successCount == 0 && failedCount == 0) {
+                    continue;
+                }
+                jgen.writeStartArray();
+                jgen.writeNumber(x);
+                jgen.writeNumber(y);
+                jgen.writeNumber(successCount);
+                jgen.writeNumber(failedCount);
+                jgen.writeEndArray();
+            }
+        }
+        jgen.writeEndArray();
+
+        jgen.writeEndObject();
+    }
+}
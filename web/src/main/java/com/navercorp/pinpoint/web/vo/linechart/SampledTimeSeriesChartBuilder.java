@@ -16,75 +16,82 @@
 
 package com.navercorp.pinpoint.web.vo.linechart;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.navercorp.pinpoint.web.util.TimeWindow;
-import com.navercorp.pinpoint.web.vo.linechart.Chart.Point;
+import com.navercorp.pinpoint.web.vo.linechart.Chart.ChartBuilder;
 import com.navercorp.pinpoint.web.vo.linechart.Chart.Points;
 
 /**
+ * streaming time series chart builder.
+ * a data point is folded into the min/max/avg accumulator of its timeslot as soon as it is added,
+ * so only one accumulator per timeslot is kept instead of every data point.
+ *
  * @author hyungil.jeong
  */
-public abstract class SampledTimeSeriesChartBuilder<Y extends Number> extends SampledChartBuilder<Long, Y> {
+public abstract class SampledTimeSeriesChartBuilder<Y extends Number> extends ChartBuilder<Long, Y> {
 
     private final TimeWindow timeWindow;
-    private final Y defaultValue;
-    private final List<List<Y>> timeslots;
-    
-    protected SampledTimeSeriesChartBuilder(TimeWindow timeWindow, Y defaultValue) {
-        this.defaultValue = defaultValue;
+    private final int numTimeslots;
+    private int numDataPoints;
+
+    protected SampledTimeSeriesChartBuilder(TimeWindow timeWindow) {
+        if (timeWindow == null) {
+            throw new NullPointerException("timeWindow must not be null");
+        }
         this.timeWindow = timeWindow;
         if (this.timeWindow.getWindowRangeCount() > Integer.MAX_VALUE) {
             throw new IllegalArgumentException("range yields too many timeslots");
         }
-        int numTimeslots = (int)(long)this.timeWindow.getWindowRangeCount();
-        this.timeslots = new ArrayList<List<Y>>(numTimeslots);
-        initializeTimeslots(numTimeslots);
+        this.numTimeslots = (int)(long)this.timeWindow.getWindowRangeCount();
     }
-    
-    private void initializeTimeslots(int numTimeslots) {
-        for (int i = 0; i < numTimeslots; ++i) {
-            this.timeslots.add(new ArrayList<Y>());
+
+    protected int getNumTimeslots() {
+        return numTimeslots;
+    }
+
+    /**
+     * @return index of the timeslot, -1 if the timestamp is out of the window
+     */
+    protected int nextTimeslotIndex(long timestamp) {
+        final int timeslotIndex = this.timeWindow.getWindowIndex(timestamp);
+        if (timeslotIndex < 0 || timeslotIndex >= numTimeslots) {
+            return -1;
         }
+        numDataPoints++;
+        return timeslotIndex;
     }
-    
+
+    @Override
+    public void addDataPoint(DataPoint<Long, Y> dataPoint) {
+        if (dataPoint == null) {
+            throw new NullPointerException("dataPoint must not be null");
+        }
+        final int timeslotIndex = nextTimeslotIndex(dataPoint.getxVal());
+        if (timeslotIndex != -1) {
+            fold(timeslotIndex, dataPoint.getyVal());
+        }
+    }
+
+    protected abstract void fold(int timeslotIndex, Y value);
+
+    protected abstract Chart.Point makePoint(long timestamp, int timeslotIndex);
+
+    @Override
+    public int numDataPoints() {
+        return numDataPoints;
+    }
+
     @Override
     protected Points makePoints(List<DataPoint<Long, Y>> dataPoints) {
+        // data points are already folded into the timeslots
         Points points = new Points();
-        allocateDataPoints(dataPoints);
         int timeSlotIndex = 0;
         for (Long timestamp : this.timeWindow) {
-            List<Y> dataPointsToSample = this.timeslots.get(timeSlotIndex);
-            points.addPoint(makePoint(timestamp, dataPointsToSample));
+            points.addPoint(makePoint(timestamp, timeSlotIndex));
             ++timeSlotIndex;
         }
         return points;
     }
-    
-    private void allocateDataPoints(List<DataPoint<Long, Y>> dataPoints) {
-        for (DataPoint<Long, Y> dataPoint : dataPoints) {
-            int timeslotIndex = this.timeWindow.getWindowIndex(dataPoint.getxVal());
-            if (isValidIndex(timeslotIndex)) {
-                List<Y> timeSlottedDataPoints = this.timeslots.get(timeslotIndex);
-                timeSlottedDataPoints.add(dataPoint.getyVal());
-            }
-        }
-    }
-    
-    private Point makePoint(Long xVal, List<Y> sampleBuffer) {
-        if (sampleBuffer.isEmpty()) {
-            return new Point(xVal, this.defaultValue, this.defaultValue, this.defaultValue);
-        } else {
-            Y minVal = sampleMin(sampleBuffer);
-            Y maxVal = sampleMax(sampleBuffer);
-            Y avgVal = sampleAvg(sampleBuffer);
-            return new Point(xVal, minVal, maxVal, avgVal);
-        }
-    }
-    
-    private boolean isValidIndex(int timeslot) {
-        return timeslot >= 0 && timeslot < this.timeslots.size();
-    }
-    
+
 }
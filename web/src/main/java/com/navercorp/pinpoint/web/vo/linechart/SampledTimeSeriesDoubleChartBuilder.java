@@ -16,38 +16,92 @@
 
 package com.navercorp.pinpoint.web.vo.linechart;
 
-import java.util.List;
-
 import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.linechart.Chart.Point;
 
 /**
  * @author hyungil.jeong
  */
 public class SampledTimeSeriesDoubleChartBuilder extends SampledTimeSeriesChartBuilder<Double> {
     
-    private static final Double DEFAULT_VALUE = 0D;
+    private static final double DEFAULT_VALUE = 0D;
+
+    private final double defaultValue;
+
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final int[] count;
     
     public SampledTimeSeriesDoubleChartBuilder(TimeWindow timeWindow) {
-        super(timeWindow, DEFAULT_VALUE);
+        this(timeWindow, DEFAULT_VALUE);
     }
     
     public SampledTimeSeriesDoubleChartBuilder(TimeWindow timeWindow, double defaultValue) {
-        super(timeWindow, defaultValue);
+        super(timeWindow);
+        this.defaultValue = defaultValue;
+        final int numTimeslots = getNumTimeslots();
+        this.min = new double[numTimeslots];
+        this.max = new double[numTimeslots];
+        this.sum = new double[numTimeslots];
+        this.count = new int[numTimeslots];
     }
-    
-    @Override
-    protected Double sampleMin(List<Double> sampleBuffer) {
-        return DownSamplers.MIN.sampleDouble(sampleBuffer);
+
+    /**
+     * same as {@link #addDataPoint(DataPoint)} without boxing
+     */
+    public void addDataPoint(long timestamp, double value) {
+        final int timeslotIndex = nextTimeslotIndex(timestamp);
+        if (timeslotIndex != -1) {
+            fold(timeslotIndex, value);
+        }
+    }
+
+    /**
+     * folds a pre-aggregated sample (e.g. a rollup row) into the timeslot of the timestamp.
+     */
+    public void addSample(long timestamp, double min, double max, double sum, int count) {
+        if (count <= 0) {
+            return;
+        }
+        final int timeslotIndex = nextTimeslotIndex(timestamp);
+        if (timeslotIndex == -1) {
+            return;
+        }
+        if (this.count[timeslotIndex] == 0) {
+            this.min[timeslotIndex] = min;
+            this.max[timeslotIndex] = max;
+        } else {
+            this.min[timeslotIndex] = Math.min(this.min[timeslotIndex], min);
+            this.max[timeslotIndex] = Math.max(this.max[timeslotIndex], max);
+        }
+        this.sum[timeslotIndex] += sum;
+        this.count[timeslotIndex] += count;
     }
 
     @Override
-    protected Double sampleMax(List<Double> sampleBuffer) {
-        return DownSamplers.MAX.sampleDouble(sampleBuffer);
+    protected void fold(int timeslotIndex, Double value) {
+        fold(timeslotIndex, value.doubleValue());
+    }
+
+    private void fold(int timeslotIndex, double value) {
+        if (count[timeslotIndex] == 0) {
+            min[timeslotIndex] = value;
+            max[timeslotIndex] = value;
+        } else {
+            min[timeslotIndex] = Math.min(min[timeslotIndex], value);
+            max[timeslotIndex] = Math.max(max[timeslotIndex], value);
+        }
+        sum[timeslotIndex] += value;
+        count[timeslotIndex]++;
     }
 
     @Override
-    protected Double sampleAvg(List<Double> sampleBuffer) {
-        return DownSamplers.AVG.sampleDouble(sampleBuffer);
+    protected Point makePoint(long timestamp, int timeslotIndex) {
+        if (count[timeslotIndex] == 0) {
+            return new Point(timestamp, defaultValue, defaultValue, defaultValue);
+        }
+        return new Point(timestamp, min[timeslotIndex], max[timeslotIndex], sum[timeslotIndex] / count[timeslotIndex]);
     }
 
 }
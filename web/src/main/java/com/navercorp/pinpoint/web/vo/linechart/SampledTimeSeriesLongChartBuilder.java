@@ -16,38 +16,92 @@
 
 package com.navercorp.pinpoint.web.vo.linechart;
 
-import java.util.List;
-
 import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.linechart.Chart.Point;
 
 /**
  * @author hyungil.jeong
  */
 public class SampledTimeSeriesLongChartBuilder extends SampledTimeSeriesChartBuilder<Long> {
     
-    private static final Long DEFAULT_VALUE = 0L;
+    private static final long DEFAULT_VALUE = 0L;
+
+    private final long defaultValue;
+
+    private final long[] min;
+    private final long[] max;
+    private final long[] sum;
+    private final int[] count;
     
     public SampledTimeSeriesLongChartBuilder(TimeWindow timeWindow) {
-        super(timeWindow, DEFAULT_VALUE);
+        this(timeWindow, DEFAULT_VALUE);
     }
     
     public SampledTimeSeriesLongChartBuilder(TimeWindow timeWindow, long defaultValue) {
-        super(timeWindow, defaultValue);
+        super(timeWindow);
+        this.defaultValue = defaultValue;
+        final int numTimeslots = getNumTimeslots();
+        this.min = new long[numTimeslots];
+        this.max = new long[numTimeslots];
+        this.sum = new long[numTimeslots];
+        this.count = new int[numTimeslots];
     }
 
-    @Override
-    protected Long sampleMin(List<Long> sampleBuffer) {
-        return DownSamplers.MIN.sampleLong(sampleBuffer);
+    /**
+     * same as {@link #addDataPoint(DataPoint)} without boxing
+     */
+    public void addDataPoint(long timestamp, long value) {
+        final int timeslotIndex = nextTimeslotIndex(timestamp);
+        if (timeslotIndex != -1) {
+            fold(timeslotIndex, value);
+        }
+    }
+
+    /**
+     * folds a pre-aggregated sample (e.g. a rollup row) into the timeslot of the timestamp.
+     */
+    public void addSample(long timestamp, long min, long max, long sum, int count) {
+        if (count <= 0) {
+            return;
+        }
+        final int timeslotIndex = nextTimeslotIndex(timestamp);
+        if (timeslotIndex == -1) {
+            return;
+        }
+        if (this.count[timeslotIndex] == 0) {
+            this.min[timeslotIndex] = min;
+            this.max[timeslotIndex] = max;
+        } else {
+            this.min[timeslotIndex] = Math.min(this.min[timeslotIndex], min);
+            this.max[timeslotIndex] = Math.max(this.max[timeslotIndex], max);
+        }
+        this.sum[timeslotIndex] += sum;
+        this.count[timeslotIndex] += count;
     }
 
     @Override
-    protected Long sampleMax(List<Long> sampleBuffer) {
-        return DownSamplers.MAX.sampleLong(sampleBuffer);
+    protected void fold(int timeslotIndex, Long value) {
+        fold(timeslotIndex, value.longValue());
+    }
+
+    private void fold(int timeslotIndex, long value) {
+        if (count[timeslotIndex] == 0) {
+            min[timeslotIndex] = value;
+            max[timeslotIndex] = value;
+        } else {
+            min[timeslotIndex] = Math.min(min[timeslotIndex], value);
+            max[timeslotIndex] = Math.max(max[timeslotIndex], value);
+        }
+        sum[timeslotIndex] += value;
+        count[timeslotIndex]++;
     }
 
     @Override
-    protected Long sampleAvg(List<Long> sampleBuffer) {
-        return DownSamplers.AVG.sampleLong(sampleBuffer);
+    protected Point makePoint(long timestamp, int timeslotIndex) {
+        if (count[timeslotIndex] == 0) {
+            return new Point(timestamp, defaultValue, defaultValue, defaultValue);
+        }
+        return new Point(timestamp, min[timeslotIndex], max[timeslotIndex], sum[timeslotIndex] / count[timeslotIndex]);
     }
 
 }
@@ -22,10 +22,10 @@ import java.util.Map;
 
 import com.navercorp.pinpoint.common.bo.AgentStatCpuLoadBo;
 import com.navercorp.pinpoint.common.bo.AgentStatMemoryGcBo;
+import com.navercorp.pinpoint.common.bo.AgentStatRollupBo;
 import com.navercorp.pinpoint.web.util.TimeWindow;
 import com.navercorp.pinpoint.web.vo.AgentStat;
 import com.navercorp.pinpoint.web.vo.linechart.Chart;
-import com.navercorp.pinpoint.web.vo.linechart.DataPoint;
 import com.navercorp.pinpoint.web.vo.linechart.SampledTimeSeriesDoubleChartBuilder;
 import com.navercorp.pinpoint.web.vo.linechart.SampledTimeSeriesLongChartBuilder;
 import com.navercorp.pinpoint.web.vo.linechart.Chart.ChartBuilder;
@@ -70,11 +70,39 @@ public class AgentStatChartGroup {
 
     public void addAgentStats(List<AgentStat> agentStats) {
         for (AgentStat agentStat : agentStats) {
-            addMemoryGcData(agentStat.getMemoryGc());
-            addCpuLoadData(agentStat.getCpuLoad());
+            addAgentStat(agentStat);
         }
     }
 
+    /**
+     * folds the agent stat into the timeslots of the charts. the agent stat is not kept.
+     */
+    public void addAgentStat(AgentStat agentStat) {
+        addMemoryGcData(agentStat.getMemoryGc());
+        addCpuLoadData(agentStat.getCpuLoad());
+    }
+
+    /**
+     * folds the min/max/sum/count of a rollup slot into the timeslot containing the start of the rollup slot.
+     */
+    public void addAgentStatRollup(AgentStatRollupBo rollup) {
+        if (rollup == null) {
+            return;
+        }
+        final long timestamp = rollup.getTimestamp();
+        if (rollup.getGcType() != null) {
+            this.type = rollup.getGcType();
+        }
+        addLongSample(ChartType.JVM_MEMORY_HEAP_USED, timestamp, rollup.getJvmMemoryHeapUsed());
+        addLongSample(ChartType.JVM_MEMORY_HEAP_MAX, timestamp, rollup.getJvmMemoryHeapMax());
+        addLongSample(ChartType.JVM_MEMORY_NON_HEAP_USED, timestamp, rollup.getJvmMemoryNonHeapUsed());
+        addLongSample(ChartType.JVM_MEMORY_NON_HEAP_MAX, timestamp, rollup.getJvmMemoryNonHeapMax());
+        addLongSample(ChartType.JVM_GC_OLD_COUNT, timestamp, rollup.getJvmGcOldCount());
+        addLongSample(ChartType.JVM_GC_OLD_TIME, timestamp, rollup.getJvmGcOldTime());
+        addCpuLoadSample(ChartType.CPU_LOAD_JVM, timestamp, rollup.getJvmCpuLoad());
+        addCpuLoadSample(ChartType.CPU_LOAD_SYSTEM, timestamp, rollup.getSystemCpuLoad());
+    }
+
     public void buildCharts() {
         for (ChartType chartType : ChartType.values()) {
             this.charts.put(chartType, this.chartBuilders.get(chartType).buildChart());
@@ -87,12 +115,12 @@ public class AgentStatChartGroup {
         }
         this.type = data.getGcType();
         long timestamp = data.getTimestamp();
-        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_HEAP_USED)).addDataPoint(new DataPoint<Long, Long>(timestamp, data.getJvmMemoryHeapUsed()));
-        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_HEAP_MAX)).addDataPoint(new DataPoint<Long, Long>(timestamp, data.getJvmMemoryHeapMax()));
-        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_NON_HEAP_USED)).addDataPoint(new DataPoint<Long, Long>(timestamp, data.getJvmMemoryNonHeapUsed()));
-        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_NON_HEAP_MAX)).addDataPoint(new DataPoint<Long, Long>(timestamp, data.getJvmMemoryNonHeapMax()));
-        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_GC_OLD_COUNT)).addDataPoint(new DataPoint<Long, Long>(timestamp, data.getJvmGcOldCount()));
-        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_GC_OLD_TIME)).addDataPoint(new DataPoint<Long, Long>(timestamp, data.getJvmGcOldTime()));
+        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_HEAP_USED)).addDataPoint(timestamp, data.getJvmMemoryHeapUsed());
+        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_HEAP_MAX)).addDataPoint(timestamp, data.getJvmMemoryHeapMax());
+        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_NON_HEAP_USED)).addDataPoint(timestamp, data.getJvmMemoryNonHeapUsed());
+        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_MEMORY_NON_HEAP_MAX)).addDataPoint(timestamp, data.getJvmMemoryNonHeapMax());
+        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_GC_OLD_COUNT)).addDataPoint(timestamp, data.getJvmGcOldCount());
+        ((SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(ChartType.JVM_GC_OLD_TIME)).addDataPoint(timestamp, data.getJvmGcOldTime());
     }
 
     private void addCpuLoadData(AgentStatCpuLoadBo data) {
@@ -102,8 +130,19 @@ public class AgentStatChartGroup {
         long timestamp = data.getTimestamp();
         double jvmCpuLoadPercentage = data.getJvmCpuLoad() * 100;
         double systemCpuLoadPercentage = data.getSystemCpuLoad() * 100;
-        ((SampledTimeSeriesDoubleChartBuilder)this.chartBuilders.get(ChartType.CPU_LOAD_JVM)).addDataPoint(new DataPoint<Long, Double>(timestamp, jvmCpuLoadPercentage));
-        ((SampledTimeSeriesDoubleChartBuilder)this.chartBuilders.get(ChartType.CPU_LOAD_SYSTEM)).addDataPoint(new DataPoint<Long, Double>(timestamp, systemCpuLoadPercentage));
+        ((SampledTimeSeriesDoubleChartBuilder)this.chartBuilders.get(ChartType.CPU_LOAD_JVM)).addDataPoint(timestamp, jvmCpuLoadPercentage);
+        ((SampledTimeSeriesDoubleChartBuilder)this.chartBuilders.get(ChartType.CPU_LOAD_SYSTEM)).addDataPoint(timestamp, systemCpuLoadPercentage);
+    }
+
+    private void addLongSample(ChartType chartType, long timestamp, AgentStatRollupBo.LongStat stat) {
+        SampledTimeSeriesLongChartBuilder chartBuilder = (SampledTimeSeriesLongChartBuilder)this.chartBuilders.get(chartType);
+        chartBuilder.addSample(timestamp, stat.getMin(), stat.getMax(), stat.getSum(), stat.getCount());
+    }
+
+    private void addCpuLoadSample(ChartType chartType, long timestamp, AgentStatRollupBo.DoubleStat stat) {
+        SampledTimeSeriesDoubleChartBuilder chartBuilder = (SampledTimeSeriesDoubleChartBuilder)this.chartBuilders.get(chartType);
+        // cpu load is charted as percentage
+        chartBuilder.addSample(timestamp, stat.getMin() * 100, stat.getMax() * 100, stat.getSum() * 100, stat.getCount());
     }
 
     public String getType() {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+/**
+ * position of the last dot sent by a streaming scatter scan.
+ * the dots of a trace index row are ordered by the column qualifier (transactionId), so (acceptedTime, transactionId) identifies where to resume.
+ *
+ * @author agent
+ */
+public class ScatterCursor {
+
+    private final long acceptedTime;
+    private final TransactionId transactionId;
+
+    public ScatterCursor(long acceptedTime, TransactionId transactionId) {
+        if (transactionId == null) {
+            throw new NullPointerException("transactionId must not be null");
+        }
+        this.acceptedTime = acceptedTime;
+        this.transactionId = transactionId;
+    }
+
+    public static ScatterCursor of(Dot dot) {
+        if (dot == null) {
+            throw new NullPointerException("dot must not be null");
+        }
+        return new ScatterCursor(dot.getAcceptedTime(), new TransactionId(dot.getTransactionId()));
+    }
+
+    public long getAcceptedTime() {
+        return acceptedTime;
+    }
+
+    public TransactionId getTransactionId() {
+        return transactionId;
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterCursor{" +
+                "acceptedTime=" + acceptedTime +
+                ", transactionId=" + transactionId +
+                '}';
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.navercorp.pinpoint.web.view.ScatterHeatmapSerializer;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
+
+/**
+ * density grid of the scatter chart.
+ * x is the acceptedTime bucket, y is the elapsed time bucket. each cell counts the success and the failed transactions.
+ * a cell x covers acceptedTime (from + x * xBucketSize, from + (x + 1) * xBucketSize], the same as the trace index scan.
+ * the last y bucket also counts the transactions slower than maxElapsed.
+ *
+ * @author agent
+ */
+@JsonSerialize(using = ScatterHeatmapSerializer.class)
+public class ScatterHeatmap {
+
+    // bounds the two int[xCount * yCount] arrays of a request
+    public static final int MAX_X_COUNT = 1000;
+    public static final int MAX_Y_COUNT = 500;
+
+    private final long from;
+    private final long to;
+    private final int xCount;
+    private final int yCount;
+    private final long xBucketSize;
+    private final int yBucketSize;
+
+    // index = x * yCount + y
+    private final int[] successCount;
+    private final int[] failedCount;
+
+    public ScatterHeatmap(Range range, int xCount, int yCount, int maxElapsed) {
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (xCount <= 0 || xCount > MAX_X_COUNT) {
+            throw new IllegalArgumentException("xCount out of range. xCount:" + xCount + " max:" + MAX_X_COUNT);
+        }
+        if (yCount <= 0 || yCount > MAX_Y_COUNT) {
+            throw new IllegalArgumentException("yCount out of range. yCount:" + yCount + " max:" + MAX_Y_COUNT);
+        }
+        if (maxElapsed <= 0) {
+            throw new IllegalArgumentException("maxElapsed must be positive. maxElapsed:" + maxElapsed);
+        }
+        this.from = range.getFrom();
+        this.to = range.getTo();
+        this.xCount = xCount;
+        this.yCount = yCount;
+        this.xBucketSize = Math.max(ceil(to - from, xCount), 1);
+        this.yBucketSize = (int) Math.max(ceil(maxElapsed, yCount), 1);
+        this.successCount = new int[xCount * yCount];
+        this.failedCount = new int[xCount * yCount];
+    }
+
+    private static long ceil(long value, int count) {
+        return (value + count - 1) / count;
+    }
+
+    public void addDot(long acceptedTime, int elapsed, boolean failed) {
+        final int index = getX(acceptedTime) * yCount + getY(elapsed);
+        if (failed) {
+            failedCount[index]++;
+        } else {
+            successCount[index]++;
+        }
+    }
+
+    int getX(long acceptedTime) {
+        final long x = (acceptedTime - from - 1) / xBucketSize;
+        if (x < 0) {
+            return 0;
+        }
+        if (x >= xCount) {
+            return xCount - 1;
+        }
+        return (int) x;
+    }
+
+    int getY(int elapsed) {
+        if (elapsed < 0) {
+            return 0;
+        }
+        return Math.min(elapsed / yBucketSize, yCount - 1);
+    }
+
+    /**
+     * @return area of the cell, to drill down to the dots of the cell
+     */
+    public SelectedScatterArea getCellArea(int x, int y) {
+        checkCell(x, y);
+        final long timeFrom = from + x * xBucketSize;
+        final long timeTo = (x == xCount - 1) ? to : Math.min(timeFrom + xBucketSize, to);
+        final int responseFrom = y * yBucketSize;
+        final int responseTo = (y == yCount - 1) ? Integer.MAX_VALUE : responseFrom + yBucketSize - 1;
+        return SelectedScatterArea.createUncheckedArea(timeFrom, timeTo, responseFrom, responseTo);
+    }
+
+    public int getSuccessCount(int x, int y) {
+        checkCell(x, y);
+        return successCount[x * yCount + y];
+    }
+
+    public int getFailedCount(int x, int y) {
+        checkCell(x, y);
+        return failedCount[x * yCount + y];
+    }
+
+    private void checkCell(int x, int y) {
+        if (x < 0 || x >= xCount) {
+            throw new IndexOutOfBoundsException("x:" + x + " xCount:" + xCount);
+        }
+        if (y < 0 || y >= yCount) {
+            throw new IndexOutOfBoundsException("y:" + y + " yCount:" + yCount);
+        }
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < successCount.length; i++) {
+            total += successCount[i] + failedCount[i];
+        }
+        return total;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public int getXCount() {
+        return xCount;
+    }
+
+    public int getYCount() {
+        return yCount;
+    }
+
+    public long getXBucketSize() {
+        return xBucketSize;
+    }
+
+    public int getYBucketSize() {
+        return yBucketSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterHeatmap{" +
+                "from=" + from +
+                ", to=" + to +
+                ", xCount=" + xCount +
+                ", yCount=" + yCount +
+                ", xBucketSize=" + xBucketSize +
+                ", yBucketSize=" + yBucketSize +
+                '}';
+    }
+}
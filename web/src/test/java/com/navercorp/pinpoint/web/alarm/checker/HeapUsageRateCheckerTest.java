@@ -27,6 +27,7 @@ import org.junit.Test;
 
 import com.navercorp.pinpoint.common.bo.AgentStatCpuLoadBo;
 import com.navercorp.pinpoint.common.bo.AgentStatMemoryGcBo;
+import com.navercorp.pinpoint.common.bo.AgentStatRollupResolution;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.web.alarm.CheckerCategory;
 import com.navercorp.pinpoint.web.alarm.DataCollectorFactory;
@@ -40,6 +41,7 @@ import com.navercorp.pinpoint.web.dao.ApplicationIndexDao;
 import com.navercorp.pinpoint.web.vo.AgentStat;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
 
 public class HeapUsageRateCheckerTest {
 
@@ -74,6 +76,16 @@ public class HeapUsageRateCheckerTest {
                 
                 return AgentStatList;
             }
+
+            @Override
+            public int scanAgentStat(String agentId, Range range, AgentStatChartGroup chartGroup) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int scanAgentStatRollup(String agentId, AgentStatRollupResolution resolution, Range range, AgentStatChartGroup chartGroup) {
+                throw new UnsupportedOperationException();
+            }
         };
         
         applicationIndexDao = new ApplicationIndexDao() {
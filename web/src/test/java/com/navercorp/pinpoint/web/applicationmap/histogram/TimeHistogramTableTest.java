@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.applicationmap.histogram;
+
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.trace.SlotType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.util.TimeWindowDownSampler;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class TimeHistogramTableTest {
+
+    private static final long MINUTE = 60 * 1000;
+
+    private final HistogramSchema schema = ServiceType.STAND_ALONE.getHistogramSchema();
+    private final TimeWindow window = new TimeWindow(new Range(0, 4 * MINUTE), TimeWindowDownSampler.SAMPLER);
+
+    private final Application agent1 = new Application("agent1", ServiceType.STAND_ALONE);
+    private final Application agent2 = new Application("agent2", ServiceType.STAND_ALONE);
+
+    @Test
+    public void addCallCount() {
+        TimeHistogramTable table = new TimeHistogramTable(schema, window);
+        table.addCallCount(agent1, 0, schema.getFastSlot().getSlotTime(), 1);
+        table.addCallCount(agent1, MINUTE + 10, schema.getFastSlot().getSlotTime(), 2);
+        table.addCallCount(agent2, MINUTE, schema.getErrorSlot().getSlotTime(), 3);
+        // out of the window, dropped
+        table.addCallCount(agent2, 10 * MINUTE, schema.getVerySlowSlot().getSlotTime(), 4);
+        table.addCallCount(agent2, -MINUTE, schema.getVerySlowSlot().getSlotTime(), 5);
+
+        Assert.assertEquals(5, table.getTimeSize());
+        Assert.assertEquals(2, table.getAgentSize());
+        Assert.assertArrayEquals(new long[]{0, MINUTE, 2 * MINUTE, 3 * MINUTE, 4 * MINUTE}, table.getTimeStamps());
+
+        Assert.assertArrayEquals(new long[]{1, 2, 0, 0, 0}, table.getTimeSeries(SlotType.FAST));
+        Assert.assertArrayEquals(new long[]{0, 3, 0, 0, 0}, table.getTimeSeries(SlotType.ERROR));
+        Assert.assertArrayEquals(new long[]{0, 0, 0, 0, 0}, table.getAgentTimeSeries(1, SlotType.VERY_SLOW));
+        Assert.assertArrayEquals(new long[]{0, 0, 0, 0, 0}, table.getAgentTimeSeries(0, SlotType.VERY_SLOW));
+
+        Histogram histogram = table.getAgentHistogram(1);
+        Assert.assertEquals(3, histogram.getErrorCount());
+        Assert.assertEquals(0, histogram.getVerySlowCount());
+        Assert.assertEquals(3, histogram.getTotalCount());
+    }
+
+    @Test
+    public void merge() {
+        TimeHistogramTable table = new TimeHistogramTable(schema, window);
+        TimeHistogram timeHistogram = new TimeHistogram(schema, 2 * MINUTE);
+        timeHistogram.addCallCount(schema.getNormalSlot().getSlotTime(), 5);
+        table.add(agent1, timeHistogram);
+
+        TimeHistogramTable other = new TimeHistogramTable(schema, window);
+        other.add(agent2, timeHistogram);
+        other.add(agent1, timeHistogram);
+
+        table.merge(other);
+        Assert.assertEquals(2, table.getAgentSize());
+        Assert.assertArrayEquals(new long[]{0, 0, 10, 0, 0}, table.getAgentTimeSeries(0, SlotType.NORMAL));
+        Assert.assertArrayEquals(new long[]{0, 0, 5, 0, 0}, table.getAgentTimeSeries(1, SlotType.NORMAL));
+        Assert.assertArrayEquals(new long[]{0, 0, 15, 0, 0}, table.getTimeSeries(SlotType.NORMAL));
+    }
+
+    @Test
+    public void dropOutOfWindow() {
+        TimeHistogramTable table = new TimeHistogramTable(schema, window);
+        TimeHistogram timeHistogram = new TimeHistogram(schema, 5 * MINUTE);
+        timeHistogram.addCallCount(schema.getNormalSlot().getSlotTime(), 5);
+        table.add(agent1, timeHistogram);
+
+        // the agent is kept with an empty series
+        Assert.assertEquals(1, table.getAgentSize());
+        Assert.assertArrayEquals(new long[]{0, 0, 0, 0, 0}, table.getTimeSeries(SlotType.NORMAL));
+        Assert.assertEquals(0, table.getAgentHistogram(0).getTotalCount());
+    }
+
+    @Test
+    public void growAgent() {
+        TimeHistogramTable table = new TimeHistogramTable(schema, window);
+        for (int i = 0; i < 100; i++) {
+            table.addCallCount(new Application("agent" + i, ServiceType.STAND_ALONE), 3 * MINUTE, schema.getSlowSlot().getSlotTime(), i);
+        }
+        Assert.assertEquals(100, table.getAgentSize());
+        Assert.assertEquals(99, table.getAgentTimeSeries(99, SlotType.SLOW)[3]);
+        Assert.assertEquals(99 * 100 / 2, table.getTimeSeries(SlotType.SLOW)[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeOtherWindow() {
+        TimeHistogramTable table = new TimeHistogramTable(schema, window);
+        TimeHistogramTable other = new TimeHistogramTable(schema, new TimeWindow(new Range(0, 10 * MINUTE), TimeWindowDownSampler.SAMPLER));
+        table.merge(other);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.hbase.ResultCallback;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterCursor;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.hadoop.hbase.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author agent
+ */
+public class DotStreamResultsExtractorTest {
+
+    // row(i) has 3 dots of acceptedTime 1000 - i
+    private final RowMapper<List<Dot>> rowMapper = new RowMapper<List<Dot>>() {
+        @Override
+        public List<Dot> mapRow(Result result, int rowNum) throws Exception {
+            final long acceptedTime = 1000 - rowNum;
+            List<Dot> dotList = new ArrayList<Dot>();
+            for (int i = 0; i < 3; i++) {
+                dotList.add(new Dot(new TransactionId("agent", 0, rowNum * 10 + i), acceptedTime, i, 0, "agent"));
+            }
+            return dotList;
+        }
+    };
+
+    @Test
+    public void limit() throws Exception {
+        CollectCallback callback = new CollectCallback();
+        DotStreamResultsExtractor extractor = new DotStreamResultsExtractor(rowMapper, 5, null, callback);
+
+        ScatterCursor cursor = extractor.extractData(createScanner(3));
+
+        Assert.assertEquals(5, callback.dotList.size());
+        Assert.assertEquals(2, callback.batchCount);
+        Assert.assertNotNull(cursor);
+        Assert.assertEquals(999, cursor.getAcceptedTime());
+        Assert.assertEquals(new TransactionId("agent", 0, 11), cursor.getTransactionId());
+    }
+
+    @Test
+    public void resumeFromCursor() throws Exception {
+        CollectCallback callback = new CollectCallback();
+        // the dao scans again from the row of the cursor
+        ScatterCursor cursor = new ScatterCursor(1000, new TransactionId("agent", 0, 1));
+        DotStreamResultsExtractor extractor = new DotStreamResultsExtractor(rowMapper, 100, cursor, callback);
+
+        ScatterCursor next = extractor.extractData(createScanner(2));
+
+        Assert.assertNull(next);
+        Assert.assertEquals(4, callback.dotList.size());
+        Assert.assertEquals(new TransactionId("agent", 0, 2).getFormatString(), callback.dotList.get(0).getTransactionId());
+    }
+
+    @Test
+    public void complete() throws Exception {
+        CollectCallback callback = new CollectCallback();
+        DotStreamResultsExtractor extractor = new DotStreamResultsExtractor(rowMapper, 100, null, callback);
+
+        Assert.assertNull(extractor.extractData(createScanner(2)));
+        Assert.assertEquals(6, callback.dotList.size());
+    }
+
+    private ResultScanner createScanner(int rowSize) {
+        Result[] results = new Result[rowSize];
+        for (int i = 0; i < rowSize; i++) {
+            results[i] = new Result();
+        }
+        ResultScanner scanner = mock(ResultScanner.class);
+        when(scanner.iterator()).thenReturn(Arrays.asList(results).iterator());
+        return scanner;
+    }
+
+    private static class CollectCallback implements ResultCallback<List<Dot>> {
+        private final List<Dot> dotList = new ArrayList<Dot>();
+        private int batchCount;
+
+        @Override
+        public void onResult(int index, List<Dot> result) {
+            dotList.addAll(result);
+            batchCount++;
+        }
+    }
+}
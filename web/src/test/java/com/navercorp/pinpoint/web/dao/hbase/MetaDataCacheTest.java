@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.bo.StringMetaDataBo;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author agent
+ */
+public class MetaDataCacheTest {
+
+    private static final MetaDataCache.ValueWeigher<StringMetaDataBo> WEIGHER = new MetaDataCache.ValueWeigher<StringMetaDataBo>() {
+        @Override
+        public int weigh(StringMetaDataBo value) {
+            return value.getStringValue().length();
+        }
+    };
+
+    @Test
+    public void getAll() {
+        MetaDataCache<StringMetaDataBo> cache = new MetaDataCache<StringMetaDataBo>(1024 * 1024, WEIGHER);
+        CountingLoader loader = new CountingLoader();
+
+        MetaDataKey key1 = new MetaDataKey("agent", 1, 1);
+        MetaDataKey key2 = new MetaDataKey("agent", 1, 2);
+        Map<MetaDataKey, List<StringMetaDataBo>> result = cache.getAll(Arrays.asList(key1, key2, key1), loader);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("1", result.get(key1).get(0).getStringValue());
+        Assert.assertEquals(1, loader.loadCount);
+        Assert.assertEquals(2, loader.keyCount);
+
+        // only the missing key is loaded
+        MetaDataKey key3 = new MetaDataKey("agent", 1, 3);
+        result = cache.getAll(Arrays.asList(key1, key2, key3), loader);
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(2, loader.loadCount);
+        Assert.assertEquals(3, loader.keyCount);
+
+        List<StringMetaDataBo> single = cache.get(key2, loader);
+        Assert.assertEquals("2", single.get(0).getStringValue());
+        Assert.assertEquals(2, loader.loadCount);
+    }
+
+    @Test
+    public void notFoundIsNotCached() {
+        MetaDataCache<StringMetaDataBo> cache = new MetaDataCache<StringMetaDataBo>(1024 * 1024, WEIGHER);
+        CountingLoader loader = new CountingLoader();
+        loader.notFoundId = 1;
+
+        MetaDataKey key = new MetaDataKey("agent", 1, 1);
+        Assert.assertTrue(cache.get(key, loader).isEmpty());
+        Assert.assertTrue(cache.get(key, loader).isEmpty());
+        Assert.assertEquals(2, loader.loadCount);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictByWeight() {
+        // room for a few entries only
+        MetaDataCache<StringMetaDataBo> cache = new MetaDataCache<StringMetaDataBo>(1024, WEIGHER);
+        CountingLoader loader = new CountingLoader();
+        for (int i = 0; i < 100; i++) {
+            cache.get(new MetaDataKey("agent", 1, i), loader);
+        }
+        Assert.assertTrue(cache.size() < 100);
+    }
+
+    private static class CountingLoader implements MetaDataCache.Loader<StringMetaDataBo> {
+        private int loadCount;
+        private int keyCount;
+        private int notFoundId = -1;
+
+        @Override
+        public List<List<StringMetaDataBo>> load(List<MetaDataKey> keyList) {
+            loadCount++;
+            keyCount += keyList.size();
+            List<List<StringMetaDataBo>> result = new ArrayList<List<StringMetaDataBo>>(keyList.size());
+            for (MetaDataKey key : keyList) {
+                if (key.getId() == notFoundId) {
+                    result.add(Collections.<StringMetaDataBo>emptyList());
+                    continue;
+                }
+                StringMetaDataBo stringMetaDataBo = new StringMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+                stringMetaDataBo.setStringValue(String.valueOf(key.getId()));
+                result.add(Collections.singletonList(stringMetaDataBo));
+            }
+            return result;
+        }
+    }
+}
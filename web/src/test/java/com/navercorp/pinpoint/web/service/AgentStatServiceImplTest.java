@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.bo.AgentStatRollupResolution;
+import com.navercorp.pinpoint.web.dao.AgentStatDao;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.linechart.agentstat.AgentStatChartGroup;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * @author agent
+ */
+public class AgentStatServiceImplTest {
+
+    private static final long MINUTE = 60 * 1000;
+
+    @Mock
+    private AgentStatDao agentStatDao;
+
+    @InjectMocks
+    private AgentStatServiceImpl agentStatService = new AgentStatServiceImpl();
+
+    private final AgentStatChartGroup chartGroup = new AgentStatChartGroup(new TimeWindow(new Range(0, MINUTE)));
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        agentStatService.setRollupEnable(true);
+        agentStatService.setRollupDelay(2 * MINUTE);
+    }
+
+    @Test
+    public void splitRollupAndRaw() {
+        // closed rollup slots : 1 ~ 6 minute. 7 minute slot is not flushed yet
+        final Range range = new Range(30 * 1000, 9 * MINUTE + 30 * 1000);
+        agentStatService.scanAgentStat("agent", range, 5 * MINUTE, chartGroup, 9 * MINUTE + 10 * 1000);
+
+        verify(agentStatDao).scanAgentStat("agent", new Range(30 * 1000, MINUTE - 1), chartGroup);
+        verify(agentStatDao).scanAgentStatRollup("agent", AgentStatRollupResolution.MINUTE, new Range(MINUTE, 7 * MINUTE), chartGroup);
+        verify(agentStatDao).scanAgentStat("agent", new Range(7 * MINUTE - 1, 9 * MINUTE + 30 * 1000), chartGroup);
+        verifyNoMoreInteractions(agentStatDao);
+    }
+
+    @Test
+    public void coarsestResolution() {
+        final long hour = 60 * MINUTE;
+        final Range range = new Range(0, 10 * hour);
+        agentStatService.scanAgentStat("agent", range, 2 * hour, chartGroup, 20 * hour);
+
+        verify(agentStatDao).scanAgentStatRollup("agent", AgentStatRollupResolution.HOUR, range, chartGroup);
+    }
+
+    @Test
+    public void rawOnly() {
+        final Range range = new Range(0, 10 * MINUTE);
+        // a chart slot is finer than any rollup resolution
+        agentStatService.scanAgentStat("agent", range, 5000, chartGroup, 20 * MINUTE);
+        verify(agentStatDao).scanAgentStat("agent", range, chartGroup);
+
+        agentStatService.setRollupEnable(false);
+        agentStatService.scanAgentStat("agent", range, 5 * MINUTE, chartGroup, 20 * MINUTE);
+        verify(agentStatDao, never()).scanAgentStatRollup(eq("agent"), any(AgentStatRollupResolution.class), any(Range.class), any(AgentStatChartGroup.class));
+    }
+}
@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.web.service;
 
 import com.navercorp.pinpoint.common.trace.HistogramSchema;
 import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
 import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
 import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
 import com.navercorp.pinpoint.web.dao.HostApplicationMapDao;
@@ -25,13 +26,19 @@ import com.navercorp.pinpoint.web.dao.MapStatisticsCalleeDao;
 import com.navercorp.pinpoint.web.dao.MapStatisticsCallerDao;
 import com.navercorp.pinpoint.web.service.map.AcceptApplication;
 import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.LinkKey;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SearchOption;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.mock;
@@ -105,5 +112,69 @@ public class BFSLinkSelectorTest {
 
 
 
-}
+    @Test
+    public void testConcurrentSelect() throws Exception {
+        // APP_A -> APP_B -> APP_C -> APP_D, APP_E -> APP_A
+        final Application appA = new Application("APP_A", ServiceType.STAND_ALONE);
+        final Application appB = new Application("APP_B", ServiceType.STAND_ALONE);
+        final Application appC = new Application("APP_C", ServiceType.STAND_ALONE);
+        final Application appD = new Application("APP_D", ServiceType.STAND_ALONE);
+        final Application appE = new Application("APP_E", ServiceType.STAND_ALONE);
+        final short slot = HistogramSchema.FAST_SCHEMA.getNormalSlot().getSlotTime();
+
+        when(callerDao.selectCaller((Application) anyObject(), (Range) anyObject())).thenAnswer(new Answer<LinkDataMap>() {
+            @Override
+            public LinkDataMap answer(InvocationOnMock invocation) throws Throwable {
+                Application caller = (Application) invocation.getArguments()[0];
+                LinkDataMap linkDataMap = new LinkDataMap();
+                if (caller.equals(appA)) {
+                    linkDataMap.addLinkData(appA, "agentA", appB, "agentB", 1000, slot, 1);
+                } else if (caller.equals(appB)) {
+                    linkDataMap.addLinkData(appB, "agentB", appC, "agentC", 1000, slot, 1);
+                } else if (caller.equals(appC)) {
+                    linkDataMap.addLinkData(appC, "agentC", appD, "agentD", 1000, slot, 1);
+                }
+                return linkDataMap;
+            }
+        });
+        when(calleeDao.selectCallee((Application) anyObject(), (Range) anyObject())).thenAnswer(new Answer<LinkDataMap>() {
+            @Override
+            public LinkDataMap answer(InvocationOnMock invocation) throws Throwable {
+                Application callee = (Application) invocation.getArguments()[0];
+                LinkDataMap linkDataMap = new LinkDataMap();
+                if (callee.equals(appA)) {
+                    linkDataMap.addLinkData(appE, "agentE", appA, "agentA", 1000, slot, 1);
+                }
+                return linkDataMap;
+            }
+        });
+        when(hostApplicationMapDao.findAcceptApplicationName((Application) anyObject(), (Range) anyObject())).thenReturn(new HashSet<AcceptApplication>());
+
+        SearchOption option = new SearchOption(2, 2);
+        LinkDataDuplexMap expected = new BFSLinkSelector(this.callerDao, this.calleeDao, hostApplicationMapDao).select(appA, range, option);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            LinkDataDuplexMap actual = new BFSLinkSelector(this.callerDao, this.calleeDao, hostApplicationMapDao, executor).select(appA, range, option);
 
+            // depth 2 stops before APP_C -> APP_D
+            Assert.assertEquals(getLinkKeySet(expected), getLinkKeySet(actual));
+            Assert.assertEquals(3, getLinkKeySet(actual).size());
+            Assert.assertNull(actual.getSourceLinkData(new LinkKey(appC, appD)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Set<LinkKey> getLinkKeySet(LinkDataDuplexMap linkDataDuplexMap) {
+        Set<LinkKey> linkKeySet = new HashSet<LinkKey>();
+        for (LinkData linkData : linkDataDuplexMap.getSourceLinkDataList()) {
+            linkKeySet.add(new LinkKey(linkData.getFromApplication(), linkData.getToApplication()));
+        }
+        for (LinkData linkData : linkDataDuplexMap.getTargetLinkDataList()) {
+            linkKeySet.add(new LinkKey(linkData.getFromApplication(), linkData.getToApplication()));
+        }
+        return linkKeySet;
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.DefaultTimeSlot;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkCallData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.dao.HostApplicationMapDao;
+import com.navercorp.pinpoint.web.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.web.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.web.service.BFSLinkSelector;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.LinkKey;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.SearchOption;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author agent
+ */
+public class LinkDataMapCacheTest {
+
+    private static final long MINUTE = 60 * 1000;
+
+    private final TimeSlot timeSlot = new DefaultTimeSlot();
+
+    private final Application from = new Application("from", ServiceType.STAND_ALONE);
+    private final Application to = new Application("to", ServiceType.STAND_ALONE);
+
+    @Test
+    public void slidingRange() {
+        LinkDataMapCache cache = new LinkDataMapCache(timeSlot, 1024 * 1024, MINUTE, 10 * MINUTE);
+        RecordLoader loader = new RecordLoader();
+
+        // slot 0 ~ 4 are closed, slot 5 is open
+        LinkDataMap first = cache.get(LinkDataMapCache.LinkDirection.CALLER, from, new Range(10, 5 * MINUTE + 10), loader, 6 * MINUTE + 30 * 1000);
+        Assert.assertEquals(1, loader.rangeList.size());
+        Assert.assertEquals(new Range(0, 5 * MINUTE), loader.rangeList.get(0));
+        Assert.assertEquals(6, getCallCount(first));
+        Assert.assertEquals(5, cache.size());
+
+        // a minute later. slot 1 ~ 4 are cached, slot 5 is closed now and slot 6 is open
+        LinkDataMap second = cache.get(LinkDataMapCache.LinkDirection.CALLER, from, new Range(MINUTE + 10, 6 * MINUTE + 10), loader, 7 * MINUTE + 30 * 1000);
+        Assert.assertEquals(2, loader.rangeList.size());
+        Assert.assertEquals(new Range(5 * MINUTE, 6 * MINUTE), loader.rangeList.get(1));
+        Assert.assertEquals(6, getCallCount(second));
+        Assert.assertEquals(6, cache.size());
+
+        Assert.assertEquals(4, cache.getStats().hitCount());
+        Assert.assertEquals(6, cache.getStats().missCount());
+        Assert.assertEquals(2, cache.getSelectCount());
+    }
+
+    @Test
+    public void missingSlotBetweenCachedSlot() {
+        LinkDataMapCache cache = new LinkDataMapCache(timeSlot, 1024 * 1024, MINUTE, 10 * MINUTE);
+        RecordLoader loader = new RecordLoader();
+        final long currentTime = 10 * MINUTE;
+
+        cache.get(LinkDataMapCache.LinkDirection.CALLER, from, new Range(0, MINUTE), loader, currentTime);
+        cache.get(LinkDataMapCache.LinkDirection.CALLER, from, new Range(4 * MINUTE, 5 * MINUTE), loader, currentTime);
+
+        LinkDataMap result = cache.get(LinkDataMapCache.LinkDirection.CALLER, from, new Range(0, 5 * MINUTE), loader, currentTime);
+        Assert.assertEquals(3, loader.rangeList.size());
+        Assert.assertEquals(new Range(2 * MINUTE, 3 * MINUTE), loader.rangeList.get(2));
+        Assert.assertEquals(6, getCallCount(result));
+    }
+
+    @Test
+    public void emptyClosedSlot() {
+        LinkDataMapCache cache = new LinkDataMapCache(timeSlot, 1024 * 1024, MINUTE, 10 * MINUTE);
+        final List<Range> rangeList = new ArrayList<Range>();
+        LinkDataMapCache.Loader emptyLoader = new LinkDataMapCache.Loader() {
+            @Override
+            public LinkDataMap load(Range range) {
+                rangeList.add(range);
+                return new LinkDataMap();
+            }
+        };
+        final Range range = new Range(0, 5 * MINUTE);
+
+        cache.get(LinkDataMapCache.LinkDirection.CALLER, from, range, emptyLoader, 6 * MINUTE + 30 * 1000);
+        cache.get(LinkDataMapCache.LinkDirection.CALLER, from, range, emptyLoader, 6 * MINUTE + 30 * 1000);
+        // only the open slot is selected again
+        Assert.assertEquals(2, rangeList.size());
+        Assert.assertEquals(new Range(5 * MINUTE, 5 * MINUTE), rangeList.get(1));
+    }
+
+    @Test
+    public void cachedMapNotModified() {
+        LinkDataMapCache cache = new LinkDataMapCache(timeSlot, 1024 * 1024, MINUTE, 10 * MINUTE);
+        RecordLoader loader = new RecordLoader();
+        final Range range = new Range(0, 2 * MINUTE);
+
+        LinkDataMap first = cache.get(LinkDataMapCache.LinkDirection.CALLER, from, range, loader, 10 * MINUTE);
+        first.addLinkDataMap(loader.load(range));
+        first.getLinkData(new LinkKey(from, to)).resetLinkData();
+
+        Assert.assertEquals(3, getCallCount(cache.get(LinkDataMapCache.LinkDirection.CALLER, from, range, loader, 10 * MINUTE)));
+    }
+
+    @Test
+    public void directionKey() {
+        LinkDataMapCache cache = new LinkDataMapCache(timeSlot, 1024 * 1024, MINUTE, 10 * MINUTE);
+        RecordLoader loader = new RecordLoader();
+        final Range range = new Range(0, 2 * MINUTE);
+
+        cache.get(LinkDataMapCache.LinkDirection.CALLER, from, range, loader, 10 * MINUTE);
+        cache.get(LinkDataMapCache.LinkDirection.CALLEE, from, range, loader, 10 * MINUTE);
+        Assert.assertEquals(2, loader.rangeList.size());
+        Assert.assertEquals(6, cache.size());
+    }
+
+    @Test
+    public void linkSearchOverClosedAndOpenSlot() {
+        final Application middle = new Application("middle", ServiceType.STAND_ALONE);
+        final long currentTime = System.currentTimeMillis();
+        final long closedSlot = timeSlot.getTimeSlot(currentTime - 5 * MINUTE);
+        final long openSlot = timeSlot.getTimeSlot(currentTime);
+        final Range range = new Range(currentTime - 10 * MINUTE, currentTime);
+
+        // from -> middle is called only in a closed slot, middle -> to only in the open slot
+        final SlotCallerDao callerDao = new SlotCallerDao();
+        callerDao.add(from, middle, closedSlot);
+        callerDao.add(middle, to, openSlot);
+        MapStatisticsCalleeDao calleeDao = mock(MapStatisticsCalleeDao.class);
+        when(calleeDao.selectCallee((Application) anyObject(), (Range) anyObject())).thenReturn(new LinkDataMap());
+        HostApplicationMapDao hostApplicationMapDao = mock(HostApplicationMapDao.class);
+
+        LinkDataMapCache cache = new LinkDataMapCache(timeSlot, 1024 * 1024, MINUTE, 10 * MINUTE);
+        MapStatisticsCallerDao cachedCallerDao = new CachedMapStatisticsCallerDao(callerDao, cache);
+        MapStatisticsCalleeDao cachedCalleeDao = new CachedMapStatisticsCalleeDao(calleeDao, cache);
+
+        for (int i = 0; i < 2; i++) {
+            LinkDataDuplexMap result = new BFSLinkSelector(cachedCallerDao, cachedCalleeDao, hostApplicationMapDao).select(from, range, new SearchOption(2, 0));
+            Assert.assertNotNull(result.getSourceLinkData(new LinkKey(from, middle)));
+            Assert.assertNotNull(result.getSourceLinkData(new LinkKey(middle, to)));
+            Assert.assertEquals(2, result.size());
+        }
+        Assert.assertTrue(cache.getStats().hitCount() > 0);
+    }
+
+    private long getCallCount(LinkDataMap linkDataMap) {
+        LinkData linkData = linkDataMap.getLinkData(new LinkKey(from, to));
+        long count = 0;
+        for (LinkCallData linkCallData : linkData.getLinkCallDataMap().getLinkDataList()) {
+            for (TimeHistogram timeHistogram : linkCallData.getTimeHistogram()) {
+                count += timeHistogram.getTotalCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * a call in every slot of the range
+     */
+    private class RecordLoader implements LinkDataMapCache.Loader {
+        private final List<Range> rangeList = new ArrayList<Range>();
+
+        @Override
+        public LinkDataMap load(Range range) {
+            rangeList.add(range);
+            LinkDataMap linkDataMap = new LinkDataMap();
+            for (long slot = timeSlot.getTimeSlot(range.getFrom()); slot <= range.getTo(); slot += MINUTE) {
+                linkDataMap.addLinkData(from, "fromAgent", to, "toAgent", slot, (short) 100, 1);
+            }
+            return linkDataMap;
+        }
+    }
+
+    private class SlotCallerDao implements MapStatisticsCallerDao {
+        private final List<LinkData> linkDataList = new ArrayList<LinkData>();
+
+        private void add(Application caller, Application callee, long slot) {
+            LinkData linkData = new LinkData(caller, callee);
+            linkData.addLinkData(caller.getName(), caller.getServiceType(), callee.getName(), callee.getServiceType(), slot, (short) 100, 1);
+            linkDataList.add(linkData);
+        }
+
+        @Override
+        public LinkDataMap selectCaller(Application callerApplication, Range range) {
+            final long fromSlot = timeSlot.getTimeSlot(range.getFrom());
+            final long toSlot = timeSlot.getTimeSlot(range.getTo());
+            LinkDataMap linkDataMap = new LinkDataMap();
+            for (LinkData linkData : linkDataList) {
+                final long slot = linkData.getLinkCallDataMap().getLinkDataList().iterator().next().getTimeHistogram().iterator().next().getTimeStamp();
+                if (linkData.getFromApplication().equals(callerApplication) && fromSlot <= slot && slot <= toSlot) {
+                    linkDataMap.addLinkData(linkData);
+                }
+            }
+            return linkDataMap;
+        }
+
+        @Override
+        public List<LinkDataMap> selectCallerStatistics(Application callerApplication, Application calleeApplication, Range range) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.linechart;
+
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.util.TimeWindowSlotCentricSampler;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author agent
+ */
+public class SampledTimeSeriesChartBuilderTest {
+
+    private static final long SLOT_SIZE = 5000;
+
+    private final TimeWindow timeWindow = new TimeWindow(new Range(0, 3 * SLOT_SIZE), new TimeWindowSlotCentricSampler(SLOT_SIZE, 4));
+
+    @Test
+    public void sampleLong() {
+        SampledTimeSeriesLongChartBuilder builder = new SampledTimeSeriesLongChartBuilder(timeWindow, -1);
+        builder.addDataPoint(0, 10);
+        builder.addDataPoint(1000, 30);
+        builder.addDataPoint(new DataPoint<Long, Long>(2000L, 5L));
+        builder.addDataPoint(2 * SLOT_SIZE, 7);
+        // out of the window
+        builder.addDataPoint(100 * SLOT_SIZE, 1000);
+        Assert.assertEquals(4, builder.numDataPoints());
+
+        List<Chart.Point> points = builder.buildChart().getPoints();
+        Assert.assertEquals(timeWindow.getWindowRangeCount(), points.size());
+        assertPoint(points.get(0), 0, 5L, 30L, 15L);
+        assertPoint(points.get(1), SLOT_SIZE, -1L, -1L, -1L);
+        assertPoint(points.get(2), 2 * SLOT_SIZE, 7L, 7L, 7L);
+    }
+
+    @Test
+    public void sampleDouble() {
+        SampledTimeSeriesDoubleChartBuilder builder = new SampledTimeSeriesDoubleChartBuilder(timeWindow);
+        builder.addDataPoint(SLOT_SIZE, 1.0);
+        builder.addDataPoint(SLOT_SIZE + 1, 2.0);
+
+        List<Chart.Point> points = builder.buildChart().getPoints();
+        assertPoint(points.get(0), 0, 0D, 0D, 0D);
+        assertPoint(points.get(1), SLOT_SIZE, 1.0, 2.0, 1.5);
+    }
+
+    @Test
+    public void addSample() {
+        SampledTimeSeriesLongChartBuilder builder = new SampledTimeSeriesLongChartBuilder(timeWindow);
+        builder.addDataPoint(0, 20);
+        // rollup of 3 data points
+        builder.addSample(1000, 10, 50, 90, 3);
+        builder.addSample(SLOT_SIZE, 1, 1, 0, 0);
+
+        List<Chart.Point> points = builder.buildChart().getPoints();
+        assertPoint(points.get(0), 0, 10L, 50L, 27L);
+        assertPoint(points.get(1), SLOT_SIZE, 0L, 0L, 0L);
+    }
+
+    private void assertPoint(Chart.Point point, long timestamp, Number min, Number max, Number avg) {
+        Assert.assertEquals(timestamp, point.getTimestamp().longValue());
+        Assert.assertEquals(min, point.getMinVal());
+        Assert.assertEquals(max, point.getMaxVal());
+        Assert.assertEquals(avg, point.getAvgVal());
+    }
+}
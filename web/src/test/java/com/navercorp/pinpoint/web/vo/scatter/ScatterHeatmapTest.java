@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ScatterHeatmapTest {
+
+    @Test
+    public void addDot() {
+        ScatterHeatmap heatmap = new ScatterHeatmap(new Range(1000, 2000), 10, 5, 500);
+        Assert.assertEquals(100, heatmap.getXBucketSize());
+        Assert.assertEquals(100, heatmap.getYBucketSize());
+
+        // (from, from + 100] is the first bucket
+        heatmap.addDot(1001, 0, false);
+        heatmap.addDot(1100, 99, true);
+        heatmap.addDot(1101, 100, false);
+        // slower than maxElapsed
+        heatmap.addDot(2000, 100000, false);
+
+        Assert.assertEquals(1, heatmap.getSuccessCount(0, 0));
+        Assert.assertEquals(1, heatmap.getFailedCount(0, 0));
+        Assert.assertEquals(1, heatmap.getSuccessCount(1, 1));
+        Assert.assertEquals(1, heatmap.getSuccessCount(9, 4));
+        Assert.assertEquals(4, heatmap.getTotalCount());
+    }
+
+    @Test
+    public void cellArea() {
+        ScatterHeatmap heatmap = new ScatterHeatmap(new Range(1000, 2000), 10, 5, 500);
+
+        SelectedScatterArea first = heatmap.getCellArea(0, 1);
+        Assert.assertEquals(new Range(1000, 1100), first.getTimeRange());
+        Assert.assertEquals(100, first.getResponseTimeRange().getFrom());
+        Assert.assertEquals(199, first.getResponseTimeRange().getTo());
+
+        SelectedScatterArea last = heatmap.getCellArea(9, 4);
+        Assert.assertEquals(new Range(1900, 2000), last.getTimeRange());
+        Assert.assertEquals(Integer.MAX_VALUE, last.getResponseTimeRange().getTo());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLargeGrid() {
+        new ScatterHeatmap(new Range(1000, 2000), ScatterHeatmap.MAX_X_COUNT + 1, ScatterHeatmap.MAX_Y_COUNT, 500);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void invalidCell() {
+        ScatterHeatmap heatmap = new ScatterHeatmap(new Range(1000, 2000), 10, 5, 500);
+        heatmap.getCellArea(10, 0);
+    }
+}